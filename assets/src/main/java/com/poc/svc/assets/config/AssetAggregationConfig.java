@@ -1,38 +1,113 @@
 package com.poc.svc.assets.config;
 
+import com.poc.svc.assets.service.AggregationExecutor;
 import com.poc.svc.assets.service.AssetAggregationService;
 import com.poc.svc.assets.service.CurrencyConversionService;
+import com.poc.svc.assets.service.StagingAggregationEngine;
 import com.poc.svc.assets.service.impl.DefaultCurrencyConversionService;
+import com.poc.svc.assets.service.impl.InProcessStagingAggregationEngine;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.http.client.ClientHttpRequestFactory;
 import org.springframework.web.client.RestTemplate;
 import org.springframework.boot.web.client.RestTemplateBuilder;
 
-import java.time.Duration;
+import java.math.BigDecimal;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
 
 @Configuration
-@EnableConfigurationProperties({AssetAggregationProperties.class, CurrencyConversionProperties.class})
+@EnableConfigurationProperties({AssetAggregationProperties.class, CurrencyConversionProperties.class, AssetsIngestionProperties.class,
+        AssetsSnapshotCacheProperties.class, AssetsAdaptiveTimeoutProperties.class})
 public class AssetAggregationConfig {
 
     @Bean
     public AssetAggregationService.AggregationProperties aggregationProperties(AssetAggregationProperties properties) {
         return new AssetAggregationService.AggregationProperties(
                 properties.getTimeout(),
-                properties.getPipelineName()
+                properties.getPipelineName(),
+                properties.isSingleFlightEnabled()
         );
     }
 
+    @Bean
+    public StagingAggregationEngine stagingAggregationEngine(AssetAggregationProperties properties,
+                                                             AggregationExecutor aggregationExecutor,
+                                                             MongoTemplate mongoTemplate,
+                                                             CurrencyConversionProperties currencyProperties,
+                                                             CurrencyConversionService currencyConversionService,
+                                                             AssetsRawWriteProperties rawWriteProperties) {
+        if (properties.getEngine() == AssetAggregationProperties.Engine.IN_PROCESS) {
+            return new InProcessStagingAggregationEngine(mongoTemplate, currencyConversionService, properties.getBaseCurrency());
+        }
+        requirePipelineReadablePayload(rawWriteProperties.getPayload());
+        return StagingAggregationEngine.pipeline(aggregationExecutor, properties.getPipelineName(), properties.getBaseCurrency(),
+                ratesTo(properties.getBaseCurrency(), currencyProperties, currencyConversionService));
+    }
+
+    /**
+     * pipeline 於 server 端讀取 raw 文件的 {@code payload}；{@code COMPRESSED} 且未保留任何欄位時 pipeline 只會看到空的 payload，
+     * 啟動時即拒絕，而非產出缺少明細的 staging。
+     */
+    static void requirePipelineReadablePayload(AssetsRawWriteProperties.Payload payload) {
+        if (payload.getFormat() == AssetsRawWriteProperties.Payload.Format.COMPRESSED
+                && payload.getRetainedKeys().stream().noneMatch(key -> key != null && !key.isBlank())) {
+            throw new IllegalStateException("assets.raw-write.payload.format=COMPRESSED with assets.aggregation.engine=PIPELINE "
+                    + "requires assets.raw-write.payload.retained-keys to list the payload fields the pipeline reads");
+        }
+    }
+
+    /**
+     * {@code assets.currency.rates} 中出現的幣別換算為基準幣別的匯率表（pipeline 的 {@code $$rates}），無法換算的幣別略過。
+     */
+    static Map<String, BigDecimal> ratesTo(String baseCurrency,
+                                           CurrencyConversionProperties currencyProperties,
+                                           CurrencyConversionService currencyConversionService) {
+        Set<String> currencies = new TreeSet<>();
+        for (String key : currencyProperties.getRates().keySet()) {
+            String normalized = key.trim().toUpperCase(Locale.ROOT);
+            int delimiter = normalized.indexOf(':');
+            if (delimiter >= 0) {
+                currencies.add(normalized.substring(0, delimiter).trim());
+                currencies.add(normalized.substring(delimiter + 1).trim());
+                continue;
+            }
+            String sanitized = normalized.replaceAll("[^A-Z]", "");
+            if (sanitized.length() == 6) { // 未加 [] 的 map key 會被 Spring 去除 ':'，例如 USDTWD
+                currencies.add(sanitized.substring(0, 3));
+                currencies.add(sanitized.substring(3));
+            }
+        }
+        Map<String, BigDecimal> rates = new TreeMap<>();
+        for (String currency : currencies) {
+            try {
+                rates.put(currency, currencyConversionService.convert(BigDecimal.ONE, currency, baseCurrency).exchangeRate());
+            } catch (IllegalArgumentException ignored) {
+                // 沒有可換算至基準幣別的匯率
+            }
+        }
+        return rates;
+    }
+
     @Bean
     public CurrencyConversionService currencyConversionService(CurrencyConversionProperties properties) {
         return new DefaultCurrencyConversionService(properties);
     }
 
     @Bean
-    public RestTemplate assetRestTemplate(RestTemplateBuilder builder) {
-        return builder
-                .connectTimeout(Duration.ofSeconds(2))
-                .readTimeout(Duration.ofSeconds(2))
-                .build();
+    public RestTemplate assetRestTemplate(RestTemplateBuilder builder,
+                                          ClientHttpRequestFactory assetClientHttpRequestFactory,
+                                          AssetsHttpClientProperties httpClientProperties) {
+        RestTemplateBuilder configured = builder.requestFactory(() -> assetClientHttpRequestFactory);
+        if (httpClientProperties.isGzip() && httpClientProperties.getBackend() != AssetsHttpClientProperties.Backend.POOLED) {
+            // Apache HttpClient 會自行處理 gzip，其餘後端需由攔截器協商與解壓縮
+            configured = configured.additionalInterceptors(new GzipDecompressingInterceptor());
+        }
+        return configured.build();
     }
 }
@@ -1,6 +1,9 @@
 package com.poc.svc.assets.config;
 
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.DecimalMin;
 import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.validation.annotation.Validated;
 
@@ -18,6 +21,25 @@ public class AssetAggregationProperties {
     @NotBlank
     private String pipelineName = "assets_aggregation";
 
+    /**
+     * 同一 customerId 同時進行中的整合請求是否合併為一次執行。
+     */
+    private boolean singleFlightEnabled = true;
+
+    @NotNull
+    private Engine engine = Engine.PIPELINE;
+
+    @NotNull
+    private PipelineOutput pipelineOutput = PipelineOutput.MERGE;
+
+    @Valid
+    @NotNull
+    private PipelineCache pipelineCache = new PipelineCache();
+
+    @Valid
+    @NotNull
+    private PipelineAnalysis pipelineAnalysis = new PipelineAnalysis();
+
     public String getBaseCurrency() {
         return baseCurrency;
     }
@@ -41,4 +63,162 @@ public class AssetAggregationProperties {
     public void setPipelineName(String pipelineName) {
         this.pipelineName = pipelineName;
     }
+
+    public boolean isSingleFlightEnabled() {
+        return singleFlightEnabled;
+    }
+
+    public void setSingleFlightEnabled(boolean singleFlightEnabled) {
+        this.singleFlightEnabled = singleFlightEnabled;
+    }
+
+    public Engine getEngine() {
+        return engine;
+    }
+
+    public void setEngine(Engine engine) {
+        this.engine = engine;
+    }
+
+    public PipelineOutput getPipelineOutput() {
+        return pipelineOutput;
+    }
+
+    public void setPipelineOutput(PipelineOutput pipelineOutput) {
+        this.pipelineOutput = pipelineOutput;
+    }
+
+    public PipelineCache getPipelineCache() {
+        return pipelineCache;
+    }
+
+    public void setPipelineCache(PipelineCache pipelineCache) {
+        this.pipelineCache = pipelineCache;
+    }
+
+    public PipelineAnalysis getPipelineAnalysis() {
+        return pipelineAnalysis;
+    }
+
+    public void setPipelineAnalysis(PipelineAnalysis pipelineAnalysis) {
+        this.pipelineAnalysis = pipelineAnalysis;
+    }
+
+    public enum Engine {
+        /**
+         * 執行 {@code pipeline_store} 中的 pipeline，由 Mongo 端讀取 raw collection 並 {@code $merge} 至 staging（原始行為）。
+         */
+        PIPELINE,
+        /**
+         * 以協調器已取得的來源結果於服務內組出 staging 文件並單次 upsert，不再讀取 raw collection。
+         */
+        IN_PROCESS
+    }
+
+    public enum PipelineOutput {
+        /**
+         * pipeline 以 {@code $merge} 寫入 staging 後，再查詢該 traceId 的文件（原始行為）。
+         */
+        MERGE,
+        /**
+         * 去掉 {@code $merge} 執行 pipeline 取得輸出，依 {@code $merge} 的 {@code on} / {@code whenMatched} 語意自行 upsert，
+         * 不再回讀 staging；{@code whenMatched} 為 {@code fail}、pipeline 或 {@code whenNotMatched} 不是 {@code insert} 時沿用 {@code MERGE}。
+         */
+        RESULT
+    }
+
+    public static class PipelineCache {
+
+        /**
+         * 依 pipeline 名稱快取已驗證的 stage；關閉時每次執行都重新讀取 {@code pipeline_store}。
+         */
+        private boolean enabled = true;
+
+        /**
+         * 以 change stream 監看 {@code pipeline_store}，有異動即清空快取（需 replica set，不支援時改為輪詢）。
+         */
+        private boolean changeStream = true;
+
+        /**
+         * change stream 不可用期間重新比對快取定義的週期；{@code 0} 表示不輪詢。
+         */
+        @NotNull
+        private Duration pollInterval = Duration.ofSeconds(30);
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public boolean isChangeStream() {
+            return changeStream;
+        }
+
+        public void setChangeStream(boolean changeStream) {
+            this.changeStream = changeStream;
+        }
+
+        public Duration getPollInterval() {
+            return pollInterval;
+        }
+
+        public void setPollInterval(Duration pollInterval) {
+            this.pollInterval = pollInterval;
+        }
+    }
+
+    public static class PipelineAnalysis {
+
+        /**
+         * 啟動時及 pipeline 定義異動後（快取重新載入時）以 {@code explain executionStats} 分析執行計畫。
+         */
+        private boolean enabled = true;
+
+        /**
+         * 異動後的定義相較前一版退化（新出現 COLLSCAN，或 docsExamined 超過前一版乘上 {@code docs-examined-tolerance}）時的處理方式。
+         */
+        @NotNull
+        private OnRegression onRegression = OnRegression.WARN;
+
+        @DecimalMin("1.0")
+        private double docsExaminedTolerance = 2.0;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public OnRegression getOnRegression() {
+            return onRegression;
+        }
+
+        public void setOnRegression(OnRegression onRegression) {
+            this.onRegression = onRegression;
+        }
+
+        public double getDocsExaminedTolerance() {
+            return docsExaminedTolerance;
+        }
+
+        public void setDocsExaminedTolerance(double docsExaminedTolerance) {
+            this.docsExaminedTolerance = docsExaminedTolerance;
+        }
+
+        public enum OnRegression {
+            /**
+             * 記錄警告並啟用新定義。
+             */
+            WARN,
+            /**
+             * 不啟用新定義，繼續執行前一版已接受的 pipeline；沒有前一版時 COLLSCAN 的定義無法載入。
+             */
+            REJECT
+        }
+    }
 }
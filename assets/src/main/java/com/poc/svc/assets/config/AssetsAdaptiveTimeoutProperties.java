@@ -0,0 +1,90 @@
+package com.poc.svc.assets.config;
+
+import jakarta.validation.constraints.DecimalMax;
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.validation.annotation.Validated;
+
+import java.time.Duration;
+
+@Validated
+@ConfigurationProperties(prefix = "assets.adaptive-timeout")
+public class AssetsAdaptiveTimeoutProperties {
+
+    /**
+     * 關閉時所有來源使用 {@code assets.aggregation.timeout}。
+     */
+    private boolean enabled = false;
+
+    @DecimalMin(value = "0.5", message = "assets.adaptive-timeout.percentile must be >= 0.5")
+    @DecimalMax(value = "1.0", message = "assets.adaptive-timeout.percentile must be <= 1")
+    private double percentile = 0.999;
+
+    /**
+     * 逾時 = 百分位延遲 × factor，再限制於 floor 與 ceiling 之間。
+     */
+    @DecimalMin(value = "1.0", message = "assets.adaptive-timeout.factor must be >= 1")
+    private double factor = 2.0;
+
+    @NotNull
+    private Duration floor = Duration.ofMillis(200);
+
+    @NotNull
+    private Duration ceiling = Duration.ofSeconds(3);
+
+    /**
+     * 樣本數不足時使用 ceiling（仍不超過整體 deadline）。
+     */
+    @Min(value = 1, message = "assets.adaptive-timeout.min-samples must be >= 1")
+    private int minSamples = 100;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public double getPercentile() {
+        return percentile;
+    }
+
+    public void setPercentile(double percentile) {
+        this.percentile = percentile;
+    }
+
+    public double getFactor() {
+        return factor;
+    }
+
+    public void setFactor(double factor) {
+        this.factor = factor;
+    }
+
+    public Duration getFloor() {
+        return floor;
+    }
+
+    public void setFloor(Duration floor) {
+        this.floor = floor;
+    }
+
+    public Duration getCeiling() {
+        return ceiling;
+    }
+
+    public void setCeiling(Duration ceiling) {
+        this.ceiling = ceiling;
+    }
+
+    public int getMinSamples() {
+        return minSamples;
+    }
+
+    public void setMinSamples(int minSamples) {
+        this.minSamples = minSamples;
+    }
+}
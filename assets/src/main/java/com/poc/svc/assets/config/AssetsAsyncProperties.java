@@ -1,6 +1,7 @@
 package com.poc.svc.assets.config;
 
 import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.validation.annotation.Validated;
 
@@ -11,6 +12,15 @@ public class AssetsAsyncProperties {
     @Min(value = 1, message = "assets.async.thread-pool-size must be >= 1")
     private int threadPoolSize = 8;
 
+    @NotNull
+    private ExecutorMode mode = ExecutorMode.POOLED;
+
+    /**
+     * VIRTUAL 模式下同時執行的任務上限，-1 表示不限制（由下游連線池與 Mongo pool 自然節流）。
+     */
+    @Min(value = -1, message = "assets.async.virtual-concurrency-limit must be >= -1")
+    private int virtualConcurrencyLimit = -1;
+
     public int getThreadPoolSize() {
         return threadPoolSize;
     }
@@ -18,4 +28,31 @@ public class AssetsAsyncProperties {
     public void setThreadPoolSize(int threadPoolSize) {
         this.threadPoolSize = threadPoolSize;
     }
+
+    public ExecutorMode getMode() {
+        return mode;
+    }
+
+    public void setMode(ExecutorMode mode) {
+        this.mode = mode;
+    }
+
+    public int getVirtualConcurrencyLimit() {
+        return virtualConcurrencyLimit;
+    }
+
+    public void setVirtualConcurrencyLimit(int virtualConcurrencyLimit) {
+        this.virtualConcurrencyLimit = virtualConcurrencyLimit;
+    }
+
+    public enum ExecutorMode {
+        /**
+         * 固定大小的平台執行緒池（預設）。
+         */
+        POOLED,
+        /**
+         * 每個任務一條 virtual thread，需 Java 21 以上執行環境。
+         */
+        VIRTUAL
+    }
 }
@@ -0,0 +1,85 @@
+package com.poc.svc.assets.config;
+
+import com.poc.svc.assets.dto.AssetSourceType;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.validation.annotation.Validated;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+@Validated
+@ConfigurationProperties(prefix = "assets.bulkhead")
+public class AssetsBulkheadProperties {
+
+    /**
+     * 關閉時所有來源共用 {@code assetAsyncExecutor}（原始行為）。
+     */
+    private boolean enabled = true;
+
+    @Valid
+    @NotNull
+    private Limit defaults = new Limit();
+
+    /**
+     * 個別來源覆寫，未設定的來源使用 {@link #defaults}。
+     */
+    @Valid
+    @NotNull
+    private Map<AssetSourceType, Limit> sources = new EnumMap<>(AssetSourceType.class);
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public Limit getDefaults() {
+        return defaults;
+    }
+
+    public void setDefaults(Limit defaults) {
+        this.defaults = defaults;
+    }
+
+    public Map<AssetSourceType, Limit> getSources() {
+        return sources;
+    }
+
+    public void setSources(Map<AssetSourceType, Limit> sources) {
+        this.sources = sources;
+    }
+
+    public Limit limitFor(AssetSourceType source) {
+        return sources.getOrDefault(source, defaults);
+    }
+
+    public static class Limit {
+
+        @Min(value = 1, message = "bulkhead max-concurrent must be >= 1")
+        private int maxConcurrent = 4;
+
+        @Min(value = 0, message = "bulkhead queue-capacity must be >= 0")
+        private int queueCapacity = 8;
+
+        public int getMaxConcurrent() {
+            return maxConcurrent;
+        }
+
+        public void setMaxConcurrent(int maxConcurrent) {
+            this.maxConcurrent = maxConcurrent;
+        }
+
+        public int getQueueCapacity() {
+            return queueCapacity;
+        }
+
+        public void setQueueCapacity(int queueCapacity) {
+            this.queueCapacity = queueCapacity;
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package com.poc.svc.assets.config;
+
+import jakarta.validation.constraints.DecimalMax;
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.validation.annotation.Validated;
+
+import java.time.Duration;
+
+@Validated
+@ConfigurationProperties(prefix = "assets.hedging")
+public class AssetsHedgingProperties {
+
+    private boolean enabled = false;
+
+    /**
+     * 主請求超過該來源近期延遲的此百分位仍未完成時，送出第二個相同請求。
+     */
+    @DecimalMin(value = "0.5", message = "assets.hedging.percentile must be >= 0.5")
+    @DecimalMax(value = "0.999", message = "assets.hedging.percentile must be <= 0.999")
+    private double percentile = 0.9;
+
+    /**
+     * 對沖延遲下限，避免延遲分布很窄時幾乎每個請求都送出對沖。
+     */
+    @NotNull
+    private Duration minDelay = Duration.ofMillis(10);
+
+    /**
+     * 延遲樣本數少於此值時不對沖。
+     */
+    @Min(value = 1, message = "assets.hedging.min-samples must be >= 1")
+    private int minSamples = 20;
+
+    /**
+     * 每個請求累積的對沖額度，0.1 表示對沖數約不超過請求數的 10%。
+     */
+    @DecimalMin(value = "0.0", message = "assets.hedging.budget-ratio must be >= 0")
+    @DecimalMax(value = "1.0", message = "assets.hedging.budget-ratio must be <= 1")
+    private double budgetRatio = 0.1;
+
+    /**
+     * 對沖額度上限（可連續送出的對沖數）。
+     */
+    @Min(value = 1, message = "assets.hedging.budget-burst must be >= 1")
+    private int budgetBurst = 10;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public double getPercentile() {
+        return percentile;
+    }
+
+    public void setPercentile(double percentile) {
+        this.percentile = percentile;
+    }
+
+    public Duration getMinDelay() {
+        return minDelay;
+    }
+
+    public void setMinDelay(Duration minDelay) {
+        this.minDelay = minDelay;
+    }
+
+    public int getMinSamples() {
+        return minSamples;
+    }
+
+    public void setMinSamples(int minSamples) {
+        this.minSamples = minSamples;
+    }
+
+    public double getBudgetRatio() {
+        return budgetRatio;
+    }
+
+    public void setBudgetRatio(double budgetRatio) {
+        this.budgetRatio = budgetRatio;
+    }
+
+    public int getBudgetBurst() {
+        return budgetBurst;
+    }
+
+    public void setBudgetBurst(int budgetBurst) {
+        this.budgetBurst = budgetBurst;
+    }
+}
@@ -0,0 +1,129 @@
+package com.poc.svc.assets.config;
+
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.validation.annotation.Validated;
+
+import java.time.Duration;
+
+@Validated
+@ConfigurationProperties(prefix = "assets.http-client")
+public class AssetsHttpClientProperties {
+
+    @NotNull
+    private Backend backend = Backend.POOLED;
+
+    @NotNull
+    private Duration connectTimeout = Duration.ofSeconds(2);
+
+    @NotNull
+    private Duration readTimeout = Duration.ofSeconds(2);
+
+    @Min(value = 1, message = "assets.http-client.max-total must be >= 1")
+    private int maxTotal = 200;
+
+    @Min(value = 1, message = "assets.http-client.max-per-route must be >= 1")
+    private int maxPerRoute = 50;
+
+    /**
+     * 由連線池取得連線的最長等待時間，超過即視為池飽和。
+     */
+    @NotNull
+    private Duration poolAcquireTimeout = Duration.ofMillis(500);
+
+    @NotNull
+    private Duration keepAlive = Duration.ofSeconds(30);
+
+    @NotNull
+    private Duration idleEviction = Duration.ofSeconds(60);
+
+    private boolean gzip = true;
+
+    public Backend getBackend() {
+        return backend;
+    }
+
+    public void setBackend(Backend backend) {
+        this.backend = backend;
+    }
+
+    public Duration getConnectTimeout() {
+        return connectTimeout;
+    }
+
+    public void setConnectTimeout(Duration connectTimeout) {
+        this.connectTimeout = connectTimeout;
+    }
+
+    public Duration getReadTimeout() {
+        return readTimeout;
+    }
+
+    public void setReadTimeout(Duration readTimeout) {
+        this.readTimeout = readTimeout;
+    }
+
+    public int getMaxTotal() {
+        return maxTotal;
+    }
+
+    public void setMaxTotal(int maxTotal) {
+        this.maxTotal = maxTotal;
+    }
+
+    public int getMaxPerRoute() {
+        return maxPerRoute;
+    }
+
+    public void setMaxPerRoute(int maxPerRoute) {
+        this.maxPerRoute = maxPerRoute;
+    }
+
+    public Duration getPoolAcquireTimeout() {
+        return poolAcquireTimeout;
+    }
+
+    public void setPoolAcquireTimeout(Duration poolAcquireTimeout) {
+        this.poolAcquireTimeout = poolAcquireTimeout;
+    }
+
+    public Duration getKeepAlive() {
+        return keepAlive;
+    }
+
+    public void setKeepAlive(Duration keepAlive) {
+        this.keepAlive = keepAlive;
+    }
+
+    public Duration getIdleEviction() {
+        return idleEviction;
+    }
+
+    public void setIdleEviction(Duration idleEviction) {
+        this.idleEviction = idleEviction;
+    }
+
+    public boolean isGzip() {
+        return gzip;
+    }
+
+    public void setGzip(boolean gzip) {
+        this.gzip = gzip;
+    }
+
+    public enum Backend {
+        /**
+         * JDK HttpURLConnection，每次呼叫建立新連線（原始行為）。
+         */
+        SIMPLE,
+        /**
+         * Apache HttpClient 5 連線池（HTTP/1.1 keep-alive），提供連線池指標。
+         */
+        POOLED,
+        /**
+         * JDK HttpClient，優先使用 HTTP/2 並於單一連線上多工。
+         */
+        HTTP2
+    }
+}
@@ -0,0 +1,36 @@
+package com.poc.svc.assets.config;
+
+import jakarta.validation.constraints.NotNull;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.validation.annotation.Validated;
+
+@Validated
+@ConfigurationProperties(prefix = "assets.ingestion")
+public class AssetsIngestionProperties {
+
+    @NotNull
+    private Mode mode = Mode.MAP;
+
+    public Mode getMode() {
+        return mode;
+    }
+
+    public void setMode(Mode mode) {
+        this.mode = mode;
+    }
+
+    public boolean isStreamingBson() {
+        return mode == Mode.STREAMING_BSON;
+    }
+
+    public enum Mode {
+        /**
+         * 下游回應反序列化為 record 後再轉為 {@code Map}（原始行為）。
+         */
+        MAP,
+        /**
+         * 直接將 HTTP 回應串流轉為 BSON（{@code RawBsonDocument}），同一份 bytes 供寫入與讀取總額、明細。
+         */
+        STREAMING_BSON
+    }
+}
@@ -0,0 +1,161 @@
+package com.poc.svc.assets.config;
+
+import com.poc.svc.assets.dto.AssetSourceType;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.validation.annotation.Validated;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+
+@Validated
+@ConfigurationProperties(prefix = "assets.raw-retention")
+public class AssetsRawRetentionProperties {
+
+    /**
+     * 關閉時 raw collection 不做任何清理（原始行為）；容量指標不受影響。
+     */
+    private boolean enabled = false;
+
+    @Valid
+    @NotNull
+    private Policy defaults = new Policy();
+
+    /**
+     * 個別來源覆寫，未設定的來源使用 {@link #defaults}。
+     */
+    @Valid
+    @NotNull
+    private Map<AssetSourceType, Policy> sources = new EnumMap<>(AssetSourceType.class);
+
+    /**
+     * {@code ROLLOVER} 搬移過期文件的週期。
+     */
+    @NotNull
+    private Duration rolloverInterval = Duration.ofHours(1);
+
+    /**
+     * 搬移後的 archive collection 名稱為 {@code <raw collection><archive-suffix>}。
+     */
+    @NotBlank
+    private String archiveSuffix = "_archive";
+
+    /**
+     * 更新 collection / index 容量指標的週期；0 表示不收集。
+     */
+    @NotNull
+    private Duration statsInterval = Duration.ofMinutes(1);
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public Policy getDefaults() {
+        return defaults;
+    }
+
+    public void setDefaults(Policy defaults) {
+        this.defaults = defaults;
+    }
+
+    public Map<AssetSourceType, Policy> getSources() {
+        return sources;
+    }
+
+    public void setSources(Map<AssetSourceType, Policy> sources) {
+        this.sources = sources;
+    }
+
+    public Duration getRolloverInterval() {
+        return rolloverInterval;
+    }
+
+    public void setRolloverInterval(Duration rolloverInterval) {
+        this.rolloverInterval = rolloverInterval;
+    }
+
+    public String getArchiveSuffix() {
+        return archiveSuffix;
+    }
+
+    public void setArchiveSuffix(String archiveSuffix) {
+        this.archiveSuffix = archiveSuffix;
+    }
+
+    public Duration getStatsInterval() {
+        return statsInterval;
+    }
+
+    public void setStatsInterval(Duration statsInterval) {
+        this.statsInterval = statsInterval;
+    }
+
+    public Policy policyFor(AssetSourceType source) {
+        return sources.getOrDefault(source, defaults);
+    }
+
+    public enum Strategy {
+        /**
+         * 不清理。
+         */
+        NONE,
+        /**
+         * {@code fetchedAt} 上的 TTL 索引，由 Mongo 背景刪除過期文件。
+         */
+        TTL,
+        /**
+         * collection 尚不存在時建立為以 {@code fetchedAt} 為 timeField 的 time-series collection 並設定 expireAfterSeconds；
+         * 既有的一般 collection 無法轉換，改用 {@link #TTL}。
+         */
+        TIME_SERIES,
+        /**
+         * 週期性將過期文件搬至 archive collection 後自 raw collection 刪除。
+         */
+        ROLLOVER
+    }
+
+    public static class Policy {
+
+        @NotNull
+        private Strategy strategy = Strategy.TTL;
+
+        @NotNull
+        private Duration retention = Duration.ofDays(30);
+
+        /**
+         * {@code ROLLOVER} 搬移後對 raw collection 執行 {@code compact} 以釋放磁碟空間（額外佔用 I/O）。
+         */
+        private boolean compactAfterRollover = false;
+
+        public Strategy getStrategy() {
+            return strategy;
+        }
+
+        public void setStrategy(Strategy strategy) {
+            this.strategy = strategy;
+        }
+
+        public Duration getRetention() {
+            return retention;
+        }
+
+        public void setRetention(Duration retention) {
+            this.retention = retention;
+        }
+
+        public boolean isCompactAfterRollover() {
+            return compactAfterRollover;
+        }
+
+        public void setCompactAfterRollover(boolean compactAfterRollover) {
+            this.compactAfterRollover = compactAfterRollover;
+        }
+    }
+}
@@ -0,0 +1,316 @@
+package com.poc.svc.assets.config;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+import org.springframework.validation.annotation.Validated;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+@Validated
+@ConfigurationProperties(prefix = "assets.raw-write")
+public class AssetsRawWriteProperties {
+
+    @NotNull
+    private Mode mode = Mode.SINGLE;
+
+    @NotNull
+    private Conversion conversion = Conversion.CODEC;
+
+    @Valid
+    @NotNull
+    private GroupCommit groupCommit = new GroupCommit();
+
+    @Valid
+    @NotNull
+    private Aggregation aggregation = new Aggregation();
+
+    @Valid
+    @NotNull
+    private Journal journal = new Journal();
+
+    @Valid
+    @NotNull
+    private Payload payload = new Payload();
+
+    public Mode getMode() {
+        return mode;
+    }
+
+    public void setMode(Mode mode) {
+        this.mode = mode;
+    }
+
+    public Conversion getConversion() {
+        return conversion;
+    }
+
+    public void setConversion(Conversion conversion) {
+        this.conversion = conversion;
+    }
+
+    public GroupCommit getGroupCommit() {
+        return groupCommit;
+    }
+
+    public void setGroupCommit(GroupCommit groupCommit) {
+        this.groupCommit = groupCommit;
+    }
+
+    public Aggregation getAggregation() {
+        return aggregation;
+    }
+
+    public void setAggregation(Aggregation aggregation) {
+        this.aggregation = aggregation;
+    }
+
+    public Journal getJournal() {
+        return journal;
+    }
+
+    public void setJournal(Journal journal) {
+        this.journal = journal;
+    }
+
+    public Payload getPayload() {
+        return payload;
+    }
+
+    public void setPayload(Payload payload) {
+        this.payload = payload;
+    }
+
+    public enum Mode {
+        /**
+         * 每份 raw 文件各自寫入（原始行為）。
+         */
+        SINGLE,
+        /**
+         * 跨請求緩衝 raw 文件，依 collection 以 unordered insertMany 批次寫入。
+         */
+        GROUP_COMMIT,
+        /**
+         * 同次聚合所有來源完成後，於聚合剩餘時間內以單一 multi-collection transaction 寫入各來源的 raw 文件（需 replica set）。
+         */
+        PER_AGGREGATION,
+        /**
+         * Write-behind：先附加至本機 memory-mapped journal 即回傳，由背景 drainer 批次寫入 Mongo；pipeline 執行前等待 drain。
+         */
+        JOURNAL
+    }
+
+    public enum Conversion {
+        /**
+         * 以 {@code MappingMongoConverter}（反射）將 entity 轉為文件。
+         */
+        CONVERTER,
+        /**
+         * 以 {@code entity.codec} 的手寫 codec 直接編碼，略過反射與中介 {@code Document}（預設）。
+         */
+        CODEC
+    }
+
+    public static class Payload {
+
+        @NotNull
+        private Format format = Format.DOCUMENT;
+
+        /**
+         * deflate 壓縮等級（1 最快、9 最小）。
+         */
+        @Min(value = 1, message = "assets.raw-write.payload.level must be between 1 and 9")
+        @Max(value = 9, message = "assets.raw-write.payload.level must be between 1 and 9")
+        private int level = 6;
+
+        /**
+         * {@code COMPRESSED} 時仍以一般 BSON 保留於 {@code payload} 的頂層欄位，供 server-side pipeline 讀取；空白表示不保留。
+         */
+        @NotNull
+        private List<String> retainedKeys = new ArrayList<>();
+
+        public Format getFormat() {
+            return format;
+        }
+
+        public void setFormat(Format format) {
+            this.format = format;
+        }
+
+        public int getLevel() {
+            return level;
+        }
+
+        public void setLevel(int level) {
+            this.level = level;
+        }
+
+        public List<String> getRetainedKeys() {
+            return retainedKeys;
+        }
+
+        public void setRetainedKeys(List<String> retainedKeys) {
+            this.retainedKeys = retainedKeys;
+        }
+
+        public enum Format {
+            /**
+             * payload 以一般 BSON 子文件儲存（原始行為）。
+             */
+            DOCUMENT,
+            /**
+             * 完整 payload 以 deflate 壓縮後存於 {@code payloadCompressed}，只有 {@code retained-keys} 留在 {@code payload}；
+             * 讀取時延遲至第一次存取才解壓縮。
+             */
+            COMPRESSED
+        }
+    }
+
+    public static class Aggregation {
+
+        /**
+         * 執行 transaction commit 的專用執行緒數；commit 會阻塞執行緒，不佔用 {@code assetAsyncExecutor}。
+         */
+        @Min(value = 1, message = "assets.raw-write.aggregation.commit-threads must be >= 1")
+        private int commitThreads = 4;
+
+        public int getCommitThreads() {
+            return commitThreads;
+        }
+
+        public void setCommitThreads(int commitThreads) {
+            this.commitThreads = commitThreads;
+        }
+    }
+
+    public static class GroupCommit {
+
+        /**
+         * 批次中第一份文件最多等待多久即寫入。
+         */
+        @NotNull
+        private Duration maxDelay = Duration.ofMillis(5);
+
+        @Min(value = 1, message = "assets.raw-write.group-commit.max-batch-size must be >= 1")
+        private int maxBatchSize = 64;
+
+        /**
+         * 請求等待所屬批次寫入結果的上限；逾時視為寫入失敗（文件仍可能於稍後寫入）。
+         */
+        @NotNull
+        private Duration writeTimeout = Duration.ofSeconds(3);
+
+        public Duration getMaxDelay() {
+            return maxDelay;
+        }
+
+        public void setMaxDelay(Duration maxDelay) {
+            this.maxDelay = maxDelay;
+        }
+
+        public int getMaxBatchSize() {
+            return maxBatchSize;
+        }
+
+        public void setMaxBatchSize(int maxBatchSize) {
+            this.maxBatchSize = maxBatchSize;
+        }
+
+        public Duration getWriteTimeout() {
+            return writeTimeout;
+        }
+
+        public void setWriteTimeout(Duration writeTimeout) {
+            this.writeTimeout = writeTimeout;
+        }
+    }
+
+    public static class Journal {
+
+        /**
+         * journal segment 檔案目錄；重啟時會重放其中尚未 drain 的紀錄。
+         */
+        @NotNull
+        private Path directory = Path.of("data", "raw-journal");
+
+        /**
+         * 單一 segment 檔案大小，寫滿後輪替至新檔。
+         */
+        @NotNull
+        private DataSize segmentSize = DataSize.ofMegabytes(64);
+
+        @Min(value = 1, message = "assets.raw-write.journal.max-batch-size must be >= 1")
+        private int maxBatchSize = 256;
+
+        /**
+         * drainer 收到第一筆紀錄後最多等待多久即寫入。
+         */
+        @NotNull
+        private Duration maxDelay = Duration.ofMillis(5);
+
+        /**
+         * drain 重試耗盡後，整批重新嘗試前的等待時間；紀錄不會被丟棄。
+         */
+        @NotNull
+        private Duration retryBackoff = Duration.ofSeconds(1);
+
+        /**
+         * 每次附加後 force 至磁碟；關閉時僅保證 process crash 不遺失（OS crash 可能遺失 page cache 中的紀錄）。
+         */
+        private boolean forceOnAppend = false;
+
+        public Path getDirectory() {
+            return directory;
+        }
+
+        public void setDirectory(Path directory) {
+            this.directory = directory;
+        }
+
+        public DataSize getSegmentSize() {
+            return segmentSize;
+        }
+
+        public void setSegmentSize(DataSize segmentSize) {
+            this.segmentSize = segmentSize;
+        }
+
+        public int getMaxBatchSize() {
+            return maxBatchSize;
+        }
+
+        public void setMaxBatchSize(int maxBatchSize) {
+            this.maxBatchSize = maxBatchSize;
+        }
+
+        public Duration getMaxDelay() {
+            return maxDelay;
+        }
+
+        public void setMaxDelay(Duration maxDelay) {
+            this.maxDelay = maxDelay;
+        }
+
+        public Duration getRetryBackoff() {
+            return retryBackoff;
+        }
+
+        public void setRetryBackoff(Duration retryBackoff) {
+            this.retryBackoff = retryBackoff;
+        }
+
+        public boolean isForceOnAppend() {
+            return forceOnAppend;
+        }
+
+        public void setForceOnAppend(boolean forceOnAppend) {
+            this.forceOnAppend = forceOnAppend;
+        }
+    }
+}
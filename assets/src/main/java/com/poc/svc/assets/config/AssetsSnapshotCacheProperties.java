@@ -0,0 +1,76 @@
+package com.poc.svc.assets.config;
+
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.validation.annotation.Validated;
+
+import java.time.Duration;
+
+@Validated
+@ConfigurationProperties(prefix = "assets.snapshot-cache")
+public class AssetsSnapshotCacheProperties {
+
+    private boolean enabled = true;
+
+    /**
+     * 快照的新鮮期限；呼叫端以 {@code Cache-Control: max-stale} 可再接受超出此期限的快照。
+     */
+    @NotNull
+    private Duration ttl = Duration.ofSeconds(5);
+
+    /**
+     * 呼叫端 {@code max-stale} 可要求的上限，快照保留時間為 ttl + max-stale-limit。
+     */
+    @NotNull
+    private Duration maxStaleLimit = Duration.ofSeconds(30);
+
+    /**
+     * 未帶 {@code Cache-Control} 時可接受的快照年齡，預設 0 表示每次重新整合。
+     */
+    @NotNull
+    private Duration defaultMaxAge = Duration.ZERO;
+
+    @Min(value = 1, message = "assets.snapshot-cache.max-entries must be >= 1")
+    private int maxEntries = 10_000;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public Duration getTtl() {
+        return ttl;
+    }
+
+    public void setTtl(Duration ttl) {
+        this.ttl = ttl;
+    }
+
+    public Duration getMaxStaleLimit() {
+        return maxStaleLimit;
+    }
+
+    public void setMaxStaleLimit(Duration maxStaleLimit) {
+        this.maxStaleLimit = maxStaleLimit;
+    }
+
+    public Duration getDefaultMaxAge() {
+        return defaultMaxAge;
+    }
+
+    public void setDefaultMaxAge(Duration defaultMaxAge) {
+        this.defaultMaxAge = defaultMaxAge;
+    }
+
+    public int getMaxEntries() {
+        return maxEntries;
+    }
+
+    public void setMaxEntries(int maxEntries) {
+        this.maxEntries = maxEntries;
+    }
+}
@@ -1,18 +1,38 @@
 package com.poc.svc.assets.config;
 
+import com.poc.svc.assets.dto.AssetSourceType;
+import com.poc.svc.assets.service.impl.support.SourceBulkhead;
+import com.poc.svc.assets.service.impl.support.SourceBulkheads;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
 import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
 import java.util.concurrent.Executor;
 
 @Configuration
-@EnableConfigurationProperties(AssetsAsyncProperties.class)
+@EnableConfigurationProperties({AssetsAsyncProperties.class, AssetsBulkheadProperties.class})
 public class AsyncConfig {
 
+    private static final Logger log = LoggerFactory.getLogger(AsyncConfig.class);
+    private static final int VIRTUAL_THREADS_MIN_JAVA_VERSION = 21;
+
     @Bean(name = "assetAsyncExecutor")
     public Executor assetAsyncExecutor(AssetsAsyncProperties properties) {
+        if (properties.getMode() == AssetsAsyncProperties.ExecutorMode.VIRTUAL) {
+            return virtualThreadExecutor(properties);
+        }
         ThreadPoolTaskExecutor taskExecutor = new ThreadPoolTaskExecutor();
         int poolSize = properties.getThreadPoolSize();
         taskExecutor.setCorePoolSize(poolSize);
@@ -23,4 +43,66 @@ public class AsyncConfig {
         taskExecutor.initialize();
         return taskExecutor;
     }
+
+    /**
+     * 每個來源各自的執行器與併發上限，避免單一下游變慢時佔滿共用執行緒池而拖累其他來源。
+     */
+    @Bean
+    public SourceBulkheads sourceBulkheads(AssetsAsyncProperties asyncProperties,
+                                           AssetsBulkheadProperties bulkheadProperties,
+                                           @Qualifier("assetAsyncExecutor") Executor assetAsyncExecutor,
+                                           MeterRegistry meterRegistry) {
+        if (!bulkheadProperties.isEnabled()) {
+            return SourceBulkheads.shared(assetAsyncExecutor);
+        }
+        boolean virtual = asyncProperties.getMode() == AssetsAsyncProperties.ExecutorMode.VIRTUAL;
+        if (virtual) {
+            requireVirtualThreadSupport();
+        }
+        Map<AssetSourceType, SourceBulkhead> bulkheads = new EnumMap<>(AssetSourceType.class);
+        List<DisposableBean> ownedExecutors = new ArrayList<>();
+        for (AssetSourceType source : AssetSourceType.values()) {
+            AssetsBulkheadProperties.Limit limit = bulkheadProperties.limitFor(source);
+            String prefix = "asset-" + source.name().toLowerCase(Locale.ROOT) + "-";
+            Executor delegate;
+            if (virtual) {
+                SimpleAsyncTaskExecutor virtualExecutor = new SimpleAsyncTaskExecutor(prefix + "vthread-");
+                virtualExecutor.setVirtualThreads(true);
+                delegate = virtualExecutor;
+            } else {
+                ThreadPoolTaskExecutor taskExecutor = new ThreadPoolTaskExecutor();
+                taskExecutor.setCorePoolSize(limit.getMaxConcurrent());
+                taskExecutor.setMaxPoolSize(limit.getMaxConcurrent());
+                // 佇列上限由 SourceBulkhead 控制，執行緒池本身不再拒絕已放行的任務
+                taskExecutor.setQueueCapacity(Integer.MAX_VALUE);
+                taskExecutor.setThreadNamePrefix(prefix);
+                taskExecutor.setAllowCoreThreadTimeOut(true);
+                taskExecutor.initialize();
+                ownedExecutors.add(taskExecutor);
+                delegate = taskExecutor;
+            }
+            bulkheads.put(source, new SourceBulkhead(
+                    source, delegate, limit.getMaxConcurrent(), limit.getQueueCapacity(), meterRegistry));
+            log.info("Bulkhead source={} maxConcurrent={} queueCapacity={} virtual={}",
+                    source, limit.getMaxConcurrent(), limit.getQueueCapacity(), virtual);
+        }
+        return new SourceBulkheads(bulkheads, assetAsyncExecutor, ownedExecutors);
+    }
+
+    private Executor virtualThreadExecutor(AssetsAsyncProperties properties) {
+        requireVirtualThreadSupport();
+        SimpleAsyncTaskExecutor taskExecutor = new SimpleAsyncTaskExecutor("asset-vthread-");
+        taskExecutor.setVirtualThreads(true);
+        taskExecutor.setConcurrencyLimit(properties.getVirtualConcurrencyLimit());
+        log.info("assetAsyncExecutor running on virtual threads concurrencyLimit={}", properties.getVirtualConcurrencyLimit());
+        return taskExecutor;
+    }
+
+    private void requireVirtualThreadSupport() {
+        int javaVersion = Runtime.version().feature();
+        if (javaVersion < VIRTUAL_THREADS_MIN_JAVA_VERSION) {
+            throw new IllegalStateException("assets.async.mode=VIRTUAL requires Java %d+, running on Java %d"
+                    .formatted(VIRTUAL_THREADS_MIN_JAVA_VERSION, javaVersion));
+        }
+    }
 }
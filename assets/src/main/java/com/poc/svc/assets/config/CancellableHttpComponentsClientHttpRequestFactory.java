@@ -0,0 +1,31 @@
+package com.poc.svc.assets.config;
+
+import com.poc.svc.assets.service.impl.support.InFlightHttpRequest;
+import org.apache.hc.client5.http.classic.HttpClient;
+import org.apache.hc.core5.concurrent.Cancellable;
+import org.apache.hc.core5.http.ClassicHttpRequest;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+
+import java.net.URI;
+
+/**
+ * 將建立的 HttpClient5 請求登記至目前的 {@link InFlightHttpRequest}，呼叫被取消（例如對沖落敗）時可中止進行中的 exchange，
+ * 而不是等下游回應後才釋放執行緒與連線。
+ */
+public class CancellableHttpComponentsClientHttpRequestFactory extends HttpComponentsClientHttpRequestFactory {
+
+    public CancellableHttpComponentsClientHttpRequestFactory(HttpClient httpClient) {
+        super(httpClient);
+    }
+
+    @Override
+    protected ClassicHttpRequest createHttpUriRequest(HttpMethod httpMethod, URI uri) {
+        ClassicHttpRequest request = super.createHttpUriRequest(httpMethod, uri);
+        InFlightHttpRequest inFlight = InFlightHttpRequest.current();
+        if (inFlight != null && request instanceof Cancellable cancellable) {
+            inFlight.attach(cancellable);
+        }
+        return request;
+    }
+}
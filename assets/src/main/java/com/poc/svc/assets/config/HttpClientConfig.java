@@ -0,0 +1,137 @@
+package com.poc.svc.assets.config;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.classic.HttpClientBuilder;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
+import org.apache.hc.core5.http.HeaderElement;
+import org.apache.hc.core5.http.HeaderElements;
+import org.apache.hc.core5.http.HttpResponse;
+import org.apache.hc.core5.http.message.MessageSupport;
+import org.apache.hc.core5.pool.PoolStats;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.ClientHttpRequestFactory;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.http.client.JdkClientHttpRequestFactory;
+import org.springframework.http.client.SimpleClientHttpRequestFactory;
+
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * 下游資產 API 的 HTTP client 後端，依 {@code assets.http-client.backend} 選擇。
+ */
+@Configuration
+@EnableConfigurationProperties({AssetsHttpClientProperties.class, AssetsHedgingProperties.class})
+public class HttpClientConfig {
+
+    private static final Logger log = LoggerFactory.getLogger(HttpClientConfig.class);
+
+    /**
+     * POOLED 後端回傳的 {@link HttpComponentsClientHttpRequestFactory} 本身是 DisposableBean，
+     * 容器關閉時會一併關閉底層的 HttpClient 與連線池；被取消的呼叫會中止進行中的 exchange。
+     */
+    @Bean
+    public ClientHttpRequestFactory assetClientHttpRequestFactory(AssetsHttpClientProperties properties, MeterRegistry meterRegistry) {
+        log.info("Asset source HTTP client backend={}", properties.getBackend());
+        return switch (properties.getBackend()) {
+            case SIMPLE -> simpleRequestFactory(properties);
+            case POOLED -> pooledRequestFactory(properties, meterRegistry);
+            case HTTP2 -> http2RequestFactory(properties);
+        };
+    }
+
+    private ClientHttpRequestFactory simpleRequestFactory(AssetsHttpClientProperties properties) {
+        SimpleClientHttpRequestFactory factory = new SimpleClientHttpRequestFactory();
+        factory.setConnectTimeout(properties.getConnectTimeout());
+        factory.setReadTimeout(properties.getReadTimeout());
+        return factory;
+    }
+
+    private ClientHttpRequestFactory pooledRequestFactory(AssetsHttpClientProperties properties, MeterRegistry meterRegistry) {
+        PoolingHttpClientConnectionManager connectionManager = PoolingHttpClientConnectionManagerBuilder.create()
+                .setMaxConnTotal(properties.getMaxTotal())
+                .setMaxConnPerRoute(properties.getMaxPerRoute())
+                .setDefaultConnectionConfig(ConnectionConfig.custom()
+                        .setConnectTimeout(Timeout.of(properties.getConnectTimeout()))
+                        .setSocketTimeout(Timeout.of(properties.getReadTimeout()))
+                        .build())
+                .build();
+
+        HttpClientBuilder builder = HttpClients.custom()
+                .setConnectionManager(connectionManager)
+                .setDefaultRequestConfig(RequestConfig.custom()
+                        .setConnectionRequestTimeout(Timeout.of(properties.getPoolAcquireTimeout()))
+                        .setResponseTimeout(Timeout.of(properties.getReadTimeout()))
+                        .build())
+                .setKeepAliveStrategy((response, context) -> keepAliveDuration(response, properties.getKeepAlive()))
+                .evictExpiredConnections()
+                .evictIdleConnections(TimeValue.of(properties.getIdleEviction()));
+        if (!properties.isGzip()) {
+            builder.disableContentCompression();
+        }
+        CloseableHttpClient httpClient = builder.build();
+
+        registerPoolGauge(meterRegistry, connectionManager, MetricsConfig.ASSET_HTTP_POOL_LEASED, "已借出（使用中）的連線數", PoolStats::getLeased);
+        registerPoolGauge(meterRegistry, connectionManager, MetricsConfig.ASSET_HTTP_POOL_PENDING, "等待取得連線的請求數", PoolStats::getPending);
+        registerPoolGauge(meterRegistry, connectionManager, MetricsConfig.ASSET_HTTP_POOL_AVAILABLE, "閒置可重用的連線數", PoolStats::getAvailable);
+        registerPoolGauge(meterRegistry, connectionManager, MetricsConfig.ASSET_HTTP_POOL_MAX, "連線池上限", PoolStats::getMax);
+
+        return new CancellableHttpComponentsClientHttpRequestFactory(httpClient);
+    }
+
+    /**
+     * 連線保留時間取伺服器 {@code Keep-Alive: timeout=} 與設定值中較短者，避免重用伺服器已關閉的連線。
+     */
+    static TimeValue keepAliveDuration(HttpResponse response, Duration configured) {
+        TimeValue fallback = TimeValue.of(configured);
+        Iterator<HeaderElement> elements = MessageSupport.iterate(response, HeaderElements.KEEP_ALIVE);
+        while (elements.hasNext()) {
+            HeaderElement element = elements.next();
+            if ("timeout".equalsIgnoreCase(element.getName()) && element.getValue() != null) {
+                try {
+                    long seconds = Long.parseLong(element.getValue().trim());
+                    return TimeValue.ofSeconds(Math.max(seconds, 0)).min(fallback);
+                } catch (NumberFormatException ignored) {
+                    return fallback;
+                }
+            }
+        }
+        return fallback;
+    }
+
+    private ClientHttpRequestFactory http2RequestFactory(AssetsHttpClientProperties properties) {
+        HttpClient httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_2)
+                .connectTimeout(properties.getConnectTimeout())
+                .build();
+        JdkClientHttpRequestFactory factory = new JdkClientHttpRequestFactory(httpClient);
+        factory.setReadTimeout(properties.getReadTimeout());
+        return factory;
+    }
+
+    private void registerPoolGauge(
+            MeterRegistry meterRegistry,
+            PoolingHttpClientConnectionManager connectionManager,
+            String name,
+            String description,
+            ToDoubleFunction<PoolStats> value
+    ) {
+        Gauge.builder(name, connectionManager, manager -> value.applyAsDouble(manager.getTotalStats()))
+                .description(description)
+                .register(meterRegistry);
+    }
+}
@@ -13,6 +13,42 @@ public class MetricsConfig {
     public static final String ASSET_AGGREGATION_STAGING_WRITE_LATENCY = "asset.aggregation.staging.write.latency";
     public static final String ASSET_AGGREGATION_SUCCESS = "asset.aggregation.success";
     public static final String ASSET_AGGREGATION_FAILURE = "asset.aggregation.failure";
+    public static final String ASSET_AGGREGATION_COALESCED = "asset.aggregation.coalesced";
+    public static final String ASSET_AGGREGATION_IN_FLIGHT = "asset.aggregation.inflight";
+    public static final String ASSET_PIPELINE_CACHE_REQUESTS = "asset.pipeline.cache.requests";
+    public static final String ASSET_PIPELINE_CACHE_INVALIDATIONS = "asset.pipeline.cache.invalidations";
+    public static final String ASSET_PIPELINE_ANALYSIS = "asset.pipeline.analysis";
+    public static final String ASSET_SNAPSHOT_CACHE_REQUESTS = "asset.snapshot.cache.requests";
+    public static final String ASSET_SNAPSHOT_CACHE_SIZE = "asset.snapshot.cache.size";
+    public static final String ASSET_BULKHEAD_REJECTED = "asset.bulkhead.rejected";
+    public static final String ASSET_BULKHEAD_ACTIVE = "asset.bulkhead.active";
+    public static final String ASSET_BULKHEAD_QUEUED = "asset.bulkhead.queued";
+    public static final String ASSET_HEDGE_ISSUED = "asset.hedge.issued";
+    public static final String ASSET_HEDGE_WON = "asset.hedge.won";
+    public static final String ASSET_HEDGE_BUDGET_EXHAUSTED = "asset.hedge.budget.exhausted";
+    public static final String ASSET_HTTP_POOL_LEASED = "asset.http.pool.leased";
+    public static final String ASSET_HTTP_POOL_PENDING = "asset.http.pool.pending";
+    public static final String ASSET_HTTP_POOL_AVAILABLE = "asset.http.pool.available";
+    public static final String ASSET_HTTP_POOL_MAX = "asset.http.pool.max";
+    public static final String ASSET_RAW_WRITE_BATCH_SIZE = "asset.raw.write.batch.size";
+    public static final String ASSET_RAW_WRITE_BATCH_LATENCY = "asset.raw.write.batch.latency";
+    public static final String ASSET_RAW_WRITE_AGGREGATION_LATENCY = "asset.raw.write.aggregation.latency";
+    public static final String ASSET_RAW_JOURNAL_BACKLOG = "asset.raw.journal.backlog";
+    public static final String ASSET_RAW_JOURNAL_DRAIN_LATENCY = "asset.raw.journal.drain.latency";
+    public static final String ASSET_RAW_JOURNAL_REJECTED = "asset.raw.journal.rejected";
+    public static final String ASSET_RAW_RETENTION_ARCHIVED = "asset.raw.retention.archived";
+    public static final String ASSET_RAW_COLLECTION_SIZE = "asset.raw.collection.size";
+    public static final String ASSET_RAW_COLLECTION_INDEX_SIZE = "asset.raw.collection.index.size";
+    public static final String ASSET_RAW_COLLECTION_DOCUMENTS = "asset.raw.collection.documents";
+    public static final String ASSET_RAW_PAYLOAD_BYTES = "asset.raw.payload.bytes";
+    public static final String ASSET_MONGO_WRITE_ATTEMPTS = "asset.mongo.write.attempts";
+    public static final String ASSET_MONGO_WRITE_RETRY_BUDGET_EXHAUSTED = "asset.mongo.write.retry.budget.exhausted";
+    public static final String ASSET_MONGO_WRITE_RETRY_BACKOFF = "asset.mongo.write.retry.backoff";
+    public static final String ASSET_MONGO_INDEX_VIOLATION = "asset.mongo.index.violation";
+    public static final String ASSET_MONGO_POOL_CHECKOUT_WAIT = "asset.mongo.pool.checkout.wait";
+    public static final String ASSET_SOURCE_LATENCY = "asset.source.latency";
+    public static final String ASSET_SOURCE_TIMEOUT = "asset.source.timeout";
+    public static final String ASSET_SOURCE_COMPLETION_ORDER = "asset.source.completion.order";
 
     @Bean
     public Timer assetFetchLatencyTimer(MeterRegistry registry) {
@@ -2,8 +2,14 @@ package com.poc.svc.assets.config;
 
 import com.mongodb.ConnectionString;
 import com.mongodb.MongoClientSettings;
+import com.mongodb.MongoCompressor;
+import com.mongodb.ReadPreference;
 import com.mongodb.client.MongoClient;
 import com.mongodb.client.MongoClients;
+import com.poc.svc.assets.entity.codec.AssetCodecs;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.mongodb.MongoMetricsCommandListener;
+import io.micrometer.core.instrument.binder.mongodb.MongoMetricsConnectionPoolListener;
 import jakarta.annotation.PostConstruct;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Bean;
@@ -11,28 +17,97 @@ import org.springframework.context.annotation.Configuration;
 import org.springframework.data.mongodb.MongoDatabaseFactory;
 import org.springframework.data.mongodb.core.MongoTemplate;
 import org.springframework.data.mongodb.core.SimpleMongoClientDatabaseFactory;
+import org.springframework.util.StringUtils;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
 
 @Configuration
-@EnableConfigurationProperties({MongoSettingsProperties.class, MongoWriteRetryProperties.class})
+@EnableConfigurationProperties({MongoSettingsProperties.class, MongoWriteRetryProperties.class, AssetsRawWriteProperties.class,
+        MongoIndexProperties.class, AssetsRawRetentionProperties.class, MongoDriverProperties.class})
 public class MongoConfig {
 
     private final MongoSettingsProperties properties;
+    private final MongoDriverProperties driverProperties;
 
-    public MongoConfig(MongoSettingsProperties properties) {
+    public MongoConfig(MongoSettingsProperties properties, MongoDriverProperties driverProperties) {
         this.properties = properties;
+        this.driverProperties = driverProperties;
     }
 
     @PostConstruct
     void validate() {
         new ConnectionString(properties.uri()); // 解析錯誤時立即拋出例外
+        if (StringUtils.hasText(driverProperties.getReadPreference())) {
+            ReadPreference.valueOf(driverProperties.getReadPreference());
+        }
     }
 
     @Bean
-    public MongoClient mongoClient() {
-        MongoClientSettings settings = MongoClientSettings.builder()
+    public MongoClient mongoClient(MeterRegistry meterRegistry) {
+        return MongoClients.create(clientSettings(properties, driverProperties, meterRegistry));
+    }
+
+    /**
+     * 連線字串之後只套用 {@code assets.mongo.driver} 中明確設定的項目，其餘沿用連線字串（例如 {@code maxPoolSize}）或 driver 預設；
+     * 啟用指標時註冊 command（{@code mongodb.driver.commands}）、連線池（{@code mongodb.driver.pool.*}）與取得連線等待時間的 listener。
+     */
+    static MongoClientSettings clientSettings(MongoSettingsProperties properties,
+                                              MongoDriverProperties driver,
+                                              MeterRegistry meterRegistry) {
+        MongoDriverProperties.Pool pool = driver.getPool();
+        MongoDriverProperties.Socket socket = driver.getSocket();
+        MongoClientSettings.Builder builder = MongoClientSettings.builder()
                 .applyConnectionString(new ConnectionString(properties.uri()))
-                .build();
-        return MongoClients.create(settings);
+                .codecRegistry(AssetCodecs.REGISTRY) // raw / staging entity 以手寫 codec 讀寫，其餘型別沿用預設
+                .applyToSocketSettings(settings -> {
+                    ifSet(socket.getConnectTimeout(), timeout -> settings.connectTimeout(toMillis(timeout), TimeUnit.MILLISECONDS));
+                    ifSet(socket.getReadTimeout(), timeout -> settings.readTimeout(toMillis(timeout), TimeUnit.MILLISECONDS));
+                })
+                .applyToConnectionPoolSettings(settings -> {
+                    ifSet(pool.getMaxSize(), settings::maxSize);
+                    ifSet(pool.getMinSize(), settings::minSize);
+                    ifSet(pool.getMaxWaitTime(), wait -> settings.maxWaitTime(wait.toMillis(), TimeUnit.MILLISECONDS));
+                    ifSet(pool.getMaxConnectionIdleTime(),
+                            idle -> settings.maxConnectionIdleTime(idle.toMillis(), TimeUnit.MILLISECONDS));
+                    ifSet(pool.getMaxConnecting(), settings::maxConnecting);
+                    if (driver.isMetricsEnabled()) {
+                        settings.addConnectionPoolListener(new MongoMetricsConnectionPoolListener(meterRegistry))
+                                .addConnectionPoolListener(new MongoPoolCheckoutListener(meterRegistry));
+                    }
+                });
+        if (StringUtils.hasText(driver.getReadPreference())) {
+            builder.readPreference(ReadPreference.valueOf(driver.getReadPreference()));
+        }
+        if (driver.getCompressors() != null && !driver.getCompressors().isEmpty()) {
+            builder.compressorList(compressors(driver.getCompressors()));
+        }
+        if (driver.isMetricsEnabled()) {
+            builder.addCommandListener(new MongoMetricsCommandListener(meterRegistry));
+        }
+        return builder.build();
+    }
+
+    private static <T> void ifSet(T value, Consumer<T> apply) {
+        if (value != null) {
+            apply.accept(value);
+        }
+    }
+
+    private static int toMillis(Duration duration) {
+        return Math.toIntExact(duration.toMillis());
+    }
+
+    private static List<MongoCompressor> compressors(List<MongoDriverProperties.Compressor> compressors) {
+        return compressors.stream()
+                .map(compressor -> switch (compressor) {
+                    case ZLIB -> MongoCompressor.createZlibCompressor();
+                    case SNAPPY -> MongoCompressor.createSnappyCompressor();
+                    case ZSTD -> MongoCompressor.createZstdCompressor();
+                })
+                .toList();
     }
 
     @Bean
@@ -44,4 +119,12 @@ public class MongoConfig {
     public MongoTemplate mongoTemplate(MongoDatabaseFactory factory) {
         return new MongoTemplate(factory);
     }
+
+    @Bean
+    public MongoIndexProvisioner mongoIndexProvisioner(MongoClient mongoClient,
+                                                       MongoTemplate mongoTemplate,
+                                                       MongoIndexProperties indexProperties,
+                                                       MeterRegistry meterRegistry) {
+        return new MongoIndexProvisioner(mongoClient, mongoTemplate, properties, indexProperties, meterRegistry);
+    }
 }
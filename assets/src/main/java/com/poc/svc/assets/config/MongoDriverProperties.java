@@ -0,0 +1,179 @@
+package com.poc.svc.assets.config;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.validation.annotation.Validated;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Mongo driver 連線設定；只有明確設定（非 {@code null}）的項目會於 {@code spring.data.mongodb.uri} 之後套用並覆寫連線字串中的同名選項，
+ * 未設定的項目沿用連線字串或 driver 預設值。
+ */
+@Validated
+@ConfigurationProperties(prefix = "assets.mongo.driver")
+public class MongoDriverProperties {
+
+    @Valid
+    @NotNull
+    private Pool pool = new Pool();
+
+    @Valid
+    @NotNull
+    private Socket socket = new Socket();
+
+    /**
+     * wire protocol 壓縮，依序與 server 協商；{@code SNAPPY} / {@code ZSTD} 需另行加入對應壓縮函式庫。空白時沿用連線字串的 {@code compressors}。
+     */
+    private List<Compressor> compressors;
+
+    /**
+     * driver 的 read preference 名稱（例如 {@code primary}、{@code secondaryPreferred}）。
+     */
+    private String readPreference;
+
+    /**
+     * 是否註冊 command / connection pool listener，輸出每個 command 與 collection 的耗時及連線池指標。
+     */
+    private boolean metricsEnabled = true;
+
+    public Pool getPool() {
+        return pool;
+    }
+
+    public void setPool(Pool pool) {
+        this.pool = pool;
+    }
+
+    public Socket getSocket() {
+        return socket;
+    }
+
+    public void setSocket(Socket socket) {
+        this.socket = socket;
+    }
+
+    public List<Compressor> getCompressors() {
+        return compressors;
+    }
+
+    public void setCompressors(List<Compressor> compressors) {
+        this.compressors = compressors;
+    }
+
+    public String getReadPreference() {
+        return readPreference;
+    }
+
+    public void setReadPreference(String readPreference) {
+        this.readPreference = readPreference;
+    }
+
+    public boolean isMetricsEnabled() {
+        return metricsEnabled;
+    }
+
+    public void setMetricsEnabled(boolean metricsEnabled) {
+        this.metricsEnabled = metricsEnabled;
+    }
+
+    public enum Compressor {
+        ZLIB,
+        SNAPPY,
+        ZSTD
+    }
+
+    public static class Pool {
+
+        @Min(value = 1, message = "assets.mongo.driver.pool.max-size must be >= 1")
+        private Integer maxSize;
+
+        @Min(value = 0, message = "assets.mongo.driver.pool.min-size must be >= 0")
+        private Integer minSize;
+
+        /**
+         * 連線池用盡時等待取得連線的上限，逾時即丟出 {@code MongoTimeoutException}。
+         */
+        private Duration maxWaitTime;
+
+        /**
+         * 閒置連線保留時間，{@code 0} 表示不限。
+         */
+        private Duration maxConnectionIdleTime;
+
+        /**
+         * 同時建立中的連線數上限。
+         */
+        @Min(value = 1, message = "assets.mongo.driver.pool.max-connecting must be >= 1")
+        private Integer maxConnecting;
+
+        public Integer getMaxSize() {
+            return maxSize;
+        }
+
+        public void setMaxSize(Integer maxSize) {
+            this.maxSize = maxSize;
+        }
+
+        public Integer getMinSize() {
+            return minSize;
+        }
+
+        public void setMinSize(Integer minSize) {
+            this.minSize = minSize;
+        }
+
+        public Duration getMaxWaitTime() {
+            return maxWaitTime;
+        }
+
+        public void setMaxWaitTime(Duration maxWaitTime) {
+            this.maxWaitTime = maxWaitTime;
+        }
+
+        public Duration getMaxConnectionIdleTime() {
+            return maxConnectionIdleTime;
+        }
+
+        public void setMaxConnectionIdleTime(Duration maxConnectionIdleTime) {
+            this.maxConnectionIdleTime = maxConnectionIdleTime;
+        }
+
+        public Integer getMaxConnecting() {
+            return maxConnecting;
+        }
+
+        public void setMaxConnecting(Integer maxConnecting) {
+            this.maxConnecting = maxConnecting;
+        }
+    }
+
+    public static class Socket {
+
+        private Duration connectTimeout;
+
+        /**
+         * socket 讀取逾時，{@code 0} 表示不限。
+         */
+        private Duration readTimeout;
+
+        public Duration getConnectTimeout() {
+            return connectTimeout;
+        }
+
+        public void setConnectTimeout(Duration connectTimeout) {
+            this.connectTimeout = connectTimeout;
+        }
+
+        public Duration getReadTimeout() {
+            return readTimeout;
+        }
+
+        public void setReadTimeout(Duration readTimeout) {
+            this.readTimeout = readTimeout;
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package com.poc.svc.assets.config;
+
+import jakarta.validation.constraints.NotNull;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.validation.annotation.Validated;
+
+@Validated
+@ConfigurationProperties(prefix = "assets.mongo.indexes")
+public class MongoIndexProperties {
+
+    /**
+     * 啟動時建立 raw / staging / pipeline_store 所需索引（已存在則略過）。
+     */
+    private boolean enabled = true;
+
+    /**
+     * 建立索引後以 explain 檢查熱查詢的執行計畫。
+     */
+    private boolean verifyPlans = true;
+
+    /**
+     * 熱查詢計畫為 COLLSCAN 或索引建立失敗時的處理方式。
+     */
+    @NotNull
+    private OnViolation onViolation = OnViolation.WARN;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public boolean isVerifyPlans() {
+        return verifyPlans;
+    }
+
+    public void setVerifyPlans(boolean verifyPlans) {
+        this.verifyPlans = verifyPlans;
+    }
+
+    public OnViolation getOnViolation() {
+        return onViolation;
+    }
+
+    public void setOnViolation(OnViolation onViolation) {
+        this.onViolation = onViolation;
+    }
+
+    public enum OnViolation {
+        /**
+         * 記錄警告並累計 {@code asset.mongo.index.violation}，服務照常啟動。
+         */
+        WARN,
+        /**
+         * 中止啟動。
+         */
+        FAIL
+    }
+}
@@ -0,0 +1,201 @@
+package com.poc.svc.assets.config;
+
+import com.mongodb.MongoException;
+import com.mongodb.MongoTimeoutException;
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoDatabase;
+import com.mongodb.client.model.IndexModel;
+import com.mongodb.client.model.IndexOptions;
+import com.poc.svc.assets.entity.BankAssetRawDocument;
+import com.poc.svc.assets.entity.InsuranceAssetRawDocument;
+import com.poc.svc.assets.entity.SecuritiesAssetRawDocument;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.data.mongodb.core.MongoTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+
+/**
+ * 啟動時依 {@link #indexes()} 建立索引（createIndexes 對相同定義為 no-op），再以 explain 驗證 {@link #hotQueries()} 未走 COLLSCAN。
+ * raw collection 名稱取自各來源 entity 的 mapping，與寫入路徑使用同一名稱。
+ * 依 {@code assets.mongo.indexes.on-violation} 決定警告或中止啟動。
+ */
+public class MongoIndexProvisioner implements ApplicationRunner {
+
+    private static final Logger log = LoggerFactory.getLogger(MongoIndexProvisioner.class);
+    private static final String COLLECTION_SCAN = "COLLSCAN";
+    private static final List<Class<?>> RAW_ENTITIES = List.of(
+            BankAssetRawDocument.class,
+            SecuritiesAssetRawDocument.class,
+            InsuranceAssetRawDocument.class
+    );
+
+    private final MongoClient mongoClient;
+    private final MongoSettingsProperties mongoSettings;
+    private final MongoIndexProperties properties;
+    private final MeterRegistry meterRegistry;
+    private final List<IndexSpec> indexes;
+    private final List<HotQuery> hotQueries;
+
+    public MongoIndexProvisioner(MongoClient mongoClient,
+                                 MongoTemplate mongoTemplate,
+                                 MongoSettingsProperties mongoSettings,
+                                 MongoIndexProperties properties,
+                                 MeterRegistry meterRegistry) {
+        this.mongoClient = Objects.requireNonNull(mongoClient, "mongoClient must not be null");
+        Objects.requireNonNull(mongoTemplate, "mongoTemplate must not be null");
+        this.mongoSettings = Objects.requireNonNull(mongoSettings, "mongoSettings must not be null");
+        this.properties = Objects.requireNonNull(properties, "properties must not be null");
+        this.meterRegistry = Objects.requireNonNull(meterRegistry, "meterRegistry must not be null");
+        List<String> rawCollections = RAW_ENTITIES.stream()
+                .map(mongoTemplate::getCollectionName)
+                .toList();
+        this.indexes = buildIndexes(rawCollections);
+        this.hotQueries = buildHotQueries(rawCollections);
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        MongoDatabase database = mongoClient.getDatabase(mongoSettings.database());
+        List<String> violations = new ArrayList<>();
+        try {
+            provision(database, violations);
+            if (properties.isVerifyPlans()) {
+                verify(database, violations);
+            }
+        } catch (MongoTimeoutException ex) {
+            // 連不上 Mongo 時不逐一等待其餘索引的 server selection timeout
+            violation(violations, "*", "connect", "Mongo unreachable: " + ex.getMessage());
+        }
+        if (violations.isEmpty()) {
+            log.info("Mongo indexes provisioned collections={} verifiedQueries={}",
+                    indexes.stream().map(IndexSpec::collection).distinct().count(),
+                    properties.isVerifyPlans() ? hotQueries.size() : 0);
+            return;
+        }
+        if (properties.getOnViolation() == MongoIndexProperties.OnViolation.FAIL) {
+            throw new IllegalStateException("Mongo index verification failed: " + String.join("; ", violations));
+        }
+    }
+
+    private void provision(MongoDatabase database, List<String> violations) {
+        for (IndexSpec spec : indexes) {
+            try {
+                database.getCollection(spec.collection()).createIndexes(List.of(spec.toModel()));
+            } catch (MongoTimeoutException ex) {
+                throw ex;
+            } catch (MongoException ex) {
+                // 例如同名索引定義不同（IndexOptionsConflict）或既有資料違反 unique
+                violation(violations, spec.collection(), spec.name(),
+                        "index %s.%s could not be created: %s".formatted(spec.collection(), spec.name(), ex.getMessage()));
+            }
+        }
+    }
+
+    private void verify(MongoDatabase database, List<String> violations) {
+        for (HotQuery query : hotQueries) {
+            Document explain;
+            try {
+                explain = database.runCommand(new Document("explain",
+                        new Document("find", query.collection()).append("filter", query.filter()))
+                        .append("verbosity", "queryPlanner"));
+            } catch (MongoTimeoutException ex) {
+                throw ex;
+            } catch (MongoException ex) {
+                violation(violations, query.collection(), query.name(),
+                        "explain %s.%s failed: %s".formatted(query.collection(), query.name(), ex.getMessage()));
+                continue;
+            }
+            winningPlan(explain)
+                    .filter(MongoIndexProvisioner::isCollectionScan)
+                    .ifPresent(plan -> violation(violations, query.collection(), query.name(),
+                            "hot query %s.%s uses a COLLSCAN plan".formatted(query.collection(), query.name())));
+        }
+    }
+
+    private void violation(List<String> violations, String collection, String name, String message) {
+        violations.add(message);
+        meterRegistry.counter(MetricsConfig.ASSET_MONGO_INDEX_VIOLATION, "collection", collection, "name", name).increment();
+        log.warn("Mongo index violation: {}", message);
+    }
+
+    public static Optional<Document> winningPlan(Document explain) {
+        Document planner = explain.get("queryPlanner", Document.class);
+        if (planner == null) {
+            return Optional.empty();
+        }
+        return Optional.ofNullable(planner.get("winningPlan", Document.class));
+    }
+
+    /**
+     * 走訪計畫樹（含 {@code inputStage(s)} 與 SBE 的 {@code queryPlan}），任一節點為 COLLSCAN 即成立。
+     */
+    public static boolean isCollectionScan(Document plan) {
+        if (COLLECTION_SCAN.equals(plan.getString("stage"))) {
+            return true;
+        }
+        for (String key : List.of("inputStage", "queryPlan")) {
+            Document child = plan.get(key, Document.class);
+            if (child != null && isCollectionScan(child)) {
+                return true;
+            }
+        }
+        List<Document> children = plan.getList("inputStages", Document.class);
+        return children != null && children.stream().anyMatch(MongoIndexProvisioner::isCollectionScan);
+    }
+
+    List<IndexSpec> indexes() {
+        return indexes;
+    }
+
+    List<HotQuery> hotQueries() {
+        return hotQueries;
+    }
+
+    private static List<IndexSpec> buildIndexes(List<String> rawCollections) {
+        List<IndexSpec> indexes = new ArrayList<>();
+        for (String collection : rawCollections) {
+            indexes.add(new IndexSpec(collection, "customerId_fetchedAt",
+                    new Document("customerId", 1).append("fetchedAt", -1), false));
+            indexes.add(new IndexSpec(collection, "traceId", new Document("traceId", 1), false));
+        }
+        // $merge on: "traceId" 需要 traceId 的 unique 索引
+        indexes.add(new IndexSpec("asset_staging", "traceId_unique", new Document("traceId", 1), true));
+        indexes.add(new IndexSpec("asset_staging", "customerId_aggregatedAt",
+                new Document("customerId", 1).append("aggregatedAt", -1), false));
+        indexes.add(new IndexSpec("pipeline_store", "name_unique", new Document("name", 1), true));
+        return List.copyOf(indexes);
+    }
+
+    private static List<HotQuery> buildHotQueries(List<String> rawCollections) {
+        List<HotQuery> queries = new ArrayList<>();
+        for (String collection : rawCollections) {
+            queries.add(new HotQuery(collection, "byCustomerId", new Document("customerId", "")));
+            queries.add(new HotQuery(collection, "byTraceId", new Document("traceId", "")));
+        }
+        queries.add(new HotQuery("asset_staging", "byTraceId", new Document("traceId", "")));
+        queries.add(new HotQuery("asset_staging", "byCustomerId", new Document("customerId", "")));
+        queries.add(new HotQuery("pipeline_store", "byName", new Document("name", "")));
+        return List.copyOf(queries);
+    }
+
+    record IndexSpec(String collection, String name, Document keys, boolean unique) {
+
+        IndexModel toModel() {
+            return new IndexModel(keys, new IndexOptions().name(name).unique(unique));
+        }
+    }
+
+    record HotQuery(String collection, String name, Document filter) {
+    }
+}
@@ -0,0 +1,44 @@
+package com.poc.svc.assets.config;
+
+import com.mongodb.event.ConnectionCheckOutFailedEvent;
+import com.mongodb.event.ConnectionCheckedOutEvent;
+import com.mongodb.event.ConnectionPoolListener;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import java.util.Locale;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 記錄自連線池取得連線的等待時間（含失敗原因）；Micrometer 內建的 pool listener 只提供連線數與等待佇列長度。
+ */
+public class MongoPoolCheckoutListener implements ConnectionPoolListener {
+
+    private final MeterRegistry meterRegistry;
+
+    public MongoPoolCheckoutListener(MeterRegistry meterRegistry) {
+        this.meterRegistry = Objects.requireNonNull(meterRegistry, "meterRegistry must not be null");
+    }
+
+    @Override
+    public void connectionCheckedOut(ConnectionCheckedOutEvent event) {
+        timer(event.getConnectionId().getServerId().getAddress().toString(), "ok")
+                .record(event.getElapsedTime(TimeUnit.NANOSECONDS), TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    public void connectionCheckOutFailed(ConnectionCheckOutFailedEvent event) {
+        timer(event.getServerId().getAddress().toString(), event.getReason().name().toLowerCase(Locale.ROOT))
+                .record(event.getElapsedTime(TimeUnit.NANOSECONDS), TimeUnit.NANOSECONDS);
+    }
+
+    private Timer timer(String server, String status) {
+        return Timer.builder(MetricsConfig.ASSET_MONGO_POOL_CHECKOUT_WAIT)
+                .description("自 Mongo 連線池取得連線的等待時間")
+                .tag("server", server)
+                .tag("status", status)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+}
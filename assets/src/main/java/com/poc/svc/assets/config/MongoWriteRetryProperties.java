@@ -16,6 +16,9 @@ public class MongoWriteRetryProperties {
 
     private static final int DEFAULT_MAX_ATTEMPTS = 3;
     private static final Duration DEFAULT_BACKOFF = Duration.ofMillis(100);
+    private static final Duration DEFAULT_MAX_BACKOFF = Duration.ofSeconds(2);
+    private static final double DEFAULT_BUDGET_RATIO = 0.1;
+    private static final int DEFAULT_BUDGET_BURST = 10;
 
     @Min(1)
     private int maxAttempts = DEFAULT_MAX_ATTEMPTS;
@@ -24,6 +27,24 @@ public class MongoWriteRetryProperties {
     @DurationUnit(ChronoUnit.MILLIS)
     private Duration backoff = DEFAULT_BACKOFF;
 
+    /**
+     * decorrelated jitter backoff 的上限；每次等待介於 {@code backoff} 與前次等待的 3 倍之間。
+     */
+    @NotNull
+    @DurationUnit(ChronoUnit.MILLIS)
+    private Duration maxBackoff = DEFAULT_MAX_BACKOFF;
+
+    /**
+     * 全域重試額度：每次寫入存入的 token 數，每次重試消耗 1 個。
+     */
+    private double budgetRatio = DEFAULT_BUDGET_RATIO;
+
+    /**
+     * 全域重試額度上限（亦為啟動時的初始額度）。
+     */
+    @Min(1)
+    private int budgetBurst = DEFAULT_BUDGET_BURST;
+
     public static MongoWriteRetryProperties defaults() {
         return new MongoWriteRetryProperties();
     }
@@ -50,4 +71,38 @@ public class MongoWriteRetryProperties {
         }
         this.backoff = backoff;
     }
+
+    public Duration getMaxBackoff() {
+        return maxBackoff;
+    }
+
+    public void setMaxBackoff(Duration maxBackoff) {
+        Objects.requireNonNull(maxBackoff, "maxBackoff must not be null");
+        if (maxBackoff.isNegative()) {
+            throw new IllegalArgumentException("maxBackoff must not be negative");
+        }
+        this.maxBackoff = maxBackoff;
+    }
+
+    public double getBudgetRatio() {
+        return budgetRatio;
+    }
+
+    public void setBudgetRatio(double budgetRatio) {
+        if (budgetRatio < 0 || budgetRatio > 1) {
+            throw new IllegalArgumentException("budgetRatio must be between 0 and 1");
+        }
+        this.budgetRatio = budgetRatio;
+    }
+
+    public int getBudgetBurst() {
+        return budgetBurst;
+    }
+
+    public void setBudgetBurst(int budgetBurst) {
+        if (budgetBurst < 1) {
+            throw new IllegalArgumentException("budgetBurst must be >= 1");
+        }
+        this.budgetBurst = budgetBurst;
+    }
 }
@@ -14,18 +14,32 @@ import java.io.IOException;
 
 /**
  * 於每次請求產生或沿用 TRACE ID，串接 MDC 與 Response Header。
+ * 非同步請求於 async dispatch 時由 request attribute 還原同一個 TRACE ID。
  */
 @Component
 @Order(Ordered.HIGHEST_PRECEDENCE)
 public class TraceIdFilter extends OncePerRequestFilter {
 
+    static final String TRACE_ID_ATTRIBUTE = TraceIdFilter.class.getName() + ".traceId";
+
+    @Override
+    protected boolean shouldNotFilterAsyncDispatch() {
+        return false;
+    }
+
     @Override
     protected void doFilterInternal(HttpServletRequest request,
                                     HttpServletResponse response,
                                     FilterChain filterChain) throws ServletException, IOException {
-        String existingTraceId = request.getHeader(TraceContext.TRACE_ID_HEADER);
+        Object dispatchedTraceId = request.getAttribute(TRACE_ID_ATTRIBUTE);
+        String existingTraceId = dispatchedTraceId instanceof String value
+                ? value
+                : request.getHeader(TraceContext.TRACE_ID_HEADER);
         String traceId = TraceContext.ensureTraceId(existingTraceId);
-        response.setHeader(TraceContext.TRACE_ID_HEADER, traceId);
+        request.setAttribute(TRACE_ID_ATTRIBUTE, traceId);
+        if (!response.isCommitted()) {
+            response.setHeader(TraceContext.TRACE_ID_HEADER, traceId);
+        }
         try {
             filterChain.doFilter(request, response);
         } finally {
@@ -3,6 +3,7 @@ package com.poc.svc.assets.controller;
 import com.poc.svc.assets.dto.ErrorResponse;
 import com.poc.svc.assets.dto.api.AssetStagingDocumentExample;
 import com.poc.svc.assets.service.AssetAggregationService;
+import com.poc.svc.assets.service.AssetSnapshotCache;
 import com.poc.svc.assets.util.TraceContext;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
@@ -13,6 +14,7 @@ import io.swagger.v3.oas.annotations.media.ExampleObject;
 import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import org.bson.Document;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
@@ -22,16 +24,25 @@ import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
+import java.time.Duration;
 import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 
 @RestController
 @RequestMapping("/assets/customers/{customerId}")
 public class AssetIntegrationController {
 
     private final AssetAggregationService assetAggregationService;
+    private final AssetSnapshotCache assetSnapshotCache;
+    private final boolean asyncEnabled;
 
-    public AssetIntegrationController(AssetAggregationService assetAggregationService) {
+    public AssetIntegrationController(AssetAggregationService assetAggregationService,
+                                      AssetSnapshotCache assetSnapshotCache,
+                                      @Value("${assets.web.async-enabled:true}") boolean asyncEnabled) {
         this.assetAggregationService = assetAggregationService;
+        this.assetSnapshotCache = assetSnapshotCache;
+        this.asyncEnabled = asyncEnabled;
     }
 
     @GetMapping
@@ -49,7 +60,12 @@ public class AssetIntegrationController {
                             name = TraceContext.TRACE_ID_HEADER,
                             in = ParameterIn.HEADER,
                             required = false,
-                            description = "跨服務追蹤用的 Trace ID，未提供時系統會建立")
+                            description = "跨服務追蹤用的 Trace ID，未提供時系統會建立"),
+                    @Parameter(
+                            name = HttpHeaders.CACHE_CONTROL,
+                            in = ParameterIn.HEADER,
+                            required = false,
+                            description = "以 max-age / max-stale（秒）接受近期的整合快照，no-cache 強制重新整合；回應以 Age header 標示快照年齡")
             },
             responses = {
                     @ApiResponse(
@@ -153,14 +169,32 @@ public class AssetIntegrationController {
                                     schema = @Schema(implementation = ErrorResponse.class)))
             }
     )
-    public ResponseEntity<List<Document>> aggregateCustomerAssets(
+    public CompletableFuture<ResponseEntity<List<Document>>> aggregateCustomerAssets(
             @PathVariable String customerId,
-            @RequestHeader(value = TraceContext.TRACE_ID_HEADER, required = false) String traceIdHeader
+            @RequestHeader(value = TraceContext.TRACE_ID_HEADER, required = false) String traceIdHeader,
+            @RequestHeader(value = HttpHeaders.CACHE_CONTROL, required = false) String cacheControl
     ) {
         String traceId = TraceContext.ensureTraceId(traceIdHeader);
-        List<Document> response = assetAggregationService.aggregateCustomerAssets(customerId);
+        Optional<AssetSnapshotCache.CachedSnapshot> snapshot = assetSnapshotCache.lookup(customerId, cacheControl);
+        if (snapshot.isPresent()) {
+            return CompletableFuture.completedFuture(toResponse(snapshot.get().documents(), traceId, snapshot.get().age()));
+        }
+        if (!asyncEnabled) {
+            List<Document> response = assetAggregationService.aggregateCustomerAssets(customerId);
+            assetSnapshotCache.put(customerId, response);
+            return CompletableFuture.completedFuture(toResponse(response, traceId, Duration.ZERO));
+        }
+        return assetAggregationService.aggregateCustomerAssetsAsync(customerId)
+                .thenApply(response -> {
+                    assetSnapshotCache.put(customerId, response);
+                    return toResponse(response, traceId, Duration.ZERO);
+                });
+    }
+
+    private ResponseEntity<List<Document>> toResponse(List<Document> response, String traceId, Duration age) {
         HttpHeaders headers = new HttpHeaders();
         headers.add(TraceContext.TRACE_ID_HEADER, traceId);
+        headers.add(HttpHeaders.AGE, Long.toString(age.toSeconds()));
         return ResponseEntity.ok()
                 .headers(headers)
                 .body(response);
@@ -0,0 +1,37 @@
+package com.poc.svc.assets.controller;
+
+import com.poc.svc.assets.service.PipelinePlanAnalyzer;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * {@code /actuator/pipelines}：各 pipeline 目前啟用與最近被拒絕定義的 explain 分析結果。
+ */
+@Component
+@Endpoint(id = "pipelines")
+public class PipelinePlanEndpoint {
+
+    private final PipelinePlanAnalyzer planAnalyzer;
+
+    public PipelinePlanEndpoint(PipelinePlanAnalyzer planAnalyzer) {
+        this.planAnalyzer = Objects.requireNonNull(planAnalyzer, "planAnalyzer must not be null");
+    }
+
+    @ReadOperation
+    public Map<String, PipelinePlanAnalyzer.Analysis> pipelines() {
+        return planAnalyzer.analyses();
+    }
+
+    /**
+     * 尚未分析的 pipeline 回傳 null（actuator 轉為 404）。
+     */
+    @ReadOperation
+    public PipelinePlanAnalyzer.Analysis pipeline(@Selector String name) {
+        return planAnalyzer.analyses().get(name);
+    }
+}
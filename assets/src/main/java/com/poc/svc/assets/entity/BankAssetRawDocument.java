@@ -17,7 +17,18 @@ public record BankAssetRawDocument(
         List<CurrencyAmount> currencySummary,
         Instant fetchedAt,
         String traceId
-) {
+) implements RawAssetDocument<BankAssetRawDocument> {
+
+    @Override
+    public BankAssetRawDocument withId(String id) {
+        return new BankAssetRawDocument(id, customerId, payload, totalBalance, currencySummary, fetchedAt, traceId);
+    }
+
+    @Override
+    public BankAssetRawDocument withPayload(Map<String, Object> payload) {
+        return new BankAssetRawDocument(id, customerId, payload, totalBalance, currencySummary, fetchedAt, traceId);
+    }
+
     public record CurrencyAmount(String currency, BigDecimal amount) {
     }
 }
@@ -16,5 +16,15 @@ public record InsuranceAssetRawDocument(
         Integer policiesCount,
         Instant fetchedAt,
         String traceId
-) {
+) implements RawAssetDocument<InsuranceAssetRawDocument> {
+
+    @Override
+    public InsuranceAssetRawDocument withId(String id) {
+        return new InsuranceAssetRawDocument(id, customerId, payload, totalCoverage, policiesCount, fetchedAt, traceId);
+    }
+
+    @Override
+    public InsuranceAssetRawDocument withPayload(Map<String, Object> payload) {
+        return new InsuranceAssetRawDocument(id, customerId, payload, totalCoverage, policiesCount, fetchedAt, traceId);
+    }
 }
@@ -0,0 +1,19 @@
+package com.poc.svc.assets.entity;
+
+import java.util.Map;
+
+/**
+ * 各來源 raw collection entity 的共同部分：寫入路徑依 payload 形式選擇編碼方式，寫入後以 {@link #withId} 帶回 {@code _id}。
+ *
+ * @param <T> entity 本身的型別
+ */
+public interface RawAssetDocument<T extends RawAssetDocument<T>> {
+
+    String id();
+
+    Map<String, Object> payload();
+
+    T withId(String id);
+
+    T withPayload(Map<String, Object> payload);
+}
@@ -16,5 +16,15 @@ public record SecuritiesAssetRawDocument(
         Integer holdingsCount,
         Instant fetchedAt,
         String traceId
-) {
+) implements RawAssetDocument<SecuritiesAssetRawDocument> {
+
+    @Override
+    public SecuritiesAssetRawDocument withId(String id) {
+        return new SecuritiesAssetRawDocument(id, customerId, payload, totalMarketValue, holdingsCount, fetchedAt, traceId);
+    }
+
+    @Override
+    public SecuritiesAssetRawDocument withPayload(Map<String, Object> payload) {
+        return new SecuritiesAssetRawDocument(id, customerId, payload, totalMarketValue, holdingsCount, fetchedAt, traceId);
+    }
 }
@@ -0,0 +1,33 @@
+package com.poc.svc.assets.entity.codec;
+
+import com.poc.svc.assets.entity.AssetStagingDocument;
+import com.poc.svc.assets.entity.BankAssetRawDocument;
+import com.poc.svc.assets.entity.InsuranceAssetRawDocument;
+import com.poc.svc.assets.entity.SecuritiesAssetRawDocument;
+import org.bson.codecs.Codec;
+import org.bson.codecs.configuration.CodecProvider;
+import org.bson.codecs.configuration.CodecRegistry;
+
+/**
+ * 提供 raw / staging entity 的手寫 codec；其他型別回傳 null 交由 registry 中後續的 provider 處理。
+ */
+public final class AssetCodecProvider implements CodecProvider {
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> Codec<T> get(Class<T> clazz, CodecRegistry registry) {
+        if (clazz == BankAssetRawDocument.class) {
+            return (Codec<T>) new BankAssetRawDocumentCodec(registry);
+        }
+        if (clazz == SecuritiesAssetRawDocument.class) {
+            return (Codec<T>) new SecuritiesAssetRawDocumentCodec(registry);
+        }
+        if (clazz == InsuranceAssetRawDocument.class) {
+            return (Codec<T>) new InsuranceAssetRawDocumentCodec(registry);
+        }
+        if (clazz == AssetStagingDocument.class) {
+            return (Codec<T>) new AssetStagingDocumentCodec(registry);
+        }
+        return null;
+    }
+}
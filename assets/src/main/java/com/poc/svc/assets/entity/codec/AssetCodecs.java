@@ -0,0 +1,64 @@
+package com.poc.svc.assets.entity.codec;
+
+import com.mongodb.MongoClientSettings;
+import com.poc.svc.assets.entity.AssetStagingDocument;
+import com.poc.svc.assets.entity.BankAssetRawDocument;
+import com.poc.svc.assets.entity.InsuranceAssetRawDocument;
+import com.poc.svc.assets.entity.SecuritiesAssetRawDocument;
+import org.bson.BsonDocument;
+import org.bson.BsonDocumentWriter;
+import org.bson.Document;
+import org.bson.codecs.Codec;
+import org.bson.codecs.DecoderContext;
+import org.bson.codecs.EncoderContext;
+import org.bson.codecs.configuration.CodecRegistries;
+import org.bson.codecs.configuration.CodecRegistry;
+
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * 手寫 entity codec 的 registry：{@link AssetCodecProvider} 優先，其餘沿用 driver 預設 codec。
+ * 由 {@code MongoConfig} 註冊至 MongoClient，以 entity 型別讀寫 collection 時不經過 {@code MappingMongoConverter}。
+ */
+public final class AssetCodecs {
+
+    public static final CodecRegistry REGISTRY = CodecRegistries.fromRegistries(
+            CodecRegistries.fromProviders(new AssetCodecProvider()),
+            MongoClientSettings.getDefaultCodecRegistry()
+    );
+
+    private static final Set<Class<?>> SUPPORTED = Set.of(
+            BankAssetRawDocument.class,
+            SecuritiesAssetRawDocument.class,
+            InsuranceAssetRawDocument.class,
+            AssetStagingDocument.class
+    );
+
+    private AssetCodecs() {
+    }
+
+    public static boolean supports(Class<?> type) {
+        return SUPPORTED.contains(type);
+    }
+
+    /**
+     * 以手寫 codec 將 entity 編碼為文件；頂層欄位保留 {@code BsonValue}，寫入時不需再轉換。
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> Document toDocument(T entity) {
+        Objects.requireNonNull(entity, "entity must not be null");
+        Codec<T> codec = (Codec<T>) REGISTRY.get(entity.getClass());
+        BsonDocument bson = new BsonDocument();
+        codec.encode(new BsonDocumentWriter(bson), entity, EncoderContext.builder().build());
+        Document document = new Document();
+        bson.forEach(document::put);
+        return document;
+    }
+
+    public static <T> T fromDocument(BsonDocument document, Class<T> type) {
+        Objects.requireNonNull(document, "document must not be null");
+        Objects.requireNonNull(type, "type must not be null");
+        return REGISTRY.get(type).decode(document.asBsonReader(), DecoderContext.builder().build());
+    }
+}
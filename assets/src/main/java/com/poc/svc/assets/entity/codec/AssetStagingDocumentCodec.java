@@ -0,0 +1,283 @@
+package com.poc.svc.assets.entity.codec;
+
+import com.poc.svc.assets.entity.AssetStagingDocument;
+import org.bson.BsonReader;
+import org.bson.BsonType;
+import org.bson.BsonWriter;
+import org.bson.codecs.Codec;
+import org.bson.codecs.DecoderContext;
+import org.bson.codecs.EncoderContext;
+import org.bson.codecs.configuration.CodecRegistry;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+public final class AssetStagingDocumentCodec implements Codec<AssetStagingDocument> {
+
+    private final CodecRegistry registry;
+
+    public AssetStagingDocumentCodec(CodecRegistry registry) {
+        this.registry = Objects.requireNonNull(registry, "registry must not be null");
+    }
+
+    @Override
+    public void encode(BsonWriter writer, AssetStagingDocument value, EncoderContext context) {
+        writer.writeStartDocument();
+        BsonFields.writeId(writer, value.id());
+        BsonFields.writeString(writer, "customerId", value.customerId());
+        BsonFields.writeString(writer, "baseCurrency", value.baseCurrency());
+        writeArray(writer, "components", value.components(), component -> encodeComponent(writer, component, context));
+        writeArray(writer, "assets", value.assets(), entry -> encodeEntry(writer, entry));
+        BsonFields.writeDecimal(writer, "totalAssetValue", value.totalAssetValue());
+        writeArray(writer, "currencyBreakdown", value.currencyBreakdown(), currency -> {
+            BsonFields.writeString(writer, "currency", currency.currency());
+            BsonFields.writeDecimal(writer, "amount", currency.amount());
+        });
+        BsonFields.writeString(writer, "aggregationStatus", value.aggregationStatus());
+        BsonFields.writeInstant(writer, "aggregatedAt", value.aggregatedAt());
+        BsonFields.writeString(writer, "traceId", value.traceId());
+        writer.writeString(BsonFields.CLASS, AssetStagingDocument.class.getName());
+        writer.writeEndDocument();
+    }
+
+    @Override
+    public AssetStagingDocument decode(BsonReader reader, DecoderContext context) {
+        String id = null;
+        String customerId = null;
+        String baseCurrency = null;
+        List<AssetStagingDocument.Component> components = null;
+        List<AssetStagingDocument.AssetEntry> assets = null;
+        BigDecimal totalAssetValue = null;
+        List<AssetStagingDocument.CurrencyAmount> currencyBreakdown = null;
+        String aggregationStatus = null;
+        Instant aggregatedAt = null;
+        String traceId = null;
+
+        reader.readStartDocument();
+        while (reader.readBsonType() != BsonType.END_OF_DOCUMENT) {
+            switch (reader.readName()) {
+                case BsonFields.ID -> id = BsonFields.readId(reader);
+                case "customerId" -> customerId = BsonFields.readString(reader);
+                case "baseCurrency" -> baseCurrency = BsonFields.readString(reader);
+                case "components" -> components = readArray(reader, ignored -> decodeComponent(reader, context));
+                case "assets" -> assets = readArray(reader, ignored -> decodeEntry(reader));
+                case "totalAssetValue" -> totalAssetValue = BsonFields.readDecimal(reader);
+                case "currencyBreakdown" -> currencyBreakdown = readArray(reader, ignored -> decodeCurrency(reader));
+                case "aggregationStatus" -> aggregationStatus = BsonFields.readString(reader);
+                case "aggregatedAt" -> aggregatedAt = BsonFields.readInstant(reader);
+                case "traceId" -> traceId = BsonFields.readString(reader);
+                default -> reader.skipValue();
+            }
+        }
+        reader.readEndDocument();
+        return new AssetStagingDocument(id, customerId, baseCurrency, components, assets, totalAssetValue,
+                currencyBreakdown, aggregationStatus, aggregatedAt, traceId);
+    }
+
+    @Override
+    public Class<AssetStagingDocument> getEncoderClass() {
+        return AssetStagingDocument.class;
+    }
+
+    private void encodeComponent(BsonWriter writer, AssetStagingDocument.Component component, EncoderContext context) {
+        BsonFields.writeString(writer, "source", component.source());
+        BsonFields.writeString(writer, "status", component.status());
+        BsonFields.writeDecimal(writer, "amountInBase", component.amountInBase());
+        BsonFields.writeString(writer, "sourceCurrency", component.sourceCurrency());
+        BsonFields.writeDecimal(writer, "exchangeRate", component.exchangeRate());
+        BsonFields.writeString(writer, "rawTraceId", component.rawTraceId());
+        BsonFields.writeInstant(writer, "fetchedAt", component.fetchedAt());
+        BsonFields.writeMapList(writer, "assetDetails", component.assetDetails(), context, registry);
+        BsonFields.writeString(writer, "payloadRefId", component.payloadRefId());
+    }
+
+    private void encodeEntry(BsonWriter writer, AssetStagingDocument.AssetEntry entry) {
+        BsonFields.writeString(writer, "customerId", entry.customerId());
+        BsonFields.writeString(writer, "source", entry.source());
+        BsonFields.writeString(writer, "sourceStatus", entry.sourceStatus());
+        BsonFields.writeString(writer, "assetName", entry.assetName());
+        BsonFields.writeString(writer, "assetType", entry.assetType());
+        BsonFields.writeString(writer, "currency", entry.currency());
+        BsonFields.writeString(writer, "sourceCurrency", entry.sourceCurrency());
+        BsonFields.writeDecimal(writer, "exchangeRate", entry.exchangeRate());
+        BsonFields.writeString(writer, "baseCurrency", entry.baseCurrency());
+        BsonFields.writeDecimal(writer, "amountInBase", entry.amountInBase());
+        BsonFields.writeDecimal(writer, "balance", entry.balance());
+        BsonFields.writeDecimal(writer, "marketValue", entry.marketValue());
+        BsonFields.writeDecimal(writer, "coverage", entry.coverage());
+        BsonFields.writeString(writer, "policyNumber", entry.policyNumber());
+        BsonFields.writeString(writer, "policyType", entry.policyType());
+        BsonFields.writeString(writer, "premiumStatus", entry.premiumStatus());
+        BsonFields.writeString(writer, "riskLevel", entry.riskLevel());
+        BsonFields.writeString(writer, "symbol", entry.symbol());
+        BsonFields.writeDecimal(writer, "holdings", entry.holdings());
+        BsonFields.writeString(writer, "accountId", entry.accountId());
+        BsonFields.writeInstant(writer, "fetchedAt", entry.fetchedAt());
+        BsonFields.writeInstant(writer, "aggregatedAt", entry.aggregatedAt());
+        BsonFields.writeString(writer, "traceId", entry.traceId());
+        BsonFields.writeString(writer, "payloadRefId", entry.payloadRefId());
+        BsonFields.writeDecimal(writer, "totalAssetValue", entry.totalAssetValue());
+        BsonFields.writeString(writer, "aggregationStatus", entry.aggregationStatus());
+    }
+
+    private AssetStagingDocument.Component decodeComponent(BsonReader reader, DecoderContext context) {
+        String source = null;
+        String status = null;
+        BigDecimal amountInBase = null;
+        String sourceCurrency = null;
+        BigDecimal exchangeRate = null;
+        String rawTraceId = null;
+        Instant fetchedAt = null;
+        List<Map<String, Object>> assetDetails = null;
+        String payloadRefId = null;
+
+        reader.readStartDocument();
+        while (reader.readBsonType() != BsonType.END_OF_DOCUMENT) {
+            switch (reader.readName()) {
+                case "source" -> source = BsonFields.readString(reader);
+                case "status" -> status = BsonFields.readString(reader);
+                case "amountInBase" -> amountInBase = BsonFields.readDecimal(reader);
+                case "sourceCurrency" -> sourceCurrency = BsonFields.readString(reader);
+                case "exchangeRate" -> exchangeRate = BsonFields.readDecimal(reader);
+                case "rawTraceId" -> rawTraceId = BsonFields.readString(reader);
+                case "fetchedAt" -> fetchedAt = BsonFields.readInstant(reader);
+                case "assetDetails" -> assetDetails = BsonFields.readMapList(reader, context, registry);
+                case "payloadRefId" -> payloadRefId = BsonFields.readString(reader);
+                default -> reader.skipValue();
+            }
+        }
+        reader.readEndDocument();
+        return new AssetStagingDocument.Component(source, status, amountInBase, sourceCurrency, exchangeRate,
+                rawTraceId, fetchedAt, assetDetails, payloadRefId);
+    }
+
+    private AssetStagingDocument.AssetEntry decodeEntry(BsonReader reader) {
+        EntryFields fields = new EntryFields();
+        reader.readStartDocument();
+        while (reader.readBsonType() != BsonType.END_OF_DOCUMENT) {
+            switch (reader.readName()) {
+                case "customerId" -> fields.customerId = BsonFields.readString(reader);
+                case "source" -> fields.source = BsonFields.readString(reader);
+                case "sourceStatus" -> fields.sourceStatus = BsonFields.readString(reader);
+                case "assetName" -> fields.assetName = BsonFields.readString(reader);
+                case "assetType" -> fields.assetType = BsonFields.readString(reader);
+                case "currency" -> fields.currency = BsonFields.readString(reader);
+                case "sourceCurrency" -> fields.sourceCurrency = BsonFields.readString(reader);
+                case "exchangeRate" -> fields.exchangeRate = BsonFields.readDecimal(reader);
+                case "baseCurrency" -> fields.baseCurrency = BsonFields.readString(reader);
+                case "amountInBase" -> fields.amountInBase = BsonFields.readDecimal(reader);
+                case "balance" -> fields.balance = BsonFields.readDecimal(reader);
+                case "marketValue" -> fields.marketValue = BsonFields.readDecimal(reader);
+                case "coverage" -> fields.coverage = BsonFields.readDecimal(reader);
+                case "policyNumber" -> fields.policyNumber = BsonFields.readString(reader);
+                case "policyType" -> fields.policyType = BsonFields.readString(reader);
+                case "premiumStatus" -> fields.premiumStatus = BsonFields.readString(reader);
+                case "riskLevel" -> fields.riskLevel = BsonFields.readString(reader);
+                case "symbol" -> fields.symbol = BsonFields.readString(reader);
+                case "holdings" -> fields.holdings = BsonFields.readDecimal(reader);
+                case "accountId" -> fields.accountId = BsonFields.readString(reader);
+                case "fetchedAt" -> fields.fetchedAt = BsonFields.readInstant(reader);
+                case "aggregatedAt" -> fields.aggregatedAt = BsonFields.readInstant(reader);
+                case "traceId" -> fields.traceId = BsonFields.readString(reader);
+                case "payloadRefId" -> fields.payloadRefId = BsonFields.readString(reader);
+                case "totalAssetValue" -> fields.totalAssetValue = BsonFields.readDecimal(reader);
+                case "aggregationStatus" -> fields.aggregationStatus = BsonFields.readString(reader);
+                default -> reader.skipValue();
+            }
+        }
+        reader.readEndDocument();
+        return fields.toEntry();
+    }
+
+    private AssetStagingDocument.CurrencyAmount decodeCurrency(BsonReader reader) {
+        String currency = null;
+        BigDecimal amount = null;
+        reader.readStartDocument();
+        while (reader.readBsonType() != BsonType.END_OF_DOCUMENT) {
+            switch (reader.readName()) {
+                case "currency" -> currency = BsonFields.readString(reader);
+                case "amount" -> amount = BsonFields.readDecimal(reader);
+                default -> reader.skipValue();
+            }
+        }
+        reader.readEndDocument();
+        return new AssetStagingDocument.CurrencyAmount(currency, amount);
+    }
+
+    private static <T> void writeArray(BsonWriter writer, String name, List<T> values, Consumer<T> fields) {
+        if (values == null) {
+            return;
+        }
+        writer.writeStartArray(name);
+        for (T value : values) {
+            writer.writeStartDocument();
+            fields.accept(value);
+            writer.writeEndDocument();
+        }
+        writer.writeEndArray();
+    }
+
+    private static <T> List<T> readArray(BsonReader reader, Function<BsonReader, T> element) {
+        if (reader.getCurrentBsonType() != BsonType.ARRAY) {
+            reader.skipValue();
+            return null;
+        }
+        List<T> values = new ArrayList<>();
+        reader.readStartArray();
+        while (reader.readBsonType() != BsonType.END_OF_DOCUMENT) {
+            if (reader.getCurrentBsonType() == BsonType.DOCUMENT) {
+                values.add(element.apply(reader));
+            } else {
+                reader.skipValue();
+            }
+        }
+        reader.readEndArray();
+        return values;
+    }
+
+    /**
+     * decodeEntry 的暫存欄位：每個欄位於 switch 中以其宣告型別讀取，讀完後一次組成不可變的 AssetEntry。
+     */
+    private static final class EntryFields {
+
+        private String customerId;
+        private String source;
+        private String sourceStatus;
+        private String assetName;
+        private String assetType;
+        private String currency;
+        private String sourceCurrency;
+        private BigDecimal exchangeRate;
+        private String baseCurrency;
+        private BigDecimal amountInBase;
+        private BigDecimal balance;
+        private BigDecimal marketValue;
+        private BigDecimal coverage;
+        private String policyNumber;
+        private String policyType;
+        private String premiumStatus;
+        private String riskLevel;
+        private String symbol;
+        private BigDecimal holdings;
+        private String accountId;
+        private Instant fetchedAt;
+        private Instant aggregatedAt;
+        private String traceId;
+        private String payloadRefId;
+        private BigDecimal totalAssetValue;
+        private String aggregationStatus;
+
+        private AssetStagingDocument.AssetEntry toEntry() {
+            return new AssetStagingDocument.AssetEntry(customerId, source, sourceStatus, assetName, assetType, currency,
+                    sourceCurrency, exchangeRate, baseCurrency, amountInBase, balance, marketValue, coverage, policyNumber,
+                    policyType, premiumStatus, riskLevel, symbol, holdings, accountId, fetchedAt, aggregatedAt, traceId,
+                    payloadRefId, totalAssetValue, aggregationStatus);
+        }
+    }
+}
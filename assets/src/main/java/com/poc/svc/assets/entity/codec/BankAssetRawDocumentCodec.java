@@ -0,0 +1,112 @@
+package com.poc.svc.assets.entity.codec;
+
+import com.poc.svc.assets.entity.BankAssetRawDocument;
+import com.poc.svc.assets.entity.payload.CompressedBsonPayload;
+import org.bson.BsonReader;
+import org.bson.BsonType;
+import org.bson.BsonWriter;
+import org.bson.codecs.Codec;
+import org.bson.codecs.DecoderContext;
+import org.bson.codecs.EncoderContext;
+import org.bson.codecs.configuration.CodecRegistry;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+public final class BankAssetRawDocumentCodec implements Codec<BankAssetRawDocument> {
+
+    private final CodecRegistry registry;
+
+    public BankAssetRawDocumentCodec(CodecRegistry registry) {
+        this.registry = Objects.requireNonNull(registry, "registry must not be null");
+    }
+
+    @Override
+    public void encode(BsonWriter writer, BankAssetRawDocument value, EncoderContext context) {
+        writer.writeStartDocument();
+        BsonFields.writeId(writer, value.id());
+        BsonFields.writeString(writer, "customerId", value.customerId());
+        BsonFields.writeMap(writer, "payload", value.payload(), context, registry);
+        BsonFields.writeDecimal(writer, "totalBalance", value.totalBalance());
+        if (value.currencySummary() != null) {
+            writer.writeStartArray("currencySummary");
+            for (BankAssetRawDocument.CurrencyAmount currency : value.currencySummary()) {
+                writer.writeStartDocument();
+                BsonFields.writeString(writer, "currency", currency.currency());
+                BsonFields.writeDecimal(writer, "amount", currency.amount());
+                writer.writeEndDocument();
+            }
+            writer.writeEndArray();
+        }
+        BsonFields.writeInstant(writer, "fetchedAt", value.fetchedAt());
+        BsonFields.writeString(writer, "traceId", value.traceId());
+        writer.writeString(BsonFields.CLASS, BankAssetRawDocument.class.getName());
+        writer.writeEndDocument();
+    }
+
+    @Override
+    public BankAssetRawDocument decode(BsonReader reader, DecoderContext context) {
+        String id = null;
+        String customerId = null;
+        Map<String, Object> payload = null;
+        Map<String, Object> compressedPayload = null;
+        BigDecimal totalBalance = null;
+        List<BankAssetRawDocument.CurrencyAmount> currencySummary = null;
+        Instant fetchedAt = null;
+        String traceId = null;
+
+        reader.readStartDocument();
+        while (reader.readBsonType() != BsonType.END_OF_DOCUMENT) {
+            switch (reader.readName()) {
+                case BsonFields.ID -> id = BsonFields.readId(reader);
+                case "customerId" -> customerId = BsonFields.readString(reader);
+                case "payload" -> payload = BsonFields.readMap(reader, context, registry);
+                case CompressedBsonPayload.FIELD -> compressedPayload = BsonFields.readCompressedPayload(reader);
+                case "totalBalance" -> totalBalance = BsonFields.readDecimal(reader);
+                case "currencySummary" -> currencySummary = readCurrencySummary(reader);
+                case "fetchedAt" -> fetchedAt = BsonFields.readInstant(reader);
+                case "traceId" -> traceId = BsonFields.readString(reader);
+                default -> reader.skipValue();
+            }
+        }
+        reader.readEndDocument();
+        if (compressedPayload != null) {
+            payload = compressedPayload;
+        }
+        return new BankAssetRawDocument(id, customerId, payload, totalBalance, currencySummary, fetchedAt, traceId);
+    }
+
+    @Override
+    public Class<BankAssetRawDocument> getEncoderClass() {
+        return BankAssetRawDocument.class;
+    }
+
+    private List<BankAssetRawDocument.CurrencyAmount> readCurrencySummary(BsonReader reader) {
+        if (reader.getCurrentBsonType() != BsonType.ARRAY) {
+            reader.skipValue();
+            return null;
+        }
+        List<BankAssetRawDocument.CurrencyAmount> values = new ArrayList<>();
+        reader.readStartArray();
+        while (reader.readBsonType() != BsonType.END_OF_DOCUMENT) {
+            String currency = null;
+            BigDecimal amount = null;
+            reader.readStartDocument();
+            while (reader.readBsonType() != BsonType.END_OF_DOCUMENT) {
+                switch (reader.readName()) {
+                    case "currency" -> currency = BsonFields.readString(reader);
+                    case "amount" -> amount = BsonFields.readDecimal(reader);
+                    default -> reader.skipValue();
+                }
+            }
+            reader.readEndDocument();
+            values.add(new BankAssetRawDocument.CurrencyAmount(currency, amount));
+        }
+        reader.readEndArray();
+        return values;
+    }
+}
@@ -0,0 +1,287 @@
+package com.poc.svc.assets.entity.codec;
+
+import com.poc.svc.assets.entity.payload.CompressedBsonPayload;
+import com.poc.svc.assets.entity.payload.RawBsonPayload;
+import org.bson.BsonReader;
+import org.bson.BsonType;
+import org.bson.BsonValue;
+import org.bson.BsonWriter;
+import org.bson.RawBsonDocument;
+import org.bson.codecs.BsonValueCodec;
+import org.bson.codecs.DecoderContext;
+import org.bson.codecs.Encoder;
+import org.bson.codecs.EncoderContext;
+import org.bson.codecs.configuration.CodecRegistry;
+import org.bson.types.ObjectId;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 手寫 codec 共用的欄位讀寫，文件形狀與 {@code MappingMongoConverter} 一致：
+ * {@code null} 欄位不寫入、{@link BigDecimal} 存為字串、{@link Instant} 存為 date、可轉為 ObjectId 的 id 存為 ObjectId；
+ * 讀取時巢狀子文件還原為 {@link LinkedHashMap}，與 converter 讀取 {@code Map<String, Object>} 欄位的結果相同。
+ */
+final class BsonFields {
+
+    static final String ID = "_id";
+    static final String CLASS = "_class";
+
+    private BsonFields() {
+    }
+
+    static void writeId(BsonWriter writer, String id) {
+        if (id == null) {
+            return;
+        }
+        if (ObjectId.isValid(id)) {
+            writer.writeObjectId(ID, new ObjectId(id));
+        } else {
+            writer.writeString(ID, id);
+        }
+    }
+
+    static void writeString(BsonWriter writer, String name, String value) {
+        if (value != null) {
+            writer.writeString(name, value);
+        }
+    }
+
+    static void writeDecimal(BsonWriter writer, String name, BigDecimal value) {
+        if (value != null) {
+            writer.writeString(name, value.toString());
+        }
+    }
+
+    static void writeInteger(BsonWriter writer, String name, Integer value) {
+        if (value != null) {
+            writer.writeInt32(name, value);
+        }
+    }
+
+    static void writeInstant(BsonWriter writer, String name, Instant value) {
+        if (value != null) {
+            writer.writeDateTime(name, value.toEpochMilli());
+        }
+    }
+
+    /**
+     * {@link RawBsonPayload} 直接沿用原始 bytes，{@link CompressedBsonPayload} 解壓縮後寫回一般 BSON；一般 Map 逐欄寫入。
+     */
+    static void writeMap(BsonWriter writer, String name, Map<String, Object> value, EncoderContext context, CodecRegistry registry) {
+        if (value == null) {
+            return;
+        }
+        writer.writeName(name);
+        writeValue(writer, value, context, registry);
+    }
+
+    static void writeMapList(BsonWriter writer, String name, List<Map<String, Object>> values, EncoderContext context, CodecRegistry registry) {
+        if (values == null) {
+            return;
+        }
+        writer.writeName(name);
+        writeValue(writer, values, context, registry);
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    static void writeValue(BsonWriter writer, Object value, EncoderContext context, CodecRegistry registry) {
+        if (value == null) {
+            writer.writeNull();
+        } else if (value instanceof RawBsonPayload payload) {
+            context.encodeWithChildContext(registry.get(RawBsonDocument.class), writer, payload.raw());
+        } else if (value instanceof CompressedBsonPayload payload) {
+            context.encodeWithChildContext(registry.get(RawBsonDocument.class), writer, payload.decode().raw());
+        } else if (value instanceof String string) {
+            writer.writeString(string);
+        } else if (value instanceof Integer number) {
+            writer.writeInt32(number);
+        } else if (value instanceof Long number) {
+            writer.writeInt64(number);
+        } else if (value instanceof Double number) {
+            writer.writeDouble(number);
+        } else if (value instanceof Boolean flag) {
+            writer.writeBoolean(flag);
+        } else if (value instanceof BigDecimal decimal) {
+            writer.writeString(decimal.toString());
+        } else if (value instanceof Instant instant) {
+            writer.writeDateTime(instant.toEpochMilli());
+        } else if (value instanceof Date date) {
+            writer.writeDateTime(date.getTime());
+        } else if (value instanceof Map<?, ?> map) {
+            writer.writeStartDocument();
+            for (Map.Entry<?, ?> entry : map.entrySet()) {
+                writer.writeName(String.valueOf(entry.getKey()));
+                writeValue(writer, entry.getValue(), context, registry);
+            }
+            writer.writeEndDocument();
+        } else if (value instanceof Iterable<?> iterable) {
+            writer.writeStartArray();
+            for (Object element : iterable) {
+                writeValue(writer, element, context, registry);
+            }
+            writer.writeEndArray();
+        } else {
+            Encoder encoder = registry.get(value.getClass());
+            context.encodeWithChildContext(encoder, writer, value);
+        }
+    }
+
+    static String readId(BsonReader reader) {
+        return switch (reader.getCurrentBsonType()) {
+            case OBJECT_ID -> reader.readObjectId().toHexString();
+            case STRING -> reader.readString();
+            default -> {
+                reader.skipValue();
+                yield null;
+            }
+        };
+    }
+
+    static String readString(BsonReader reader) {
+        if (reader.getCurrentBsonType() == BsonType.STRING) {
+            return reader.readString();
+        }
+        reader.skipValue();
+        return null;
+    }
+
+    static BigDecimal readDecimal(BsonReader reader) {
+        return switch (reader.getCurrentBsonType()) {
+            case STRING -> new BigDecimal(reader.readString());
+            case DECIMAL128 -> reader.readDecimal128().bigDecimalValue();
+            case INT32 -> BigDecimal.valueOf(reader.readInt32());
+            case INT64 -> BigDecimal.valueOf(reader.readInt64());
+            case DOUBLE -> BigDecimal.valueOf(reader.readDouble());
+            default -> {
+                reader.skipValue();
+                yield null;
+            }
+        };
+    }
+
+    static Integer readInteger(BsonReader reader) {
+        return switch (reader.getCurrentBsonType()) {
+            case INT32 -> reader.readInt32();
+            case INT64 -> Math.toIntExact(reader.readInt64());
+            default -> {
+                reader.skipValue();
+                yield null;
+            }
+        };
+    }
+
+    static Instant readInstant(BsonReader reader) {
+        if (reader.getCurrentBsonType() == BsonType.DATE_TIME) {
+            return Instant.ofEpochMilli(reader.readDateTime());
+        }
+        reader.skipValue();
+        return null;
+    }
+
+    static Map<String, Object> readMap(BsonReader reader, DecoderContext context, CodecRegistry registry) {
+        if (reader.getCurrentBsonType() != BsonType.DOCUMENT) {
+            reader.skipValue();
+            return null;
+        }
+        return readDocument(reader, context, registry);
+    }
+
+    /**
+     * 讀取 {@code payloadCompressed}；只保留壓縮 bytes，解壓縮延後至第一次存取 payload。
+     */
+    static CompressedBsonPayload readCompressedPayload(BsonReader reader) {
+        if (reader.getCurrentBsonType() != BsonType.DOCUMENT) {
+            reader.skipValue();
+            return null;
+        }
+        String codec = null;
+        Integer size = null;
+        byte[] data = null;
+        reader.readStartDocument();
+        while (reader.readBsonType() != BsonType.END_OF_DOCUMENT) {
+            switch (reader.readName()) {
+                case "codec" -> codec = readString(reader);
+                case "size" -> size = readInteger(reader);
+                case "data" -> {
+                    if (reader.getCurrentBsonType() == BsonType.BINARY) {
+                        data = reader.readBinaryData().getData();
+                    } else {
+                        reader.skipValue();
+                    }
+                }
+                default -> reader.skipValue();
+            }
+        }
+        reader.readEndDocument();
+        if (!CompressedBsonPayload.CODEC.equals(codec)) {
+            throw new IllegalArgumentException("Unsupported payload codec " + codec);
+        }
+        if (size == null || data == null) {
+            throw new IllegalArgumentException("Compressed payload requires data and size");
+        }
+        return new CompressedBsonPayload(data, size);
+    }
+
+    @SuppressWarnings("unchecked")
+    static List<Map<String, Object>> readMapList(BsonReader reader, DecoderContext context, CodecRegistry registry) {
+        if (reader.getCurrentBsonType() != BsonType.ARRAY) {
+            reader.skipValue();
+            return null;
+        }
+        List<Map<String, Object>> values = new ArrayList<>();
+        reader.readStartArray();
+        while (reader.readBsonType() != BsonType.END_OF_DOCUMENT) {
+            values.add((Map<String, Object>) readValue(reader, context, registry));
+        }
+        reader.readEndArray();
+        return values;
+    }
+
+    static Object readValue(BsonReader reader, DecoderContext context, CodecRegistry registry) {
+        return switch (reader.getCurrentBsonType()) {
+            case DOCUMENT -> readDocument(reader, context, registry);
+            case ARRAY -> {
+                List<Object> values = new ArrayList<>();
+                reader.readStartArray();
+                while (reader.readBsonType() != BsonType.END_OF_DOCUMENT) {
+                    values.add(readValue(reader, context, registry));
+                }
+                reader.readEndArray();
+                yield values;
+            }
+            case STRING -> reader.readString();
+            case INT32 -> reader.readInt32();
+            case INT64 -> reader.readInt64();
+            case DOUBLE -> reader.readDouble();
+            case BOOLEAN -> reader.readBoolean();
+            case DATE_TIME -> new Date(reader.readDateTime());
+            case OBJECT_ID -> reader.readObjectId();
+            case DECIMAL128 -> reader.readDecimal128().bigDecimalValue();
+            case NULL -> {
+                reader.readNull();
+                yield null;
+            }
+            default -> {
+                BsonValue value = new BsonValueCodec(registry).decode(reader, context);
+                yield value;
+            }
+        };
+    }
+
+    private static Map<String, Object> readDocument(BsonReader reader, DecoderContext context, CodecRegistry registry) {
+        Map<String, Object> document = new LinkedHashMap<>();
+        reader.readStartDocument();
+        while (reader.readBsonType() != BsonType.END_OF_DOCUMENT) {
+            String name = reader.readName();
+            document.put(name, readValue(reader, context, registry));
+        }
+        reader.readEndDocument();
+        return document;
+    }
+}
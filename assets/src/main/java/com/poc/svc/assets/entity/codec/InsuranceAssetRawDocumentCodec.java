@@ -0,0 +1,76 @@
+package com.poc.svc.assets.entity.codec;
+
+import com.poc.svc.assets.entity.InsuranceAssetRawDocument;
+import com.poc.svc.assets.entity.payload.CompressedBsonPayload;
+import org.bson.BsonReader;
+import org.bson.BsonType;
+import org.bson.BsonWriter;
+import org.bson.codecs.Codec;
+import org.bson.codecs.DecoderContext;
+import org.bson.codecs.EncoderContext;
+import org.bson.codecs.configuration.CodecRegistry;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.Map;
+import java.util.Objects;
+
+public final class InsuranceAssetRawDocumentCodec implements Codec<InsuranceAssetRawDocument> {
+
+    private final CodecRegistry registry;
+
+    public InsuranceAssetRawDocumentCodec(CodecRegistry registry) {
+        this.registry = Objects.requireNonNull(registry, "registry must not be null");
+    }
+
+    @Override
+    public void encode(BsonWriter writer, InsuranceAssetRawDocument value, EncoderContext context) {
+        writer.writeStartDocument();
+        BsonFields.writeId(writer, value.id());
+        BsonFields.writeString(writer, "customerId", value.customerId());
+        BsonFields.writeMap(writer, "payload", value.payload(), context, registry);
+        BsonFields.writeDecimal(writer, "totalCoverage", value.totalCoverage());
+        BsonFields.writeInteger(writer, "policiesCount", value.policiesCount());
+        BsonFields.writeInstant(writer, "fetchedAt", value.fetchedAt());
+        BsonFields.writeString(writer, "traceId", value.traceId());
+        writer.writeString(BsonFields.CLASS, InsuranceAssetRawDocument.class.getName());
+        writer.writeEndDocument();
+    }
+
+    @Override
+    public InsuranceAssetRawDocument decode(BsonReader reader, DecoderContext context) {
+        String id = null;
+        String customerId = null;
+        Map<String, Object> payload = null;
+        Map<String, Object> compressedPayload = null;
+        BigDecimal totalCoverage = null;
+        Integer policiesCount = null;
+        Instant fetchedAt = null;
+        String traceId = null;
+
+        reader.readStartDocument();
+        while (reader.readBsonType() != BsonType.END_OF_DOCUMENT) {
+            switch (reader.readName()) {
+                case BsonFields.ID -> id = BsonFields.readId(reader);
+                case "customerId" -> customerId = BsonFields.readString(reader);
+                case "payload" -> payload = BsonFields.readMap(reader, context, registry);
+                case CompressedBsonPayload.FIELD -> compressedPayload = BsonFields.readCompressedPayload(reader);
+                case "totalCoverage" -> totalCoverage = BsonFields.readDecimal(reader);
+                case "policiesCount" -> policiesCount = BsonFields.readInteger(reader);
+                case "fetchedAt" -> fetchedAt = BsonFields.readInstant(reader);
+                case "traceId" -> traceId = BsonFields.readString(reader);
+                default -> reader.skipValue();
+            }
+        }
+        reader.readEndDocument();
+        if (compressedPayload != null) {
+            payload = compressedPayload;
+        }
+        return new InsuranceAssetRawDocument(id, customerId, payload, totalCoverage, policiesCount, fetchedAt, traceId);
+    }
+
+    @Override
+    public Class<InsuranceAssetRawDocument> getEncoderClass() {
+        return InsuranceAssetRawDocument.class;
+    }
+}
@@ -0,0 +1,76 @@
+package com.poc.svc.assets.entity.codec;
+
+import com.poc.svc.assets.entity.SecuritiesAssetRawDocument;
+import com.poc.svc.assets.entity.payload.CompressedBsonPayload;
+import org.bson.BsonReader;
+import org.bson.BsonType;
+import org.bson.BsonWriter;
+import org.bson.codecs.Codec;
+import org.bson.codecs.DecoderContext;
+import org.bson.codecs.EncoderContext;
+import org.bson.codecs.configuration.CodecRegistry;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.Map;
+import java.util.Objects;
+
+public final class SecuritiesAssetRawDocumentCodec implements Codec<SecuritiesAssetRawDocument> {
+
+    private final CodecRegistry registry;
+
+    public SecuritiesAssetRawDocumentCodec(CodecRegistry registry) {
+        this.registry = Objects.requireNonNull(registry, "registry must not be null");
+    }
+
+    @Override
+    public void encode(BsonWriter writer, SecuritiesAssetRawDocument value, EncoderContext context) {
+        writer.writeStartDocument();
+        BsonFields.writeId(writer, value.id());
+        BsonFields.writeString(writer, "customerId", value.customerId());
+        BsonFields.writeMap(writer, "payload", value.payload(), context, registry);
+        BsonFields.writeDecimal(writer, "totalMarketValue", value.totalMarketValue());
+        BsonFields.writeInteger(writer, "holdingsCount", value.holdingsCount());
+        BsonFields.writeInstant(writer, "fetchedAt", value.fetchedAt());
+        BsonFields.writeString(writer, "traceId", value.traceId());
+        writer.writeString(BsonFields.CLASS, SecuritiesAssetRawDocument.class.getName());
+        writer.writeEndDocument();
+    }
+
+    @Override
+    public SecuritiesAssetRawDocument decode(BsonReader reader, DecoderContext context) {
+        String id = null;
+        String customerId = null;
+        Map<String, Object> payload = null;
+        Map<String, Object> compressedPayload = null;
+        BigDecimal totalMarketValue = null;
+        Integer holdingsCount = null;
+        Instant fetchedAt = null;
+        String traceId = null;
+
+        reader.readStartDocument();
+        while (reader.readBsonType() != BsonType.END_OF_DOCUMENT) {
+            switch (reader.readName()) {
+                case BsonFields.ID -> id = BsonFields.readId(reader);
+                case "customerId" -> customerId = BsonFields.readString(reader);
+                case "payload" -> payload = BsonFields.readMap(reader, context, registry);
+                case CompressedBsonPayload.FIELD -> compressedPayload = BsonFields.readCompressedPayload(reader);
+                case "totalMarketValue" -> totalMarketValue = BsonFields.readDecimal(reader);
+                case "holdingsCount" -> holdingsCount = BsonFields.readInteger(reader);
+                case "fetchedAt" -> fetchedAt = BsonFields.readInstant(reader);
+                case "traceId" -> traceId = BsonFields.readString(reader);
+                default -> reader.skipValue();
+            }
+        }
+        reader.readEndDocument();
+        if (compressedPayload != null) {
+            payload = compressedPayload;
+        }
+        return new SecuritiesAssetRawDocument(id, customerId, payload, totalMarketValue, holdingsCount, fetchedAt, traceId);
+    }
+
+    @Override
+    public Class<SecuritiesAssetRawDocument> getEncoderClass() {
+        return SecuritiesAssetRawDocument.class;
+    }
+}
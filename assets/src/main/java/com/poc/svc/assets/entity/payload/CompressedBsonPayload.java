@@ -0,0 +1,164 @@
+package com.poc.svc.assets.entity.payload;
+
+import org.bson.Document;
+import org.bson.RawBsonDocument;
+import org.bson.types.Binary;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.util.AbstractMap;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * 以 deflate 壓縮的 BSON payload；讀取任何欄位前不會解壓縮，第一次存取時解壓一次並以 {@link RawBsonPayload} 提供唯讀檢視。
+ * 儲存形狀為 {@code payloadCompressed: {codec: "deflate", size: <原始 BSON bytes>, data: BinData}}。
+ */
+public final class CompressedBsonPayload extends AbstractMap<String, Object> {
+
+    public static final String FIELD = "payloadCompressed";
+    public static final String CODEC = "deflate";
+
+    private final byte[] compressed;
+    private final int rawLength;
+    private volatile RawBsonPayload decoded;
+
+    public CompressedBsonPayload(byte[] compressed, int rawLength) {
+        this.compressed = Objects.requireNonNull(compressed, "compressed must not be null");
+        if (rawLength < 5) {
+            throw new IllegalArgumentException("rawLength must be a valid BSON document length");
+        }
+        this.rawLength = rawLength;
+    }
+
+    public static CompressedBsonPayload compress(RawBsonDocument raw, int level) {
+        Objects.requireNonNull(raw, "raw must not be null");
+        // 經由 asNIO() 的 position / limit 讀取，不假設底層 buffer 由 array 支撐或從 offset 0 開始
+        ByteBuffer input = raw.getByteBuffer().asNIO().duplicate();
+        int length = input.remaining();
+        Deflater deflater = new Deflater(level);
+        try {
+            deflater.setInput(input);
+            deflater.finish();
+            ByteArrayOutputStream out = new ByteArrayOutputStream(Math.max(64, length / 4));
+            byte[] buffer = new byte[8192];
+            while (!deflater.finished()) {
+                int written = deflater.deflate(buffer);
+                out.write(buffer, 0, written);
+            }
+            return new CompressedBsonPayload(out.toByteArray(), length);
+        } finally {
+            deflater.end();
+        }
+    }
+
+    /**
+     * 由儲存的 {@code payloadCompressed} 子文件還原；codec 不符時丟出 {@link IllegalArgumentException}。
+     */
+    public static CompressedBsonPayload fromDocument(Document document) {
+        Objects.requireNonNull(document, "document must not be null");
+        String codec = document.getString("codec");
+        if (!CODEC.equals(codec)) {
+            throw new IllegalArgumentException("Unsupported payload codec " + codec);
+        }
+        Binary data = document.get("data", Binary.class);
+        Number size = document.get("size", Number.class);
+        if (data == null || size == null) {
+            throw new IllegalArgumentException("Compressed payload requires data and size");
+        }
+        return new CompressedBsonPayload(data.getData(), size.intValue());
+    }
+
+    public Document toDocument() {
+        return new Document("codec", CODEC)
+                .append("size", rawLength)
+                .append("data", new Binary(compressed));
+    }
+
+    public byte[] compressed() {
+        return compressed.clone();
+    }
+
+    public int compressedLength() {
+        return compressed.length;
+    }
+
+    public int rawLength() {
+        return rawLength;
+    }
+
+    public boolean isDecoded() {
+        return decoded != null;
+    }
+
+    public RawBsonPayload decode() {
+        RawBsonPayload current = decoded;
+        if (current == null) {
+            current = new RawBsonPayload(new RawBsonDocument(inflate()));
+            decoded = current;
+        }
+        return current;
+    }
+
+    @Override
+    public Object get(Object key) {
+        return decode().get(key);
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return decode().containsKey(key);
+    }
+
+    @Override
+    public int size() {
+        return decode().size();
+    }
+
+    @Override
+    public Set<Map.Entry<String, Object>> entrySet() {
+        return decode().entrySet();
+    }
+
+    private byte[] inflate() {
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(compressed);
+            byte[] raw = new byte[rawLength];
+            int read = 0;
+            while (read < rawLength && !inflater.finished()) {
+                int count = inflater.inflate(raw, read, rawLength - read);
+                if (count == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    break;
+                }
+                read += count;
+            }
+            if (read != rawLength) {
+                throw new IllegalStateException("Compressed payload is truncated: expected %d bytes, got %d".formatted(rawLength, read));
+            }
+            return raw;
+        } catch (DataFormatException ex) {
+            throw new IllegalStateException("Compressed payload is corrupt", ex);
+        } finally {
+            inflater.end();
+        }
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        if (other instanceof CompressedBsonPayload that) {
+            return rawLength == that.rawLength && Arrays.equals(compressed, that.compressed);
+        }
+        return super.equals(other);
+    }
+
+    @Override
+    public int hashCode() {
+        return super.hashCode();
+    }
+}
@@ -0,0 +1,138 @@
+package com.poc.svc.assets.entity.payload;
+
+import org.bson.BsonArray;
+import org.bson.BsonDocument;
+import org.bson.BsonValue;
+import org.bson.Document;
+import org.bson.RawBsonDocument;
+import org.bson.codecs.DocumentCodec;
+
+import java.math.BigDecimal;
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * 以 {@link RawBsonDocument} 為底的唯讀 payload 檢視：{@link #get(Object)} 只解碼被讀取的欄位，
+ * 完整解碼僅在走訪全部 entry 時發生一次。寫入 Mongo 時可直接沿用 {@link #raw()} 的 bytes。
+ */
+public final class RawBsonPayload extends AbstractMap<String, Object> {
+
+    private final RawBsonDocument raw;
+    private volatile Document decoded;
+
+    public RawBsonPayload(RawBsonDocument raw) {
+        this.raw = Objects.requireNonNull(raw, "raw must not be null");
+    }
+
+    /**
+     * 對一般 Map 做不可變複製；{@link RawBsonPayload} 與 {@link CompressedBsonPayload} 本身不可變，直接沿用避免再次展開或解壓縮。
+     */
+    public static Map<String, Object> immutableCopyOf(Map<String, Object> payload) {
+        if (payload instanceof RawBsonPayload || payload instanceof CompressedBsonPayload) {
+            return payload;
+        }
+        return Map.copyOf(payload);
+    }
+
+    public RawBsonDocument raw() {
+        return raw;
+    }
+
+    @Override
+    public Object get(Object key) {
+        if (!(key instanceof String name)) {
+            return null;
+        }
+        BsonValue value = raw.get(name);
+        return value == null ? null : toJava(value);
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return key instanceof String name && raw.containsKey(name);
+    }
+
+    @Override
+    public int size() {
+        return raw.size();
+    }
+
+    @Override
+    public Set<Entry<String, Object>> entrySet() {
+        Document current = decoded;
+        if (current == null) {
+            current = raw.decode(new DocumentCodec());
+            decoded = current;
+        }
+        return Collections.unmodifiableMap(current).entrySet();
+    }
+
+    public String getString(String key) {
+        BsonValue value = raw.get(key);
+        return value != null && value.isString() ? value.asString().getValue() : null;
+    }
+
+    public BigDecimal getDecimal(String key) {
+        return toDecimal(raw.get(key));
+    }
+
+    public BsonArray getArray(String key) {
+        BsonValue value = raw.get(key);
+        return value != null && value.isArray() ? value.asArray() : new BsonArray();
+    }
+
+    public static BigDecimal toDecimal(BsonValue value) {
+        if (value == null || value.isNull()) {
+            return null;
+        }
+        if (value.isString()) {
+            return new BigDecimal(value.asString().getValue());
+        }
+        if (value.isDecimal128()) {
+            return value.asDecimal128().getValue().bigDecimalValue();
+        }
+        if (value.isInt32()) {
+            return BigDecimal.valueOf(value.asInt32().getValue());
+        }
+        if (value.isInt64()) {
+            return BigDecimal.valueOf(value.asInt64().getValue());
+        }
+        if (value.isDouble()) {
+            return BigDecimal.valueOf(value.asDouble().getValue());
+        }
+        throw new IllegalStateException("Cannot convert BSON " + value.getBsonType() + " to decimal");
+    }
+
+    private static Object toJava(BsonValue value) {
+        return switch (value.getBsonType()) {
+            case DOCUMENT -> {
+                BsonDocument document = value.asDocument();
+                Document result = new Document();
+                document.forEach((name, nested) -> result.append(name, toJava(nested)));
+                yield result;
+            }
+            case ARRAY -> {
+                BsonArray array = value.asArray();
+                List<Object> result = new ArrayList<>(array.size());
+                array.forEach(nested -> result.add(toJava(nested)));
+                yield result;
+            }
+            case STRING -> value.asString().getValue();
+            case INT32 -> value.asInt32().getValue();
+            case INT64 -> value.asInt64().getValue();
+            case DOUBLE -> value.asDouble().getValue();
+            case DECIMAL128 -> value.asDecimal128().getValue();
+            case BOOLEAN -> value.asBoolean().getValue();
+            case DATE_TIME -> new Date(value.asDateTime().getValue());
+            case OBJECT_ID -> value.asObjectId().getValue();
+            case NULL -> null;
+            default -> value;
+        };
+    }
+}
@@ -0,0 +1,13 @@
+package com.poc.svc.assets.repository;
+
+import com.poc.svc.assets.entity.AssetStagingDocument;
+
+import java.util.Optional;
+
+/**
+ * staging 讀取以手寫 codec 解碼，不經過 {@code MappingMongoConverter}。
+ */
+public interface AssetStagingRepositoryCustom {
+
+    Optional<AssetStagingDocument> findByCustomerId(String customerId);
+}
@@ -0,0 +1,40 @@
+package com.poc.svc.assets.repository;
+
+import com.mongodb.client.model.Filters;
+import com.poc.svc.assets.entity.AssetStagingDocument;
+import com.poc.svc.assets.entity.codec.AssetCodecs;
+import org.springframework.dao.IncorrectResultSizeDataAccessException;
+import org.springframework.data.mongodb.core.MongoTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+
+/**
+ * 直接以 driver 查詢並由 {@code AssetStagingDocumentCodec} 解碼；結果多於一筆時與衍生查詢相同，丟出
+ * {@link IncorrectResultSizeDataAccessException}。
+ */
+class AssetStagingRepositoryCustomImpl implements AssetStagingRepositoryCustom {
+
+    private final MongoTemplate mongoTemplate;
+
+    AssetStagingRepositoryCustomImpl(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = Objects.requireNonNull(mongoTemplate, "mongoTemplate must not be null");
+    }
+
+    @Override
+    public Optional<AssetStagingDocument> findByCustomerId(String customerId) {
+        Objects.requireNonNull(customerId, "customerId must not be null");
+        List<AssetStagingDocument> results = mongoTemplate.getCollection(mongoTemplate.getCollectionName(AssetStagingDocument.class))
+                .withCodecRegistry(AssetCodecs.REGISTRY)
+                .withDocumentClass(AssetStagingDocument.class)
+                .find(Filters.eq("customerId", customerId))
+                .limit(2)
+                .into(new ArrayList<>());
+        if (results.size() > 1) {
+            throw new IncorrectResultSizeDataAccessException(1, results.size());
+        }
+        return results.stream().findFirst();
+    }
+}
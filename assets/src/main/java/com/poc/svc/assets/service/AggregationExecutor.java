@@ -1,18 +1,24 @@
 package com.poc.svc.assets.service;
 
+import com.mongodb.client.AggregateIterable;
 import com.mongodb.client.MongoClient;
 import com.mongodb.client.MongoCollection;
 import com.mongodb.client.MongoDatabase;
 import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.FindOneAndReplaceOptions;
+import com.mongodb.client.model.FindOneAndUpdateOptions;
+import com.mongodb.client.model.ReturnDocument;
+import com.poc.svc.assets.config.AssetAggregationProperties;
 import com.poc.svc.assets.config.MongoSettingsProperties;
 import org.bson.Document;
+import org.bson.conversions.Bson;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
-import org.springframework.util.CollectionUtils;
 import org.springframework.util.StringUtils;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.Objects;
 
@@ -20,116 +26,126 @@ import java.util.Objects;
 public class AggregationExecutor {
 
     private static final Logger log = LoggerFactory.getLogger(AggregationExecutor.class);
-    private static final String PIPELINE_STORE_COLLECTION = "pipeline_store";
-    private static final String MERGE_STAGE_KEY = "$merge";
+    private static final String ID_KEY = "_id";
 
     private final MongoClient mongoClient;
     private final MongoSettingsProperties mongoSettings;
+    private final PipelineDefinitionCache pipelineCache;
+    private final AssetAggregationProperties aggregationProperties;
 
-    public AggregationExecutor(MongoClient mongoClient, MongoSettingsProperties mongoSettings) {
+    public AggregationExecutor(MongoClient mongoClient,
+                               MongoSettingsProperties mongoSettings,
+                               PipelineDefinitionCache pipelineCache,
+                               AssetAggregationProperties aggregationProperties) {
         this.mongoClient = Objects.requireNonNull(mongoClient, "mongoClient must not be null");
         this.mongoSettings = Objects.requireNonNull(mongoSettings, "mongoSettings must not be null");
+        this.pipelineCache = Objects.requireNonNull(pipelineCache, "pipelineCache must not be null");
+        this.aggregationProperties = Objects.requireNonNull(aggregationProperties, "aggregationProperties must not be null");
     }
 
     public List<Document> execute(String pipelineName, String traceId) {
+        return execute(pipelineName, PipelineParameters.forTrace(traceId));
+    }
+
+    /**
+     * 以綁定變數執行 pipeline：引用變數的 pipeline 帶入 {@code let}，有 customerId 時自動限縮至該客戶的 raw 文件。
+     */
+    public List<Document> execute(String pipelineName, PipelineParameters parameters) {
         if (!StringUtils.hasText(pipelineName)) {
             throw new IllegalArgumentException("pipelineName must not be blank");
         }
+        Objects.requireNonNull(parameters, "parameters must not be null");
+        String traceId = parameters.traceId();
         if (!StringUtils.hasText(traceId)) {
             throw new IllegalArgumentException("traceId must not be blank");
         }
 
+        CompiledPipeline pipeline = pipelineCache.get(pipelineName);
         MongoDatabase database = mongoClient.getDatabase(mongoSettings.database());
-        Document definition = loadPipelineDefinition(database, pipelineName);
-        List<Document> pipelineStages = getPipelineStages(pipelineName, definition);
-        Document mergeSpec = extractMergeSpec(pipelineName, pipelineStages);
-        String targetCollection = resolveTargetCollection(pipelineName, mergeSpec);
-        String sourceCollection = resolveSourceCollection(definition, targetCollection);
-
-        MongoCollection<Document> source = database.getCollection(sourceCollection);
-        MongoCollection<Document> target = database.getCollection(targetCollection);
-
-        source.aggregate(pipelineStages).into(new ArrayList<>());
-
-        List<Document> results = target.find(Filters.eq("traceId", traceId))
-                .into(new ArrayList<>());
-        List<Document> cloned = new ArrayList<>(results.size());
-        for (Document document : results) {
-            cloned.add(cloneDocument(document));
-        }
-
-        log.info("Executed pipeline='{}' sourceCollection='{}' targetCollection='{}' traceId={} resultCount={}",
-                pipelineName, sourceCollection, targetCollection, traceId, cloned.size());
-        return cloned;
-    }
-
-    private Document loadPipelineDefinition(MongoDatabase database, String pipelineName) {
-        Document definition = database.getCollection(PIPELINE_STORE_COLLECTION)
-                .find(Filters.eq("name", pipelineName))
-                .first();
-        if (definition == null) {
-            throw new IllegalStateException("Pipeline definition not found for name=" + pipelineName);
+        MongoCollection<Document> source = database.getCollection(pipeline.sourceCollection());
+        MongoCollection<Document> target = database.getCollection(pipeline.targetCollection());
+
+        boolean resultOutput = aggregationProperties.getPipelineOutput() == AssetAggregationProperties.PipelineOutput.RESULT
+                && pipeline.merge().supportsResultOutput();
+        List<Document> results;
+        if (resultOutput) {
+            List<Document> output = aggregate(source, pipeline.outputStagesFor(parameters), pipeline, parameters);
+            results = upsert(target, pipeline.merge(), output, traceId);
+        } else {
+            aggregate(source, pipeline.stagesFor(parameters), pipeline, parameters);
+            // driver 每次解碼出新的 Document，不與其他呼叫共用，直接回傳即可（不再經 JSON 複製，保留 Int64 等 BSON 型別）
+            results = target.find(Filters.eq("traceId", traceId))
+                    .into(new ArrayList<>());
         }
-        return definition;
-    }
 
-    private List<Document> getPipelineStages(String pipelineName, Document definition) {
-        List<Document> stages = definition.getList("pipeline", Document.class);
-        if (CollectionUtils.isEmpty(stages)) {
-            throw new IllegalStateException("Pipeline definition '" + pipelineName + "' does not contain any stages");
-        }
-        List<Document> cloned = new ArrayList<>(stages.size());
-        for (Document stage : stages) {
-            cloned.add(cloneDocument(stage));
-        }
-        return cloned;
+        log.info("Executed pipeline='{}' sourceCollection='{}' targetCollection='{}' output={} traceId={} resultCount={}",
+                pipelineName, pipeline.sourceCollection(), pipeline.targetCollection(), resultOutput ? "RESULT" : "MERGE",
+                traceId, results.size());
+        return Collections.unmodifiableList(results);
     }
 
-    private Document extractMergeSpec(String pipelineName, List<Document> stages) {
-        Document lastStage = stages.get(stages.size() - 1);
-        Document mergeSpec = lastStage.get(MERGE_STAGE_KEY, Document.class);
-        if (mergeSpec == null) {
-            throw new IllegalStateException("Pipeline '" + pipelineName + "' must terminate with a $merge stage");
+    private List<Document> aggregate(MongoCollection<Document> source,
+                                     List<? extends Bson> stages,
+                                     CompiledPipeline pipeline,
+                                     PipelineParameters parameters) {
+        AggregateIterable<Document> aggregation = source.aggregate(stages);
+        if (pipeline.parameterized()) {
+            aggregation = aggregation.let(parameters.toLet());
         }
-        return cloneDocument(mergeSpec);
+        return aggregation.into(new ArrayList<>());
     }
 
-    private String resolveTargetCollection(String pipelineName, Document mergeSpec) {
-        Object into = mergeSpec.get("into");
-        if (into instanceof String target && StringUtils.hasText(target)) {
-            return target;
-        }
-        if (into instanceof Document intoDoc) {
-            String collection = intoDoc.getString("coll");
-            if (!StringUtils.hasText(collection)) {
-                collection = intoDoc.getString("collection");
-            }
-            if (StringUtils.hasText(collection)) {
-                return collection;
+    /**
+     * 依 {@code $merge} 語意逐筆 upsert pipeline 輸出，以 findOneAnd*（{@code returnDocument: after}）取得寫入後的文件，
+     * 只回傳該 traceId 的文件；staging pipeline 每個 traceId 只輸出一筆，等同單次寫入往返且不需回讀。
+     */
+    private List<Document> upsert(MongoCollection<Document> target,
+                                  CompiledPipeline.MergeSemantics merge,
+                                  List<Document> output,
+                                  String traceId) {
+        String whenMatched = merge.whenMatched();
+        List<Document> results = new ArrayList<>();
+        for (Document document : output) {
+            Bson filter = mergeFilter(merge, document);
+            Document stored = switch (whenMatched) {
+                case CompiledPipeline.MergeSemantics.REPLACE -> target.findOneAndReplace(filter, document,
+                        new FindOneAndReplaceOptions().upsert(true).returnDocument(ReturnDocument.AFTER));
+                case CompiledPipeline.MergeSemantics.MERGE -> target.findOneAndUpdate(filter, mergeUpdate(document),
+                        new FindOneAndUpdateOptions().upsert(true).returnDocument(ReturnDocument.AFTER));
+                default -> target.findOneAndUpdate(filter, new Document("$setOnInsert", document),
+                        new FindOneAndUpdateOptions().upsert(true).returnDocument(ReturnDocument.AFTER));
+            };
+            if (stored != null && traceId.equals(stored.get("traceId"))) {
+                results.add(stored);
             }
         }
-        throw new IllegalStateException("Pipeline '" + pipelineName + "' $merge stage does not specify a valid target collection");
+        return results;
     }
 
-    private String resolveSourceCollection(Document definition, String fallback) {
-        List<String> keys = List.of("sourceCollection", "source_collection", "source");
-        for (String key : keys) {
-            String candidate = definition.getString(key);
-            if (StringUtils.hasText(candidate)) {
-                return candidate;
+    private Bson mergeFilter(CompiledPipeline.MergeSemantics merge, Document document) {
+        List<Bson> filters = new ArrayList<>(merge.on().size());
+        for (String field : merge.on()) {
+            if (!document.containsKey(field)) {
+                throw new IllegalStateException("Pipeline output is missing $merge 'on' field '" + field + "'");
             }
+            filters.add(Filters.eq(field, document.get(field)));
         }
-        log.warn("Pipeline definition does not specify a source collection, fallback to target '{}'", fallback);
-        if (!StringUtils.hasText(fallback)) {
-            throw new IllegalStateException("Unable to determine source collection for aggregation pipeline");
-        }
-        return fallback;
+        return filters.size() == 1 ? filters.get(0) : Filters.and(filters);
     }
 
-    private Document cloneDocument(Document source) {
-        if (source == null) {
-            return null;
+    /**
+     * {@code whenMatched: merge}：輸出欄位覆寫既有欄位，新增時沿用輸出的 {@code _id}。
+     */
+    private Document mergeUpdate(Document document) {
+        Document fields = new Document(document);
+        Object id = fields.remove(ID_KEY);
+        Document update = new Document();
+        if (!fields.isEmpty()) {
+            update.append("$set", fields);
+        }
+        if (id != null) {
+            update.append("$setOnInsert", new Document(ID_KEY, id));
         }
-        return Document.parse(source.toJson());
+        return update;
     }
 }
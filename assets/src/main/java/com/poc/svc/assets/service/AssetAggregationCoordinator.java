@@ -1,21 +1,24 @@
 package com.poc.svc.assets.service;
 
-import com.poc.svc.assets.service.AssetSourceClient;
+import com.poc.svc.assets.config.MetricsConfig;
 import com.poc.svc.assets.exception.AssetSourceMissingException;
 import com.poc.svc.assets.dto.AssetComponentStatus;
 import com.poc.svc.assets.dto.AssetSourceType;
-import com.poc.svc.assets.entity.BankAssetRawDocument;
-import com.poc.svc.assets.entity.InsuranceAssetRawDocument;
-import com.poc.svc.assets.entity.SecuritiesAssetRawDocument;
+import com.poc.svc.assets.entity.payload.RawBsonPayload;
+import io.micrometer.core.instrument.DistributionSummary;
 import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.dao.DataAccessException;
 import org.springframework.stereotype.Service;
 
 import java.math.BigDecimal;
 import java.time.Duration;
 import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.EnumMap;
 import java.util.List;
 import java.util.Map;
@@ -24,189 +27,208 @@ import java.util.Optional;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CompletionException;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
 
 @Service
 public class AssetAggregationCoordinator {
 
     private static final Logger log = LoggerFactory.getLogger(AssetAggregationCoordinator.class);
 
-    private final AssetSourceClient assetSourceClient;
-    private final BankAssetWriter bankAssetWriter;
-    private final SecuritiesAssetWriter securitiesAssetWriter;
-    private final InsuranceAssetWriter insuranceAssetWriter;
+    private final List<AssetSourceAdapter<?>> adapters;
     private final MeterRegistry meterRegistry;
+    private final SourceTimeoutPolicy timeoutPolicy;
+    private final RawWriteBatcher rawWriteBatcher;
 
-    public AssetAggregationCoordinator(
-            AssetSourceClient assetSourceClient,
-            BankAssetWriter bankAssetWriter,
-            SecuritiesAssetWriter securitiesAssetWriter,
-            InsuranceAssetWriter insuranceAssetWriter,
-            MeterRegistry meterRegistry
-    ) {
-        this.assetSourceClient = assetSourceClient;
-        this.bankAssetWriter = bankAssetWriter;
-        this.securitiesAssetWriter = securitiesAssetWriter;
-        this.insuranceAssetWriter = insuranceAssetWriter;
-        this.meterRegistry = meterRegistry;
+    public AssetAggregationCoordinator(List<AssetSourceAdapter<?>> adapters, MeterRegistry meterRegistry) {
+        this(adapters, meterRegistry, SourceTimeoutPolicy.fixed());
+    }
+
+    public AssetAggregationCoordinator(List<AssetSourceAdapter<?>> adapters,
+                                       MeterRegistry meterRegistry,
+                                       SourceTimeoutPolicy timeoutPolicy) {
+        this(adapters, meterRegistry, timeoutPolicy, RawWriteBatcher.immediate());
+    }
+
+    @Autowired
+    public AssetAggregationCoordinator(List<AssetSourceAdapter<?>> adapters,
+                                       MeterRegistry meterRegistry,
+                                       SourceTimeoutPolicy timeoutPolicy,
+                                       RawWriteBatcher rawWriteBatcher) {
+        Objects.requireNonNull(adapters, "adapters must not be null");
+        Map<AssetSourceType, AssetSourceAdapter<?>> bySource = new EnumMap<>(AssetSourceType.class);
+        for (AssetSourceAdapter<?> adapter : adapters) {
+            AssetSourceAdapter<?> previous = bySource.put(adapter.source(), adapter);
+            if (previous != null) {
+                throw new IllegalStateException("Duplicate AssetSourceAdapter registered for source " + adapter.source());
+            }
+        }
+        this.adapters = List.copyOf(bySource.values());
+        this.meterRegistry = Objects.requireNonNull(meterRegistry, "meterRegistry must not be null");
+        this.timeoutPolicy = Objects.requireNonNull(timeoutPolicy, "timeoutPolicy must not be null");
+        this.rawWriteBatcher = Objects.requireNonNull(rawWriteBatcher, "rawWriteBatcher must not be null");
     }
 
     public ExecutionSummary coordinate(String customerId, String traceId, Duration timeout) {
+        return coordinateAsync(customerId, traceId, timeout).join();
+    }
+
+    /**
+     * 非阻塞版本：所有來源完成（成功、失敗或逾時）後才完成回傳的 future，呼叫端執行緒不會被佔用。
+     */
+    public CompletableFuture<ExecutionSummary> coordinateAsync(String customerId, String traceId, Duration timeout) {
         Objects.requireNonNull(customerId, "customerId must not be null");
         Objects.requireNonNull(traceId, "traceId must not be null");
         Objects.requireNonNull(timeout, "timeout must not be null");
 
         Map<AssetSourceType, SourceOutcome> outcomes = new ConcurrentHashMap<>();
+        ConcurrentLinkedQueue<SourceTiming> timings = new ConcurrentLinkedQueue<>();
+        AtomicInteger completionCounter = new AtomicInteger();
+        long deadlineNanos = System.nanoTime() + timeout.toNanos();
+        RawWriteBatcher.Batch batch = rawWriteBatcher.open(traceId).orElse(null);
+
+        List<CompletableFuture<Void>> futures = new ArrayList<>(adapters.size());
+        for (AssetSourceAdapter<?> adapter : adapters) {
+            long startNanos = System.nanoTime();
+            futures.add(handle(adapter, customerId, traceId, timeout, batch)
+                    .thenAccept(outcome -> {
+                        outcomes.put(adapter.source(), outcome);
+                        timings.add(recordTiming(outcome, startNanos, completionCounter.incrementAndGet()));
+                    }));
+        }
 
-        CompletableFuture<SourceOutcome> bankFuture = handleBank(customerId, traceId, timeout);
-        CompletableFuture<SourceOutcome> securitiesFuture = handleSecurities(customerId, traceId, timeout);
-        CompletableFuture<SourceOutcome> insuranceFuture = handleInsurance(customerId, traceId, timeout);
-
-        CompletableFuture.allOf(bankFuture, securitiesFuture, insuranceFuture).join();
+        return CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new))
+                .thenCompose(ignored -> batch == null
+                        ? CompletableFuture.completedFuture(Map.<AssetSourceType, DataAccessException>of())
+                        : batch.commit(remaining(deadlineNanos)))
+                .thenApply(writeFailures -> {
+                    if (batch != null) {
+                        applyDeferredWrites(outcomes, writeFailures, traceId);
+                    }
+                    List<SourceTiming> completionOrder = timings.stream()
+                            .sorted(Comparator.comparingInt(SourceTiming::completionOrder))
+                            .map(timing -> timing.withStatus(outcomes.get(timing.source()).status()))
+                            .toList();
+                    log.info("TraceId={} source completion order={}", traceId, completionOrder);
+                    return new ExecutionSummary(outcomes, completionOrder);
+                });
+    }
 
-        SourceOutcome bankOutcome = bankFuture.join();
-        SourceOutcome securitiesOutcome = securitiesFuture.join();
-        SourceOutcome insuranceOutcome = insuranceFuture.join();
+    private <R> CompletableFuture<SourceOutcome> handle(
+            AssetSourceAdapter<R> adapter,
+            String customerId,
+            String traceId,
+            Duration timeout,
+            RawWriteBatcher.Batch batch
+    ) {
+        AssetSourceType source = adapter.source();
+        Duration sourceTimeout = timeoutPolicy.timeoutFor(source, timeout);
+        CompletableFuture<R> fetch;
+        try {
+            fetch = adapter.fetch(customerId, traceId);
+        } catch (RuntimeException ex) {
+            // 來源隔艙已滿時 executor 會同步拒絕，視為該來源失敗而不中斷其他來源
+            fetch = CompletableFuture.failedFuture(ex);
+        }
+        return fetch
+                .orTimeout(sourceTimeout.toMillis(), TimeUnit.MILLISECONDS)
+                .handle((result, throwable) -> throwable != null
+                        ? CompletableFuture.completedFuture(handleException(source, throwable, traceId, sourceTimeout))
+                        : write(adapter, customerId, traceId, result, batch))
+                .thenCompose(Function.identity());
+    }
 
-        outcomes.put(AssetSourceType.BANK, bankOutcome);
-        outcomes.put(AssetSourceType.SECURITIES, securitiesOutcome);
-        outcomes.put(AssetSourceType.INSURANCE, insuranceOutcome);
+    /**
+     * raw 寫入以 future 串接，重試等待不佔用完成抓取的 worker 執行緒。
+     */
+    private <R> CompletableFuture<SourceOutcome> write(
+            AssetSourceAdapter<R> adapter,
+            String customerId,
+            String traceId,
+            R result,
+            RawWriteBatcher.Batch batch
+    ) {
+        AssetSourceType source = adapter.source();
+        String rawTraceId = adapter.rawTraceId(result);
+        CompletableFuture<String> written;
+        try {
+            if (batch != null) {
+                // 只登記文件，成功與否待 commit 後於 applyDeferredWrites 決定
+                String payloadRefId = adapter.deferRaw(customerId, result, batch.sink(source));
+                return CompletableFuture.completedFuture(
+                        adapter.toOutcome(result, payloadRefId, adapter.extractAssetDetails(result)));
+            }
+            written = adapter.writeRaw(customerId, result);
+        } catch (DataAccessException ex) {
+            return CompletableFuture.completedFuture(handleWriteFailure(source, traceId, rawTraceId, ex));
+        }
+        return written.handle((payloadRefId, throwable) -> {
+            if (throwable == null) {
+                recordRawWriteSuccess(source, traceId, payloadRefId);
+                return adapter.toOutcome(result, payloadRefId, adapter.extractAssetDetails(result));
+            }
+            Throwable cause = unwrap(throwable);
+            if (cause instanceof DataAccessException ex) {
+                return handleWriteFailure(source, traceId, rawTraceId, ex);
+            }
+            throw throwable instanceof CompletionException completion ? completion : new CompletionException(cause);
+        });
+    }
 
-        return new ExecutionSummary(outcomes);
+    private static Duration remaining(long deadlineNanos) {
+        return Duration.ofNanos(Math.max(0, deadlineNanos - System.nanoTime()));
     }
 
-    private CompletableFuture<SourceOutcome> handleBank(String customerId, String traceId, Duration timeout) {
-        return assetSourceClient.fetchBankAssets(customerId, traceId)
-                .orTimeout(timeout.toMillis(), TimeUnit.MILLISECONDS)
-                .handle((result, throwable) -> {
-                    if (throwable != null) {
-                        return handleException(AssetSourceType.BANK, throwable, traceId);
-                    }
-                    String rawTraceId = result.traceId();
-                    try {
-                        BankAssetRawDocument document = bankAssetWriter.write(new BankAssetWriter.BankAssetWriteRequest(
-                                customerId,
-                                result.payload(),
-                                result.totalBalance(),
-                                result.currencySummary(),
-                                result.fetchedAt(),
-                                rawTraceId
-                        ));
-                        meterRegistry.counter("asset.aggregation.raw.write", "source", AssetSourceType.BANK.name(), "status", "SUCCESS").increment();
-                        log.info("TraceId={} source=BANK rawWriteId={} status=SUCCESS", traceId, document.id());
-                        List<Map<String, Object>> assetDetails = extractAssetDetails(result.payload(), "bankAssets");
-                        return SourceOutcome.success(
-                                AssetSourceType.BANK,
-                                result.totalBalance(),
-                                result.currency(),
-                                result.fetchedAt(),
-                                rawTraceId,
-                                document.id(),
-                                result.payload(),
-                                result.currencySummary(),
-                                assetDetails
-                        );
-                    } catch (DataAccessException ex) {
-                        return handleWriteFailure(
-                                AssetSourceType.BANK,
-                                traceId,
-                                rawTraceId,
-                                ex
-                        );
-                    }
-                });
+    private void applyDeferredWrites(
+            Map<AssetSourceType, SourceOutcome> outcomes,
+            Map<AssetSourceType, DataAccessException> writeFailures,
+            String traceId
+    ) {
+        outcomes.replaceAll((source, outcome) -> {
+            if (outcome.status() != AssetComponentStatus.SUCCESS) {
+                return outcome;
+            }
+            DataAccessException failure = writeFailures.get(source);
+            if (failure != null) {
+                return handleWriteFailure(source, traceId, outcome.rawTraceId(), failure);
+            }
+            recordRawWriteSuccess(source, traceId, outcome.payloadRefId());
+            return outcome;
+        });
     }
 
-    private CompletableFuture<SourceOutcome> handleSecurities(String customerId, String traceId, Duration timeout) {
-        return assetSourceClient.fetchSecuritiesAssets(customerId, traceId)
-                .orTimeout(timeout.toMillis(), TimeUnit.MILLISECONDS)
-                .handle((result, throwable) -> {
-                    if (throwable != null) {
-                        return handleException(AssetSourceType.SECURITIES, throwable, traceId);
-                    }
-                    String rawTraceId = result.traceId();
-                    try {
-                        SecuritiesAssetRawDocument document = securitiesAssetWriter.write(new SecuritiesAssetWriter.SecuritiesAssetWriteRequest(
-                                customerId,
-                                result.payload(),
-                                result.totalMarketValue(),
-                                result.holdingsCount(),
-                                result.fetchedAt(),
-                                rawTraceId
-                        ));
-                        meterRegistry.counter("asset.aggregation.raw.write", "source", AssetSourceType.SECURITIES.name(), "status", "SUCCESS").increment();
-                        log.info("TraceId={} source=SECURITIES rawWriteId={} status=SUCCESS", traceId, document.id());
-                        List<Map<String, Object>> assetDetails = extractAssetDetails(result.payload(), "securitiesAssets");
-                        return SourceOutcome.success(
-                                AssetSourceType.SECURITIES,
-                                result.totalMarketValue(),
-                                result.currency(),
-                                result.fetchedAt(),
-                                rawTraceId,
-                                document.id(),
-                                result.payload(),
-                                List.of(),
-                                assetDetails
-                        );
-                    } catch (DataAccessException ex) {
-                        return handleWriteFailure(
-                                AssetSourceType.SECURITIES,
-                                traceId,
-                                rawTraceId,
-                                ex
-                        );
-                    }
-                });
+    private void recordRawWriteSuccess(AssetSourceType source, String traceId, String payloadRefId) {
+        meterRegistry.counter("asset.aggregation.raw.write", "source", source.name(), "status", "SUCCESS").increment();
+        log.info("TraceId={} source={} rawWriteId={} status=SUCCESS", traceId, source, payloadRefId);
     }
 
-    private CompletableFuture<SourceOutcome> handleInsurance(String customerId, String traceId, Duration timeout) {
-        return assetSourceClient.fetchInsuranceAssets(customerId, traceId)
-                .orTimeout(timeout.toMillis(), TimeUnit.MILLISECONDS)
-                .handle((result, throwable) -> {
-                    if (throwable != null) {
-                        return handleException(AssetSourceType.INSURANCE, throwable, traceId);
-                    }
-                    String rawTraceId = result.traceId();
-                    try {
-                        InsuranceAssetRawDocument document = insuranceAssetWriter.write(new InsuranceAssetWriter.InsuranceAssetWriteRequest(
-                                customerId,
-                                result.payload(),
-                                result.totalCoverage(),
-                                result.policiesCount(),
-                                result.fetchedAt(),
-                                rawTraceId
-                        ));
-                        meterRegistry.counter("asset.aggregation.raw.write", "source", AssetSourceType.INSURANCE.name(), "status", "SUCCESS").increment();
-                        log.info("TraceId={} source=INSURANCE rawWriteId={} status=SUCCESS", traceId, document.id());
-                        List<Map<String, Object>> assetDetails = extractAssetDetails(result.payload(), "insuranceAssets");
-                        return SourceOutcome.success(
-                                AssetSourceType.INSURANCE,
-                                result.totalCoverage(),
-                                result.currency(),
-                                result.fetchedAt(),
-                                rawTraceId,
-                                document.id(),
-                                result.payload(),
-                                List.of(),
-                                assetDetails
-                        );
-                    } catch (DataAccessException ex) {
-                        return handleWriteFailure(
-                                AssetSourceType.INSURANCE,
-                                traceId,
-                                rawTraceId,
-                                ex
-                        );
-                    }
-                });
+    private SourceTiming recordTiming(SourceOutcome outcome, long startNanos, int completionOrder) {
+        Duration latency = Duration.ofNanos(System.nanoTime() - startNanos);
+        String source = outcome.source().name();
+        Timer.builder(MetricsConfig.ASSET_SOURCE_LATENCY)
+                .description("單一來源抓取與 raw 寫入耗時 (milliseconds)")
+                .tags("source", source, "status", outcome.status().name())
+                .publishPercentileHistogram()
+                .register(meterRegistry)
+                .record(latency);
+        DistributionSummary.builder(MetricsConfig.ASSET_SOURCE_COMPLETION_ORDER)
+                .description("單一來源於同次聚合中的完成順序 (1 = 最先完成)")
+                .tag("source", source)
+                .register(meterRegistry)
+                .record(completionOrder);
+        return new SourceTiming(outcome.source(), outcome.status(), latency, completionOrder);
     }
 
-    private SourceOutcome handleException(AssetSourceType source, Throwable throwable, String traceId) {
+    private SourceOutcome handleException(AssetSourceType source, Throwable throwable, String traceId, Duration sourceTimeout) {
         Throwable cause = unwrap(throwable);
         if (cause instanceof TimeoutException) {
+            timeoutPolicy.recordAbandoned(source, sourceTimeout);
             meterRegistry.counter("asset.aggregation.raw.write", "source", source.name(), "status", "TIMEOUT").increment();
-            log.warn("TraceId={} source={} status=TIMEOUT", traceId, source);
+            log.warn("TraceId={} source={} status=TIMEOUT timeout={}ms", traceId, source, sourceTimeout.toMillis());
             return SourceOutcome.timeout(source, traceId);
         }
         if (cause instanceof AssetSourceMissingException) {
@@ -214,6 +236,11 @@ public class AssetAggregationCoordinator {
             log.info("TraceId={} source={} status=MISSING reason={}", traceId, source, cause.getMessage());
             return SourceOutcome.missing(source, traceId);
         }
+        if (cause instanceof RejectedExecutionException) {
+            meterRegistry.counter("asset.aggregation.raw.write", "source", source.name(), "status", "REJECTED").increment();
+            log.warn("TraceId={} source={} status=REJECTED reason={}", traceId, source, cause.getMessage());
+            return SourceOutcome.failed(source, traceId, cause);
+        }
         meterRegistry.counter("asset.aggregation.raw.write", "source", source.name(), "status", "FAILED").increment();
         log.error("TraceId={} source={} status=FAILED reason={}", traceId, source, cause.getMessage());
         return SourceOutcome.failed(source, traceId, cause);
@@ -239,27 +266,17 @@ public class AssetAggregationCoordinator {
         return current;
     }
 
-    @SuppressWarnings("unchecked")
-    private List<Map<String, Object>> extractAssetDetails(Map<String, Object> payload, String key) {
-        if (payload == null) {
-            return List.of();
-        }
-        Object raw = payload.get(key);
-        if (!(raw instanceof List<?> rawList)) {
-            return List.of();
-        }
-        return rawList.stream()
-                .filter(Map.class::isInstance)
-                .map(item -> Map.copyOf((Map<String, Object>) item))
-                .toList();
-    }
-
-    public record ExecutionSummary(Map<AssetSourceType, SourceOutcome> outcomes) {
+    public record ExecutionSummary(Map<AssetSourceType, SourceOutcome> outcomes, List<SourceTiming> completionOrder) {
 
         public ExecutionSummary {
             EnumMap<AssetSourceType, SourceOutcome> map = new EnumMap<>(AssetSourceType.class);
             map.putAll(outcomes);
             outcomes = map;
+            completionOrder = completionOrder == null ? List.of() : List.copyOf(completionOrder);
+        }
+
+        public ExecutionSummary(Map<AssetSourceType, SourceOutcome> outcomes) {
+            this(outcomes, List.of());
         }
 
         public SourceOutcome outcome(AssetSourceType source) {
@@ -282,6 +299,22 @@ public class AssetAggregationCoordinator {
         }
     }
 
+    public record SourceTiming(
+            AssetSourceType source,
+            AssetComponentStatus status,
+            Duration latency,
+            int completionOrder
+    ) {
+        SourceTiming withStatus(AssetComponentStatus finalStatus) {
+            return finalStatus == status ? this : new SourceTiming(source, finalStatus, latency, completionOrder);
+        }
+
+        @Override
+        public String toString() {
+            return "%d:%s(%s, %dms)".formatted(completionOrder, source, status, latency.toMillis());
+        }
+    }
+
     public record SourceOutcome(
             AssetSourceType source,
             AssetComponentStatus status,
@@ -296,7 +329,7 @@ public class AssetAggregationCoordinator {
             Throwable error
     ) {
         public SourceOutcome {
-            payload = payload == null ? Map.of() : Map.copyOf(payload);
+            payload = payload == null ? Map.of() : RawBsonPayload.immutableCopyOf(payload);
             currencySummary = currencySummary == null ? List.of() : List.copyOf(currencySummary);
             assetDetails = assetDetails == null ? List.of() : assetDetails.stream()
                     .map(Map::copyOf)
@@ -1,14 +1,20 @@
 package com.poc.svc.assets.service;
 
 import com.poc.svc.assets.config.MetricsConfig;
+import com.poc.svc.assets.dto.AssetComponentStatus;
 import com.poc.svc.assets.dto.AssetSourceType;
 import com.poc.svc.assets.exception.AssetAggregationException;
+import com.poc.svc.assets.service.impl.support.SingleFlight;
 import com.poc.svc.assets.util.TraceContext;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
 import io.micrometer.core.instrument.MeterRegistry;
 import io.micrometer.core.instrument.Timer;
 import org.bson.Document;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.stereotype.Service;
 import org.springframework.util.StringUtils;
 
@@ -16,6 +22,10 @@ import java.time.Duration;
 import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
 
 @Service
 public class AssetAggregationService {
@@ -23,11 +33,15 @@ public class AssetAggregationService {
     private static final Logger log = LoggerFactory.getLogger(AssetAggregationService.class);
 
     private final AssetAggregationCoordinator coordinator;
-    private final AggregationExecutor aggregationExecutor;
+    private final StagingAggregationEngine stagingEngine;
     private final AggregationProperties properties;
     private final MeterRegistry meterRegistry;
+    private final Executor executor;
+    private final RawWriteBarrier rawWriteBarrier;
+    private final SingleFlight<String, List<Document>> singleFlight = new SingleFlight<>();
+    private final Counter coalescedCounter;
 
-    public record AggregationProperties(Duration timeout, String pipelineName) {
+    public record AggregationProperties(Duration timeout, String pipelineName, boolean singleFlightEnabled) {
         public AggregationProperties {
             Objects.requireNonNull(timeout, "timeout must not be null");
             if (!StringUtils.hasText(pipelineName)) {
@@ -35,33 +49,189 @@ public class AssetAggregationService {
             }
             pipelineName = pipelineName.trim();
         }
+
+        public AggregationProperties(Duration timeout, String pipelineName) {
+            this(timeout, pipelineName, true);
+        }
     }
 
     public AssetAggregationService(
             AssetAggregationCoordinator coordinator,
             AggregationExecutor aggregationExecutor,
             AggregationProperties aggregationProperties,
-            MeterRegistry meterRegistry
+            MeterRegistry meterRegistry,
+            @Qualifier("assetAsyncExecutor") Executor executor
+    ) {
+        this(coordinator, aggregationExecutor, aggregationProperties, meterRegistry, executor, RawWriteBarrier.none());
+    }
+
+    public AssetAggregationService(
+            AssetAggregationCoordinator coordinator,
+            AggregationExecutor aggregationExecutor,
+            AggregationProperties aggregationProperties,
+            MeterRegistry meterRegistry,
+            @Qualifier("assetAsyncExecutor") Executor executor,
+            RawWriteBarrier rawWriteBarrier
+    ) {
+        this(coordinator,
+                StagingAggregationEngine.pipeline(aggregationExecutor,
+                        Objects.requireNonNull(aggregationProperties, "aggregationProperties must not be null").pipelineName()),
+                aggregationProperties,
+                meterRegistry,
+                executor,
+                rawWriteBarrier);
+    }
+
+    @Autowired
+    public AssetAggregationService(
+            AssetAggregationCoordinator coordinator,
+            StagingAggregationEngine stagingEngine,
+            AggregationProperties aggregationProperties,
+            MeterRegistry meterRegistry,
+            @Qualifier("assetAsyncExecutor") Executor executor,
+            RawWriteBarrier rawWriteBarrier
     ) {
         this.coordinator = Objects.requireNonNull(coordinator, "coordinator must not be null");
-        this.aggregationExecutor = Objects.requireNonNull(aggregationExecutor, "aggregationExecutor must not be null");
+        this.stagingEngine = Objects.requireNonNull(stagingEngine, "stagingEngine must not be null");
         this.properties = Objects.requireNonNull(aggregationProperties, "aggregationProperties must not be null");
         this.meterRegistry = Objects.requireNonNull(meterRegistry, "meterRegistry must not be null");
+        this.executor = Objects.requireNonNull(executor, "executor must not be null");
+        this.rawWriteBarrier = Objects.requireNonNull(rawWriteBarrier, "rawWriteBarrier must not be null");
+        this.coalescedCounter = Counter.builder(MetricsConfig.ASSET_AGGREGATION_COALESCED)
+                .description("併入同一客戶進行中整合流程的呼叫數")
+                .register(meterRegistry);
+        Gauge.builder(MetricsConfig.ASSET_AGGREGATION_IN_FLIGHT, singleFlight, SingleFlight::inFlightCount)
+                .description("進行中的整合流程數（依 customerId 合併後）")
+                .register(meterRegistry);
     }
 
     public List<Document> aggregateCustomerAssets(String customerId) {
+        validateCustomerId(customerId);
+        String traceId = resolveTraceId();
+
+        if (!properties.singleFlightEnabled()) {
+            return runAggregation(customerId, traceId);
+        }
+        SingleFlight.Call<List<Document>> call = singleFlight.execute(customerId, () -> {
+            try {
+                return CompletableFuture.completedFuture(runAggregation(customerId, traceId));
+            } catch (RuntimeException ex) {
+                return CompletableFuture.failedFuture(ex);
+            }
+        });
+        recordCoalesced(call, customerId, traceId);
+        return join(call.result());
+    }
+
+    /**
+     * 非同步版本：下游呼叫與 raw 寫入期間不佔用呼叫端（servlet）執行緒，pipeline 於 {@code assetAsyncExecutor} 上執行。
+     */
+    public CompletableFuture<List<Document>> aggregateCustomerAssetsAsync(String customerId) {
+        validateCustomerId(customerId);
+        String traceId = resolveTraceId();
+
+        if (!properties.singleFlightEnabled()) {
+            return runAggregationAsync(customerId, traceId);
+        }
+        SingleFlight.Call<List<Document>> call = singleFlight.execute(customerId, () -> runAggregationAsync(customerId, traceId));
+        recordCoalesced(call, customerId, traceId);
+        return call.result();
+    }
+
+    private List<Document> runAggregation(String customerId, String traceId) {
+        Timer.Sample totalTimer = Timer.start(meterRegistry);
+        long startNanos = System.nanoTime();
+        AssetAggregationCoordinator.ExecutionSummary summary = coordinator.coordinate(customerId, traceId, properties.timeout());
+        join(awaitRawWrites(summary, traceId, startNanos, totalTimer));
+        return completeAggregation(customerId, traceId, summary, totalTimer);
+    }
+
+    private CompletableFuture<List<Document>> runAggregationAsync(String customerId, String traceId) {
+        Timer.Sample totalTimer = Timer.start(meterRegistry);
+        long startNanos = System.nanoTime();
+        return coordinator.coordinateAsync(customerId, traceId, properties.timeout())
+                .thenCompose(summary -> awaitRawWrites(summary, traceId, startNanos, totalTimer).thenApply(ignored -> summary))
+                .thenApplyAsync(summary -> {
+                    TraceContext.setTraceId(traceId);
+                    try {
+                        return completeAggregation(customerId, traceId, summary, totalTimer);
+                    } finally {
+                        TraceContext.clear();
+                    }
+                }, executor);
+    }
+
+    /**
+     * write-behind 模式下 raw 文件可能尚未寫入 Mongo，pipeline 由 Mongo 端讀取 raw collection，因此先等待本次的文件 drain；
+     * 等待時間為整體 timeout 扣除已耗用的時間，逾時或文件被拒絕則以 {@link AssetAggregationException} 結束本次整合。
+     */
+    private CompletableFuture<Void> awaitRawWrites(
+            AssetAggregationCoordinator.ExecutionSummary summary,
+            String traceId,
+            long startNanos,
+            Timer.Sample totalTimer
+    ) {
+        if (summary.hasFailures()) {
+            return CompletableFuture.completedFuture(null);
+        }
+        List<String> payloadRefIds = summary.outcomes().values().stream()
+                .filter(outcome -> outcome.status() == AssetComponentStatus.SUCCESS)
+                .map(AssetAggregationCoordinator.SourceOutcome::payloadRefId)
+                .filter(Objects::nonNull)
+                .toList();
+        long remainingNanos = Math.max(0, properties.timeout().toNanos() - (System.nanoTime() - startNanos));
+        return rawWriteBarrier.awaitPersisted(payloadRefIds)
+                .orTimeout(remainingNanos, TimeUnit.NANOSECONDS)
+                .exceptionally(ex -> {
+                    meterRegistry.counter(MetricsConfig.ASSET_AGGREGATION_FAILURE).increment();
+                    totalTimer.stop(meterRegistry.timer(MetricsConfig.ASSET_AGGREGATION_LATENCY));
+                    log.warn("TraceId={} raw documents were not persisted before pipeline reason={}", traceId, ex.toString());
+                    throw new AssetAggregationException(
+                            "Raw documents were not persisted in time for trace " + traceId, List.of(), ex);
+                });
+    }
+
+    /**
+     * 併入的呼叫者共用 leader 的下游呼叫、raw 寫入與 pipeline 結果；回應 header 仍由 TraceIdFilter 帶各自的 traceId。
+     */
+    private void recordCoalesced(SingleFlight.Call<List<Document>> call, String customerId, String traceId) {
+        if (call.coalesced()) {
+            coalescedCounter.increment();
+            log.info("TraceId={} coalesced into in-flight aggregation customerId={}", traceId, customerId);
+        }
+    }
+
+    private static <T> T join(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException ex) {
+            if (ex.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw ex;
+        }
+    }
+
+    private void validateCustomerId(String customerId) {
         if (!StringUtils.hasText(customerId)) {
             throw new IllegalArgumentException("customerId must not be blank");
         }
+    }
 
+    private String resolveTraceId() {
         String traceId = TraceContext.traceId();
         if (!StringUtils.hasText(traceId)) {
             traceId = TraceContext.ensureTraceId(null);
         }
+        return traceId;
+    }
 
-        Timer.Sample totalTimer = Timer.start(meterRegistry);
-        AssetAggregationCoordinator.ExecutionSummary summary = coordinator.coordinate(customerId, traceId, properties.timeout());
-
+    private List<Document> completeAggregation(
+            String customerId,
+            String traceId,
+            AssetAggregationCoordinator.ExecutionSummary summary,
+            Timer.Sample totalTimer
+    ) {
         if (summary.hasFailures()) {
             meterRegistry.counter(MetricsConfig.ASSET_AGGREGATION_FAILURE).increment();
             totalTimer.stop(meterRegistry.timer(MetricsConfig.ASSET_AGGREGATION_LATENCY));
@@ -83,7 +253,7 @@ public class AssetAggregationService {
 
         Timer.Sample pipelineTimer = Timer.start(meterRegistry);
         try {
-            List<Document> aggregationResult = aggregationExecutor.execute(properties.pipelineName(), traceId);
+            List<Document> aggregationResult = stagingEngine.aggregate(customerId, traceId, summary);
             pipelineTimer.stop(meterRegistry.timer(MetricsConfig.ASSET_AGGREGATION_STAGING_WRITE_LATENCY));
             meterRegistry.counter(MetricsConfig.ASSET_AGGREGATION_SUCCESS).increment();
             totalTimer.stop(meterRegistry.timer(MetricsConfig.ASSET_AGGREGATION_LATENCY));
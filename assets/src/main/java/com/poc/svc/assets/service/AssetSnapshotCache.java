@@ -0,0 +1,173 @@
+package com.poc.svc.assets.service;
+
+import com.poc.svc.assets.config.AssetsSnapshotCacheProperties;
+import com.poc.svc.assets.config.MetricsConfig;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+
+/**
+ * 依 customerId 保存最近一次整合結果（asset_staging 文件）的 LRU 快取。
+ * 呼叫端透過 {@code Cache-Control: max-age / max-stale} 表明可接受的快照年齡，命中時不再呼叫下游與 pipeline。
+ */
+@Component
+public class AssetSnapshotCache {
+
+    private final AssetsSnapshotCacheProperties properties;
+    private final MeterRegistry meterRegistry;
+    private final Clock clock;
+    private final Map<String, Snapshot> entries;
+
+    @Autowired
+    public AssetSnapshotCache(AssetsSnapshotCacheProperties properties, MeterRegistry meterRegistry) {
+        this(properties, meterRegistry, Clock.systemUTC());
+    }
+
+    AssetSnapshotCache(AssetsSnapshotCacheProperties properties, MeterRegistry meterRegistry, Clock clock) {
+        this.properties = Objects.requireNonNull(properties, "properties must not be null");
+        this.meterRegistry = Objects.requireNonNull(meterRegistry, "meterRegistry must not be null");
+        this.clock = Objects.requireNonNull(clock, "clock must not be null");
+        int maxEntries = properties.getMaxEntries();
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Snapshot> eldest) {
+                return size() > maxEntries;
+            }
+        };
+        Gauge.builder(MetricsConfig.ASSET_SNAPSHOT_CACHE_SIZE, this, AssetSnapshotCache::size)
+                .description("整合結果快照快取筆數")
+                .register(meterRegistry);
+    }
+
+    /**
+     * 依 {@code Cache-Control} 取得可接受的快照；未命中、過舊或呼叫端要求重新整合時回傳 empty。
+     */
+    public Optional<CachedSnapshot> lookup(String customerId, String cacheControl) {
+        if (!properties.isEnabled()) {
+            return Optional.empty();
+        }
+        Duration acceptableAge = acceptableAge(cacheControl);
+        if (acceptableAge.isZero() || acceptableAge.isNegative()) {
+            record("bypass");
+            return Optional.empty();
+        }
+        Instant now = clock.instant();
+        Snapshot snapshot;
+        synchronized (entries) {
+            snapshot = entries.get(customerId);
+            if (snapshot != null && age(snapshot, now).compareTo(retention()) > 0) {
+                entries.remove(customerId);
+                snapshot = null;
+            }
+        }
+        if (snapshot == null) {
+            record("miss");
+            return Optional.empty();
+        }
+        Duration age = age(snapshot, now);
+        if (age.compareTo(acceptableAge) > 0) {
+            record("stale");
+            return Optional.empty();
+        }
+        record("hit");
+        return Optional.of(new CachedSnapshot(snapshot.documents(), age));
+    }
+
+    public void put(String customerId, List<Document> documents) {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        Snapshot snapshot = new Snapshot(List.copyOf(documents), clock.instant());
+        synchronized (entries) {
+            entries.put(customerId, snapshot);
+        }
+    }
+
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    /**
+     * max-age 限制快照年齡；max-stale 允許超出 ttl（上限為 max-stale-limit）；no-cache / no-store 一律重新整合。
+     * 兩者皆未提供時使用 default-max-age（不超過 ttl）。
+     */
+    Duration acceptableAge(String cacheControl) {
+        Duration ttl = properties.getTtl();
+        Duration maxAge = null;
+        Duration maxStale = null;
+        if (StringUtils.hasText(cacheControl)) {
+            for (String directive : cacheControl.split(",")) {
+                String normalized = directive.trim().toLowerCase(Locale.ROOT);
+                if (normalized.equals("no-cache") || normalized.equals("no-store")) {
+                    return Duration.ZERO;
+                }
+                if (normalized.startsWith("max-age=")) {
+                    maxAge = parseSeconds(normalized.substring("max-age=".length()));
+                } else if (normalized.equals("max-stale")) {
+                    maxStale = properties.getMaxStaleLimit();
+                } else if (normalized.startsWith("max-stale=")) {
+                    maxStale = parseSeconds(normalized.substring("max-stale=".length()));
+                }
+            }
+        }
+        Duration staleAllowance = maxStale == null ? Duration.ZERO : min(maxStale, properties.getMaxStaleLimit());
+        Duration freshnessLimit = ttl.plus(staleAllowance);
+        if (maxAge != null) {
+            return min(maxAge, freshnessLimit);
+        }
+        if (maxStale != null) {
+            return freshnessLimit;
+        }
+        return min(properties.getDefaultMaxAge(), ttl);
+    }
+
+    private Duration retention() {
+        return properties.getTtl().plus(properties.getMaxStaleLimit());
+    }
+
+    private Duration age(Snapshot snapshot, Instant now) {
+        Duration age = Duration.between(snapshot.cachedAt(), now);
+        return age.isNegative() ? Duration.ZERO : age;
+    }
+
+    private Duration parseSeconds(String value) {
+        try {
+            return Duration.ofSeconds(Math.max(0, Long.parseLong(value.trim())));
+        } catch (NumberFormatException ex) {
+            return Duration.ZERO;
+        }
+    }
+
+    private Duration min(Duration left, Duration right) {
+        return left.compareTo(right) <= 0 ? left : right;
+    }
+
+    private void record(String result) {
+        meterRegistry.counter(MetricsConfig.ASSET_SNAPSHOT_CACHE_REQUESTS, "result", result).increment();
+    }
+
+    private record Snapshot(List<Document> documents, Instant cachedAt) {
+    }
+
+    /**
+     * @param documents 快照中的 asset_staging 文件
+     * @param age       快照建立至今的時間，回應時填入 {@code Age} header
+     */
+    public record CachedSnapshot(List<Document> documents, Duration age) {
+    }
+}
@@ -0,0 +1,37 @@
+package com.poc.svc.assets.service;
+
+import com.poc.svc.assets.dto.AssetSourceType;
+import com.poc.svc.assets.service.AssetAggregationCoordinator.SourceOutcome;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * 單一資產來源的擴充點：負責呼叫下游、寫入 raw collection 與萃取資產明細。
+ * 新增來源時只需註冊新的 adapter bean，{@link AssetAggregationCoordinator} 會自動並行呼叫。
+ *
+ * @param <R> 下游回傳結果型別
+ */
+public interface AssetSourceAdapter<R> {
+
+    AssetSourceType source();
+
+    CompletableFuture<R> fetch(String customerId, String traceId);
+
+    /**
+     * 寫入 raw collection，完成值為文件 id（作為 payloadRefId）；寫入失敗時以 {@code DataAccessException} 完成。
+     */
+    CompletableFuture<String> writeRaw(String customerId, R result);
+
+    /**
+     * 只將 raw 文件登記至 {@code sink}，回傳預先產生的文件 id；實際寫入由批次 commit 負責。
+     */
+    String deferRaw(String customerId, R result, RawWriteSink sink);
+
+    List<Map<String, Object>> extractAssetDetails(R result);
+
+    String rawTraceId(R result);
+
+    SourceOutcome toOutcome(R result, String payloadRefId, List<Map<String, Object>> assetDetails);
+}
@@ -2,7 +2,10 @@ package com.poc.svc.assets.service;
 
 import com.poc.svc.assets.repository.BankAssetRawRepository;
 import com.poc.svc.assets.entity.BankAssetRawDocument;
+import com.poc.svc.assets.entity.payload.RawBsonPayload;
 import com.poc.svc.assets.service.impl.support.MongoWriteRetrier;
+import com.poc.svc.assets.service.impl.support.RawDocumentInserter;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.stereotype.Service;
 
 import java.math.BigDecimal;
@@ -10,24 +13,53 @@ import java.time.Instant;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
 
 @Service
 public class BankAssetWriter {
 
     private final BankAssetRawRepository repository;
     private final MongoWriteRetrier mongoWriteRetrier;
+    private final RawDocumentInserter rawDocumentInserter;
+    private final Executor executor;
 
-    public BankAssetWriter(BankAssetRawRepository repository, MongoWriteRetrier mongoWriteRetrier) {
+    public BankAssetWriter(BankAssetRawRepository repository,
+                           MongoWriteRetrier mongoWriteRetrier,
+                           RawDocumentInserter rawDocumentInserter,
+                           @Qualifier("assetAsyncExecutor") Executor executor) {
         this.repository = Objects.requireNonNull(repository, "repository must not be null");
         this.mongoWriteRetrier = Objects.requireNonNull(mongoWriteRetrier, "mongoWriteRetrier must not be null");
+        this.rawDocumentInserter = Objects.requireNonNull(rawDocumentInserter, "rawDocumentInserter must not be null");
+        this.executor = Objects.requireNonNull(executor, "executor must not be null");
     }
 
-    public BankAssetRawDocument write(BankAssetWriteRequest request) {
+    /**
+     * 完成值為帶有 {@code _id} 的文件；重試等待以計時器排程，不佔用呼叫端或共用 worker 執行緒。
+     */
+    public CompletableFuture<BankAssetRawDocument> write(BankAssetWriteRequest request) {
         Objects.requireNonNull(request, "request must not be null");
-        BankAssetRawDocument document = new BankAssetRawDocument(
+        BankAssetRawDocument document = toDocument(request);
+        String failureMessage = failureMessage(request);
+        if (document.payload() instanceof RawBsonPayload || rawDocumentInserter.handlesEntities()) {
+            return rawDocumentInserter.insertEntity(document, failureMessage);
+        }
+        return mongoWriteRetrier.executeAsync(failureMessage, () -> repository.save(document), executor);
+    }
+
+    /**
+     * 只將文件登記至 {@code sink}（延後至同次聚合 commit 時寫入），回傳帶有預先產生 id 的文件。
+     */
+    public BankAssetRawDocument defer(BankAssetWriteRequest request, RawWriteSink sink) {
+        Objects.requireNonNull(request, "request must not be null");
+        return rawDocumentInserter.deferEntity(toDocument(request), failureMessage(request), sink);
+    }
+
+    private static BankAssetRawDocument toDocument(BankAssetWriteRequest request) {
+        return new BankAssetRawDocument(
                 null,
                 request.customerId(),
-                Map.copyOf(request.payload()),
+                RawBsonPayload.immutableCopyOf(request.payload()),
                 request.totalBalance(),
                 request.currencySummary().stream()
                         .map(currency -> new BankAssetRawDocument.CurrencyAmount(currency.currency(), currency.amount()))
@@ -35,10 +67,10 @@ public class BankAssetWriter {
                 request.fetchedAt(),
                 request.traceId()
         );
-        return mongoWriteRetrier.execute(
-                "Failed to persist bank assets for customer %s".formatted(request.customerId()),
-                () -> repository.save(document)
-        );
+    }
+
+    private static String failureMessage(BankAssetWriteRequest request) {
+        return "Failed to persist bank assets for customer %s".formatted(request.customerId());
     }
 
     public record BankAssetWriteRequest(
@@ -0,0 +1,192 @@
+package com.poc.svc.assets.service;
+
+import com.poc.svc.assets.entity.codec.AssetCodecs;
+import org.bson.Document;
+import org.bson.RawBsonDocument;
+import org.bson.codecs.Codec;
+import org.bson.conversions.Bson;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.util.CollectionUtils;
+import org.springframework.util.StringUtils;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * 已驗證的 {@code pipeline_store} 定義：stage 以不可變的 {@link RawBsonDocument} 保存，可直接交給 driver 重複執行，
+ * {@code $merge} 目標與來源 collection 只於編譯時解析一次。
+ * {@code scoped} 時執行前自動加上 {@code {$match: {customerId}}}（定義可以 {@code autoScope: false} 關閉）；
+ * {@code parameterized} 表示 stage 引用了 {@link PipelineParameters} 的變數，執行時需帶入 {@code let}。
+ */
+public record CompiledPipeline(
+        String name,
+        String sourceCollection,
+        String targetCollection,
+        MergeSemantics merge,
+        List<RawBsonDocument> stages,
+        boolean scoped,
+        boolean parameterized,
+        RawBsonDocument definition
+) {
+
+    private static final Logger log = LoggerFactory.getLogger(CompiledPipeline.class);
+    private static final String MERGE_STAGE_KEY = "$merge";
+    private static final String SCOPE_FIELD = "customerId";
+    /**
+     * 只能作為第一個 stage 的運算子，pipeline 以其開頭時不自動加上 {@code $match}。
+     */
+    private static final Set<String> LEADING_ONLY_STAGES = Set.of(
+            "$geoNear", "$search", "$searchMeta", "$vectorSearch", "$collStats", "$indexStats", "$documents", "$changeStream");
+
+    public CompiledPipeline {
+        Objects.requireNonNull(name, "name must not be null");
+        Objects.requireNonNull(sourceCollection, "sourceCollection must not be null");
+        Objects.requireNonNull(targetCollection, "targetCollection must not be null");
+        Objects.requireNonNull(merge, "merge must not be null");
+        stages = List.copyOf(stages);
+        Objects.requireNonNull(definition, "definition must not be null");
+    }
+
+    /**
+     * 本次執行的 stage：有 customerId 且可自動限縮範圍時，於最前面加上可使用 {@code customerId} 索引的 {@code $match}。
+     */
+    public List<? extends Bson> stagesFor(PipelineParameters parameters) {
+        if (!scoped || parameters.customerId() == null) {
+            return stages;
+        }
+        List<Bson> scopedStages = new ArrayList<>(stages.size() + 1);
+        scopedStages.add(new Document("$match", new Document(SCOPE_FIELD, parameters.customerId())));
+        scopedStages.addAll(stages);
+        return scopedStages;
+    }
+
+    /**
+     * 同 {@link #stagesFor}，但不含最後的 {@code $merge}：pipeline 輸出直接回傳給呼叫端。
+     */
+    public List<? extends Bson> outputStagesFor(PipelineParameters parameters) {
+        List<? extends Bson> all = stagesFor(parameters);
+        return all.subList(0, all.size() - 1);
+    }
+
+    /**
+     * 驗證並編譯 {@code pipeline_store} 文件；定義不完整時丟出 {@link IllegalStateException}。
+     */
+    public static CompiledPipeline compile(String pipelineName, Document definition) {
+        Objects.requireNonNull(definition, "definition must not be null");
+        List<Document> stages = definition.getList("pipeline", Document.class);
+        if (CollectionUtils.isEmpty(stages)) {
+            throw new IllegalStateException("Pipeline definition '" + pipelineName + "' does not contain any stages");
+        }
+        Document mergeSpec = stages.get(stages.size() - 1).get(MERGE_STAGE_KEY, Document.class);
+        if (mergeSpec == null) {
+            throw new IllegalStateException("Pipeline '" + pipelineName + "' must terminate with a $merge stage");
+        }
+        String targetCollection = resolveTargetCollection(pipelineName, mergeSpec);
+        String sourceCollection = resolveSourceCollection(definition, targetCollection);
+
+        Codec<Document> encoder = AssetCodecs.REGISTRY.get(Document.class);
+        List<RawBsonDocument> compiled = new ArrayList<>(stages.size());
+        for (Document stage : stages) {
+            compiled.add(new RawBsonDocument(stage, encoder));
+        }
+        boolean scoped = definition.getBoolean("autoScope", true)
+                && stages.get(0).keySet().stream().noneMatch(LEADING_ONLY_STAGES::contains);
+        return new CompiledPipeline(pipelineName, sourceCollection, targetCollection, MergeSemantics.of(mergeSpec), compiled,
+                scoped, referencesParameters(stages), new RawBsonDocument(definition, encoder));
+    }
+
+    private static boolean referencesParameters(Object value) {
+        if (value instanceof String text && text.startsWith("$$")) {
+            String variable = text.substring(2);
+            int dot = variable.indexOf('.');
+            return PipelineParameters.VARIABLES.contains(dot < 0 ? variable : variable.substring(0, dot));
+        }
+        if (value instanceof Map<?, ?> map) {
+            return map.values().stream().anyMatch(CompiledPipeline::referencesParameters);
+        }
+        if (value instanceof Collection<?> values) {
+            return values.stream().anyMatch(CompiledPipeline::referencesParameters);
+        }
+        return false;
+    }
+
+    private static String resolveTargetCollection(String pipelineName, Document mergeSpec) {
+        Object into = mergeSpec.get("into");
+        if (into instanceof String target && StringUtils.hasText(target)) {
+            return target;
+        }
+        if (into instanceof Document intoDoc) {
+            String collection = intoDoc.getString("coll");
+            if (!StringUtils.hasText(collection)) {
+                collection = intoDoc.getString("collection");
+            }
+            if (StringUtils.hasText(collection)) {
+                return collection;
+            }
+        }
+        throw new IllegalStateException("Pipeline '" + pipelineName + "' $merge stage does not specify a valid target collection");
+    }
+
+    private static String resolveSourceCollection(Document definition, String fallback) {
+        List<String> keys = List.of("sourceCollection", "source_collection", "source");
+        for (String key : keys) {
+            String candidate = definition.getString(key);
+            if (StringUtils.hasText(candidate)) {
+                return candidate;
+            }
+        }
+        log.warn("Pipeline definition does not specify a source collection, fallback to target '{}'", fallback);
+        if (!StringUtils.hasText(fallback)) {
+            throw new IllegalStateException("Unable to determine source collection for aggregation pipeline");
+        }
+        return fallback;
+    }
+
+    /**
+     * {@code $merge} 的比對欄位與行為，未指定時與 Mongo 預設相同（{@code on: _id}、{@code merge} / {@code insert}）。
+     */
+    public record MergeSemantics(List<String> on, String whenMatched, String whenNotMatched) {
+
+        public static final String REPLACE = "replace";
+        public static final String MERGE = "merge";
+        public static final String KEEP_EXISTING = "keepExisting";
+        public static final String INSERT = "insert";
+
+        public MergeSemantics {
+            on = List.copyOf(on);
+        }
+
+        static MergeSemantics of(Document mergeSpec) {
+            Object on = mergeSpec.get("on");
+            List<String> fields = new ArrayList<>();
+            if (on instanceof String field) {
+                fields.add(field);
+            } else if (on instanceof Collection<?> values) {
+                values.forEach(value -> fields.add(String.valueOf(value)));
+            }
+            if (fields.isEmpty()) {
+                fields.add("_id");
+            }
+            Object whenMatched = mergeSpec.get("whenMatched");
+            Object whenNotMatched = mergeSpec.get("whenNotMatched");
+            return new MergeSemantics(
+                    fields,
+                    whenMatched == null ? MERGE : whenMatched instanceof String mode ? mode : "pipeline",
+                    whenNotMatched instanceof String mode ? mode : INSERT
+            );
+        }
+
+        /**
+         * 能否由 pipeline 輸出自行 upsert 並取得與 {@code $merge} 相同的結果。
+         */
+        public boolean supportsResultOutput() {
+            return INSERT.equals(whenNotMatched)
+                    && (REPLACE.equals(whenMatched) || MERGE.equals(whenMatched) || KEEP_EXISTING.equals(whenMatched));
+        }
+    }
+}
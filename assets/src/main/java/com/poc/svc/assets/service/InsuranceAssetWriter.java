@@ -2,40 +2,72 @@ package com.poc.svc.assets.service;
 
 import com.poc.svc.assets.repository.InsuranceAssetRawRepository;
 import com.poc.svc.assets.entity.InsuranceAssetRawDocument;
+import com.poc.svc.assets.entity.payload.RawBsonPayload;
 import com.poc.svc.assets.service.impl.support.MongoWriteRetrier;
+import com.poc.svc.assets.service.impl.support.RawDocumentInserter;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.stereotype.Service;
 
 import java.math.BigDecimal;
 import java.time.Instant;
 import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
 
 @Service
 public class InsuranceAssetWriter {
 
     private final InsuranceAssetRawRepository repository;
     private final MongoWriteRetrier mongoWriteRetrier;
+    private final RawDocumentInserter rawDocumentInserter;
+    private final Executor executor;
 
-    public InsuranceAssetWriter(InsuranceAssetRawRepository repository, MongoWriteRetrier mongoWriteRetrier) {
+    public InsuranceAssetWriter(InsuranceAssetRawRepository repository,
+                                MongoWriteRetrier mongoWriteRetrier,
+                                RawDocumentInserter rawDocumentInserter,
+                                @Qualifier("assetAsyncExecutor") Executor executor) {
         this.repository = Objects.requireNonNull(repository, "repository must not be null");
         this.mongoWriteRetrier = Objects.requireNonNull(mongoWriteRetrier, "mongoWriteRetrier must not be null");
+        this.rawDocumentInserter = Objects.requireNonNull(rawDocumentInserter, "rawDocumentInserter must not be null");
+        this.executor = Objects.requireNonNull(executor, "executor must not be null");
     }
 
-    public InsuranceAssetRawDocument write(InsuranceAssetWriteRequest request) {
+    /**
+     * 完成值為帶有 {@code _id} 的文件；重試等待以計時器排程，不佔用呼叫端或共用 worker 執行緒。
+     */
+    public CompletableFuture<InsuranceAssetRawDocument> write(InsuranceAssetWriteRequest request) {
         Objects.requireNonNull(request, "request must not be null");
-        InsuranceAssetRawDocument document = new InsuranceAssetRawDocument(
+        InsuranceAssetRawDocument document = toDocument(request);
+        String failureMessage = failureMessage(request);
+        if (document.payload() instanceof RawBsonPayload || rawDocumentInserter.handlesEntities()) {
+            return rawDocumentInserter.insertEntity(document, failureMessage);
+        }
+        return mongoWriteRetrier.executeAsync(failureMessage, () -> repository.save(document), executor);
+    }
+
+    /**
+     * 只將文件登記至 {@code sink}（延後至同次聚合 commit 時寫入），回傳帶有預先產生 id 的文件。
+     */
+    public InsuranceAssetRawDocument defer(InsuranceAssetWriteRequest request, RawWriteSink sink) {
+        Objects.requireNonNull(request, "request must not be null");
+        return rawDocumentInserter.deferEntity(toDocument(request), failureMessage(request), sink);
+    }
+
+    private static InsuranceAssetRawDocument toDocument(InsuranceAssetWriteRequest request) {
+        return new InsuranceAssetRawDocument(
                 null,
                 request.customerId(),
-                Map.copyOf(request.payload()),
+                RawBsonPayload.immutableCopyOf(request.payload()),
                 request.totalCoverage(),
                 request.policiesCount(),
                 request.fetchedAt(),
                 request.traceId()
         );
-        return mongoWriteRetrier.execute(
-                "Failed to persist insurance assets for customer %s".formatted(request.customerId()),
-                () -> repository.save(document)
-        );
+    }
+
+    private static String failureMessage(InsuranceAssetWriteRequest request) {
+        return "Failed to persist insurance assets for customer %s".formatted(request.customerId());
     }
 
     public record InsuranceAssetWriteRequest(
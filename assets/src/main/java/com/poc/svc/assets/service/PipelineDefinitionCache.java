@@ -0,0 +1,247 @@
+package com.poc.svc.assets.service;
+
+import com.mongodb.MongoCommandException;
+import com.mongodb.client.MongoChangeStreamCursor;
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.changestream.ChangeStreamDocument;
+import com.mongodb.client.model.changestream.OperationType;
+import com.poc.svc.assets.config.AssetAggregationProperties;
+import com.poc.svc.assets.config.MetricsConfig;
+import com.poc.svc.assets.config.MongoSettingsProperties;
+import com.poc.svc.assets.entity.codec.AssetCodecs;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.bson.Document;
+import org.bson.RawBsonDocument;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 依 pipeline 名稱快取 {@link CompiledPipeline}，執行 pipeline 時不再查詢 {@code pipeline_store}。
+ * 第一次讀取時啟動背景執行緒以 change stream 監看 {@code pipeline_store}，任何異動即清空快取；
+ * change stream 不可用（standalone 或連線中斷）期間改以 {@code poll-interval} 重新比對已快取的定義。
+ * 重新載入的定義先經 {@link PipelinePlanAnalyzer} 分析，被拒絕時快取前一版已接受的 pipeline。
+ */
+@Component
+public class PipelineDefinitionCache implements DisposableBean {
+
+    private static final Logger log = LoggerFactory.getLogger(PipelineDefinitionCache.class);
+    private static final String PIPELINE_STORE_COLLECTION = "pipeline_store";
+    private static final int CHANGE_STREAM_NOT_SUPPORTED = 40573;
+
+    private final MongoClient mongoClient;
+    private final MongoSettingsProperties mongoSettings;
+    private final AssetAggregationProperties.PipelineCache properties;
+    private final MeterRegistry meterRegistry;
+    private final PipelinePlanAnalyzer planAnalyzer;
+    private final Map<String, CompiledPipeline> pipelines = new ConcurrentHashMap<>();
+    private final AtomicLong generation = new AtomicLong();
+    private final AtomicBoolean started = new AtomicBoolean();
+    private volatile boolean running = true;
+    private volatile Thread watcher;
+
+    public PipelineDefinitionCache(MongoClient mongoClient,
+                                   MongoSettingsProperties mongoSettings,
+                                   AssetAggregationProperties aggregationProperties,
+                                   MeterRegistry meterRegistry,
+                                   PipelinePlanAnalyzer planAnalyzer) {
+        this.mongoClient = Objects.requireNonNull(mongoClient, "mongoClient must not be null");
+        this.mongoSettings = Objects.requireNonNull(mongoSettings, "mongoSettings must not be null");
+        this.properties = Objects.requireNonNull(aggregationProperties, "aggregationProperties must not be null").getPipelineCache();
+        this.meterRegistry = Objects.requireNonNull(meterRegistry, "meterRegistry must not be null");
+        this.planAnalyzer = Objects.requireNonNull(planAnalyzer, "planAnalyzer must not be null");
+    }
+
+    /**
+     * 回傳已編譯的 pipeline；找不到或定義不完整時丟出 {@link IllegalStateException}，失敗結果不會被快取。
+     * 關閉快取時每次直接載入，不經 {@link PipelinePlanAnalyzer}。
+     */
+    public CompiledPipeline get(String pipelineName) {
+        if (!properties.isEnabled()) {
+            return load(pipelineName);
+        }
+        startWatcher();
+        CompiledPipeline cached = pipelines.get(pipelineName);
+        if (cached != null) {
+            record("hit");
+            return cached;
+        }
+        record("miss");
+        long observed = generation.get();
+        CompiledPipeline compiled = planAnalyzer.activate(load(pipelineName));
+        pipelines.put(pipelineName, compiled);
+        if (generation.get() != observed) {
+            // 載入期間定義已異動，捨棄可能過期的結果，下次重新讀取
+            pipelines.remove(pipelineName, compiled);
+        }
+        return compiled;
+    }
+
+    public void invalidateAll() {
+        generation.incrementAndGet();
+        pipelines.clear();
+    }
+
+    /**
+     * 重新讀取已快取的定義：已刪除、內容不同或無法編譯者移出快取。
+     */
+    void poll() {
+        List<String> names = new ArrayList<>(pipelines.keySet());
+        if (names.isEmpty()) {
+            return;
+        }
+        Map<String, Document> current = new HashMap<>();
+        for (Document definition : pipelineStore().find(Filters.in("name", names)).into(new ArrayList<>())) {
+            current.put(definition.getString("name"), definition);
+        }
+        for (String name : names) {
+            CompiledPipeline cached = pipelines.get(name);
+            if (cached == null) {
+                continue;
+            }
+            Document definition = current.get(name);
+            if (definition != null && (sameDefinition(cached, definition) || planAnalyzer.isRejected(name, definition))) {
+                continue;
+            }
+            generation.incrementAndGet();
+            pipelines.remove(name, cached);
+            meterRegistry.counter(MetricsConfig.ASSET_PIPELINE_CACHE_INVALIDATIONS, "cause", "poll").increment();
+            log.info("Pipeline '{}' definition changed in {}, evicted from cache", name, PIPELINE_STORE_COLLECTION);
+        }
+    }
+
+    int size() {
+        return pipelines.size();
+    }
+
+    private boolean sameDefinition(CompiledPipeline cached, Document definition) {
+        return new RawBsonDocument(definition, AssetCodecs.REGISTRY.get(Document.class)).equals(cached.definition());
+    }
+
+    private CompiledPipeline load(String pipelineName) {
+        Document definition = pipelineStore()
+                .find(Filters.eq("name", pipelineName))
+                .first();
+        if (definition == null) {
+            throw new IllegalStateException("Pipeline definition not found for name=" + pipelineName);
+        }
+        return CompiledPipeline.compile(pipelineName, definition);
+    }
+
+    private MongoCollection<Document> pipelineStore() {
+        return mongoClient.getDatabase(mongoSettings.database()).getCollection(PIPELINE_STORE_COLLECTION);
+    }
+
+    private void record(String result) {
+        meterRegistry.counter(MetricsConfig.ASSET_PIPELINE_CACHE_REQUESTS, "result", result).increment();
+    }
+
+    private boolean pollingEnabled() {
+        return !properties.getPollInterval().isZero() && !properties.getPollInterval().isNegative();
+    }
+
+    private void startWatcher() {
+        if (!properties.isChangeStream() && !pollingEnabled()) {
+            return;
+        }
+        if (!started.compareAndSet(false, true)) {
+            return;
+        }
+        Thread thread = new Thread(this::watchLoop, "pipeline-store-watcher");
+        thread.setDaemon(true);
+        watcher = thread;
+        thread.start();
+    }
+
+    private void watchLoop() {
+        boolean changeStream = properties.isChangeStream();
+        while (running) {
+            if (changeStream) {
+                try {
+                    watch();
+                } catch (MongoCommandException ex) {
+                    if (ex.getErrorCode() == CHANGE_STREAM_NOT_SUPPORTED) {
+                        changeStream = false;
+                        log.info("Change streams are not supported on {}, falling back to polling", PIPELINE_STORE_COLLECTION);
+                    } else {
+                        log.warn("Change stream on {} failed, polling until it is reopened", PIPELINE_STORE_COLLECTION, ex);
+                    }
+                } catch (RuntimeException ex) {
+                    if (running) {
+                        log.warn("Change stream on {} failed, polling until it is reopened", PIPELINE_STORE_COLLECTION, ex);
+                    }
+                }
+            }
+            if (!changeStream && !pollingEnabled()) {
+                return;
+            }
+            if (!running || !pause()) {
+                return;
+            }
+            try {
+                poll();
+            } catch (RuntimeException ex) {
+                log.warn("Failed to poll {} for pipeline changes", PIPELINE_STORE_COLLECTION, ex);
+            }
+        }
+    }
+
+    /**
+     * 開啟 change stream 後先清空快取（開啟前的異動無法得知），之後每筆事件都清空；關閉或 invalidate 事件時返回。
+     */
+    private void watch() {
+        try (MongoChangeStreamCursor<ChangeStreamDocument<Document>> cursor = pipelineStore().watch()
+                .maxAwaitTime(1, TimeUnit.SECONDS)
+                .cursor()) {
+            invalidateAll();
+            while (running) {
+                ChangeStreamDocument<Document> event = cursor.tryNext();
+                if (event == null) {
+                    continue;
+                }
+                invalidateAll();
+                meterRegistry.counter(MetricsConfig.ASSET_PIPELINE_CACHE_INVALIDATIONS, "cause", "change_stream").increment();
+                if (event.getOperationType() == OperationType.INVALIDATE) {
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * 等待一個輪詢週期；關閉時回傳 false。
+     */
+    private boolean pause() {
+        Duration interval = pollingEnabled() ? properties.getPollInterval() : Duration.ofSeconds(1); // 不輪詢時僅作為 change stream 重新開啟前的等待
+        try {
+            Thread.sleep(interval.toMillis());
+            return running;
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    @Override
+    public void destroy() {
+        running = false;
+        Thread thread = watcher;
+        if (thread != null) {
+            thread.interrupt();
+        }
+    }
+}
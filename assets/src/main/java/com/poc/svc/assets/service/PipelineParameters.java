@@ -0,0 +1,40 @@
+package com.poc.svc.assets.service;
+
+import org.bson.Document;
+
+import java.math.BigDecimal;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * 單次 pipeline 執行的綁定變數，於 stored pipeline 以 {@code $$customerId}、{@code $$traceId}、{@code $$baseCurrency}、
+ * {@code $$rates.<幣別>}（換算為基準幣別的匯率）引用；{@code customerId} 為 null 時不自動加上 customer 範圍的 {@code $match}。
+ */
+public record PipelineParameters(
+        String customerId,
+        String traceId,
+        String baseCurrency,
+        Map<String, BigDecimal> rates
+) {
+
+    static final Set<String> VARIABLES = Set.of("customerId", "traceId", "baseCurrency", "rates");
+
+    public PipelineParameters {
+        rates = rates == null ? Map.of() : Map.copyOf(rates);
+    }
+
+    public static PipelineParameters forTrace(String traceId) {
+        return new PipelineParameters(null, traceId, null, Map.of());
+    }
+
+    /**
+     * aggregate 的 {@code let}；所有變數皆會定義（未知者為 null），避免 pipeline 引用未定義變數而失敗。
+     */
+    public Document toLet() {
+        return new Document("customerId", customerId)
+                .append("traceId", traceId)
+                .append("baseCurrency", baseCurrency)
+                .append("rates", new Document(new TreeMap<>(rates)));
+    }
+}
@@ -0,0 +1,304 @@
+package com.poc.svc.assets.service;
+
+import com.mongodb.MongoException;
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoDatabase;
+import com.mongodb.client.model.Aggregates;
+import com.mongodb.client.model.Projections;
+import com.poc.svc.assets.config.AssetAggregationProperties;
+import com.poc.svc.assets.config.MetricsConfig;
+import com.poc.svc.assets.config.MongoIndexProvisioner;
+import com.poc.svc.assets.config.MongoSettingsProperties;
+import com.poc.svc.assets.entity.codec.AssetCodecs;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.bson.Document;
+import org.bson.RawBsonDocument;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 以 {@code explain executionStats} 分析 {@code pipeline_store} 的 pipeline：啟動時分析所有已登錄的定義，
+ * 之後由 {@link PipelineDefinitionCache} 於定義異動、重新載入時呼叫 {@link #activate}。
+ * explain 執行的是去掉 {@code $merge} 的 stage（不寫入 staging），樣本變數取自來源 collection 隨機抽樣的一筆文件，
+ * 同一 pipeline 之後的分析沿用同一客戶，docsExamined 才能與前一版比較；來源沒有資料時以不存在的客戶代替。
+ * 依 {@code assets.aggregation.pipeline-analysis.on-regression} 決定退化的定義是否啟用；
+ * {@code REJECT} 時沒有前一版可比較的 COLLSCAN 定義同樣不啟用。
+ */
+@Component
+public class PipelinePlanAnalyzer implements ApplicationRunner {
+
+    private static final Logger log = LoggerFactory.getLogger(PipelinePlanAnalyzer.class);
+    private static final String PIPELINE_STORE_COLLECTION = "pipeline_store";
+    private static final String CURSOR_STAGE = "$cursor";
+    private static final String SAMPLE_VALUE = "__pipeline_analysis__";
+    private static final PipelineParameters EMPTY_SAMPLE = new PipelineParameters(SAMPLE_VALUE, SAMPLE_VALUE, null, Map.of());
+
+    private final MongoClient mongoClient;
+    private final MongoSettingsProperties mongoSettings;
+    private final AssetAggregationProperties.PipelineAnalysis properties;
+    private final MeterRegistry meterRegistry;
+    private final Map<String, Accepted> accepted = new ConcurrentHashMap<>();
+    private final Map<String, PipelinePlanReport> rejected = new ConcurrentHashMap<>();
+    private final Map<String, RawBsonDocument> rejectedDefinitions = new ConcurrentHashMap<>();
+
+    public PipelinePlanAnalyzer(MongoClient mongoClient,
+                                MongoSettingsProperties mongoSettings,
+                                AssetAggregationProperties aggregationProperties,
+                                MeterRegistry meterRegistry) {
+        this.mongoClient = Objects.requireNonNull(mongoClient, "mongoClient must not be null");
+        this.mongoSettings = Objects.requireNonNull(mongoSettings, "mongoSettings must not be null");
+        this.properties = Objects.requireNonNull(aggregationProperties, "aggregationProperties must not be null").getPipelineAnalysis();
+        this.meterRegistry = Objects.requireNonNull(meterRegistry, "meterRegistry must not be null");
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        List<Document> definitions;
+        try {
+            definitions = database().getCollection(PIPELINE_STORE_COLLECTION).find().into(new ArrayList<>());
+        } catch (MongoException ex) {
+            log.warn("Failed to read {} for pipeline analysis", PIPELINE_STORE_COLLECTION, ex);
+            return;
+        }
+        for (Document definition : definitions) {
+            String name = definition.getString("name");
+            if (name == null) {
+                continue;
+            }
+            try {
+                activate(CompiledPipeline.compile(name, definition));
+            } catch (IllegalStateException ex) {
+                log.warn("Pipeline '{}' in {} cannot be compiled: {}", name, PIPELINE_STORE_COLLECTION, ex.getMessage());
+            }
+        }
+        log.info("Analyzed pipelines={} collectionScans={}", accepted.size(),
+                accepted.values().stream().filter(entry -> entry.report().status() == PipelinePlanReport.Status.COLLSCAN).count());
+    }
+
+    /**
+     * 回傳應啟用的 pipeline：與已接受的定義相同時不重新分析；{@code REJECT} 時退化的定義不啟用，回傳前一版已接受的 pipeline，
+     * 沒有前一版的 COLLSCAN 定義則丟出 {@link IllegalStateException}。
+     */
+    public synchronized CompiledPipeline activate(CompiledPipeline candidate) {
+        Objects.requireNonNull(candidate, "candidate must not be null");
+        if (!properties.isEnabled()) {
+            return candidate;
+        }
+        String name = candidate.name();
+        Accepted current = accepted.get(name);
+        if (current != null && current.pipeline().definition().equals(candidate.definition())) {
+            return candidate;
+        }
+        if (candidate.definition().equals(rejectedDefinitions.get(name))) {
+            return rejectedFallback(name, current);
+        }
+
+        PipelineParameters sample = current == null ? sample(candidate) : current.sample();
+        PipelinePlanReport report = analyze(candidate, sample);
+        String regression = current == null ? baselineRegression(report) : regression(current.report(), report);
+        if (regression != null) {
+            report = report.withMessage(regression);
+            if (properties.getOnRegression() == AssetAggregationProperties.PipelineAnalysis.OnRegression.REJECT) {
+                rejected.put(name, report);
+                rejectedDefinitions.put(name, candidate.definition());
+                record(report, "rejected");
+                if (current == null) {
+                    log.warn("Pipeline '{}' rejected without an accepted definition to keep: {}", name, regression);
+                } else {
+                    log.warn("Pipeline '{}' rejected, keeping the definition analyzed at {}: {}",
+                            name, current.report().analyzedAt(), regression);
+                }
+                return rejectedFallback(name, current);
+            }
+            record(report, "regressed");
+            log.warn("Pipeline '{}' activated with a regressing plan: {}", name, regression);
+        } else {
+            record(report, "activated");
+        }
+        if (report.status() == PipelinePlanReport.Status.COLLSCAN) {
+            log.warn("Pipeline '{}' uses a COLLSCAN plan on {} docsExamined={}", name, report.sourceCollection(), report.docsExamined());
+        }
+        accepted.put(name, new Accepted(candidate, report, sample));
+        rejected.remove(name);
+        rejectedDefinitions.remove(name);
+        return candidate;
+    }
+
+    /**
+     * {@code definition} 是否為已被拒絕、仍以前一版執行的定義。
+     */
+    public boolean isRejected(String pipelineName, Document definition) {
+        RawBsonDocument rejectedDefinition = rejectedDefinitions.get(pipelineName);
+        return rejectedDefinition != null
+                && rejectedDefinition.equals(new RawBsonDocument(definition, AssetCodecs.REGISTRY.get(Document.class)));
+    }
+
+    /**
+     * 依 pipeline 名稱排序的目前分析結果。
+     */
+    public Map<String, Analysis> analyses() {
+        Map<String, Analysis> analyses = new TreeMap<>();
+        accepted.forEach((name, entry) -> analyses.put(name, new Analysis(entry.report(), rejected.get(name))));
+        rejected.forEach((name, report) -> analyses.putIfAbsent(name, new Analysis(null, report)));
+        return analyses;
+    }
+
+    PipelinePlanReport analyze(CompiledPipeline pipeline, PipelineParameters sample) {
+        Document command = new Document("aggregate", pipeline.sourceCollection())
+                .append("pipeline", pipeline.outputStagesFor(sample))
+                .append("cursor", new Document());
+        if (pipeline.parameterized()) {
+            command.append("let", sample.toLet());
+        }
+        Instant analyzedAt = Instant.now();
+        try {
+            Document explain = database().runCommand(new Document("explain", command).append("verbosity", "executionStats"));
+            return PipelinePlanReport.of(pipeline, analyzedAt, stages(explain));
+        } catch (MongoException ex) {
+            log.warn("Failed to explain pipeline '{}'", pipeline.name(), ex);
+            return PipelinePlanReport.failed(pipeline, analyzedAt, ex.getMessage());
+        }
+    }
+
+    /**
+     * 從來源 collection 隨機取一筆文件的 {@code customerId} / {@code traceId} 作為 explain 的樣本變數，
+     * 讓 docsExamined 反映實際客戶的資料量；pipeline 不限縮客戶也不引用變數時不需抽樣。
+     */
+    private PipelineParameters sample(CompiledPipeline pipeline) {
+        if (!pipeline.scoped() && !pipeline.parameterized()) {
+            return EMPTY_SAMPLE;
+        }
+        Document sampled;
+        try {
+            sampled = database().getCollection(pipeline.sourceCollection())
+                    .aggregate(List.of(Aggregates.sample(1), Aggregates.project(Projections.include("customerId", "traceId"))))
+                    .first();
+        } catch (MongoException ex) {
+            log.warn("Failed to sample {} for pipeline '{}'", pipeline.sourceCollection(), pipeline.name(), ex);
+            return EMPTY_SAMPLE;
+        }
+        if (sampled == null || !(sampled.get("customerId") instanceof String customerId)) {
+            return EMPTY_SAMPLE;
+        }
+        String traceId = sampled.get("traceId") instanceof String value ? value : SAMPLE_VALUE;
+        return new PipelineParameters(customerId, traceId, null, Map.of());
+    }
+
+    private CompiledPipeline rejectedFallback(String name, Accepted current) {
+        if (current == null) {
+            throw new IllegalStateException("Pipeline '" + name + "' rejected: " + rejected.get(name).message()
+                    + " and no accepted definition exists");
+        }
+        return current.pipeline();
+    }
+
+    /**
+     * 沒有前一版可比較時，只有 COLLSCAN 視為退化。
+     */
+    private String baselineRegression(PipelinePlanReport report) {
+        return report.status() == PipelinePlanReport.Status.COLLSCAN ? "plan uses a COLLSCAN" : null;
+    }
+
+    private String regression(PipelinePlanReport previous, PipelinePlanReport report) {
+        if (previous.status() == PipelinePlanReport.Status.FAILED || report.status() == PipelinePlanReport.Status.FAILED) {
+            return null;
+        }
+        if (report.status() == PipelinePlanReport.Status.COLLSCAN && previous.status() != PipelinePlanReport.Status.COLLSCAN) {
+            return "plan now uses a COLLSCAN";
+        }
+        double limit = Math.max(previous.docsExamined(), 1) * properties.getDocsExaminedTolerance();
+        if (report.docsExamined() > limit) {
+            return "docsExamined %d exceeds %d x %.1f".formatted(report.docsExamined(), previous.docsExamined(),
+                    properties.getDocsExaminedTolerance());
+        }
+        return null;
+    }
+
+    private void record(PipelinePlanReport report, String outcome) {
+        meterRegistry.counter(MetricsConfig.ASSET_PIPELINE_ANALYSIS,
+                "pipeline", report.name(),
+                "status", report.status().name().toLowerCase(Locale.ROOT),
+                "outcome", outcome).increment();
+    }
+
+    private MongoDatabase database() {
+        return mongoClient.getDatabase(mongoSettings.database());
+    }
+
+    /**
+     * 解析 aggregate explain：多個 stage 時為 {@code stages} 陣列（第一個為讀取 collection 的 {@code $cursor}），
+     * 整條 pipeline 下推至查詢層時只有頂層的 {@code queryPlanner} / {@code executionStats}，sharded 叢集則分列於 {@code shards}。
+     */
+    static List<PipelinePlanReport.Stage> stages(Document explain) {
+        List<PipelinePlanReport.Stage> stages = new ArrayList<>();
+        List<Document> pipelineStages = explain.getList("stages", Document.class);
+        Document shards = explain.get("shards", Document.class);
+        if (pipelineStages != null) {
+            for (Document stage : pipelineStages) {
+                String operator = stage.keySet().iterator().next();
+                long time = number(stage, "executionTimeMillisEstimate");
+                if (CURSOR_STAGE.equals(operator)) {
+                    stages.add(cursorStage(stage.get(CURSOR_STAGE, Document.class), time));
+                } else {
+                    stages.add(new PipelinePlanReport.Stage(operator, number(stage, "nReturned"), 0, 0, time, false));
+                }
+            }
+        } else if (explain.containsKey("queryPlanner")) {
+            Document executionStats = explain.get("executionStats", Document.class);
+            stages.add(cursorStage(explain, executionStats == null ? 0 : number(executionStats, "executionTimeMillis")));
+        } else if (shards != null) {
+            for (Object shard : shards.values()) {
+                if (shard instanceof Document shardExplain) {
+                    stages.addAll(stages(shardExplain));
+                }
+            }
+        }
+        return stages;
+    }
+
+    private static PipelinePlanReport.Stage cursorStage(Document cursor, long time) {
+        Document executionStats = cursor.get("executionStats", Document.class);
+        if (executionStats == null) {
+            executionStats = new Document();
+        }
+        boolean collectionScan = MongoIndexProvisioner.winningPlan(cursor)
+                .map(MongoIndexProvisioner::isCollectionScan)
+                .orElse(false);
+        return new PipelinePlanReport.Stage(
+                CURSOR_STAGE,
+                number(executionStats, "nReturned"),
+                number(executionStats, "totalDocsExamined"),
+                number(executionStats, "totalKeysExamined"),
+                time,
+                collectionScan
+        );
+    }
+
+    private static long number(Document document, String key) {
+        return document.get(key) instanceof Number number ? number.longValue() : 0;
+    }
+
+    /**
+     * {@code active} 為目前執行中定義的分析結果，尚無已接受的定義時為 null；{@code rejected} 為最近一次被拒絕的定義，沒有則為 null。
+     */
+    public record Analysis(PipelinePlanReport active, PipelinePlanReport rejected) {
+    }
+
+    private record Accepted(CompiledPipeline pipeline, PipelinePlanReport report, PipelineParameters sample) {
+    }
+}
@@ -0,0 +1,76 @@
+package com.poc.svc.assets.service;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * 單一 pipeline 定義的 {@code explain executionStats} 結果；{@code stages} 依 explain 回傳的順序列出各 stage 的統計。
+ */
+public record PipelinePlanReport(
+        String name,
+        String sourceCollection,
+        Instant analyzedAt,
+        Status status,
+        long docsExamined,
+        long executionTimeMillis,
+        List<Stage> stages,
+        String message
+) {
+
+    public PipelinePlanReport {
+        Objects.requireNonNull(name, "name must not be null");
+        Objects.requireNonNull(status, "status must not be null");
+        stages = List.copyOf(stages);
+    }
+
+    static PipelinePlanReport of(CompiledPipeline pipeline, Instant analyzedAt, List<Stage> stages) {
+        boolean collectionScan = stages.stream().anyMatch(Stage::collectionScan);
+        return new PipelinePlanReport(
+                pipeline.name(),
+                pipeline.sourceCollection(),
+                analyzedAt,
+                collectionScan ? Status.COLLSCAN : Status.OK,
+                stages.stream().mapToLong(Stage::docsExamined).sum(),
+                stages.stream().mapToLong(Stage::executionTimeMillis).max().orElse(0),
+                stages,
+                null
+        );
+    }
+
+    static PipelinePlanReport failed(CompiledPipeline pipeline, Instant analyzedAt, String message) {
+        return new PipelinePlanReport(pipeline.name(), pipeline.sourceCollection(), analyzedAt, Status.FAILED,
+                0, 0, List.of(), message);
+    }
+
+    PipelinePlanReport withMessage(String message) {
+        return new PipelinePlanReport(name, sourceCollection, analyzedAt, status, docsExamined, executionTimeMillis,
+                stages, message);
+    }
+
+    public enum Status {
+        OK,
+        /**
+         * 至少一個 stage 的執行計畫含 COLLSCAN。
+         */
+        COLLSCAN,
+        /**
+         * explain 失敗（例如 Mongo 無法連線），定義仍會啟用。
+         */
+        FAILED
+    }
+
+    /**
+     * {@code executionTimeMillis} 為 Mongo 的估計值且包含前面 stage 的時間；{@code docsExamined} / {@code keysExamined}
+     * 只有讀取 collection 的 stage（{@code $cursor}）才有。
+     */
+    public record Stage(
+            String stage,
+            long nReturned,
+            long docsExamined,
+            long keysExamined,
+            long executionTimeMillis,
+            boolean collectionScan
+    ) {
+    }
+}
@@ -0,0 +1,24 @@
+package com.poc.svc.assets.service;
+
+import java.util.Collection;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * pipeline 執行前的 raw 寫入屏障：write-behind 模式下 raw 文件可能尚未寫入 Mongo，pipeline 需等待其落地。
+ */
+@FunctionalInterface
+public interface RawWriteBarrier {
+
+    /**
+     * {@code payloadRefIds} 對應的 raw 文件皆寫入 Mongo 後完成；只等待這些文件，不等待其他請求的 backlog。
+     * 任一份被 Mongo 拒絕（不會再寫入）時以例外完成。
+     */
+    CompletableFuture<Void> awaitPersisted(Collection<String> payloadRefIds);
+
+    /**
+     * raw 寫入於回傳前即已寫入 Mongo（原始行為）。
+     */
+    static RawWriteBarrier none() {
+        return payloadRefIds -> CompletableFuture.completedFuture(null);
+    }
+}
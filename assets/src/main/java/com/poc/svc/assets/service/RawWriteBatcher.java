@@ -0,0 +1,42 @@
+package com.poc.svc.assets.service;
+
+import com.poc.svc.assets.dto.AssetSourceType;
+import org.springframework.dao.DataAccessException;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * 決定單次聚合的 raw 寫入是否延後至所有來源完成後一次寫入。
+ */
+@FunctionalInterface
+public interface RawWriteBatcher {
+
+    /**
+     * @return empty 表示各來源抓取完成即各自寫入
+     */
+    Optional<Batch> open(String traceId);
+
+    /**
+     * 各來源抓取完成即各自寫入（原始行為）。
+     */
+    static RawWriteBatcher immediate() {
+        return traceId -> Optional.empty();
+    }
+
+    interface Batch {
+
+        /**
+         * 該來源的登記處，交給 {@link AssetSourceAdapter#deferRaw}；登記的文件歸屬於 {@code source}。
+         */
+        RawWriteSink sink(AssetSourceType source);
+
+        /**
+         * 寫入所有登記的文件，回傳寫入失敗的來源；寫入受 {@code timeout} 限制，
+         * future 於寫入實際結束後才完成，回報失敗的來源不會在之後才被寫入。回傳的 future 不會以例外完成。
+         */
+        CompletableFuture<Map<AssetSourceType, DataAccessException>> commit(Duration timeout);
+    }
+}
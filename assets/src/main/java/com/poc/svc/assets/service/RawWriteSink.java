@@ -0,0 +1,16 @@
+package com.poc.svc.assets.service;
+
+import org.bson.Document;
+
+/**
+ * 單一來源於延後寫入批次中的登記處：由 {@link RawWriteBatcher.Batch#sink} 取得，
+ * 經 {@link AssetSourceAdapter#deferRaw} 與各 writer 明確傳至組出文件的地方。
+ */
+@FunctionalInterface
+public interface RawWriteSink {
+
+    /**
+     * @param document 已含 {@code _id} 的文件；待 {@link RawWriteBatcher.Batch#commit} 時才寫入
+     */
+    void add(String collectionName, Document document, String failureMessage);
+}
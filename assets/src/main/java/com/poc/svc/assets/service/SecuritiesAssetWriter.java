@@ -2,40 +2,72 @@ package com.poc.svc.assets.service;
 
 import com.poc.svc.assets.repository.SecuritiesAssetRawRepository;
 import com.poc.svc.assets.entity.SecuritiesAssetRawDocument;
+import com.poc.svc.assets.entity.payload.RawBsonPayload;
 import com.poc.svc.assets.service.impl.support.MongoWriteRetrier;
+import com.poc.svc.assets.service.impl.support.RawDocumentInserter;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.stereotype.Service;
 
 import java.math.BigDecimal;
 import java.time.Instant;
 import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
 
 @Service
 public class SecuritiesAssetWriter {
 
     private final SecuritiesAssetRawRepository repository;
     private final MongoWriteRetrier mongoWriteRetrier;
+    private final RawDocumentInserter rawDocumentInserter;
+    private final Executor executor;
 
-    public SecuritiesAssetWriter(SecuritiesAssetRawRepository repository, MongoWriteRetrier mongoWriteRetrier) {
+    public SecuritiesAssetWriter(SecuritiesAssetRawRepository repository,
+                                 MongoWriteRetrier mongoWriteRetrier,
+                                 RawDocumentInserter rawDocumentInserter,
+                                 @Qualifier("assetAsyncExecutor") Executor executor) {
         this.repository = Objects.requireNonNull(repository, "repository must not be null");
         this.mongoWriteRetrier = Objects.requireNonNull(mongoWriteRetrier, "mongoWriteRetrier must not be null");
+        this.rawDocumentInserter = Objects.requireNonNull(rawDocumentInserter, "rawDocumentInserter must not be null");
+        this.executor = Objects.requireNonNull(executor, "executor must not be null");
     }
 
-    public SecuritiesAssetRawDocument write(SecuritiesAssetWriteRequest request) {
+    /**
+     * 完成值為帶有 {@code _id} 的文件；重試等待以計時器排程，不佔用呼叫端或共用 worker 執行緒。
+     */
+    public CompletableFuture<SecuritiesAssetRawDocument> write(SecuritiesAssetWriteRequest request) {
         Objects.requireNonNull(request, "request must not be null");
-        SecuritiesAssetRawDocument document = new SecuritiesAssetRawDocument(
+        SecuritiesAssetRawDocument document = toDocument(request);
+        String failureMessage = failureMessage(request);
+        if (document.payload() instanceof RawBsonPayload || rawDocumentInserter.handlesEntities()) {
+            return rawDocumentInserter.insertEntity(document, failureMessage);
+        }
+        return mongoWriteRetrier.executeAsync(failureMessage, () -> repository.save(document), executor);
+    }
+
+    /**
+     * 只將文件登記至 {@code sink}（延後至同次聚合 commit 時寫入），回傳帶有預先產生 id 的文件。
+     */
+    public SecuritiesAssetRawDocument defer(SecuritiesAssetWriteRequest request, RawWriteSink sink) {
+        Objects.requireNonNull(request, "request must not be null");
+        return rawDocumentInserter.deferEntity(toDocument(request), failureMessage(request), sink);
+    }
+
+    private static SecuritiesAssetRawDocument toDocument(SecuritiesAssetWriteRequest request) {
+        return new SecuritiesAssetRawDocument(
                 null,
                 request.customerId(),
-                Map.copyOf(request.payload()),
+                RawBsonPayload.immutableCopyOf(request.payload()),
                 request.totalMarketValue(),
                 request.holdingsCount(),
                 request.fetchedAt(),
                 request.traceId()
         );
-        return mongoWriteRetrier.execute(
-                "Failed to persist securities assets for customer %s".formatted(request.customerId()),
-                () -> repository.save(document)
-        );
+    }
+
+    private static String failureMessage(SecuritiesAssetWriteRequest request) {
+        return "Failed to persist securities assets for customer %s".formatted(request.customerId());
     }
 
     public record SecuritiesAssetWriteRequest(
@@ -0,0 +1,29 @@
+package com.poc.svc.assets.service;
+
+import com.poc.svc.assets.dto.AssetSourceType;
+
+import java.time.Duration;
+
+/**
+ * 決定單一來源抓取的逾時；整體聚合 deadline 永遠是上限。
+ */
+@FunctionalInterface
+public interface SourceTimeoutPolicy {
+
+    Duration timeoutFor(AssetSourceType source, Duration deadline);
+
+    /**
+     * 抓取逾時時回報：實際延遲至少為 {@code appliedTimeout}（censored sample）。
+     * 只記錄成功延遲的策略在來源變慢後會持續逾時而無法上調。
+     * 其他失敗（連線拒絕、5xx 等）不回報：快速失敗記為逾時長度的樣本會把逾時與對沖延遲推向上限。
+     */
+    default void recordAbandoned(AssetSourceType source, Duration appliedTimeout) {
+    }
+
+    /**
+     * 所有來源一律使用整體 deadline（原始行為）。
+     */
+    static SourceTimeoutPolicy fixed() {
+        return (source, deadline) -> deadline;
+    }
+}
@@ -0,0 +1,41 @@
+package com.poc.svc.assets.service;
+
+import org.bson.Document;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * 產生並寫入單次聚合的 {@code asset_staging} 文件，回傳該 traceId 的 staging 文件。
+ */
+@FunctionalInterface
+public interface StagingAggregationEngine {
+
+    List<Document> aggregate(String customerId, String traceId, AssetAggregationCoordinator.ExecutionSummary summary);
+
+    /**
+     * 由 {@code pipeline_store} 的 pipeline 於 Mongo 端讀取 raw collection 並 {@code $merge}（原始行為）。
+     */
+    static StagingAggregationEngine pipeline(AggregationExecutor aggregationExecutor, String pipelineName) {
+        Objects.requireNonNull(aggregationExecutor, "aggregationExecutor must not be null");
+        Objects.requireNonNull(pipelineName, "pipelineName must not be null");
+        return (customerId, traceId, summary) -> aggregationExecutor.execute(pipelineName, traceId);
+    }
+
+    /**
+     * 同 {@link #pipeline(AggregationExecutor, String)}，並以 customerId、traceId、基準幣別與匯率表作為 pipeline 的綁定變數；
+     * pipeline 自動限縮至該客戶的 raw 文件。
+     */
+    static StagingAggregationEngine pipeline(AggregationExecutor aggregationExecutor,
+                                             String pipelineName,
+                                             String baseCurrency,
+                                             Map<String, BigDecimal> rates) {
+        Objects.requireNonNull(aggregationExecutor, "aggregationExecutor must not be null");
+        Objects.requireNonNull(pipelineName, "pipelineName must not be null");
+        Map<String, BigDecimal> rateTable = Map.copyOf(rates);
+        return (customerId, traceId, summary) -> aggregationExecutor.execute(
+                pipelineName, new PipelineParameters(customerId, traceId, baseCurrency, rateTable));
+    }
+}
@@ -4,14 +4,23 @@ import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.poc.svc.assets.config.AssetsIngestionProperties;
+import com.poc.svc.assets.dto.AssetSourceType;
+import com.poc.svc.assets.entity.payload.RawBsonPayload;
 import com.poc.svc.assets.exception.AssetSourceMissingException;
 import com.poc.svc.assets.service.AssetSourceClient;
 import com.poc.svc.assets.service.AssetSourceClient.BankAssetResult;
 import com.poc.svc.assets.service.AssetSourceClient.InsuranceAssetResult;
 import com.poc.svc.assets.service.AssetSourceClient.SecuritiesAssetResult;
 import com.poc.svc.assets.service.BankAssetWriter;
+import com.poc.svc.assets.service.impl.support.InFlightHttpRequest;
+import com.poc.svc.assets.service.impl.support.JsonToBsonStreamer;
+import com.poc.svc.assets.service.impl.support.RequestHedger;
+import com.poc.svc.assets.service.impl.support.SourceBulkheads;
 import com.poc.svc.assets.util.TraceContext;
-import org.springframework.beans.factory.annotation.Qualifier;
+import org.bson.BsonDocument;
+import org.bson.BsonValue;
+import org.bson.RawBsonDocument;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpEntity;
 import org.springframework.http.HttpHeaders;
@@ -22,13 +31,17 @@ import org.springframework.stereotype.Component;
 import org.springframework.web.client.HttpClientErrorException;
 import org.springframework.web.client.RestTemplate;
 
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.RecordComponent;
 import java.math.BigDecimal;
 import java.time.Instant;
+import java.util.HashSet;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.CompletableFuture;
-import java.util.concurrent.Executor;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 @Component
@@ -37,107 +50,201 @@ public class HttpAssetSourceClient implements AssetSourceClient {
     private static final TypeReference<Map<String, Object>> MAP_TYPE = new TypeReference<>() {
     };
 
+    /**
+     * 回應 DTO 中宣告為 {@link BigDecimal} 的欄位；STREAMING_BSON 模式以此寫出與 MAP 模式相同的型別。
+     */
+    static final Set<String> DECIMAL_FIELDS = decimalFields(
+            BankAssetApiResponse.class, SecuritiesAssetApiResponse.class, InsuranceAssetApiResponse.class);
+
     private final RestTemplate restTemplate;
-    private final Executor executor;
+    private final SourceBulkheads bulkheads;
+    private final RequestHedger requestHedger;
     private final ObjectMapper objectMapper;
     private final String bankBaseUrl;
     private final String securitiesBaseUrl;
     private final String insuranceBaseUrl;
+    private final AssetsIngestionProperties ingestionProperties;
+    private final JsonToBsonStreamer jsonToBsonStreamer;
 
     public HttpAssetSourceClient(RestTemplate restTemplate,
-                                 @Qualifier("assetAsyncExecutor") Executor executor,
+                                 SourceBulkheads bulkheads,
+                                 RequestHedger requestHedger,
                                  ObjectMapper objectMapper,
+                                 AssetsIngestionProperties ingestionProperties,
                                  @Value("${assets.bank.base-url}") String bankBaseUrl,
                                  @Value("${assets.securities.base-url}") String securitiesBaseUrl,
                                  @Value("${assets.insurance.base-url}") String insuranceBaseUrl) {
         this.restTemplate = restTemplate;
-        this.executor = executor;
+        this.bulkheads = bulkheads;
+        this.requestHedger = requestHedger;
         this.objectMapper = objectMapper;
         this.bankBaseUrl = bankBaseUrl;
         this.securitiesBaseUrl = securitiesBaseUrl;
         this.insuranceBaseUrl = insuranceBaseUrl;
+        this.ingestionProperties = ingestionProperties;
+        this.jsonToBsonStreamer = new JsonToBsonStreamer(objectMapper.getFactory(), DECIMAL_FIELDS);
     }
 
     @Override
     public CompletableFuture<BankAssetResult> fetchBankAssets(String customerId, String traceId) {
-        return CompletableFuture.supplyAsync(() -> {
-            BankAssetApiResponse body = exchangeForEntity(
-                    bankBaseUrl + "/bank/customers/{customerId}/assets",
-                    customerId,
-                    traceId,
-                    BankAssetApiResponse.class
-            );
-
-            Map<String, BigDecimal> summary = body.bankAssets().stream()
-                    .collect(Collectors.groupingBy(
-                            BankAssetItem::currency,
-                            LinkedHashMap::new,
-                            Collectors.reducing(BigDecimal.ZERO, BankAssetItem::balance, BigDecimal::add)));
-
-            List<BankAssetWriter.BankAssetWriteRequest.CurrencyAmount> currencySummary = summary.entrySet().stream()
-                    .map(entry -> new BankAssetWriter.BankAssetWriteRequest.CurrencyAmount(entry.getKey(), entry.getValue()))
-                    .toList();
-
-            Map<String, Object> payload = objectMapper.convertValue(body, MAP_TYPE);
-
-            return new BankAssetResult(
-                    body.customerId(),
-                    payload,
-                    body.totalBalance(),
-                    body.currency(),
-                    currencySummary,
-                    Instant.now(),
-                    ensureTraceId(body.traceId(), traceId)
-            );
-        }, executor);
+        return fetch(AssetSourceType.BANK, () -> ingestionProperties.isStreamingBson()
+                ? streamBankAssets(customerId, traceId)
+                : readBankAssets(customerId, traceId));
     }
 
     @Override
     public CompletableFuture<SecuritiesAssetResult> fetchSecuritiesAssets(String customerId, String traceId) {
-        return CompletableFuture.supplyAsync(() -> {
-            SecuritiesAssetApiResponse body = exchangeForEntity(
-                    securitiesBaseUrl + "/securities/customers/{customerId}/assets",
-                    customerId,
-                    traceId,
-                    SecuritiesAssetApiResponse.class
-            );
-
-            Map<String, Object> payload = objectMapper.convertValue(body, MAP_TYPE);
-
-            return new SecuritiesAssetResult(
-                    body.customerId(),
-                    payload,
-                    body.totalMarketValue(),
-                    body.currency(),
-                    body.securitiesAssets().size(),
-                    Instant.now(),
-                    ensureTraceId(body.traceId(), traceId)
-            );
-        }, executor);
+        return fetch(AssetSourceType.SECURITIES, () -> ingestionProperties.isStreamingBson()
+                ? streamSecuritiesAssets(customerId, traceId)
+                : readSecuritiesAssets(customerId, traceId));
     }
 
     @Override
     public CompletableFuture<InsuranceAssetResult> fetchInsuranceAssets(String customerId, String traceId) {
-        return CompletableFuture.supplyAsync(() -> {
-            InsuranceAssetApiResponse body = exchangeForEntity(
-                    insuranceBaseUrl + "/insurance/customers/{customerId}/assets",
-                    customerId,
-                    traceId,
-                    InsuranceAssetApiResponse.class
-            );
+        return fetch(AssetSourceType.INSURANCE, () -> ingestionProperties.isStreamingBson()
+                ? streamInsuranceAssets(customerId, traceId)
+                : readInsuranceAssets(customerId, traceId));
+    }
 
-            Map<String, Object> payload = objectMapper.convertValue(body, MAP_TYPE);
+    /**
+     * 每次下游請求綁定一個 {@link InFlightHttpRequest}：對沖落敗或呼叫端逾時取消 future 時，
+     * 一併中止進行中的 HTTP exchange，釋放隔艙執行緒與連線。
+     */
+    private <T> CompletableFuture<T> fetch(AssetSourceType source, Supplier<T> call) {
+        return requestHedger.execute(source, () -> {
+            InFlightHttpRequest request = new InFlightHttpRequest();
+            CompletableFuture<T> future = CompletableFuture.supplyAsync(() -> request.run(call), bulkheads.executor(source));
+            future.whenComplete((value, error) -> {
+                if (future.isCancelled()) {
+                    request.cancel();
+                }
+            });
+            return future;
+        });
+    }
 
-            return new InsuranceAssetResult(
-                    body.customerId(),
-                    payload,
-                    body.totalCoverage(),
-                    body.currency(),
-                    body.insuranceAssets().size(),
-                    Instant.now(),
-                    ensureTraceId(body.traceId(), traceId)
-            );
-        }, executor);
+    private BankAssetResult readBankAssets(String customerId, String traceId) {
+        BankAssetApiResponse body = exchangeForEntity(
+                bankBaseUrl + "/bank/customers/{customerId}/assets",
+                customerId,
+                traceId,
+                BankAssetApiResponse.class
+        );
+
+        Map<String, BigDecimal> summary = body.bankAssets().stream()
+                .collect(Collectors.groupingBy(
+                        BankAssetItem::currency,
+                        LinkedHashMap::new,
+                        Collectors.reducing(BigDecimal.ZERO, BankAssetItem::balance, BigDecimal::add)));
+
+        List<BankAssetWriter.BankAssetWriteRequest.CurrencyAmount> currencySummary = summary.entrySet().stream()
+                .map(entry -> new BankAssetWriter.BankAssetWriteRequest.CurrencyAmount(entry.getKey(), entry.getValue()))
+                .toList();
+
+        Map<String, Object> payload = objectMapper.convertValue(body, MAP_TYPE);
+
+        return new BankAssetResult(
+                body.customerId(),
+                payload,
+                body.totalBalance(),
+                body.currency(),
+                currencySummary,
+                Instant.now(),
+                ensureTraceId(body.traceId(), traceId)
+        );
+    }
+
+    private SecuritiesAssetResult readSecuritiesAssets(String customerId, String traceId) {
+        SecuritiesAssetApiResponse body = exchangeForEntity(
+                securitiesBaseUrl + "/securities/customers/{customerId}/assets",
+                customerId,
+                traceId,
+                SecuritiesAssetApiResponse.class
+        );
+
+        Map<String, Object> payload = objectMapper.convertValue(body, MAP_TYPE);
+
+        return new SecuritiesAssetResult(
+                body.customerId(),
+                payload,
+                body.totalMarketValue(),
+                body.currency(),
+                body.securitiesAssets().size(),
+                Instant.now(),
+                ensureTraceId(body.traceId(), traceId)
+        );
+    }
+
+    private InsuranceAssetResult readInsuranceAssets(String customerId, String traceId) {
+        InsuranceAssetApiResponse body = exchangeForEntity(
+                insuranceBaseUrl + "/insurance/customers/{customerId}/assets",
+                customerId,
+                traceId,
+                InsuranceAssetApiResponse.class
+        );
+
+        Map<String, Object> payload = objectMapper.convertValue(body, MAP_TYPE);
+
+        return new InsuranceAssetResult(
+                body.customerId(),
+                payload,
+                body.totalCoverage(),
+                body.currency(),
+                body.insuranceAssets().size(),
+                Instant.now(),
+                ensureTraceId(body.traceId(), traceId)
+        );
+    }
+
+    private BankAssetResult streamBankAssets(String customerId, String traceId) {
+        RawBsonPayload payload = streamPayload(bankBaseUrl + "/bank/customers/{customerId}/assets", customerId, traceId);
+
+        Map<String, BigDecimal> summary = new LinkedHashMap<>();
+        for (BsonValue item : payload.getArray("bankAssets")) {
+            if (item.isDocument()) {
+                BsonDocument asset = item.asDocument();
+                summary.merge(asset.getString("currency").getValue(), RawBsonPayload.toDecimal(asset.get("balance")), BigDecimal::add);
+            }
+        }
+        List<BankAssetWriter.BankAssetWriteRequest.CurrencyAmount> currencySummary = summary.entrySet().stream()
+                .map(entry -> new BankAssetWriter.BankAssetWriteRequest.CurrencyAmount(entry.getKey(), entry.getValue()))
+                .toList();
+
+        return new BankAssetResult(
+                payload.getString("customerId"),
+                payload,
+                payload.getDecimal("totalBalance"),
+                payload.getString("currency"),
+                currencySummary,
+                Instant.now(),
+                ensureTraceId(payload.getString("traceId"), traceId)
+        );
+    }
+
+    private SecuritiesAssetResult streamSecuritiesAssets(String customerId, String traceId) {
+        RawBsonPayload payload = streamPayload(securitiesBaseUrl + "/securities/customers/{customerId}/assets", customerId, traceId);
+        return new SecuritiesAssetResult(
+                payload.getString("customerId"),
+                payload,
+                payload.getDecimal("totalMarketValue"),
+                payload.getString("currency"),
+                payload.getArray("securitiesAssets").size(),
+                Instant.now(),
+                ensureTraceId(payload.getString("traceId"), traceId)
+        );
+    }
+
+    private InsuranceAssetResult streamInsuranceAssets(String customerId, String traceId) {
+        RawBsonPayload payload = streamPayload(insuranceBaseUrl + "/insurance/customers/{customerId}/assets", customerId, traceId);
+        return new InsuranceAssetResult(
+                payload.getString("customerId"),
+                payload,
+                payload.getDecimal("totalCoverage"),
+                payload.getString("currency"),
+                payload.getArray("insuranceAssets").size(),
+                Instant.now(),
+                ensureTraceId(payload.getString("traceId"), traceId)
+        );
     }
 
     private HttpHeaders buildHeaders(String traceId) {
@@ -175,6 +282,44 @@ public class HttpAssetSourceClient implements AssetSourceClient {
         }
     }
 
+    private RawBsonPayload streamPayload(String urlTemplate, String customerId, String traceId) {
+        try {
+            RawBsonDocument document = restTemplate.execute(
+                    urlTemplate,
+                    HttpMethod.GET,
+                    request -> request.getHeaders().putAll(buildHeaders(traceId)),
+                    response -> jsonToBsonStreamer.read(response.getBody()),
+                    customerId
+            );
+            if (document == null) {
+                throw new IllegalStateException("Empty response body from asset source");
+            }
+            return new RawBsonPayload(document);
+        } catch (HttpClientErrorException.NotFound notFound) {
+            throw new AssetSourceMissingException("Asset source returned 404 for customer %s".formatted(customerId), notFound);
+        }
+    }
+
+    private static Set<String> decimalFields(Class<?>... responseTypes) {
+        Set<String> names = new HashSet<>();
+        for (Class<?> type : responseTypes) {
+            collectDecimalFields(type, names);
+        }
+        return Set.copyOf(names);
+    }
+
+    private static void collectDecimalFields(Class<?> recordType, Set<String> names) {
+        for (RecordComponent component : recordType.getRecordComponents()) {
+            if (component.getType() == BigDecimal.class) {
+                names.add(component.getName());
+            } else if (component.getGenericType() instanceof ParameterizedType listType
+                    && listType.getActualTypeArguments()[0] instanceof Class<?> element
+                    && element.isRecord()) {
+                collectDecimalFields(element, names);
+            }
+        }
+    }
+
     @JsonIgnoreProperties(ignoreUnknown = true)
     private record BankAssetApiResponse(
             String customerId,
@@ -0,0 +1,210 @@
+package com.poc.svc.assets.service.impl;
+
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.FindOneAndReplaceOptions;
+import com.mongodb.client.model.ReturnDocument;
+import com.poc.svc.assets.dto.AssetComponentStatus;
+import com.poc.svc.assets.entity.AssetStagingDocument;
+import com.poc.svc.assets.entity.codec.AssetCodecs;
+import com.poc.svc.assets.service.AssetAggregationCoordinator.ExecutionSummary;
+import com.poc.svc.assets.service.AssetAggregationCoordinator.SourceOutcome;
+import com.poc.svc.assets.service.BankAssetWriter.BankAssetWriteRequest;
+import com.poc.svc.assets.service.CurrencyConversionService;
+import com.poc.svc.assets.service.CurrencyConversionService.ConversionResult;
+import com.poc.svc.assets.service.StagingAggregationEngine;
+import org.bson.Document;
+import org.bson.types.Decimal128;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.util.StringUtils;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+
+/**
+ * {@code assets.aggregation.engine=IN_PROCESS}：協調器已持有各來源的金額、幣別與資產明細，
+ * 直接於服務內換算為基準幣別並組出 {@link AssetStagingDocument}，以單次 findOneAndReplace（依 traceId upsert）寫入並取回，
+ * 省去 Mongo 端重新讀取 raw collection 的 pipeline 與 {@code $merge} 後的回讀。
+ */
+public class InProcessStagingAggregationEngine implements StagingAggregationEngine {
+
+    private static final Logger log = LoggerFactory.getLogger(InProcessStagingAggregationEngine.class);
+    private static final String STAGING_COLLECTION = "asset_staging";
+    private static final String COMPLETED = "COMPLETED";
+
+    private final MongoTemplate mongoTemplate;
+    private final CurrencyConversionService currencyConversionService;
+    private final String baseCurrency;
+
+    public InProcessStagingAggregationEngine(MongoTemplate mongoTemplate,
+                                             CurrencyConversionService currencyConversionService,
+                                             String baseCurrency) {
+        this.mongoTemplate = Objects.requireNonNull(mongoTemplate, "mongoTemplate must not be null");
+        this.currencyConversionService = Objects.requireNonNull(currencyConversionService, "currencyConversionService must not be null");
+        if (!StringUtils.hasText(baseCurrency)) {
+            throw new IllegalArgumentException("baseCurrency must not be blank");
+        }
+        this.baseCurrency = baseCurrency.trim();
+    }
+
+    @Override
+    public List<Document> aggregate(String customerId, String traceId, ExecutionSummary summary) {
+        AssetStagingDocument staging = build(customerId, traceId, summary, Instant.now().truncatedTo(ChronoUnit.MILLIS));
+        Document stored = mongoTemplate.getCollection(STAGING_COLLECTION)
+                .withCodecRegistry(AssetCodecs.REGISTRY)
+                .findOneAndReplace(
+                        Filters.eq("traceId", traceId),
+                        AssetCodecs.toDocument(staging),
+                        new FindOneAndReplaceOptions().upsert(true).returnDocument(ReturnDocument.AFTER)
+                );
+        log.info("Aggregated in process targetCollection='{}' traceId={} components={} assets={}",
+                STAGING_COLLECTION, traceId, staging.components().size(), staging.assets().size());
+        return stored == null ? List.of() : List.of(stored);
+    }
+
+    /**
+     * 依來源順序組出 staging 文件；換算失敗（缺少匯率）時丟出 {@link IllegalArgumentException}，與 pipeline 失敗同樣處理。
+     */
+    public AssetStagingDocument build(String customerId, String traceId, ExecutionSummary summary, Instant aggregatedAt) {
+        Objects.requireNonNull(customerId, "customerId must not be null");
+        Objects.requireNonNull(traceId, "traceId must not be null");
+        Objects.requireNonNull(summary, "summary must not be null");
+        Objects.requireNonNull(aggregatedAt, "aggregatedAt must not be null");
+
+        List<AssetStagingDocument.Component> components = new ArrayList<>();
+        List<AssetStagingDocument.AssetEntry> assets = new ArrayList<>();
+        Map<String, BigDecimal> breakdown = new TreeMap<>();
+        BigDecimal total = BigDecimal.ZERO;
+
+        for (SourceOutcome outcome : summary.outcomes().values()) {
+            String sourceCurrency = outcome.currency();
+            BigDecimal amount = outcome.amount() == null ? BigDecimal.ZERO : outcome.amount();
+            ConversionResult converted = convert(amount, sourceCurrency);
+            total = total.add(converted.convertedAmount());
+            components.add(new AssetStagingDocument.Component(
+                    outcome.source().name(),
+                    outcome.status().name(),
+                    converted.convertedAmount(),
+                    sourceCurrency,
+                    converted.exchangeRate(),
+                    outcome.rawTraceId(),
+                    outcome.fetchedAt(),
+                    outcome.assetDetails(),
+                    outcome.payloadRefId()
+            ));
+            if (outcome.status() == AssetComponentStatus.SUCCESS) {
+                addBreakdown(breakdown, outcome);
+                for (Map<String, Object> detail : outcome.assetDetails()) {
+                    assets.add(toEntry(customerId, traceId, outcome, detail, converted.convertedAmount(), aggregatedAt));
+                }
+            }
+        }
+
+        List<AssetStagingDocument.CurrencyAmount> currencyBreakdown = breakdown.entrySet().stream()
+                .map(entry -> new AssetStagingDocument.CurrencyAmount(entry.getKey(), entry.getValue()))
+                .toList();
+        return new AssetStagingDocument(null, customerId, baseCurrency, components, assets, total,
+                currencyBreakdown, COMPLETED, aggregatedAt, traceId);
+    }
+
+    private AssetStagingDocument.AssetEntry toEntry(String customerId,
+                                                    String traceId,
+                                                    SourceOutcome outcome,
+                                                    Map<String, Object> detail,
+                                                    BigDecimal sourceTotalInBase,
+                                                    Instant aggregatedAt) {
+        String currency = firstText(text(detail, "currency"), outcome.currency(), baseCurrency);
+        BigDecimal balance = decimal(detail, "balance");
+        BigDecimal marketValue = decimal(detail, "marketValue");
+        BigDecimal coverage = decimal(detail, "coverage");
+        BigDecimal amount = balance != null ? balance : marketValue != null ? marketValue : coverage;
+        ConversionResult converted = convert(amount == null ? BigDecimal.ZERO : amount, currency);
+        return new AssetStagingDocument.AssetEntry(
+                customerId,
+                outcome.source().name(),
+                outcome.status().name(),
+                text(detail, "assetName"),
+                firstText(text(detail, "assetType"), text(detail, "securityType"), text(detail, "policyType")),
+                currency,
+                currency,
+                converted.exchangeRate(),
+                baseCurrency,
+                converted.convertedAmount(),
+                balance,
+                marketValue,
+                coverage,
+                text(detail, "policyNumber"),
+                text(detail, "policyType"),
+                text(detail, "premiumStatus"),
+                text(detail, "riskLevel"),
+                text(detail, "symbol"),
+                decimal(detail, "holdings"),
+                text(detail, "accountId"),
+                outcome.fetchedAt(),
+                aggregatedAt,
+                traceId,
+                outcome.payloadRefId(),
+                sourceTotalInBase,
+                COMPLETED
+        );
+    }
+
+    private void addBreakdown(Map<String, BigDecimal> breakdown, SourceOutcome outcome) {
+        List<BankAssetWriteRequest.CurrencyAmount> summary = outcome.currencySummary();
+        if (!summary.isEmpty()) {
+            for (BankAssetWriteRequest.CurrencyAmount currency : summary) {
+                breakdown.merge(currency.currency(), currency.amount(), BigDecimal::add);
+            }
+            return;
+        }
+        if (outcome.currency() != null && outcome.amount() != null) {
+            breakdown.merge(outcome.currency(), outcome.amount(), BigDecimal::add);
+        }
+    }
+
+    private ConversionResult convert(BigDecimal amount, String currency) {
+        return currencyConversionService.convert(amount, currency == null ? baseCurrency : currency, baseCurrency);
+    }
+
+    private static String text(Map<String, Object> detail, String key) {
+        Object value = detail.get(key);
+        return value == null ? null : value.toString();
+    }
+
+    private static String firstText(String... candidates) {
+        for (String candidate : candidates) {
+            if (StringUtils.hasText(candidate)) {
+                return candidate;
+            }
+        }
+        return null;
+    }
+
+    private static BigDecimal decimal(Map<String, Object> detail, String key) {
+        Object value = detail.get(key);
+        if (value == null) {
+            return null;
+        }
+        if (value instanceof BigDecimal decimal) {
+            return decimal;
+        }
+        if (value instanceof Decimal128 decimal) {
+            return decimal.bigDecimalValue();
+        }
+        if (value instanceof Integer || value instanceof Long) {
+            return BigDecimal.valueOf(((Number) value).longValue());
+        }
+        if (value instanceof Number number) {
+            return new BigDecimal(number.toString());
+        }
+        String text = value.toString().trim();
+        return text.isEmpty() ? null : new BigDecimal(text);
+    }
+}
@@ -0,0 +1,87 @@
+package com.poc.svc.assets.service.impl.adapter;
+
+import com.poc.svc.assets.dto.AssetSourceType;
+import com.poc.svc.assets.entity.BankAssetRawDocument;
+import com.poc.svc.assets.service.AssetAggregationCoordinator.SourceOutcome;
+import com.poc.svc.assets.service.AssetSourceAdapter;
+import com.poc.svc.assets.service.AssetSourceClient;
+import com.poc.svc.assets.service.AssetSourceClient.BankAssetResult;
+import com.poc.svc.assets.service.BankAssetWriter;
+import com.poc.svc.assets.service.RawWriteSink;
+import com.poc.svc.assets.service.impl.support.AssetDetailsExtractor;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+
+@Component
+public class BankAssetSourceAdapter implements AssetSourceAdapter<BankAssetResult> {
+
+    private static final String DETAILS_KEY = "bankAssets";
+
+    private final AssetSourceClient assetSourceClient;
+    private final BankAssetWriter bankAssetWriter;
+
+    public BankAssetSourceAdapter(AssetSourceClient assetSourceClient, BankAssetWriter bankAssetWriter) {
+        this.assetSourceClient = Objects.requireNonNull(assetSourceClient, "assetSourceClient must not be null");
+        this.bankAssetWriter = Objects.requireNonNull(bankAssetWriter, "bankAssetWriter must not be null");
+    }
+
+    @Override
+    public AssetSourceType source() {
+        return AssetSourceType.BANK;
+    }
+
+    @Override
+    public CompletableFuture<BankAssetResult> fetch(String customerId, String traceId) {
+        return assetSourceClient.fetchBankAssets(customerId, traceId);
+    }
+
+    @Override
+    public CompletableFuture<String> writeRaw(String customerId, BankAssetResult result) {
+        return bankAssetWriter.write(writeRequest(customerId, result)).thenApply(BankAssetRawDocument::id);
+    }
+
+    @Override
+    public String deferRaw(String customerId, BankAssetResult result, RawWriteSink sink) {
+        return bankAssetWriter.defer(writeRequest(customerId, result), sink).id();
+    }
+
+    @Override
+    public List<Map<String, Object>> extractAssetDetails(BankAssetResult result) {
+        return AssetDetailsExtractor.extract(result.payload(), DETAILS_KEY);
+    }
+
+    @Override
+    public String rawTraceId(BankAssetResult result) {
+        return result.traceId();
+    }
+
+    @Override
+    public SourceOutcome toOutcome(BankAssetResult result, String payloadRefId, List<Map<String, Object>> assetDetails) {
+        return SourceOutcome.success(
+                AssetSourceType.BANK,
+                result.totalBalance(),
+                result.currency(),
+                result.fetchedAt(),
+                result.traceId(),
+                payloadRefId,
+                result.payload(),
+                result.currencySummary(),
+                assetDetails
+        );
+    }
+
+    private BankAssetWriter.BankAssetWriteRequest writeRequest(String customerId, BankAssetResult result) {
+        return new BankAssetWriter.BankAssetWriteRequest(
+                customerId,
+                result.payload(),
+                result.totalBalance(),
+                result.currencySummary(),
+                result.fetchedAt(),
+                result.traceId()
+        );
+    }
+}
@@ -0,0 +1,87 @@
+package com.poc.svc.assets.service.impl.adapter;
+
+import com.poc.svc.assets.dto.AssetSourceType;
+import com.poc.svc.assets.entity.InsuranceAssetRawDocument;
+import com.poc.svc.assets.service.AssetAggregationCoordinator.SourceOutcome;
+import com.poc.svc.assets.service.AssetSourceAdapter;
+import com.poc.svc.assets.service.AssetSourceClient;
+import com.poc.svc.assets.service.AssetSourceClient.InsuranceAssetResult;
+import com.poc.svc.assets.service.InsuranceAssetWriter;
+import com.poc.svc.assets.service.RawWriteSink;
+import com.poc.svc.assets.service.impl.support.AssetDetailsExtractor;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+
+@Component
+public class InsuranceAssetSourceAdapter implements AssetSourceAdapter<InsuranceAssetResult> {
+
+    private static final String DETAILS_KEY = "insuranceAssets";
+
+    private final AssetSourceClient assetSourceClient;
+    private final InsuranceAssetWriter insuranceAssetWriter;
+
+    public InsuranceAssetSourceAdapter(AssetSourceClient assetSourceClient, InsuranceAssetWriter insuranceAssetWriter) {
+        this.assetSourceClient = Objects.requireNonNull(assetSourceClient, "assetSourceClient must not be null");
+        this.insuranceAssetWriter = Objects.requireNonNull(insuranceAssetWriter, "insuranceAssetWriter must not be null");
+    }
+
+    @Override
+    public AssetSourceType source() {
+        return AssetSourceType.INSURANCE;
+    }
+
+    @Override
+    public CompletableFuture<InsuranceAssetResult> fetch(String customerId, String traceId) {
+        return assetSourceClient.fetchInsuranceAssets(customerId, traceId);
+    }
+
+    @Override
+    public CompletableFuture<String> writeRaw(String customerId, InsuranceAssetResult result) {
+        return insuranceAssetWriter.write(writeRequest(customerId, result)).thenApply(InsuranceAssetRawDocument::id);
+    }
+
+    @Override
+    public String deferRaw(String customerId, InsuranceAssetResult result, RawWriteSink sink) {
+        return insuranceAssetWriter.defer(writeRequest(customerId, result), sink).id();
+    }
+
+    @Override
+    public List<Map<String, Object>> extractAssetDetails(InsuranceAssetResult result) {
+        return AssetDetailsExtractor.extract(result.payload(), DETAILS_KEY);
+    }
+
+    @Override
+    public String rawTraceId(InsuranceAssetResult result) {
+        return result.traceId();
+    }
+
+    @Override
+    public SourceOutcome toOutcome(InsuranceAssetResult result, String payloadRefId, List<Map<String, Object>> assetDetails) {
+        return SourceOutcome.success(
+                AssetSourceType.INSURANCE,
+                result.totalCoverage(),
+                result.currency(),
+                result.fetchedAt(),
+                result.traceId(),
+                payloadRefId,
+                result.payload(),
+                List.of(),
+                assetDetails
+        );
+    }
+
+    private InsuranceAssetWriter.InsuranceAssetWriteRequest writeRequest(String customerId, InsuranceAssetResult result) {
+        return new InsuranceAssetWriter.InsuranceAssetWriteRequest(
+                customerId,
+                result.payload(),
+                result.totalCoverage(),
+                result.policiesCount(),
+                result.fetchedAt(),
+                result.traceId()
+        );
+    }
+}
@@ -0,0 +1,87 @@
+package com.poc.svc.assets.service.impl.adapter;
+
+import com.poc.svc.assets.dto.AssetSourceType;
+import com.poc.svc.assets.entity.SecuritiesAssetRawDocument;
+import com.poc.svc.assets.service.AssetAggregationCoordinator.SourceOutcome;
+import com.poc.svc.assets.service.AssetSourceAdapter;
+import com.poc.svc.assets.service.AssetSourceClient;
+import com.poc.svc.assets.service.AssetSourceClient.SecuritiesAssetResult;
+import com.poc.svc.assets.service.RawWriteSink;
+import com.poc.svc.assets.service.SecuritiesAssetWriter;
+import com.poc.svc.assets.service.impl.support.AssetDetailsExtractor;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+
+@Component
+public class SecuritiesAssetSourceAdapter implements AssetSourceAdapter<SecuritiesAssetResult> {
+
+    private static final String DETAILS_KEY = "securitiesAssets";
+
+    private final AssetSourceClient assetSourceClient;
+    private final SecuritiesAssetWriter securitiesAssetWriter;
+
+    public SecuritiesAssetSourceAdapter(AssetSourceClient assetSourceClient, SecuritiesAssetWriter securitiesAssetWriter) {
+        this.assetSourceClient = Objects.requireNonNull(assetSourceClient, "assetSourceClient must not be null");
+        this.securitiesAssetWriter = Objects.requireNonNull(securitiesAssetWriter, "securitiesAssetWriter must not be null");
+    }
+
+    @Override
+    public AssetSourceType source() {
+        return AssetSourceType.SECURITIES;
+    }
+
+    @Override
+    public CompletableFuture<SecuritiesAssetResult> fetch(String customerId, String traceId) {
+        return assetSourceClient.fetchSecuritiesAssets(customerId, traceId);
+    }
+
+    @Override
+    public CompletableFuture<String> writeRaw(String customerId, SecuritiesAssetResult result) {
+        return securitiesAssetWriter.write(writeRequest(customerId, result)).thenApply(SecuritiesAssetRawDocument::id);
+    }
+
+    @Override
+    public String deferRaw(String customerId, SecuritiesAssetResult result, RawWriteSink sink) {
+        return securitiesAssetWriter.defer(writeRequest(customerId, result), sink).id();
+    }
+
+    @Override
+    public List<Map<String, Object>> extractAssetDetails(SecuritiesAssetResult result) {
+        return AssetDetailsExtractor.extract(result.payload(), DETAILS_KEY);
+    }
+
+    @Override
+    public String rawTraceId(SecuritiesAssetResult result) {
+        return result.traceId();
+    }
+
+    @Override
+    public SourceOutcome toOutcome(SecuritiesAssetResult result, String payloadRefId, List<Map<String, Object>> assetDetails) {
+        return SourceOutcome.success(
+                AssetSourceType.SECURITIES,
+                result.totalMarketValue(),
+                result.currency(),
+                result.fetchedAt(),
+                result.traceId(),
+                payloadRefId,
+                result.payload(),
+                List.of(),
+                assetDetails
+        );
+    }
+
+    private SecuritiesAssetWriter.SecuritiesAssetWriteRequest writeRequest(String customerId, SecuritiesAssetResult result) {
+        return new SecuritiesAssetWriter.SecuritiesAssetWriteRequest(
+                customerId,
+                result.payload(),
+                result.totalMarketValue(),
+                result.holdingsCount(),
+                result.fetchedAt(),
+                result.traceId()
+        );
+    }
+}
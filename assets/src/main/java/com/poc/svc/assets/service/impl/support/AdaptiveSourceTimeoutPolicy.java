@@ -0,0 +1,73 @@
+package com.poc.svc.assets.service.impl.support;
+
+import com.poc.svc.assets.config.AssetsAdaptiveTimeoutProperties;
+import com.poc.svc.assets.config.MetricsConfig;
+import com.poc.svc.assets.dto.AssetSourceType;
+import com.poc.svc.assets.service.SourceTimeoutPolicy;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Objects;
+
+/**
+ * 依 {@link SourceLatencyTracker} 的近期延遲推算各來源逾時：百分位 × factor，限制於 floor / ceiling 之間，
+ * 且不超過本次聚合的 deadline。快的來源卡住時可提早判定逾時，不必等滿整體 timeout。
+ */
+@Component
+public class AdaptiveSourceTimeoutPolicy implements SourceTimeoutPolicy {
+
+    private final AssetsAdaptiveTimeoutProperties properties;
+    private final SourceLatencyTracker latencyTracker;
+
+    public AdaptiveSourceTimeoutPolicy(AssetsAdaptiveTimeoutProperties properties,
+                                       SourceLatencyTracker latencyTracker,
+                                       MeterRegistry meterRegistry) {
+        this.properties = Objects.requireNonNull(properties, "properties must not be null");
+        this.latencyTracker = Objects.requireNonNull(latencyTracker, "latencyTracker must not be null");
+        Objects.requireNonNull(meterRegistry, "meterRegistry must not be null");
+        for (AssetSourceType source : AssetSourceType.values()) {
+            Gauge.builder(MetricsConfig.ASSET_SOURCE_TIMEOUT, this, policy -> policy.derivedTimeout(source).toMillis())
+                    .description("來源目前推算的抓取逾時 (milliseconds)")
+                    .tag("source", source.name())
+                    .register(meterRegistry);
+        }
+    }
+
+    @Override
+    public Duration timeoutFor(AssetSourceType source, Duration deadline) {
+        Objects.requireNonNull(deadline, "deadline must not be null");
+        if (!properties.isEnabled()) {
+            return deadline;
+        }
+        Duration derived = derivedTimeout(source);
+        return derived.compareTo(deadline) < 0 ? derived : deadline;
+    }
+
+    /**
+     * 以套用的逾時作為延遲下限記入樣本；來源延遲升到推算逾時之上時，百分位隨之上升，逾時得以回升。
+     */
+    @Override
+    public void recordAbandoned(AssetSourceType source, Duration appliedTimeout) {
+        Objects.requireNonNull(appliedTimeout, "appliedTimeout must not be null");
+        latencyTracker.record(source, appliedTimeout);
+    }
+
+    Duration derivedTimeout(AssetSourceType source) {
+        return latencyTracker.percentile(source, properties.getPercentile(), properties.getMinSamples())
+                .map(latency -> Duration.ofNanos((long) (latency.toNanos() * properties.getFactor())))
+                .map(this::clamp)
+                .orElse(properties.getCeiling());
+    }
+
+    private Duration clamp(Duration timeout) {
+        if (timeout.compareTo(properties.getFloor()) < 0) {
+            return properties.getFloor();
+        }
+        if (timeout.compareTo(properties.getCeiling()) > 0) {
+            return properties.getCeiling();
+        }
+        return timeout;
+    }
+}
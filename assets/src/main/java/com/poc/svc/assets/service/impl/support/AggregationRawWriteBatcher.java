@@ -0,0 +1,272 @@
+package com.poc.svc.assets.service.impl.support;
+
+import com.mongodb.ClientSessionOptions;
+import com.mongodb.MongoException;
+import com.mongodb.TransactionOptions;
+import com.mongodb.client.ClientSession;
+import com.mongodb.client.model.Filters;
+import com.poc.svc.assets.config.AssetsRawWriteProperties;
+import com.poc.svc.assets.config.MetricsConfig;
+import com.poc.svc.assets.dto.AssetSourceType;
+import com.poc.svc.assets.exception.MongoRawWriteException;
+import com.poc.svc.assets.service.RawWriteBatcher;
+import com.poc.svc.assets.service.RawWriteSink;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * {@code assets.raw-write.mode=PER_AGGREGATION}：各來源經 {@link Batch#sink} 只登記文件（id 預先產生），
+ * 所有來源完成後以單一 multi-collection transaction 寫入，一次 commit 取代各來源各自的寫入往返。
+ * commit 會阻塞執行緒，於專用的 commit 執行緒上執行，不佔用 {@code assetAsyncExecutor}。
+ * 聚合剩餘時間用完時 abort 尚未 commit 的 transaction，回報失敗的來源其文件必然未寫入。
+ */
+@Component
+public class AggregationRawWriteBatcher implements RawWriteBatcher, DisposableBean {
+
+    private static final Logger log = LoggerFactory.getLogger(AggregationRawWriteBatcher.class);
+
+    private final MongoTemplate mongoTemplate;
+    private final AssetsRawWriteProperties properties;
+    private final MeterRegistry meterRegistry;
+    private final Executor executor;
+    private final ExecutorService ownedExecutor;
+
+    @Autowired
+    public AggregationRawWriteBatcher(MongoTemplate mongoTemplate,
+                                      AssetsRawWriteProperties properties,
+                                      MeterRegistry meterRegistry) {
+        this(mongoTemplate, properties, meterRegistry, commitExecutor(properties), true);
+    }
+
+    AggregationRawWriteBatcher(MongoTemplate mongoTemplate,
+                               AssetsRawWriteProperties properties,
+                               MeterRegistry meterRegistry,
+                               Executor executor) {
+        this(mongoTemplate, properties, meterRegistry, executor, false);
+    }
+
+    private AggregationRawWriteBatcher(MongoTemplate mongoTemplate,
+                                       AssetsRawWriteProperties properties,
+                                       MeterRegistry meterRegistry,
+                                       Executor executor,
+                                       boolean ownsExecutor) {
+        this.mongoTemplate = Objects.requireNonNull(mongoTemplate, "mongoTemplate must not be null");
+        this.properties = Objects.requireNonNull(properties, "properties must not be null");
+        this.meterRegistry = Objects.requireNonNull(meterRegistry, "meterRegistry must not be null");
+        this.executor = Objects.requireNonNull(executor, "executor must not be null");
+        this.ownedExecutor = ownsExecutor ? (ExecutorService) executor : null;
+    }
+
+    private static ExecutorService commitExecutor(AssetsRawWriteProperties properties) {
+        AtomicInteger threads = new AtomicInteger();
+        return Executors.newFixedThreadPool(properties.getAggregation().getCommitThreads(), runnable -> {
+            Thread thread = new Thread(runnable, "asset-raw-aggregation-commit-" + threads.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @Override
+    public Optional<Batch> open(String traceId) {
+        if (properties.getMode() != AssetsRawWriteProperties.Mode.PER_AGGREGATION) {
+            return Optional.empty();
+        }
+        return Optional.of(new DeferredBatch(traceId));
+    }
+
+    @Override
+    public void destroy() {
+        if (ownedExecutor != null) {
+            ownedExecutor.shutdownNow();
+        }
+    }
+
+    private final class DeferredBatch implements Batch {
+
+        private final String traceId;
+        private final List<PendingWrite> writes = new ArrayList<>();
+
+        private DeferredBatch(String traceId) {
+            this.traceId = traceId;
+        }
+
+        @Override
+        public RawWriteSink sink(AssetSourceType source) {
+            Objects.requireNonNull(source, "source must not be null");
+            return (collectionName, document, failureMessage) -> add(
+                    new PendingWrite(source, collectionName, document, failureMessage));
+        }
+
+        @Override
+        public CompletableFuture<Map<AssetSourceType, DataAccessException>> commit(Duration timeout) {
+            Objects.requireNonNull(timeout, "timeout must not be null");
+            List<PendingWrite> snapshot;
+            synchronized (writes) {
+                snapshot = List.copyOf(writes);
+            }
+            if (snapshot.isEmpty()) {
+                return CompletableFuture.completedFuture(Map.of());
+            }
+            long deadlineNanos = System.nanoTime() + timeout.toNanos();
+            Timer.Sample sample = Timer.start(meterRegistry);
+            CompletableFuture<Map<AssetSourceType, DataAccessException>> written;
+            try {
+                written = CompletableFuture.supplyAsync(() -> writeInTransaction(snapshot, timeout, deadlineNanos), executor);
+            } catch (RuntimeException ex) {
+                written = CompletableFuture.completedFuture(failAll(snapshot, ex));
+            }
+            return written.whenComplete((failures, ex) -> {
+                sample.stop(meterRegistry.timer(MetricsConfig.ASSET_RAW_WRITE_AGGREGATION_LATENCY));
+                if (failures != null) {
+                    log.info("TraceId={} raw documents={} written per aggregation failedSources={}",
+                            traceId, snapshot.size(), failures.keySet());
+                }
+            });
+        }
+
+        private void add(PendingWrite write) {
+            synchronized (writes) {
+                writes.add(write);
+            }
+        }
+
+        /**
+         * 依 driver {@code withTransaction} 的規則重試 transient transaction error 與 unknown commit result，
+         * 但以聚合 deadline 為限：deadline 前未 commit 即 abort，不讓已回報失敗的文件在背景寫入。
+         * commit 結果不明且已無時間重試時，以預先產生的 {@code _id} 確認是否已寫入。
+         */
+        private Map<AssetSourceType, DataAccessException> writeInTransaction(List<PendingWrite> snapshot,
+                                                                             Duration timeout,
+                                                                             long deadlineNanos) {
+            try (ClientSession session = mongoTemplate.getMongoDatabaseFactory()
+                    .getSession(ClientSessionOptions.builder().causallyConsistent(true).build())) {
+                while (true) {
+                    if (remainingMillis(deadlineNanos) <= 0) {
+                        return timedOut(snapshot, timeout);
+                    }
+                    session.startTransaction(TransactionOptions.builder()
+                            .maxCommitTime(remainingMillis(deadlineNanos), TimeUnit.MILLISECONDS)
+                            .build());
+                    try {
+                        for (PendingWrite write : snapshot) {
+                            if (remainingMillis(deadlineNanos) <= 0) {
+                                abortQuietly(session);
+                                return timedOut(snapshot, timeout);
+                            }
+                            mongoTemplate.getCollection(write.collectionName()).insertOne(session, write.document());
+                        }
+                    } catch (MongoException ex) {
+                        abortQuietly(session);
+                        if (ex.hasErrorLabel(MongoException.TRANSIENT_TRANSACTION_ERROR_LABEL)) {
+                            continue;
+                        }
+                        return failAll(snapshot, ex);
+                    }
+                    if (remainingMillis(deadlineNanos) <= 0) {
+                        abortQuietly(session);
+                        return timedOut(snapshot, timeout);
+                    }
+                    try {
+                        commit(session, deadlineNanos);
+                        return Map.of();
+                    } catch (MongoException ex) {
+                        if (ex.hasErrorLabel(MongoException.UNKNOWN_TRANSACTION_COMMIT_RESULT_LABEL)) {
+                            return persisted(snapshot.get(0)) ? Map.of() : failAll(snapshot, ex);
+                        }
+                        if (ex.hasErrorLabel(MongoException.TRANSIENT_TRANSACTION_ERROR_LABEL)) {
+                            continue;
+                        }
+                        return failAll(snapshot, ex);
+                    }
+                }
+            } catch (RuntimeException ex) {
+                return failAll(snapshot, ex);
+            }
+        }
+
+        /**
+         * commit 結果不明時於剩餘時間內重送 commit（commitTransaction 可重複執行）。
+         */
+        private void commit(ClientSession session, long deadlineNanos) {
+            while (true) {
+                try {
+                    session.commitTransaction();
+                    return;
+                } catch (MongoException ex) {
+                    if (!ex.hasErrorLabel(MongoException.UNKNOWN_TRANSACTION_COMMIT_RESULT_LABEL)
+                            || remainingMillis(deadlineNanos) <= 0) {
+                        throw ex;
+                    }
+                }
+            }
+        }
+
+        /**
+         * transaction 為全有或全無，確認任一文件即可得知整批是否已寫入；確認失敗時保守視為未寫入。
+         */
+        private boolean persisted(PendingWrite write) {
+            try {
+                return mongoTemplate.getCollection(write.collectionName())
+                        .countDocuments(Filters.eq("_id", write.document().get("_id"))) > 0;
+            } catch (MongoException ex) {
+                log.warn("TraceId={} could not confirm per-aggregation commit outcome", traceId, ex);
+                return false;
+            }
+        }
+
+        private void abortQuietly(ClientSession session) {
+            if (!session.hasActiveTransaction()) {
+                return;
+            }
+            try {
+                session.abortTransaction();
+            } catch (MongoException ex) {
+                log.debug("TraceId={} abortTransaction failed", traceId, ex);
+            }
+        }
+
+        private Map<AssetSourceType, DataAccessException> timedOut(List<PendingWrite> snapshot, Duration timeout) {
+            return failAll(snapshot, new TimeoutException("per-aggregation raw write did not commit within " + timeout));
+        }
+
+        private Map<AssetSourceType, DataAccessException> failAll(List<PendingWrite> snapshot, Throwable cause) {
+            Map<AssetSourceType, DataAccessException> failures = new EnumMap<>(AssetSourceType.class);
+            for (PendingWrite write : snapshot) {
+                failures.put(write.source(), cause instanceof DataAccessException dataAccessException
+                        ? dataAccessException
+                        : new MongoRawWriteException(write.failureMessage(), cause));
+            }
+            return failures;
+        }
+    }
+
+    private static long remainingMillis(long deadlineNanos) {
+        return TimeUnit.NANOSECONDS.toMillis(deadlineNanos - System.nanoTime());
+    }
+
+    private record PendingWrite(AssetSourceType source, String collectionName, Document document, String failureMessage) {
+    }
+}
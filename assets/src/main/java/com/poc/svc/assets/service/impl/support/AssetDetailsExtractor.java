@@ -0,0 +1,28 @@
+package com.poc.svc.assets.service.impl.support;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 從下游 payload 中取出資產明細清單（例如 {@code bankAssets}）。
+ */
+public final class AssetDetailsExtractor {
+
+    private AssetDetailsExtractor() {
+    }
+
+    @SuppressWarnings("unchecked")
+    public static List<Map<String, Object>> extract(Map<String, Object> payload, String key) {
+        if (payload == null) {
+            return List.of();
+        }
+        Object raw = payload.get(key);
+        if (!(raw instanceof List<?> rawList)) {
+            return List.of();
+        }
+        return rawList.stream()
+                .filter(Map.class::isInstance)
+                .map(item -> Map.copyOf((Map<String, Object>) item))
+                .toList();
+    }
+}
@@ -0,0 +1,25 @@
+package com.poc.svc.assets.service.impl.support;
+
+import com.poc.svc.assets.entity.payload.CompressedBsonPayload;
+import org.bson.Document;
+import org.springframework.data.mongodb.core.mapping.event.AbstractMongoEventListener;
+import org.springframework.data.mongodb.core.mapping.event.AfterLoadEvent;
+import org.springframework.stereotype.Component;
+
+/**
+ * repository 讀取 raw 文件時，以 {@code payloadCompressed} 的完整 payload 取代只含保留欄位的 {@code payload}；
+ * {@code MappingMongoConverter} 轉換 Map 欄位時才會解壓縮（手寫 codec 路徑則延遲至第一次存取）。
+ */
+@Component
+public class CompressedPayloadLoadListener extends AbstractMongoEventListener<Object> {
+
+    @Override
+    public void onAfterLoad(AfterLoadEvent<Object> event) {
+        Document document = event.getDocument();
+        if (document == null || !(document.get(CompressedBsonPayload.FIELD) instanceof Document compressed)) {
+            return;
+        }
+        document.put("payload", CompressedBsonPayload.fromDocument(compressed));
+        document.remove(CompressedBsonPayload.FIELD);
+    }
+}
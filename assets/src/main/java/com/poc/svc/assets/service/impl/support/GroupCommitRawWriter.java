@@ -0,0 +1,210 @@
+package com.poc.svc.assets.service.impl.support;
+
+import com.mongodb.ErrorCategory;
+import com.mongodb.MongoBulkWriteException;
+import com.mongodb.bulk.BulkWriteError;
+import com.mongodb.client.model.InsertManyOptions;
+import com.poc.svc.assets.config.AssetsRawWriteProperties;
+import com.poc.svc.assets.config.MetricsConfig;
+import com.poc.svc.assets.exception.MongoRawWriteException;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Group commit：緩衝各請求的 raw 文件，最多等待 {@code max-delay} 或累積 {@code max-batch-size} 份後，
+ * 依 collection 以 unordered insertMany 一次寫入，再個別完成每份文件的 future（值為預先產生的 {@code _id}）。
+ * 每個 collection 各有自己的佇列與 flusher thread，單一 collection 變慢或重試 backoff 時不會拖住其他 collection。
+ */
+@Component
+public class GroupCommitRawWriter implements DisposableBean {
+
+    private static final Logger log = LoggerFactory.getLogger(GroupCommitRawWriter.class);
+    private static final long IDLE_POLL_MILLIS = 100;
+
+    private final MongoTemplate mongoTemplate;
+    private final MongoWriteRetrier mongoWriteRetrier;
+    private final AssetsRawWriteProperties.GroupCommit settings;
+    private final MeterRegistry meterRegistry;
+    private final Map<String, Lane> lanes = new ConcurrentHashMap<>();
+    private volatile boolean running;
+
+    public GroupCommitRawWriter(MongoTemplate mongoTemplate,
+                                MongoWriteRetrier mongoWriteRetrier,
+                                AssetsRawWriteProperties properties,
+                                MeterRegistry meterRegistry) {
+        this.mongoTemplate = Objects.requireNonNull(mongoTemplate, "mongoTemplate must not be null");
+        this.mongoWriteRetrier = Objects.requireNonNull(mongoWriteRetrier, "mongoWriteRetrier must not be null");
+        this.settings = Objects.requireNonNull(properties, "properties must not be null").getGroupCommit();
+        this.meterRegistry = Objects.requireNonNull(meterRegistry, "meterRegistry must not be null");
+        if (properties.getMode() == AssetsRawWriteProperties.Mode.GROUP_COMMIT) {
+            running = true;
+            log.info("Raw group commit enabled maxDelay={} maxBatchSize={}", settings.getMaxDelay(), settings.getMaxBatchSize());
+        }
+    }
+
+    /**
+     * @param document 已含 {@code _id} 的文件
+     */
+    public CompletableFuture<String> submit(String collectionName, Document document, String failureMessage) {
+        Objects.requireNonNull(collectionName, "collectionName must not be null");
+        Objects.requireNonNull(document, "document must not be null");
+        if (!running) {
+            return notRunning(failureMessage);
+        }
+        PendingWrite pending = new PendingWrite(collectionName, document, failureMessage, new CompletableFuture<>());
+        Lane lane = lanes.computeIfAbsent(collectionName, Lane::new);
+        lane.queue.add(pending);
+        // 與 destroy 競爭：destroy 先設 running=false 再 drain，加入後才看到 false 時由此取回並失敗，否則已由 destroy 寫入
+        if (!running && lane.queue.remove(pending)) {
+            return notRunning(failureMessage);
+        }
+        return pending.result();
+    }
+
+    private static CompletableFuture<String> notRunning(String failureMessage) {
+        return CompletableFuture.failedFuture(new MongoRawWriteException(failureMessage + ": group commit writer is not running", null));
+    }
+
+    void flush(List<PendingWrite> batch) {
+        Map<String, List<PendingWrite>> byCollection = new LinkedHashMap<>();
+        for (PendingWrite pending : batch) {
+            byCollection.computeIfAbsent(pending.collectionName(), ignored -> new ArrayList<>()).add(pending);
+        }
+        byCollection.forEach(this::flushCollection);
+    }
+
+    private void flushCollection(String collectionName, List<PendingWrite> writes) {
+        DistributionSummary.builder(MetricsConfig.ASSET_RAW_WRITE_BATCH_SIZE)
+                .description("group commit 每批寫入的 raw 文件數")
+                .tag("collection", collectionName)
+                .register(meterRegistry)
+                .record(writes.size());
+        Timer.Sample sample = Timer.start(meterRegistry);
+        Map<Integer, Throwable> failures;
+        try {
+            failures = mongoWriteRetrier.execute(
+                    "Failed to group-commit %d raw documents into %s".formatted(writes.size(), collectionName),
+                    () -> insertUnordered(collectionName, writes)
+            );
+        } catch (RuntimeException ex) {
+            writes.forEach(pending -> pending.result().completeExceptionally(ex));
+            return;
+        } finally {
+            sample.stop(meterRegistry.timer(MetricsConfig.ASSET_RAW_WRITE_BATCH_LATENCY, "collection", collectionName));
+        }
+        for (int i = 0; i < writes.size(); i++) {
+            PendingWrite pending = writes.get(i);
+            Throwable failure = failures.get(i);
+            if (failure != null) {
+                pending.result().completeExceptionally(new MongoRawWriteException(pending.failureMessage(), failure));
+            } else {
+                pending.result().complete(pending.document().getObjectId("_id").toHexString());
+            }
+        }
+    }
+
+    /**
+     * 回傳個別失敗的文件（索引 → 錯誤）。重試整批時先前已寫入的文件會回報 duplicate key，因 id 由本服務產生，視為成功。
+     */
+    private Map<Integer, Throwable> insertUnordered(String collectionName, List<PendingWrite> writes) {
+        List<Document> documents = writes.stream().map(PendingWrite::document).toList();
+        try {
+            mongoTemplate.getCollection(collectionName).insertMany(documents, new InsertManyOptions().ordered(false));
+            return Map.of();
+        } catch (MongoBulkWriteException ex) {
+            Map<Integer, Throwable> failures = new HashMap<>();
+            for (BulkWriteError error : ex.getWriteErrors()) {
+                if (ErrorCategory.fromErrorCode(error.getCode()) != ErrorCategory.DUPLICATE_KEY) {
+                    failures.put(error.getIndex(), new IllegalStateException(
+                            "code=%d message=%s".formatted(error.getCode(), error.getMessage())));
+                }
+            }
+            if (ex.getWriteConcernError() != null) {
+                throw ex;
+            }
+            return failures;
+        }
+    }
+
+    @Override
+    public void destroy() throws InterruptedException {
+        if (!running) {
+            return;
+        }
+        running = false;
+        for (Lane lane : lanes.values()) {
+            lane.flusher.join(TimeUnit.SECONDS.toMillis(5));
+        }
+        for (Lane lane : lanes.values()) {
+            List<PendingWrite> remaining = new ArrayList<>();
+            lane.queue.drainTo(remaining);
+            if (!remaining.isEmpty()) {
+                flushCollection(lane.collectionName, remaining);
+            }
+        }
+    }
+
+    record PendingWrite(String collectionName, Document document, String failureMessage, CompletableFuture<String> result) {
+    }
+
+    private final class Lane {
+
+        private final String collectionName;
+        private final BlockingQueue<PendingWrite> queue = new LinkedBlockingQueue<>();
+        private final Thread flusher;
+
+        private Lane(String collectionName) {
+            this.collectionName = collectionName;
+            this.flusher = new Thread(this::runFlushLoop, "asset-raw-group-commit-" + collectionName);
+            this.flusher.setDaemon(true);
+            this.flusher.start();
+        }
+
+        private void runFlushLoop() {
+            while (running) {
+                try {
+                    PendingWrite first = queue.poll(IDLE_POLL_MILLIS, TimeUnit.MILLISECONDS);
+                    if (first == null) {
+                        continue;
+                    }
+                    List<PendingWrite> batch = new ArrayList<>(settings.getMaxBatchSize());
+                    batch.add(first);
+                    long deadline = System.nanoTime() + settings.getMaxDelay().toNanos();
+                    while (batch.size() < settings.getMaxBatchSize()) {
+                        long remaining = deadline - System.nanoTime();
+                        PendingWrite next = remaining > 0 ? queue.poll(remaining, TimeUnit.NANOSECONDS) : queue.poll();
+                        if (next == null) {
+                            break;
+                        }
+                        batch.add(next);
+                    }
+                    flushCollection(collectionName, batch);
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                    break;
+                } catch (RuntimeException ex) {
+                    log.error("Raw group commit flush loop failed collection={}", collectionName, ex);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package com.poc.svc.assets.service.impl.support;
+
+import org.apache.hc.core5.concurrent.Cancellable;
+
+import java.util.concurrent.CancellationException;
+import java.util.function.Supplier;
+
+/**
+ * 單次下游呼叫的取消控制：呼叫於 {@link #run} 內執行時，request factory 透過 {@link #current()} 登記底層的 HttpClient5 請求。
+ * {@link #cancel()} 中止已登記的請求（釋放連線與等待回應的執行緒），並中斷仍在執行呼叫的 worker，
+ * 涵蓋等待連線池或使用 JDK HttpClient 等無法直接中止的後端。
+ */
+public final class InFlightHttpRequest {
+
+    private static final ThreadLocal<InFlightHttpRequest> CURRENT = new ThreadLocal<>();
+
+    private Cancellable request;
+    private Thread worker;
+    private boolean cancelled;
+
+    /**
+     * 目前執行緒上正在執行的呼叫；不在 {@link #run} 內時為 null。
+     */
+    public static InFlightHttpRequest current() {
+        return CURRENT.get();
+    }
+
+    public <T> T run(Supplier<T> call) {
+        synchronized (this) {
+            if (cancelled) {
+                throw new CancellationException("Request cancelled before it started");
+            }
+            worker = Thread.currentThread();
+        }
+        CURRENT.set(this);
+        try {
+            return call.get();
+        } finally {
+            CURRENT.remove();
+            synchronized (this) {
+                worker = null;
+                request = null;
+            }
+            // 取消與呼叫結束同時發生時，不把中斷狀態留給 executor 的下一個工作
+            Thread.interrupted();
+        }
+    }
+
+    /**
+     * 登記底層請求；呼叫已被取消時立即中止。
+     */
+    public void attach(Cancellable request) {
+        boolean abort;
+        synchronized (this) {
+            abort = cancelled;
+            if (!abort) {
+                this.request = request;
+            }
+        }
+        if (abort) {
+            request.cancel();
+        }
+    }
+
+    public void cancel() {
+        Cancellable inFlight;
+        synchronized (this) {
+            if (cancelled) {
+                return;
+            }
+            cancelled = true;
+            inFlight = request;
+            if (worker != null) {
+                worker.interrupt();
+            }
+        }
+        if (inFlight != null) {
+            inFlight.cancel();
+        }
+    }
+}
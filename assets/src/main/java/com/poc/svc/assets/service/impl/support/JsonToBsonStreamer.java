@@ -0,0 +1,97 @@
+package com.poc.svc.assets.service.impl.support;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import org.bson.BsonBinaryWriter;
+import org.bson.BsonWriter;
+import org.bson.RawBsonDocument;
+import org.bson.io.BasicOutputBuffer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * 以 Jackson streaming parser 逐 token 將 JSON 物件寫成 BSON bytes，不建立中介的物件樹。
+ * 寫出的型別與 MAP 模式（DTO 經 {@code MappingMongoConverter} 寫入）一致，讓 pipeline 不論 ingestion 模式都讀到相同型別：
+ * {@code decimalFields} 中的欄位（DTO 中宣告為 {@code BigDecimal}）不論 JSON 為整數或小數都以十進位字串保存，
+ * 其餘整數寫為 Int32 / Int64，小數同樣以字串保存。
+ */
+public final class JsonToBsonStreamer {
+
+    private final JsonFactory jsonFactory;
+    private final Set<String> decimalFields;
+
+    public JsonToBsonStreamer(JsonFactory jsonFactory) {
+        this(jsonFactory, Set.of());
+    }
+
+    public JsonToBsonStreamer(JsonFactory jsonFactory, Set<String> decimalFields) {
+        this.jsonFactory = Objects.requireNonNull(jsonFactory, "jsonFactory must not be null");
+        this.decimalFields = Set.copyOf(Objects.requireNonNull(decimalFields, "decimalFields must not be null"));
+    }
+
+    public RawBsonDocument read(InputStream inputStream) throws IOException {
+        try (JsonParser parser = jsonFactory.createParser(inputStream)) {
+            JsonToken first = parser.nextToken();
+            if (first == null) {
+                throw new IllegalStateException("Empty response body from asset source");
+            }
+            if (first != JsonToken.START_OBJECT) {
+                throw new IllegalStateException("Asset source response must be a JSON object but was " + first);
+            }
+            BasicOutputBuffer buffer = new BasicOutputBuffer();
+            try (BsonBinaryWriter writer = new BsonBinaryWriter(buffer)) {
+                writeDocument(parser, writer);
+            }
+            return new RawBsonDocument(buffer.getInternalBuffer(), 0, buffer.getPosition());
+        }
+    }
+
+    private void writeDocument(JsonParser parser, BsonWriter writer) throws IOException {
+        writer.writeStartDocument();
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String name = parser.currentName();
+            writer.writeName(name);
+            parser.nextToken();
+            writeValue(parser, writer, name);
+        }
+        writer.writeEndDocument();
+    }
+
+    /**
+     * @param name 所屬欄位名稱；陣列元素沿用陣列的欄位名稱
+     */
+    private void writeValue(JsonParser parser, BsonWriter writer, String name) throws IOException {
+        JsonToken token = parser.currentToken();
+        switch (token) {
+            case START_OBJECT -> writeDocument(parser, writer);
+            case START_ARRAY -> {
+                writer.writeStartArray();
+                while (parser.nextToken() != JsonToken.END_ARRAY) {
+                    writeValue(parser, writer, name);
+                }
+                writer.writeEndArray();
+            }
+            case VALUE_STRING -> writer.writeString(parser.getText());
+            case VALUE_NUMBER_INT -> {
+                if (decimalFields.contains(name)) {
+                    writer.writeString(parser.getDecimalValue().toString());
+                } else {
+                    switch (parser.getNumberType()) {
+                        case INT -> writer.writeInt32(parser.getIntValue());
+                        case LONG -> writer.writeInt64(parser.getLongValue());
+                        default -> writer.writeString(parser.getText());
+                    }
+                }
+            }
+            case VALUE_NUMBER_FLOAT -> writer.writeString(parser.getDecimalValue().toString());
+            case VALUE_TRUE -> writer.writeBoolean(true);
+            case VALUE_FALSE -> writer.writeBoolean(false);
+            case VALUE_NULL -> writer.writeNull();
+            default -> throw new IllegalStateException("Unexpected JSON token " + token);
+        }
+    }
+}
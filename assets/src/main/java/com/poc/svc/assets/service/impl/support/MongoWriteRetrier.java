@@ -1,47 +1,140 @@
 package com.poc.svc.assets.service.impl.support;
 
 import com.mongodb.MongoException;
+import com.poc.svc.assets.config.MetricsConfig;
 import com.poc.svc.assets.config.MongoWriteRetryProperties;
 import com.poc.svc.assets.exception.MongoRawWriteException;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.springframework.dao.DataAccessException;
 import org.springframework.stereotype.Component;
 
 import java.time.Duration;
 import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Supplier;
 
+/**
+ * Mongo 寫入重試：等待時間採 decorrelated jitter 指數退避（介於 {@code backoff} 與前次等待的 3 倍之間，上限 {@code max-backoff}），
+ * 並以全域 token bucket 限制重試量，Mongo 持續異常時不會因重試放大流量。
+ * {@link #execute} 於呼叫端執行緒等待，只用於專屬的背景執行緒（group commit flusher、journal drainer）；
+ * 請求路徑一律使用 {@link #executeAsync}，以計時器排程下一次嘗試，等待期間不佔用共用的 worker。
+ */
 @Component
 public class MongoWriteRetrier {
 
     private final MongoWriteRetryProperties properties;
+    private final MeterRegistry meterRegistry;
+    private final TokenBudget budget;
 
-    public MongoWriteRetrier(MongoWriteRetryProperties properties) {
+    public MongoWriteRetrier(MongoWriteRetryProperties properties, MeterRegistry meterRegistry) {
         this.properties = Objects.requireNonNull(properties, "properties must not be null");
+        this.meterRegistry = Objects.requireNonNull(meterRegistry, "meterRegistry must not be null");
+        this.budget = new TokenBudget(properties.getBudgetRatio(), properties.getBudgetBurst());
+    }
+
+    /**
+     * 相同設定與 metrics，但使用獨立的重試額度；供不斷重試的背景寫入使用，避免耗盡請求路徑的全域額度。
+     */
+    public MongoWriteRetrier withSeparateBudget() {
+        return new MongoWriteRetrier(properties, meterRegistry);
     }
 
     public <T> T execute(String failureMessage, Supplier<T> action) {
         Objects.requireNonNull(failureMessage, "failureMessage must not be null");
         Objects.requireNonNull(action, "action must not be null");
 
-        int maxAttempts = properties.getMaxAttempts();
-        RuntimeException lastException = null;
-
-        for (int attempt = 1; attempt <= maxAttempts; attempt++) {
+        budget.deposit();
+        Duration delay = properties.getBackoff();
+        for (int attempt = 1; ; attempt++) {
+            recordAttempt(attempt);
             try {
                 return action.get();
             } catch (RuntimeException ex) {
-                if (!isRetryable(ex)) {
-                    throw ex;
-                }
-                lastException = ex;
-                if (attempt == maxAttempts) {
-                    throw new MongoRawWriteException(failureMessage + " after %d attempts".formatted(attempt), lastException);
-                }
-                sleep(properties.getBackoff());
+                delay = planRetry(failureMessage, ex, attempt, delay);
+                sleep(delay);
             }
         }
+    }
+
+    /**
+     * 每次嘗試於 {@code executor} 上執行；重試前的等待由 {@link CompletableFuture#delayedExecutor} 排程，不會 park 任何 worker。
+     * 失敗時回傳的 future 以與 {@link #execute} 相同的例外完成。
+     */
+    public <T> CompletableFuture<T> executeAsync(String failureMessage, Supplier<T> action, Executor executor) {
+        Objects.requireNonNull(failureMessage, "failureMessage must not be null");
+        Objects.requireNonNull(action, "action must not be null");
+        Objects.requireNonNull(executor, "executor must not be null");
+
+        budget.deposit();
+        CompletableFuture<T> result = new CompletableFuture<>();
+        schedule(new AsyncAttempt<>(failureMessage, action, executor, result), 1, properties.getBackoff(), executor);
+        return result;
+    }
 
-        throw new MongoRawWriteException(failureMessage + " after %d attempts".formatted(maxAttempts), lastException);
+    private <T> void runAttempt(AsyncAttempt<T> call, int attempt, Duration previousDelay) {
+        if (call.result().isDone()) {
+            return;
+        }
+        recordAttempt(attempt);
+        try {
+            call.result().complete(call.action().get());
+        } catch (RuntimeException ex) {
+            Duration delay;
+            try {
+                delay = planRetry(call.failureMessage(), ex, attempt, previousDelay);
+            } catch (RuntimeException failure) {
+                call.result().completeExceptionally(failure);
+                return;
+            }
+            meterRegistry.timer(MetricsConfig.ASSET_MONGO_WRITE_RETRY_BACKOFF, "mode", "async").record(delay);
+            schedule(call, attempt + 1, delay,
+                    CompletableFuture.delayedExecutor(delay.toNanos(), TimeUnit.NANOSECONDS, call.executor()));
+        }
+    }
+
+    private <T> void schedule(AsyncAttempt<T> call, int attempt, Duration previousDelay, Executor executor) {
+        try {
+            executor.execute(() -> runAttempt(call, attempt, previousDelay));
+        } catch (RuntimeException ex) {
+            call.result().completeExceptionally(new MongoRawWriteException(call.failureMessage(), ex));
+        }
+    }
+
+    /**
+     * 回傳下次嘗試前的等待時間；不可重試、次數用盡或重試額度不足時丟出對應例外。
+     */
+    private Duration planRetry(String failureMessage, RuntimeException ex, int attempt, Duration previousDelay) {
+        if (!isRetryable(ex)) {
+            throw ex;
+        }
+        if (attempt >= properties.getMaxAttempts()) {
+            throw new MongoRawWriteException(failureMessage + " after %d attempts".formatted(attempt), ex);
+        }
+        if (!budget.tryAcquire()) {
+            meterRegistry.counter(MetricsConfig.ASSET_MONGO_WRITE_RETRY_BUDGET_EXHAUSTED).increment();
+            throw new MongoRawWriteException(failureMessage + " after %d attempts, retry budget exhausted".formatted(attempt), ex);
+        }
+        return nextDelay(previousDelay);
+    }
+
+    Duration nextDelay(Duration previousDelay) {
+        long baseNanos = properties.getBackoff().toNanos();
+        long capNanos = properties.getMaxBackoff().toNanos();
+        if (baseNanos <= 0 || capNanos <= 0) {
+            return Duration.ZERO;
+        }
+        long upperNanos = Math.max(baseNanos, Math.min(capNanos, previousDelay.toNanos() * 3));
+        long delayNanos = upperNanos > baseNanos
+                ? ThreadLocalRandom.current().nextLong(baseNanos, upperNanos + 1)
+                : baseNanos;
+        return Duration.ofNanos(Math.min(delayNanos, capNanos));
+    }
+
+    private void recordAttempt(int attempt) {
+        meterRegistry.counter(MetricsConfig.ASSET_MONGO_WRITE_ATTEMPTS, "attempt", attempt == 1 ? "first" : "retry").increment();
     }
 
     private boolean isRetryable(Throwable throwable) {
@@ -61,6 +154,7 @@ public class MongoWriteRetrier {
         if (backoff.isZero() || backoff.isNegative()) {
             return;
         }
+        meterRegistry.timer(MetricsConfig.ASSET_MONGO_WRITE_RETRY_BACKOFF, "mode", "sync").record(backoff);
         try {
             Thread.sleep(backoff.toMillis());
         } catch (InterruptedException interruptedException) {
@@ -68,4 +162,7 @@ public class MongoWriteRetrier {
             throw new MongoRawWriteException("Mongo write retry interrupted", interruptedException);
         }
     }
+
+    private record AsyncAttempt<T>(String failureMessage, Supplier<T> action, Executor executor, CompletableFuture<T> result) {
+    }
 }
@@ -0,0 +1,335 @@
+package com.poc.svc.assets.service.impl.support;
+
+import com.mongodb.MongoCommandException;
+import com.mongodb.MongoException;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.MongoDatabase;
+import com.mongodb.client.model.CreateCollectionOptions;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.IndexOptions;
+import com.mongodb.client.model.TimeSeriesGranularity;
+import com.mongodb.client.model.TimeSeriesOptions;
+import com.mongodb.client.result.DeleteResult;
+import com.poc.svc.assets.config.AssetsRawRetentionProperties;
+import com.poc.svc.assets.config.AssetsRawWriteProperties;
+import com.poc.svc.assets.config.MetricsConfig;
+import com.poc.svc.assets.dto.AssetSourceType;
+import com.poc.svc.assets.entity.BankAssetRawDocument;
+import com.poc.svc.assets.entity.InsuranceAssetRawDocument;
+import com.poc.svc.assets.entity.SecuritiesAssetRawDocument;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.bson.Document;
+import org.bson.conversions.Bson;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * raw collection 的保留策略（{@code assets.raw-retention}）：啟動時依來源設定 TTL 索引或 time-series collection，
+ * {@code ROLLOVER} 則週期性將過期文件搬至 archive collection；並定期以 {@code $collStats} 更新 collection / index 容量指標。
+ * 以最高順序執行，time-series collection 需在 {@code MongoIndexProvisioner} 建立索引（隱含建立一般 collection）前建立。
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class RawCollectionRetention implements ApplicationRunner, DisposableBean {
+
+    private static final Logger log = LoggerFactory.getLogger(RawCollectionRetention.class);
+    private static final String TIME_FIELD = "fetchedAt";
+    private static final String META_FIELD = "customerId";
+    private static final int INDEX_OPTIONS_CONFLICT = 85;
+    static final String TTL_INDEX_NAME = "fetchedAt_ttl";
+    private static final Map<AssetSourceType, Class<?>> RAW_ENTITIES = Map.of(
+            AssetSourceType.BANK, BankAssetRawDocument.class,
+            AssetSourceType.SECURITIES, SecuritiesAssetRawDocument.class,
+            AssetSourceType.INSURANCE, InsuranceAssetRawDocument.class
+    );
+
+    private final MongoTemplate mongoTemplate;
+    private final AssetsRawRetentionProperties properties;
+    private final MeterRegistry meterRegistry;
+    private final Map<AssetSourceType, String> collections = new EnumMap<>(AssetSourceType.class);
+    private final Map<String, CollectionStats> stats = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService scheduler;
+
+    public RawCollectionRetention(MongoTemplate mongoTemplate,
+                                  AssetsRawRetentionProperties properties,
+                                  AssetsRawWriteProperties rawWriteProperties,
+                                  MeterRegistry meterRegistry) {
+        this.mongoTemplate = Objects.requireNonNull(mongoTemplate, "mongoTemplate must not be null");
+        this.properties = Objects.requireNonNull(properties, "properties must not be null");
+        this.meterRegistry = Objects.requireNonNull(meterRegistry, "meterRegistry must not be null");
+        Objects.requireNonNull(rawWriteProperties, "rawWriteProperties must not be null");
+        requireUniqueIds(properties, rawWriteProperties.getMode());
+        for (AssetSourceType source : AssetSourceType.values()) {
+            collections.put(source, mongoTemplate.getCollectionName(RAW_ENTITIES.get(source)));
+        }
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "asset-raw-retention");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * time-series collection 沒有 {@code _id} 的 unique 索引，{@code GROUP_COMMIT} 與 {@code JOURNAL} 重送時卻以 duplicate key
+     * 判定文件已寫入；兩者併用會讓重試與 journal replay 重複寫入同一份文件，啟動時即拒絕。
+     */
+    static void requireUniqueIds(AssetsRawRetentionProperties properties, AssetsRawWriteProperties.Mode mode) {
+        if (!properties.isEnabled()
+                || (mode != AssetsRawWriteProperties.Mode.GROUP_COMMIT && mode != AssetsRawWriteProperties.Mode.JOURNAL)) {
+            return;
+        }
+        for (AssetSourceType source : AssetSourceType.values()) {
+            if (properties.policyFor(source).getStrategy() == AssetsRawRetentionProperties.Strategy.TIME_SERIES) {
+                throw new IllegalStateException("assets.raw-retention strategy TIME_SERIES for " + source
+                        + " cannot be combined with assets.raw-write.mode=" + mode
+                        + ": time-series collections have no unique _id index, so retried or replayed raw writes would be duplicated");
+            }
+        }
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (properties.isEnabled()) {
+            applyRetention();
+            long rolloverMillis = properties.getRolloverInterval().toMillis();
+            if (rolloverMillis > 0 && usesStrategy(AssetsRawRetentionProperties.Strategy.ROLLOVER)) {
+                scheduler.scheduleWithFixedDelay(this::rolloverSafely, rolloverMillis, rolloverMillis, TimeUnit.MILLISECONDS);
+            }
+        }
+        long statsMillis = properties.getStatsInterval().toMillis();
+        if (statsMillis > 0) {
+            registerGauges();
+            scheduler.scheduleWithFixedDelay(this::refreshStatsSafely, 0, statsMillis, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    @Override
+    public void destroy() {
+        scheduler.shutdownNow();
+    }
+
+    /**
+     * 套用各來源的 TTL / time-series 設定；失敗只記錄警告，不影響啟動。
+     */
+    void applyRetention() {
+        MongoDatabase database = mongoTemplate.getDb();
+        collections.forEach((source, collectionName) -> {
+            AssetsRawRetentionProperties.Policy policy = properties.policyFor(source);
+            try {
+                switch (policy.getStrategy()) {
+                    case TTL -> applyTtl(database, collectionName, policy.getRetention());
+                    case TIME_SERIES -> applyTimeSeries(database, collectionName, policy.getRetention());
+                    case NONE, ROLLOVER -> dropTtl(database, collectionName);
+                }
+                log.info("Raw retention source={} collection={} strategy={} retention={}",
+                        source, collectionName, policy.getStrategy(), policy.getRetention());
+            } catch (MongoException ex) {
+                log.warn("Raw retention could not be applied source={} collection={} strategy={} reason={}",
+                        source, collectionName, policy.getStrategy(), ex.getMessage());
+            }
+        });
+    }
+
+    /**
+     * 先將 {@code fetchedAt} 早於保留期限的文件以 {@code $merge}（已存在則保留）複製至 archive，再自 raw collection 刪除；
+     * 中途失敗時下次重跑不會產生重複。
+     */
+    void rollover() {
+        MongoDatabase database = mongoTemplate.getDb();
+        Instant now = Instant.now();
+        collections.forEach((source, collectionName) -> {
+            AssetsRawRetentionProperties.Policy policy = properties.policyFor(source);
+            if (policy.getStrategy() != AssetsRawRetentionProperties.Strategy.ROLLOVER) {
+                return;
+            }
+            Bson expired = Filters.lt(TIME_FIELD, Date.from(now.minus(policy.getRetention())));
+            String archive = archiveName(collectionName);
+            MongoCollection<Document> collection = database.getCollection(collectionName);
+            collection.aggregate(List.of(
+                    new Document("$match", expired),
+                    new Document("$merge", new Document("into", archive)
+                            .append("on", "_id")
+                            .append("whenMatched", "keepExisting")
+                            .append("whenNotMatched", "insert"))
+            )).toCollection();
+            DeleteResult deleted = collection.deleteMany(expired);
+            meterRegistry.counter(MetricsConfig.ASSET_RAW_RETENTION_ARCHIVED, "collection", collectionName)
+                    .increment(deleted.getDeletedCount());
+            if (policy.isCompactAfterRollover() && deleted.getDeletedCount() > 0) {
+                database.runCommand(new Document("compact", collectionName));
+            }
+            log.info("Raw rollover collection={} archive={} archived={}", collectionName, archive, deleted.getDeletedCount());
+        });
+    }
+
+    void refreshStats() {
+        MongoDatabase database = mongoTemplate.getDb();
+        for (String collectionName : statsCollections()) {
+            try {
+                Document result = database.getCollection(collectionName)
+                        .aggregate(List.of(new Document("$collStats", new Document("storageStats", new Document()))))
+                        .first();
+                Document storage = result == null ? null : result.get("storageStats", Document.class);
+                if (storage != null) {
+                    CollectionStats current = stats.computeIfAbsent(collectionName, ignored -> new CollectionStats());
+                    current.dataSize().set(longValue(storage.get("size")));
+                    current.indexSize().set(longValue(storage.get("totalIndexSize")));
+                    current.documents().set(longValue(storage.get("count")));
+                }
+            } catch (MongoException ex) {
+                // collection 尚未建立時 $collStats 可能失敗，保留前次數值
+                log.debug("Raw collection stats unavailable collection={} reason={}", collectionName, ex.getMessage());
+            }
+        }
+    }
+
+    private void applyTtl(MongoDatabase database, String collectionName, Duration retention) {
+        MongoCollection<Document> collection = database.getCollection(collectionName);
+        long seconds = retention.toSeconds();
+        if (isTimeSeries(database, collectionName)) {
+            database.runCommand(new Document("collMod", collectionName).append("expireAfterSeconds", seconds));
+            return;
+        }
+        try {
+            collection.createIndex(new Document(TIME_FIELD, 1),
+                    new IndexOptions().name(TTL_INDEX_NAME).expireAfter(seconds, TimeUnit.SECONDS));
+        } catch (MongoCommandException ex) {
+            if (ex.getErrorCode() != INDEX_OPTIONS_CONFLICT) {
+                throw ex;
+            }
+            // 保留期限變更時同名索引的 expireAfterSeconds 不同，改以 collMod 更新
+            database.runCommand(new Document("collMod", collectionName)
+                    .append("index", new Document("name", TTL_INDEX_NAME).append("expireAfterSeconds", seconds)));
+        }
+    }
+
+    private void applyTimeSeries(MongoDatabase database, String collectionName, Duration retention) {
+        Document info = collectionInfo(database, collectionName);
+        if (info == null) {
+            database.createCollection(collectionName, new CreateCollectionOptions()
+                    .timeSeriesOptions(new TimeSeriesOptions(TIME_FIELD)
+                            .metaField(META_FIELD)
+                            .granularity(TimeSeriesGranularity.SECONDS))
+                    .expireAfter(retention.toSeconds(), TimeUnit.SECONDS));
+            return;
+        }
+        if (!"timeseries".equals(info.getString("type"))) {
+            log.warn("Raw collection {} already exists as a regular collection, applying TTL instead of time-series", collectionName);
+        }
+        applyTtl(database, collectionName, retention);
+    }
+
+    private void dropTtl(MongoDatabase database, String collectionName) {
+        if (collectionInfo(database, collectionName) == null || isTimeSeries(database, collectionName)) {
+            return;
+        }
+        for (Document index : database.getCollection(collectionName).listIndexes()) {
+            if (TTL_INDEX_NAME.equals(index.getString("name"))) {
+                database.getCollection(collectionName).dropIndex(TTL_INDEX_NAME);
+                log.info("Raw retention dropped TTL index collection={}", collectionName);
+            }
+        }
+    }
+
+    private boolean isTimeSeries(MongoDatabase database, String collectionName) {
+        Document info = collectionInfo(database, collectionName);
+        return info != null && "timeseries".equals(info.getString("type"));
+    }
+
+    private Document collectionInfo(MongoDatabase database, String collectionName) {
+        return database.listCollections().filter(Filters.eq("name", collectionName)).first();
+    }
+
+    private void registerGauges() {
+        for (String collectionName : statsCollections()) {
+            CollectionStats current = stats.computeIfAbsent(collectionName, ignored -> new CollectionStats());
+            Gauge.builder(MetricsConfig.ASSET_RAW_COLLECTION_SIZE, current.dataSize(), AtomicLong::get)
+                    .description("raw collection 資料大小 (bytes，未壓縮)")
+                    .baseUnit("bytes")
+                    .tag("collection", collectionName)
+                    .register(meterRegistry);
+            Gauge.builder(MetricsConfig.ASSET_RAW_COLLECTION_INDEX_SIZE, current.indexSize(), AtomicLong::get)
+                    .description("raw collection 索引總大小 (bytes)")
+                    .baseUnit("bytes")
+                    .tag("collection", collectionName)
+                    .register(meterRegistry);
+            Gauge.builder(MetricsConfig.ASSET_RAW_COLLECTION_DOCUMENTS, current.documents(), AtomicLong::get)
+                    .description("raw collection 文件數")
+                    .tag("collection", collectionName)
+                    .register(meterRegistry);
+        }
+    }
+
+    private List<String> statsCollections() {
+        List<String> names = new ArrayList<>(collections.values());
+        if (properties.isEnabled()) {
+            collections.forEach((source, collectionName) -> {
+                if (properties.policyFor(source).getStrategy() == AssetsRawRetentionProperties.Strategy.ROLLOVER) {
+                    names.add(archiveName(collectionName));
+                }
+            });
+        }
+        return names;
+    }
+
+    private boolean usesStrategy(AssetsRawRetentionProperties.Strategy strategy) {
+        return collections.keySet().stream().anyMatch(source -> properties.policyFor(source).getStrategy() == strategy);
+    }
+
+    private String archiveName(String collectionName) {
+        return collectionName + properties.getArchiveSuffix();
+    }
+
+    private void rolloverSafely() {
+        try {
+            rollover();
+        } catch (RuntimeException ex) {
+            log.warn("Raw rollover failed reason={}", ex.getMessage(), ex);
+        }
+    }
+
+    private void refreshStatsSafely() {
+        try {
+            refreshStats();
+        } catch (RuntimeException ex) {
+            log.warn("Raw collection stats refresh failed reason={}", ex.getMessage());
+        }
+    }
+
+    private static long longValue(Object value) {
+        return value instanceof Number number ? number.longValue() : 0L;
+    }
+
+    Map<String, CollectionStats> stats() {
+        return stats;
+    }
+
+    record CollectionStats(AtomicLong dataSize, AtomicLong indexSize, AtomicLong documents) {
+
+        CollectionStats() {
+            this(new AtomicLong(), new AtomicLong(), new AtomicLong());
+        }
+    }
+}
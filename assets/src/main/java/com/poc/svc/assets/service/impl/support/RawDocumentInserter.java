@@ -0,0 +1,236 @@
+package com.poc.svc.assets.service.impl.support;
+
+import com.poc.svc.assets.config.AssetsRawWriteProperties;
+import com.poc.svc.assets.config.MetricsConfig;
+import com.poc.svc.assets.entity.RawAssetDocument;
+import com.poc.svc.assets.entity.codec.AssetCodecs;
+import com.poc.svc.assets.entity.payload.CompressedBsonPayload;
+import com.poc.svc.assets.entity.payload.RawBsonPayload;
+import com.poc.svc.assets.exception.MongoRawWriteException;
+import com.poc.svc.assets.service.RawWriteSink;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.bson.BsonDocument;
+import org.bson.BsonValue;
+import org.bson.Document;
+import org.bson.RawBsonDocument;
+import org.bson.codecs.BsonDocumentCodec;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * 直接以 driver 寫入已組好的 BSON 文件（例如內含 {@code RawBsonDocument} payload），
+ * 略過 {@code MappingMongoConverter} 的反射轉換；文件形狀與 repository 寫入一致（含 {@code _class}）。
+ * {@code assets.raw-write.mode=GROUP_COMMIT} 時交由 {@link GroupCommitRawWriter} 與其他請求合併寫入；
+ * {@code PER_AGGREGATION} 時由 {@link #deferEntity} 將文件登記至呼叫端傳入的 {@link RawWriteSink}，待同次聚合所有來源完成後寫入；
+ * {@code JOURNAL} 時附加至 {@link RawWriteJournal} 即回傳，由背景 drainer 寫入。
+ * {@code assets.raw-write.conversion=CODEC} 時 entity 以手寫 codec 編碼。
+ * {@code assets.raw-write.payload.format=COMPRESSED} 時 payload 於此壓縮，寫入路徑之後只看到壓縮後的文件。
+ * 寫入一律以 future 回傳，重試與等待 group commit 都不會阻塞呼叫端執行緒。
+ */
+@Component
+public class RawDocumentInserter {
+
+    private static final String CLASS_KEY = "_class";
+    private static final String PAYLOAD_KEY = "payload";
+
+    private final MongoTemplate mongoTemplate;
+    private final MongoWriteRetrier mongoWriteRetrier;
+    private final AssetsRawWriteProperties properties;
+    private final GroupCommitRawWriter groupCommitRawWriter;
+    private final RawWriteJournal rawWriteJournal;
+    private final MeterRegistry meterRegistry;
+    private final Executor executor;
+
+    public RawDocumentInserter(MongoTemplate mongoTemplate,
+                               MongoWriteRetrier mongoWriteRetrier,
+                               AssetsRawWriteProperties properties,
+                               GroupCommitRawWriter groupCommitRawWriter,
+                               RawWriteJournal rawWriteJournal,
+                               MeterRegistry meterRegistry,
+                               @Qualifier("assetAsyncExecutor") Executor executor) {
+        this.mongoTemplate = Objects.requireNonNull(mongoTemplate, "mongoTemplate must not be null");
+        this.mongoWriteRetrier = Objects.requireNonNull(mongoWriteRetrier, "mongoWriteRetrier must not be null");
+        this.properties = Objects.requireNonNull(properties, "properties must not be null");
+        this.groupCommitRawWriter = Objects.requireNonNull(groupCommitRawWriter, "groupCommitRawWriter must not be null");
+        this.rawWriteJournal = Objects.requireNonNull(rawWriteJournal, "rawWriteJournal must not be null");
+        this.meterRegistry = Objects.requireNonNull(meterRegistry, "meterRegistry must not be null");
+        this.executor = Objects.requireNonNull(executor, "executor must not be null");
+    }
+
+    /**
+     * 是否所有 raw 寫入（含 Map payload）都應經由本類別，而非 repository.save。
+     */
+    public boolean handlesEntities() {
+        return properties.getMode() != AssetsRawWriteProperties.Mode.SINGLE
+                || properties.getConversion() == AssetsRawWriteProperties.Conversion.CODEC
+                || properties.getPayload().getFormat() == AssetsRawWriteProperties.Payload.Format.COMPRESSED;
+    }
+
+    /**
+     * 將 entity 轉為文件後寫入並回傳帶有 {@code _id} 的 entity，文件形狀與 repository.save 相同。
+     * {@link RawBsonPayload} 直接沿用原始 bytes，其餘欄位以手寫 codec 編碼；
+     * 否則 {@code assets.raw-write.conversion=CODEC} 時以手寫 codec 編碼，其餘使用 {@code MappingMongoConverter}。
+     */
+    public <T extends RawAssetDocument<T>> CompletableFuture<T> insertEntity(T entity, String failureMessage) {
+        Objects.requireNonNull(entity, "entity must not be null");
+        return insert(entity.getClass(), toDocument(entity), failureMessage).thenApply(entity::withId);
+    }
+
+    /**
+     * 與 {@link #insertEntity} 相同的文件形狀，但只登記至 {@code sink}，回傳帶有預先產生 {@code _id} 的 entity。
+     */
+    public <T extends RawAssetDocument<T>> T deferEntity(T entity, String failureMessage, RawWriteSink sink) {
+        Objects.requireNonNull(entity, "entity must not be null");
+        Objects.requireNonNull(sink, "sink must not be null");
+        Document document = toDocument(entity);
+        String collectionName = prepare(entity.getClass(), document);
+        sink.add(collectionName, document, failureMessage);
+        return entity.withId(document.getObjectId("_id").toHexString());
+    }
+
+    private <T extends RawAssetDocument<T>> Document toDocument(T entity) {
+        Document document;
+        if (entity.payload() instanceof RawBsonPayload rawPayload) {
+            document = AssetCodecs.toDocument(entity.withPayload(null));
+            document.put(PAYLOAD_KEY, rawPayload.raw());
+        } else if (properties.getConversion() == AssetsRawWriteProperties.Conversion.CODEC && AssetCodecs.supports(entity.getClass())) {
+            document = AssetCodecs.toDocument(entity);
+        } else {
+            document = new Document();
+            mongoTemplate.getConverter().write(entity, document);
+        }
+        return document;
+    }
+
+    /**
+     * 寫入，完成值為 {@code _id}；id 於第一次嘗試前產生，重試時沿用同一個 id。
+     */
+    public CompletableFuture<String> insert(Class<?> entityType, Document document, String failureMessage) {
+        Objects.requireNonNull(entityType, "entityType must not be null");
+        Objects.requireNonNull(document, "document must not be null");
+        String collectionName = prepare(entityType, document);
+        String id = document.getObjectId("_id").toHexString();
+        if (properties.getMode() == AssetsRawWriteProperties.Mode.JOURNAL) {
+            try {
+                rawWriteJournal.append(collectionName, document, failureMessage);
+            } catch (RuntimeException ex) {
+                return CompletableFuture.failedFuture(ex);
+            }
+            return CompletableFuture.completedFuture(id);
+        }
+        if (properties.getMode() == AssetsRawWriteProperties.Mode.GROUP_COMMIT) {
+            return awaitGroupCommit(groupCommitRawWriter.submit(collectionName, document, failureMessage), failureMessage);
+        }
+        return mongoWriteRetrier.executeAsync(
+                failureMessage,
+                () -> mongoTemplate.execute(collectionName, collection -> collection.insertOne(document)),
+                executor
+        ).thenApply(result -> id);
+    }
+
+    /**
+     * 產生 {@code _id}、補上 {@code _class} 並依設定壓縮 payload，回傳目標 collection。
+     */
+    private String prepare(Class<?> entityType, Document document) {
+        document.put("_id", new ObjectId());
+        document.putIfAbsent(CLASS_KEY, entityType.getName());
+        String collectionName = mongoTemplate.getCollectionName(entityType);
+        if (properties.getPayload().getFormat() == AssetsRawWriteProperties.Payload.Format.COMPRESSED) {
+            compressPayload(collectionName, document);
+        }
+        return collectionName;
+    }
+
+    /**
+     * 完整 payload 壓縮後存於 {@code payloadCompressed}；{@code payload} 只保留 {@code retained-keys}，沒有保留欄位時移除。
+     */
+    private void compressPayload(String collectionName, Document document) {
+        Object payload = document.get(PAYLOAD_KEY);
+        if (!(payload instanceof Map<?, ?>) && !(payload instanceof BsonDocument)) {
+            return;
+        }
+        AssetsRawWriteProperties.Payload settings = properties.getPayload();
+        CompressedBsonPayload compressed;
+        RawBsonDocument raw;
+        if (payload instanceof CompressedBsonPayload existing) {
+            compressed = existing;
+            raw = existing.decode().raw();
+        } else {
+            raw = toRawBson(payload);
+            compressed = CompressedBsonPayload.compress(raw, settings.getLevel());
+        }
+
+        Document retained = new Document();
+        for (String key : settings.getRetainedKeys()) {
+            BsonValue value = raw.get(key);
+            if (value != null) {
+                retained.put(key, value);
+            }
+        }
+        if (retained.isEmpty()) {
+            document.remove(PAYLOAD_KEY);
+        } else {
+            document.put(PAYLOAD_KEY, retained);
+        }
+        document.put(CompressedBsonPayload.FIELD, compressed.toDocument());
+
+        payloadSize(collectionName, "original").record(compressed.rawLength());
+        payloadSize(collectionName, "stored").record(compressed.compressedLength());
+    }
+
+    private static RawBsonDocument toRawBson(Object payload) {
+        if (payload instanceof RawBsonPayload rawPayload) {
+            return rawPayload.raw();
+        }
+        if (payload instanceof RawBsonDocument raw) {
+            return raw;
+        }
+        if (payload instanceof BsonDocument bson) {
+            return new RawBsonDocument(bson, new BsonDocumentCodec());
+        }
+        Document copy = payload instanceof Document document ? document : new Document(castMap(payload));
+        return new RawBsonDocument(copy, AssetCodecs.REGISTRY.get(Document.class));
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, Object> castMap(Object payload) {
+        return (Map<String, Object>) payload;
+    }
+
+    private DistributionSummary payloadSize(String collectionName, String form) {
+        return DistributionSummary.builder(MetricsConfig.ASSET_RAW_PAYLOAD_BYTES)
+                .description("raw payload 壓縮前後的 BSON bytes")
+                .baseUnit("bytes")
+                .tag("collection", collectionName)
+                .tag("form", form)
+                .register(meterRegistry);
+    }
+
+    private CompletableFuture<String> awaitGroupCommit(CompletableFuture<String> result, String failureMessage) {
+        Duration writeTimeout = properties.getGroupCommit().getWriteTimeout();
+        return result.orTimeout(writeTimeout.toNanos(), TimeUnit.NANOSECONDS)
+                .exceptionallyCompose(error -> {
+                    Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+                    if (cause instanceof TimeoutException) {
+                        return CompletableFuture.failedFuture(new MongoRawWriteException(
+                                failureMessage + ": group commit did not complete within " + writeTimeout, cause));
+                    }
+                    if (cause instanceof RuntimeException) {
+                        return CompletableFuture.failedFuture(cause);
+                    }
+                    return CompletableFuture.failedFuture(new MongoRawWriteException(failureMessage, cause));
+                });
+    }
+}
@@ -0,0 +1,581 @@
+package com.poc.svc.assets.service.impl.support;
+
+import com.mongodb.ErrorCategory;
+import com.mongodb.MongoBulkWriteException;
+import com.mongodb.MongoClientSettings;
+import com.mongodb.bulk.BulkWriteError;
+import com.mongodb.client.model.InsertManyOptions;
+import com.poc.svc.assets.config.AssetsRawWriteProperties;
+import com.poc.svc.assets.config.MetricsConfig;
+import com.poc.svc.assets.exception.MongoRawWriteException;
+import com.poc.svc.assets.service.RawWriteBarrier;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.bson.BsonValue;
+import org.bson.ByteBuf;
+import org.bson.Document;
+import org.bson.RawBsonDocument;
+import org.bson.codecs.Codec;
+import org.bson.codecs.configuration.CodecRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * Write-behind raw journal（{@code assets.raw-write.mode=JOURNAL}）：raw 文件附加至本機 memory-mapped segment 後即回傳，
+ * 背景 drainer 依 collection 以 unordered insertMany 批次寫入 Mongo；重啟時重放尚未 drain 的紀錄（id 預先產生，重放為冪等）。
+ * <p>
+ * segment 格式：開頭 8 bytes 為已 drain 的 offset，其後為紀錄 {@code [int bodyLength][int crc32][body]}，
+ * body 為 {@code [short nameLength][collectionName UTF-8][BSON document]}。檔案建立時以 0 填滿，bodyLength 最後寫入，
+ * 因此 recovery 讀到 0 或 CRC 不符即代表已到寫入尾端。
+ * <p>
+ * 尚未 drain 的紀錄以文件 {@code _id} 對應其 sequence，聚合只等待自己文件中最大的 sequence；
+ * 被 Mongo 拒絕的文件保留最近 {@value #REJECTED_RETAINED} 筆，讓之後才等待的聚合仍能得知失敗。
+ */
+@Component
+public class RawWriteJournal implements RawWriteBarrier, DisposableBean {
+
+    private static final Logger log = LoggerFactory.getLogger(RawWriteJournal.class);
+    private static final String SEGMENT_PREFIX = "segment-";
+    private static final String SEGMENT_SUFFIX = ".journal";
+    private static final int SEGMENT_HEADER_BYTES = Long.BYTES;
+    private static final int RECORD_HEADER_BYTES = Integer.BYTES * 2;
+    private static final long IDLE_POLL_MILLIS = 100;
+    private static final int REJECTED_RETAINED = 10_000;
+
+    private final MongoTemplate mongoTemplate;
+    private final MongoWriteRetrier mongoWriteRetrier;
+    private final AssetsRawWriteProperties.Journal settings;
+    private final MeterRegistry meterRegistry;
+    private final Codec<Document> documentCodec;
+    private final boolean enabled;
+    private final int segmentCapacity;
+    private final BlockingQueue<JournalEntry> queue = new LinkedBlockingQueue<>();
+    private final ConcurrentSkipListMap<Long, CompletableFuture<Void>> waiters = new ConcurrentSkipListMap<>();
+    private final Map<String, Long> pendingSequences = new ConcurrentHashMap<>();
+    private final Map<String, MongoRawWriteException> rejected = Collections.synchronizedMap(
+            new LinkedHashMap<>(16, 0.75f, false) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, MongoRawWriteException> eldest) {
+                    return size() > REJECTED_RETAINED;
+                }
+            });
+    private final Object appendLock = new Object();
+    private final Thread drainer;
+    private Segment active;
+    private long nextSegmentIndex;
+    private volatile long appendedSequence;
+    private volatile long drainedSequence;
+    private volatile boolean running;
+
+    @Autowired
+    public RawWriteJournal(MongoTemplate mongoTemplate,
+                           MongoWriteRetrier mongoWriteRetrier,
+                           AssetsRawWriteProperties properties,
+                           MeterRegistry meterRegistry) {
+        this(mongoTemplate, mongoWriteRetrier, properties, meterRegistry,
+                properties.getMode() == AssetsRawWriteProperties.Mode.JOURNAL
+                        ? mongoTemplate.getDb().getCodecRegistry()
+                        : MongoClientSettings.getDefaultCodecRegistry(),
+                true);
+    }
+
+    RawWriteJournal(MongoTemplate mongoTemplate,
+                    MongoWriteRetrier mongoWriteRetrier,
+                    AssetsRawWriteProperties properties,
+                    MeterRegistry meterRegistry,
+                    CodecRegistry codecRegistry,
+                    boolean startDrainer) {
+        this.mongoTemplate = Objects.requireNonNull(mongoTemplate, "mongoTemplate must not be null");
+        // drainer 會持續重試直到寫入，使用獨立額度以免耗盡請求路徑的重試額度
+        this.mongoWriteRetrier = Objects.requireNonNull(mongoWriteRetrier, "mongoWriteRetrier must not be null").withSeparateBudget();
+        this.settings = Objects.requireNonNull(properties, "properties must not be null").getJournal();
+        this.meterRegistry = Objects.requireNonNull(meterRegistry, "meterRegistry must not be null");
+        this.documentCodec = Objects.requireNonNull(codecRegistry, "codecRegistry must not be null").get(Document.class);
+        this.enabled = properties.getMode() == AssetsRawWriteProperties.Mode.JOURNAL;
+        long segmentBytes = settings.getSegmentSize().toBytes();
+        if (segmentBytes < 1024 || segmentBytes > Integer.MAX_VALUE) {
+            throw new IllegalStateException("assets.raw-write.journal.segment-size must be between 1KB and 2GB but was " + settings.getSegmentSize());
+        }
+        this.segmentCapacity = (int) segmentBytes;
+        this.drainer = new Thread(this::runDrainLoop, "asset-raw-journal-drainer");
+        this.drainer.setDaemon(true);
+        if (!enabled) {
+            return;
+        }
+        Gauge.builder(MetricsConfig.ASSET_RAW_JOURNAL_BACKLOG, this, RawWriteJournal::backlog)
+                .description("已附加至 journal、尚未寫入 Mongo 的 raw 文件數")
+                .register(meterRegistry);
+        recover();
+        running = true;
+        if (startDrainer) {
+            drainer.start();
+        }
+        log.info("Raw write journal enabled directory={} segmentSize={} recovered={}",
+                settings.getDirectory().toAbsolutePath(), settings.getSegmentSize(), appendedSequence);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * 附加至 journal 後即回傳；文件於 drain 後才會出現在 Mongo，需要讀取時先以其 {@code _id} 等待 {@link #awaitPersisted}。
+     *
+     * @param document 已含 {@code _id} 的文件
+     * @return 此紀錄的 sequence；drain 進度達到此值即代表已寫入
+     */
+    public long append(String collectionName, Document document, String failureMessage) {
+        Objects.requireNonNull(collectionName, "collectionName must not be null");
+        Objects.requireNonNull(document, "document must not be null");
+        RawBsonDocument raw;
+        try {
+            raw = new RawBsonDocument(document, documentCodec);
+        } catch (RuntimeException ex) {
+            throw new MongoRawWriteException(failureMessage, ex);
+        }
+        byte[] body = encodeBody(collectionName, raw);
+        CRC32 crc = new CRC32();
+        crc.update(body);
+        int recordBytes = RECORD_HEADER_BYTES + body.length;
+
+        synchronized (appendLock) {
+            if (!running) {
+                throw new MongoRawWriteException(failureMessage + ": raw write journal is not running", null);
+            }
+            Segment segment = segmentFor(recordBytes, failureMessage);
+            int offset = segment.writeOffset;
+            segment.buffer.putInt(offset + Integer.BYTES, (int) crc.getValue());
+            segment.buffer.put(offset + RECORD_HEADER_BYTES, body);
+            segment.buffer.putInt(offset, body.length);
+            if (settings.isForceOnAppend()) {
+                segment.buffer.force(offset, recordBytes);
+            }
+            segment.writeOffset = offset + recordBytes;
+            long sequence = appendedSequence + 1;
+            appendedSequence = sequence;
+            pendingSequences.put(idOf(raw), sequence);
+            queue.add(new JournalEntry(segment, segment.writeOffset, sequence, collectionName, raw));
+            return sequence;
+        }
+    }
+
+    /**
+     * 只等待 {@code payloadRefIds} 中最大的 sequence；已 drain（不在 pending 中）的文件不需等待，但仍檢查是否被拒絕。
+     */
+    @Override
+    public CompletableFuture<Void> awaitPersisted(Collection<String> payloadRefIds) {
+        Objects.requireNonNull(payloadRefIds, "payloadRefIds must not be null");
+        long target = 0;
+        for (String id : payloadRefIds) {
+            Long sequence = pendingSequences.get(id);
+            if (sequence != null) {
+                target = Math.max(target, sequence);
+            }
+        }
+        return awaitSequence(target).thenRun(() -> {
+            for (String id : payloadRefIds) {
+                MongoRawWriteException failure = rejected.get(id);
+                if (failure != null) {
+                    throw failure;
+                }
+            }
+        });
+    }
+
+    /**
+     * 等待目前已附加的所有紀錄（含 recovery 重放）drain 完成。
+     */
+    CompletableFuture<Void> awaitBacklog() {
+        return awaitSequence(appendedSequence);
+    }
+
+    private CompletableFuture<Void> awaitSequence(long target) {
+        if (drainedSequence >= target) {
+            return CompletableFuture.completedFuture(null);
+        }
+        CompletableFuture<Void> waiter = waiters.computeIfAbsent(target, ignored -> new CompletableFuture<>());
+        // drainer 可能在登記前已越過 target
+        if (drainedSequence >= target && waiters.remove(target, waiter)) {
+            waiter.complete(null);
+        }
+        // copy() 讓個別呼叫者逾時時不影響同一 target 的其他等待者
+        return waiter.copy();
+    }
+
+    long backlog() {
+        return appendedSequence - drainedSequence;
+    }
+
+    private void runDrainLoop() {
+        while (running) {
+            try {
+                JournalEntry first = queue.poll(IDLE_POLL_MILLIS, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                List<JournalEntry> batch = new ArrayList<>(settings.getMaxBatchSize());
+                batch.add(first);
+                long deadline = System.nanoTime() + settings.getMaxDelay().toNanos();
+                while (batch.size() < settings.getMaxBatchSize()) {
+                    long remaining = deadline - System.nanoTime();
+                    JournalEntry next = remaining > 0 ? queue.poll(remaining, TimeUnit.NANOSECONDS) : queue.poll();
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+                drain(batch);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                break;
+            } catch (RuntimeException ex) {
+                log.error("Raw write journal drain loop failed", ex);
+            }
+        }
+    }
+
+    /**
+     * 寫入整批後才確認；任一 collection 於停止時仍未寫入則整批不確認，留待下次啟動重放。
+     */
+    private void drain(List<JournalEntry> batch) {
+        Map<String, List<JournalEntry>> byCollection = new LinkedHashMap<>();
+        for (JournalEntry entry : batch) {
+            byCollection.computeIfAbsent(entry.collectionName(), ignored -> new ArrayList<>()).add(entry);
+        }
+        Timer.Sample sample = Timer.start(meterRegistry);
+        for (Map.Entry<String, List<JournalEntry>> group : byCollection.entrySet()) {
+            if (!writeUntilAccepted(group.getKey(), group.getValue())) {
+                return;
+            }
+        }
+        sample.stop(meterRegistry.timer(MetricsConfig.ASSET_RAW_JOURNAL_DRAIN_LATENCY));
+        acknowledge(batch);
+    }
+
+    private boolean writeUntilAccepted(String collectionName, List<JournalEntry> entries) {
+        while (true) {
+            try {
+                mongoWriteRetrier.execute(
+                        "Failed to drain %d journaled raw documents into %s".formatted(entries.size(), collectionName),
+                        () -> insertUnordered(collectionName, entries)
+                );
+                return true;
+            } catch (RuntimeException ex) {
+                if (!running) {
+                    log.warn("Raw write journal stopped before draining {} documents into {}, they will be replayed on restart",
+                            entries.size(), collectionName);
+                    return false;
+                }
+                log.error("Raw write journal drain into {} failed, retrying in {}", collectionName, settings.getRetryBackoff(), ex);
+                if (!sleep(settings.getRetryBackoff())) {
+                    return false;
+                }
+            }
+        }
+    }
+
+    /**
+     * duplicate key 代表先前（含 crash 前）已寫入；其他單筆錯誤無法透過重試修復，記錄為 rejected（等待該文件的聚合以失敗結束）
+     * 後視為已處理，避免阻塞後續紀錄。
+     */
+    private Void insertUnordered(String collectionName, List<JournalEntry> entries) {
+        List<RawBsonDocument> documents = entries.stream().map(JournalEntry::document).toList();
+        try {
+            mongoTemplate.getCollection(collectionName)
+                    .withDocumentClass(RawBsonDocument.class)
+                    .insertMany(documents, new InsertManyOptions().ordered(false));
+        } catch (MongoBulkWriteException ex) {
+            if (ex.getWriteConcernError() != null) {
+                throw ex;
+            }
+            for (BulkWriteError error : ex.getWriteErrors()) {
+                if (ErrorCategory.fromErrorCode(error.getCode()) != ErrorCategory.DUPLICATE_KEY) {
+                    String id = idOf(documents.get(error.getIndex()));
+                    meterRegistry.counter(MetricsConfig.ASSET_RAW_JOURNAL_REJECTED, "collection", collectionName).increment();
+                    log.error("Raw write journal dropped document {} rejected by {} code={} message={}",
+                            id, collectionName, error.getCode(), error.getMessage());
+                    rejected.put(id, new MongoRawWriteException(
+                            "Raw document %s was rejected by %s".formatted(id, collectionName),
+                            new IllegalStateException("code=%d message=%s".formatted(error.getCode(), error.getMessage()))));
+                }
+            }
+        }
+        return null;
+    }
+
+    private void acknowledge(List<JournalEntry> batch) {
+        Segment current = null;
+        int drainedOffset = 0;
+        for (JournalEntry entry : batch) {
+            if (current != null && current != entry.segment()) {
+                current.markDrained(drainedOffset);
+            }
+            current = entry.segment();
+            drainedOffset = entry.endOffset();
+        }
+        current.markDrained(drainedOffset);
+
+        long sequence = batch.get(batch.size() - 1).sequence();
+        drainedSequence = sequence;
+        ConcurrentNavigableMap<Long, CompletableFuture<Void>> reached = waiters.headMap(sequence, true);
+        reached.forEach((target, waiter) -> {
+            if (waiters.remove(target, waiter)) {
+                waiter.complete(null);
+            }
+        });
+        // drainedSequence 更新後才移除：awaitPersisted 查無 pending 時必定已涵蓋於 drain 進度內
+        for (JournalEntry entry : batch) {
+            pendingSequences.remove(idOf(entry.document()), entry.sequence());
+        }
+    }
+
+    private static String idOf(RawBsonDocument document) {
+        BsonValue id = document.get("_id");
+        if (id == null) {
+            return "";
+        }
+        return id.isObjectId() ? id.asObjectId().getValue().toHexString() : id.toString();
+    }
+
+    private Segment segmentFor(int recordBytes, String failureMessage) {
+        if (SEGMENT_HEADER_BYTES + recordBytes > segmentCapacity) {
+            throw new MongoRawWriteException(failureMessage, new IllegalArgumentException(
+                    "raw document of %d bytes exceeds journal segment size %s".formatted(recordBytes, settings.getSegmentSize())));
+        }
+        if (active != null && active.writeOffset + recordBytes <= segmentCapacity) {
+            return active;
+        }
+        if (active != null) {
+            active.seal(active.writeOffset);
+        }
+        try {
+            active = Segment.create(segmentPath(nextSegmentIndex++), segmentCapacity);
+        } catch (IOException ex) {
+            active = null;
+            throw new MongoRawWriteException(failureMessage, ex);
+        }
+        return active;
+    }
+
+    /**
+     * 依 segment 順序讀取自上次 drain 位置之後的完整紀錄並排入 drainer；遇到 0 長度、截斷或 CRC 不符即視為該 segment 結尾。
+     */
+    private void recover() {
+        long startNanos = System.nanoTime();
+        List<Path> files;
+        try {
+            Files.createDirectories(settings.getDirectory());
+            try (Stream<Path> listing = Files.list(settings.getDirectory())) {
+                files = listing.filter(RawWriteJournal::isSegmentFile).sorted().toList();
+            }
+        } catch (IOException ex) {
+            throw new IllegalStateException("Unable to open raw write journal directory " + settings.getDirectory(), ex);
+        }
+        for (Path file : files) {
+            nextSegmentIndex = Math.max(nextSegmentIndex, segmentIndex(file) + 1);
+            Segment segment;
+            try {
+                segment = Segment.open(file);
+            } catch (IOException ex) {
+                throw new IllegalStateException("Unable to open raw write journal segment " + file, ex);
+            }
+            int offset = segment.drainedOffset;
+            int recovered = 0;
+            while (offset + RECORD_HEADER_BYTES <= segment.buffer.capacity()) {
+                int bodyLength = segment.buffer.getInt(offset);
+                int end = offset + RECORD_HEADER_BYTES + bodyLength;
+                if (bodyLength <= 0 || end > segment.buffer.capacity()) {
+                    break;
+                }
+                byte[] body = new byte[bodyLength];
+                segment.buffer.get(offset + RECORD_HEADER_BYTES, body);
+                CRC32 crc = new CRC32();
+                crc.update(body);
+                if ((int) crc.getValue() != segment.buffer.getInt(offset + Integer.BYTES)) {
+                    log.warn("Raw write journal segment {} has a torn record at offset {}, ignoring the rest", file, offset);
+                    break;
+                }
+                appendedSequence++;
+                queue.add(decodeBody(segment, end, appendedSequence, body));
+                recovered++;
+                offset = end;
+            }
+            segment.writeOffset = offset;
+            segment.seal(offset);
+            if (recovered > 0) {
+                log.info("Raw write journal segment {} has {} undrained documents to replay", file.getFileName(), recovered);
+            }
+        }
+        log.info("Raw write journal recovery scanned {} segments in {}ms", files.size(),
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos));
+    }
+
+    private byte[] encodeBody(String collectionName, RawBsonDocument raw) {
+        byte[] name = collectionName.getBytes(StandardCharsets.UTF_8);
+        ByteBuf bson = raw.getByteBuffer();
+        byte[] body = new byte[Short.BYTES + name.length + bson.remaining()];
+        body[0] = (byte) (name.length >>> 8);
+        body[1] = (byte) name.length;
+        System.arraycopy(name, 0, body, Short.BYTES, name.length);
+        bson.get(body, Short.BYTES + name.length, bson.remaining());
+        return body;
+    }
+
+    private JournalEntry decodeBody(Segment segment, int endOffset, long sequence, byte[] body) {
+        int nameLength = ((body[0] & 0xFF) << 8) | (body[1] & 0xFF);
+        String collectionName = new String(body, Short.BYTES, nameLength, StandardCharsets.UTF_8);
+        int bsonOffset = Short.BYTES + nameLength;
+        RawBsonDocument document = new RawBsonDocument(body, bsonOffset, body.length - bsonOffset);
+        return new JournalEntry(segment, endOffset, sequence, collectionName, document);
+    }
+
+    private Path segmentPath(long index) {
+        return settings.getDirectory().resolve(SEGMENT_PREFIX + "%020d".formatted(index) + SEGMENT_SUFFIX);
+    }
+
+    private static boolean isSegmentFile(Path file) {
+        String name = file.getFileName().toString();
+        return name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX);
+    }
+
+    private static long segmentIndex(Path file) {
+        String name = file.getFileName().toString();
+        return Long.parseLong(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+    }
+
+    private boolean sleep(Duration backoff) {
+        try {
+            Thread.sleep(backoff.toMillis());
+            return true;
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    /**
+     * 停止 drainer 後嘗試寫入剩餘紀錄（不再重試）；未寫入的紀錄保留在 segment 中，下次啟動時重放。
+     */
+    @Override
+    public void destroy() throws InterruptedException {
+        if (!running) {
+            return;
+        }
+        synchronized (appendLock) {
+            running = false;
+        }
+        drainer.join(TimeUnit.SECONDS.toMillis(5));
+        List<JournalEntry> remaining = new ArrayList<>();
+        queue.drainTo(remaining);
+        if (!remaining.isEmpty()) {
+            drain(remaining);
+        }
+        synchronized (appendLock) {
+            if (active != null) {
+                active.buffer.force();
+            }
+        }
+        waiters.forEach((target, waiter) -> waiter.completeExceptionally(
+                new MongoRawWriteException("Raw write journal closed before draining", null)));
+        waiters.clear();
+    }
+
+    /**
+     * writeOffset 由 append（持有 appendLock）維護；drain 進度與封存狀態以 segment 本身同步。
+     */
+    private static final class Segment {
+
+        private final Path file;
+        private final MappedByteBuffer buffer;
+        private int writeOffset;
+        private int drainedOffset;
+        private int sealedOffset = -1;
+        private boolean deleted;
+
+        private Segment(Path file, MappedByteBuffer buffer, int drainedOffset) {
+            this.file = file;
+            this.buffer = buffer;
+            this.writeOffset = drainedOffset;
+            this.drainedOffset = drainedOffset;
+        }
+
+        static Segment create(Path file, int capacity) throws IOException {
+            try (FileChannel channel = FileChannel.open(file,
+                    StandardOpenOption.CREATE_NEW, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+                MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, capacity);
+                buffer.putLong(0, SEGMENT_HEADER_BYTES);
+                return new Segment(file, buffer, SEGMENT_HEADER_BYTES);
+            }
+        }
+
+        static Segment open(Path file) throws IOException {
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+                MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, channel.size());
+                long drained = buffer.capacity() >= SEGMENT_HEADER_BYTES ? buffer.getLong(0) : 0;
+                int drainedOffset = drained < SEGMENT_HEADER_BYTES || drained > buffer.capacity()
+                        ? SEGMENT_HEADER_BYTES
+                        : (int) drained;
+                return new Segment(file, buffer, drainedOffset);
+            }
+        }
+
+        synchronized void markDrained(int offset) {
+            if (deleted || offset <= drainedOffset) {
+                return;
+            }
+            drainedOffset = offset;
+            buffer.putLong(0, offset);
+            deleteIfDrained();
+        }
+
+        synchronized void seal(int endOffset) {
+            sealedOffset = endOffset;
+            deleteIfDrained();
+        }
+
+        private void deleteIfDrained() {
+            if (deleted || sealedOffset < 0 || drainedOffset < sealedOffset) {
+                return;
+            }
+            deleted = true;
+            try {
+                Files.deleteIfExists(file);
+            } catch (IOException ex) {
+                log.warn("Unable to delete drained raw write journal segment {}", file, ex);
+            }
+        }
+    }
+
+    private record JournalEntry(Segment segment, int endOffset, long sequence, String collectionName, RawBsonDocument document) {
+    }
+}
@@ -0,0 +1,191 @@
+package com.poc.svc.assets.service.impl.support;
+
+import com.poc.svc.assets.config.AssetsHedgingProperties;
+import com.poc.svc.assets.config.MetricsConfig;
+import com.poc.svc.assets.dto.AssetSourceType;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * 下游請求對沖：主請求超過該來源近期延遲的指定百分位仍未完成時，再送出一個相同請求，先成功者勝出，另一個被取消。
+ * 對沖數量受 token bucket 額度限制（每個請求累積 {@code budget-ratio}，每次對沖消耗 1），避免下游變慢時流量倍增。
+ */
+@Component
+public class RequestHedger {
+
+    private static final Logger log = LoggerFactory.getLogger(RequestHedger.class);
+
+    private final AssetsHedgingProperties properties;
+    private final SourceLatencyTracker latencyTracker;
+    private final MeterRegistry meterRegistry;
+    private final Map<AssetSourceType, TokenBudget> budgets = new EnumMap<>(AssetSourceType.class);
+
+    public RequestHedger(AssetsHedgingProperties properties,
+                         SourceLatencyTracker latencyTracker,
+                         MeterRegistry meterRegistry) {
+        this.properties = Objects.requireNonNull(properties, "properties must not be null");
+        this.latencyTracker = Objects.requireNonNull(latencyTracker, "latencyTracker must not be null");
+        this.meterRegistry = Objects.requireNonNull(meterRegistry, "meterRegistry must not be null");
+        for (AssetSourceType source : AssetSourceType.values()) {
+            budgets.put(source, new TokenBudget(properties.getBudgetRatio(), properties.getBudgetBurst()));
+        }
+    }
+
+    /**
+     * @param attempt 每次呼叫送出一個新的下游請求；回傳的 future 被取消時，尚未開始執行的請求不會送出，
+     *                已送出的請求由 attempt 自行中止（例如 {@link InFlightHttpRequest}）
+     */
+    public <T> CompletableFuture<T> execute(AssetSourceType source, Supplier<CompletableFuture<T>> attempt) {
+        Objects.requireNonNull(source, "source must not be null");
+        Objects.requireNonNull(attempt, "attempt must not be null");
+
+        HedgedCall<T> call = new HedgedCall<>(source, attempt);
+        Optional<Duration> hedgeDelay = Optional.empty();
+        if (properties.isEnabled()) {
+            budgets.get(source).deposit();
+            hedgeDelay = latencyTracker.percentile(source, properties.getPercentile(), properties.getMinSamples())
+                    .map(delay -> delay.compareTo(properties.getMinDelay()) < 0 ? properties.getMinDelay() : delay);
+        }
+        call.start(hedgeDelay);
+        return call.result;
+    }
+
+    private final class HedgedCall<T> {
+
+        private final AssetSourceType source;
+        private final Supplier<CompletableFuture<T>> attempt;
+        private final CompletableFuture<T> result = new CompletableFuture<>();
+        private final long startNanos = System.nanoTime();
+        private CompletableFuture<T> primary;
+        private CompletableFuture<T> hedge;
+        private int outstanding;
+        private boolean hedgeClosed;
+        private boolean settled;
+        private Throwable firstError;
+
+        private HedgedCall(AssetSourceType source, Supplier<CompletableFuture<T>> attempt) {
+            this.source = source;
+            this.attempt = attempt;
+        }
+
+        void start(Optional<Duration> hedgeDelay) {
+            synchronized (this) {
+                outstanding = 1;
+                hedgeClosed = hedgeDelay.isEmpty();
+            }
+            CompletableFuture<T> launched = launch(false);
+            synchronized (this) {
+                primary = launched;
+            }
+            // 呼叫端逾時（orTimeout）或取消時，一併取消仍在等待的請求
+            result.whenComplete((value, error) -> {
+                if (error != null) {
+                    cancelLosers();
+                }
+            });
+            hedgeDelay.ifPresent(delay -> CompletableFuture
+                    .delayedExecutor(delay.toNanos(), TimeUnit.NANOSECONDS)
+                    .execute(this::hedge));
+        }
+
+        private void hedge() {
+            synchronized (this) {
+                if (hedgeClosed || result.isDone()) {
+                    return;
+                }
+                hedgeClosed = true;
+                if (!budgets.get(source).tryAcquire()) {
+                    meterRegistry.counter(MetricsConfig.ASSET_HEDGE_BUDGET_EXHAUSTED, "source", source.name()).increment();
+                    return;
+                }
+                outstanding++;
+            }
+            meterRegistry.counter(MetricsConfig.ASSET_HEDGE_ISSUED, "source", source.name()).increment();
+            log.debug("source={} primary request exceeded hedge delay, issuing hedge", source);
+            CompletableFuture<T> launched = launch(true);
+            synchronized (this) {
+                hedge = launched;
+            }
+            if (result.isDone()) {
+                launched.cancel(false);
+            }
+        }
+
+        private CompletableFuture<T> launch(boolean hedged) {
+            CompletableFuture<T> future;
+            try {
+                future = attempt.get();
+            } catch (RuntimeException ex) {
+                future = CompletableFuture.failedFuture(ex);
+            }
+            future.whenComplete((value, error) -> onComplete(hedged, value, error));
+            return future;
+        }
+
+        /**
+         * 延遲自主請求送出起算（呼叫端實際等待的時間），對沖勝出時也不會低估，避免對沖延遲逐漸下修。
+         * 勝出者先取消其餘請求再完成 result，呼叫端看到結果時落敗的請求已被取消。
+         */
+        private void onComplete(boolean hedged, T value, Throwable error) {
+            if (error == null) {
+                synchronized (this) {
+                    if (settled) {
+                        return;
+                    }
+                    settled = true;
+                }
+                latencyTracker.record(source, Duration.ofNanos(System.nanoTime() - startNanos));
+                if (hedged) {
+                    meterRegistry.counter(MetricsConfig.ASSET_HEDGE_WON, "source", source.name()).increment();
+                }
+                cancelLosers();
+                result.complete(value);
+                return;
+            }
+            Throwable failure;
+            synchronized (this) {
+                if (settled) {
+                    return;
+                }
+                outstanding--;
+                if (firstError == null) {
+                    firstError = error;
+                }
+                if (outstanding > 0) {
+                    return;
+                }
+                // 所有已送出的請求皆失敗：不再對沖（對沖只處理慢回應，不作為重試）
+                hedgeClosed = true;
+                failure = firstError;
+            }
+            result.completeExceptionally(failure);
+        }
+
+        private void cancelLosers() {
+            CompletableFuture<T> primaryAttempt;
+            CompletableFuture<T> hedgeAttempt;
+            synchronized (this) {
+                hedgeClosed = true;
+                primaryAttempt = primary;
+                hedgeAttempt = hedge;
+            }
+            if (primaryAttempt != null) {
+                primaryAttempt.cancel(false);
+            }
+            if (hedgeAttempt != null) {
+                hedgeAttempt.cancel(false);
+            }
+        }
+    }
+}
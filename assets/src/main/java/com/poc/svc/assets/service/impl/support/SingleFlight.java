@@ -0,0 +1,58 @@
+package com.poc.svc.assets.service.impl.support;
+
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Supplier;
+
+/**
+ * 以 key 合併同時進行中的相同呼叫：第一個呼叫者（leader）實際執行，其餘呼叫者共用同一個結果。
+ * 呼叫完成時先移除 key 再完成結果，之後抵達的呼叫者會重新執行，不會拿到過期結果。
+ *
+ * @param <K> 合併鍵
+ * @param <V> 結果型別
+ */
+public final class SingleFlight<K, V> {
+
+    private final ConcurrentMap<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+
+    public Call<V> execute(K key, Supplier<CompletableFuture<V>> action) {
+        Objects.requireNonNull(key, "key must not be null");
+        Objects.requireNonNull(action, "action must not be null");
+
+        CompletableFuture<V> shared = new CompletableFuture<>();
+        CompletableFuture<V> existing = inFlight.putIfAbsent(key, shared);
+        if (existing != null) {
+            // copy() 讓個別呼叫者取消或逾時時不影響共用結果
+            return new Call<>(existing.copy(), true);
+        }
+
+        CompletableFuture<V> source;
+        try {
+            source = Objects.requireNonNull(action.get(), "action must not return null");
+        } catch (RuntimeException ex) {
+            source = CompletableFuture.failedFuture(ex);
+        }
+        source.whenComplete((value, error) -> {
+            inFlight.remove(key, shared);
+            if (error != null) {
+                shared.completeExceptionally(error);
+            } else {
+                shared.complete(value);
+            }
+        });
+        return new Call<>(shared.copy(), false);
+    }
+
+    public int inFlightCount() {
+        return inFlight.size();
+    }
+
+    /**
+     * @param result    呼叫者取得的結果
+     * @param coalesced 是否併入其他呼叫者進行中的執行
+     */
+    public record Call<V>(CompletableFuture<V> result, boolean coalesced) {
+    }
+}
@@ -0,0 +1,94 @@
+package com.poc.svc.assets.service.impl.support;
+
+import com.poc.svc.assets.config.MetricsConfig;
+import com.poc.svc.assets.dto.AssetSourceType;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.util.Objects;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 單一來源的隔艙：最多 {@code maxConcurrent} 個任務同時執行、{@code queueCapacity} 個任務等待，超出即拒絕。
+ * 委派的 executor 可為專屬執行緒池或 virtual threads；後者以 semaphore 限制同時執行數，等待中的任務只佔用 virtual thread。
+ */
+public final class SourceBulkhead implements Executor {
+
+    private final AssetSourceType source;
+    private final Executor delegate;
+    private final int capacity;
+    private final Semaphore admitted;
+    private final Semaphore running;
+    private final AtomicInteger active = new AtomicInteger();
+    private final Counter rejectedCounter;
+
+    public SourceBulkhead(AssetSourceType source,
+                          Executor delegate,
+                          int maxConcurrent,
+                          int queueCapacity,
+                          MeterRegistry meterRegistry) {
+        this.source = Objects.requireNonNull(source, "source must not be null");
+        this.delegate = Objects.requireNonNull(delegate, "delegate must not be null");
+        Objects.requireNonNull(meterRegistry, "meterRegistry must not be null");
+        this.capacity = maxConcurrent + queueCapacity;
+        this.admitted = new Semaphore(capacity);
+        this.running = new Semaphore(maxConcurrent);
+        this.rejectedCounter = Counter.builder(MetricsConfig.ASSET_BULKHEAD_REJECTED)
+                .description("來源隔艙已滿而拒絕的任務數")
+                .tag("source", source.name())
+                .register(meterRegistry);
+        Gauge.builder(MetricsConfig.ASSET_BULKHEAD_ACTIVE, active, AtomicInteger::get)
+                .description("來源隔艙執行中的任務數")
+                .tag("source", source.name())
+                .register(meterRegistry);
+        Gauge.builder(MetricsConfig.ASSET_BULKHEAD_QUEUED, this, SourceBulkhead::queued)
+                .description("來源隔艙等待中的任務數")
+                .tag("source", source.name())
+                .register(meterRegistry);
+    }
+
+    @Override
+    public void execute(Runnable task) {
+        Objects.requireNonNull(task, "task must not be null");
+        if (!admitted.tryAcquire()) {
+            rejectedCounter.increment();
+            throw new RejectedExecutionException("Bulkhead for source %s is full (capacity=%d)".formatted(source, capacity));
+        }
+        try {
+            delegate.execute(() -> {
+                try {
+                    running.acquireUninterruptibly();
+                    active.incrementAndGet();
+                    try {
+                        task.run();
+                    } finally {
+                        active.decrementAndGet();
+                        running.release();
+                    }
+                } finally {
+                    admitted.release();
+                }
+            });
+        } catch (RejectedExecutionException ex) {
+            admitted.release();
+            rejectedCounter.increment();
+            throw ex;
+        }
+    }
+
+    public AssetSourceType source() {
+        return source;
+    }
+
+    public int active() {
+        return active.get();
+    }
+
+    public int queued() {
+        return Math.max(0, capacity - admitted.availablePermits() - active.get());
+    }
+}
@@ -0,0 +1,44 @@
+package com.poc.svc.assets.service.impl.support;
+
+import com.poc.svc.assets.dto.AssetSourceType;
+import org.springframework.beans.factory.DisposableBean;
+
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.Executor;
+
+/**
+ * 依 {@link AssetSourceType} 取得各來源專屬的執行器；未設定隔艙的來源使用共用 executor。
+ */
+public final class SourceBulkheads implements DisposableBean {
+
+    private final Map<AssetSourceType, Executor> executors;
+    private final Executor fallback;
+    private final List<DisposableBean> ownedResources;
+
+    public SourceBulkheads(Map<AssetSourceType, ? extends Executor> executors,
+                           Executor fallback,
+                           List<DisposableBean> ownedResources) {
+        Objects.requireNonNull(executors, "executors must not be null");
+        this.executors = executors.isEmpty() ? Map.of() : new EnumMap<>(executors);
+        this.fallback = Objects.requireNonNull(fallback, "fallback must not be null");
+        this.ownedResources = List.copyOf(ownedResources);
+    }
+
+    public static SourceBulkheads shared(Executor executor) {
+        return new SourceBulkheads(Map.of(), executor, List.of());
+    }
+
+    public Executor executor(AssetSourceType source) {
+        return executors.getOrDefault(source, fallback);
+    }
+
+    @Override
+    public void destroy() throws Exception {
+        for (DisposableBean resource : ownedResources) {
+            resource.destroy();
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package com.poc.svc.assets.service.impl.support;
+
+import com.poc.svc.assets.dto.AssetSourceType;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.OptionalLong;
+
+/**
+ * 各來源最近 {@value #WINDOW_SIZE} 次抓取的延遲，用於推算對沖延遲等依百分位調整的參數。
+ * 排序後的快照在視窗累積 1/{@value #REFRESH_DIVISOR} 的新樣本後才重建，每次查詢不必重新排序整個視窗。
+ */
+@Component
+public class SourceLatencyTracker {
+
+    static final int WINDOW_SIZE = 1024;
+    static final int REFRESH_DIVISOR = 64;
+
+    private final Map<AssetSourceType, Window> windows = new EnumMap<>(AssetSourceType.class);
+
+    public SourceLatencyTracker() {
+        for (AssetSourceType source : AssetSourceType.values()) {
+            windows.put(source, new Window(WINDOW_SIZE));
+        }
+    }
+
+    public void record(AssetSourceType source, Duration latency) {
+        Objects.requireNonNull(source, "source must not be null");
+        Objects.requireNonNull(latency, "latency must not be null");
+        windows.get(source).record(latency.toNanos());
+    }
+
+    /**
+     * @return 樣本數不足 {@code minSamples} 時為 empty
+     */
+    public Optional<Duration> percentile(AssetSourceType source, double percentile, int minSamples) {
+        Objects.requireNonNull(source, "source must not be null");
+        if (percentile <= 0 || percentile > 1) {
+            throw new IllegalArgumentException("percentile must be in (0, 1]");
+        }
+        OptionalLong nanos = windows.get(source).percentile(percentile, minSamples);
+        return nanos.isPresent() ? Optional.of(Duration.ofNanos(nanos.getAsLong())) : Optional.empty();
+    }
+
+    public int sampleCount(AssetSourceType source) {
+        return windows.get(source).count();
+    }
+
+    private static final class Window {
+
+        private final long[] samples;
+        private final long[] sorted;
+        private int next;
+        private int count;
+        private int sortedCount;
+        private int sinceSort;
+
+        private Window(int size) {
+            this.samples = new long[size];
+            this.sorted = new long[size];
+        }
+
+        synchronized void record(long nanos) {
+            samples[next] = nanos;
+            next = (next + 1) % samples.length;
+            count = Math.min(count + 1, samples.length);
+            sinceSort++;
+        }
+
+        synchronized int count() {
+            return count;
+        }
+
+        synchronized OptionalLong percentile(double percentile, int minSamples) {
+            if (count == 0 || count < minSamples) {
+                return OptionalLong.empty();
+            }
+            if (sortedCount == 0 || sinceSort >= Math.max(1, count / REFRESH_DIVISOR)) {
+                System.arraycopy(samples, 0, sorted, 0, count);
+                Arrays.sort(sorted, 0, count);
+                sortedCount = count;
+                sinceSort = 0;
+            }
+            int index = (int) Math.ceil(percentile * sortedCount) - 1;
+            return OptionalLong.of(sorted[Math.max(index, 0)]);
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package com.poc.svc.assets.service.impl.support;
+
+/**
+ * 以比例累積的 token bucket：每個原始請求存入 {@code ratio} 個 token，每次額外請求（對沖、重試）消耗 1 個，上限為 {@code burst}。
+ * 下游持續失敗或變慢時，額外請求量被限制在原始流量的 {@code ratio} 倍以內。
+ */
+final class TokenBudget {
+
+    private final double ratio;
+    private final double burst;
+    private double tokens;
+
+    TokenBudget(double ratio, int burst) {
+        this.ratio = ratio;
+        this.burst = burst;
+        this.tokens = burst;
+    }
+
+    synchronized void deposit() {
+        tokens = Math.min(burst, tokens + ratio);
+    }
+
+    synchronized boolean tryAcquire() {
+        if (tokens < 1) {
+            return false;
+        }
+        tokens -= 1;
+        return true;
+    }
+}
@@ -5,7 +5,12 @@ import org.springframework.boot.test.context.SpringBootTest;
 
 @SpringBootTest(
         classes = AssetsApplication.class,
-        properties = "spring.autoconfigure.exclude=org.springframework.boot.autoconfigure.mongo.MongoAutoConfiguration,org.springframework.boot.autoconfigure.data.mongo.MongoDataAutoConfiguration"
+        properties = {
+                "spring.autoconfigure.exclude=org.springframework.boot.autoconfigure.mongo.MongoAutoConfiguration,org.springframework.boot.autoconfigure.data.mongo.MongoDataAutoConfiguration",
+                "assets.mongo.indexes.enabled=false",
+                "assets.aggregation.pipeline-analysis.enabled=false",
+                "assets.raw-retention.stats-interval=0"
+        }
 )
 class AssetsApplicationTests {
 
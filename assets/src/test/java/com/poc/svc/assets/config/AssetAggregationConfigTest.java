@@ -0,0 +1,36 @@
+package com.poc.svc.assets.config;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThatCode;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class AssetAggregationConfigTest {
+
+    @Test
+    @DisplayName("should refuse compressed payloads without retained keys for the pipeline engine")
+    void requirePipelineReadablePayload_rejectsCompressedWithoutRetainedKeys() {
+        AssetsRawWriteProperties.Payload payload = new AssetsRawWriteProperties.Payload();
+        payload.setFormat(AssetsRawWriteProperties.Payload.Format.COMPRESSED);
+        payload.setRetainedKeys(List.of(" "));
+
+        assertThatThrownBy(() -> AssetAggregationConfig.requirePipelineReadablePayload(payload))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("retained-keys");
+    }
+
+    @Test
+    @DisplayName("should accept compressed payloads with retained keys and plain document payloads")
+    void requirePipelineReadablePayload_acceptsReadablePayloads() {
+        AssetsRawWriteProperties.Payload compressed = new AssetsRawWriteProperties.Payload();
+        compressed.setFormat(AssetsRawWriteProperties.Payload.Format.COMPRESSED);
+        compressed.setRetainedKeys(List.of("bankAssets"));
+
+        assertThatCode(() -> AssetAggregationConfig.requirePipelineReadablePayload(compressed)).doesNotThrowAnyException();
+        assertThatCode(() -> AssetAggregationConfig.requirePipelineReadablePayload(new AssetsRawWriteProperties.Payload()))
+                .doesNotThrowAnyException();
+    }
+}
@@ -0,0 +1,137 @@
+package com.poc.svc.assets.config;
+
+import org.junit.jupiter.api.Assumptions;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 比較 POOLED 與 VIRTUAL 兩種 assetAsyncExecutor 模式的吞吐量與 p99。
+ * 以固定延遲模擬三個下游阻塞呼叫，執行方式：
+ * {@code ./gradlew :assets:test --tests "*AssetAsyncExecutorBenchmarkTest" -Passets.benchmark=true -PjavaToolchain=21}
+ */
+@EnabledIfSystemProperty(named = "assets.benchmark", matches = "true")
+class AssetAsyncExecutorBenchmarkTest {
+
+    private static final Logger log = LoggerFactory.getLogger(AssetAsyncExecutorBenchmarkTest.class);
+    private static final Duration DOWNSTREAM_LATENCY = Duration.ofMillis(40);
+    private static final int SOURCES_PER_AGGREGATION = 3;
+    private static final int AGGREGATIONS_PER_CUSTOMER = 5;
+
+    static Stream<Arguments> scenarios() {
+        return Stream.of(AssetsAsyncProperties.ExecutorMode.values())
+                .flatMap(mode -> Stream.of(50, 150, 500).map(customers -> Arguments.of(mode, customers)));
+    }
+
+    @ParameterizedTest(name = "{0} @ {1} concurrent customers")
+    @MethodSource("scenarios")
+    void compareExecutorModes(AssetsAsyncProperties.ExecutorMode mode, int concurrentCustomers) throws Exception {
+        if (mode == AssetsAsyncProperties.ExecutorMode.VIRTUAL) {
+            Assumptions.assumeTrue(Runtime.version().feature() >= 21, "VIRTUAL mode requires Java 21+");
+        }
+        AssetsAsyncProperties properties = new AssetsAsyncProperties();
+        properties.setMode(mode);
+        Executor executor = new AsyncConfig().assetAsyncExecutor(properties);
+
+        ConcurrentLinkedQueue<Long> latenciesNanos = new ConcurrentLinkedQueue<>();
+        AtomicInteger rejected = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService customers = Executors.newFixedThreadPool(concurrentCustomers);
+        List<CompletableFuture<Void>> callers = new ArrayList<>(concurrentCustomers);
+        for (int i = 0; i < concurrentCustomers; i++) {
+            callers.add(CompletableFuture.runAsync(() -> {
+                awaitQuietly(start);
+                for (int round = 0; round < AGGREGATIONS_PER_CUSTOMER; round++) {
+                    long begin = System.nanoTime();
+                    try {
+                        aggregate(executor).join();
+                        latenciesNanos.add(System.nanoTime() - begin);
+                    } catch (RejectedExecutionException | CompletionException ex) {
+                        rejected.incrementAndGet();
+                    }
+                }
+            }, customers));
+        }
+
+        long begin = System.nanoTime();
+        start.countDown();
+        CompletableFuture.allOf(callers.toArray(CompletableFuture[]::new)).get(5, TimeUnit.MINUTES);
+        double elapsedSeconds = (System.nanoTime() - begin) / 1_000_000_000d;
+        customers.shutdownNow();
+        if (executor instanceof DisposableBean disposable) {
+            disposable.destroy();
+        } else if (executor instanceof AutoCloseable closeable) {
+            closeable.close();
+        }
+
+        List<Long> sorted = new ArrayList<>(latenciesNanos);
+        Collections.sort(sorted);
+        long p99Millis = percentileMillis(sorted, 0.99);
+        log.info("mode={} customers={} completed={} rejected={} throughput={} agg/s p50={}ms p99={}ms",
+                mode,
+                concurrentCustomers,
+                sorted.size(),
+                rejected.get(),
+                String.format("%.1f", sorted.size() / elapsedSeconds),
+                percentileMillis(sorted, 0.50),
+                p99Millis);
+
+        assertThat(sorted.size() + rejected.get()).isEqualTo(concurrentCustomers * AGGREGATIONS_PER_CUSTOMER);
+        assertThat(sorted).as("at least one aggregation must complete").isNotEmpty();
+        assertThat(p99Millis).isGreaterThanOrEqualTo(DOWNSTREAM_LATENCY.toMillis());
+    }
+
+    private CompletableFuture<Void> aggregate(Executor executor) {
+        CompletableFuture<?>[] fetches = new CompletableFuture<?>[SOURCES_PER_AGGREGATION];
+        for (int i = 0; i < SOURCES_PER_AGGREGATION; i++) {
+            fetches[i] = CompletableFuture.runAsync(() -> sleepQuietly(DOWNSTREAM_LATENCY), executor);
+        }
+        return CompletableFuture.allOf(fetches);
+    }
+
+    private long percentileMillis(List<Long> sortedNanos, double percentile) {
+        if (sortedNanos.isEmpty()) {
+            return -1;
+        }
+        int index = (int) Math.ceil(percentile * sortedNanos.size()) - 1;
+        return TimeUnit.NANOSECONDS.toMillis(sortedNanos.get(Math.max(index, 0)));
+    }
+
+    private void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void sleepQuietly(Duration duration) {
+        try {
+            Thread.sleep(duration.toMillis());
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
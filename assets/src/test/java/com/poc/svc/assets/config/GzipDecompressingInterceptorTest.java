@@ -0,0 +1,62 @@
+package com.poc.svc.assets.config;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.mock.http.client.MockClientHttpRequest;
+import org.springframework.mock.http.client.MockClientHttpResponse;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.GZIPOutputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class GzipDecompressingInterceptorTest {
+
+    private static final String BODY = "{\"customerId\":\"C001\",\"accounts\":[]}";
+
+    private final GzipDecompressingInterceptor interceptor = new GzipDecompressingInterceptor();
+
+    @Test
+    @DisplayName("should request gzip and transparently decompress a gzip response")
+    void intercept_decompressesGzipBody() throws IOException {
+        MockClientHttpRequest request = new MockClientHttpRequest(HttpMethod.GET, URI.create("http://bank/assets/C001"));
+        MockClientHttpResponse gzipped = new MockClientHttpResponse(gzip(BODY), HttpStatus.OK);
+        gzipped.getHeaders().set(HttpHeaders.CONTENT_ENCODING, "gzip");
+        gzipped.getHeaders().setContentLength(42);
+
+        ClientHttpResponse response = interceptor.intercept(request, new byte[0], (req, body) -> gzipped);
+
+        assertThat(request.getHeaders().getFirst(HttpHeaders.ACCEPT_ENCODING)).isEqualTo("gzip");
+        assertThat(new String(response.getBody().readAllBytes(), StandardCharsets.UTF_8)).isEqualTo(BODY);
+        assertThat(response.getHeaders().containsKey(HttpHeaders.CONTENT_ENCODING)).isFalse();
+        assertThat(response.getHeaders().containsKey(HttpHeaders.CONTENT_LENGTH)).isFalse();
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+    }
+
+    @Test
+    @DisplayName("should pass through responses that are not gzip encoded")
+    void intercept_passesThroughIdentityBody() throws IOException {
+        MockClientHttpRequest request = new MockClientHttpRequest(HttpMethod.GET, URI.create("http://bank/assets/C001"));
+        MockClientHttpResponse plain = new MockClientHttpResponse(BODY.getBytes(StandardCharsets.UTF_8), HttpStatus.OK);
+
+        ClientHttpResponse response = interceptor.intercept(request, new byte[0], (req, body) -> plain);
+
+        assertThat(response).isSameAs(plain);
+        assertThat(new String(response.getBody().readAllBytes(), StandardCharsets.UTF_8)).isEqualTo(BODY);
+    }
+
+    private static byte[] gzip(String content) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(bytes)) {
+            gzip.write(content.getBytes(StandardCharsets.UTF_8));
+        }
+        return bytes.toByteArray();
+    }
+}
@@ -0,0 +1,64 @@
+package com.poc.svc.assets.config;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.hc.core5.http.message.BasicHttpResponse;
+import org.apache.hc.core5.util.TimeValue;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.client.ClientHttpRequestFactory;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.http.client.JdkClientHttpRequestFactory;
+import org.springframework.http.client.SimpleClientHttpRequestFactory;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class HttpClientConfigTest {
+
+    private final HttpClientConfig config = new HttpClientConfig();
+
+    @Test
+    @DisplayName("should pick the request factory matching the configured backend")
+    void assetClientHttpRequestFactory_followsBackend() throws Exception {
+        assertThat(factoryFor(AssetsHttpClientProperties.Backend.SIMPLE, new SimpleMeterRegistry()))
+                .isInstanceOf(SimpleClientHttpRequestFactory.class);
+        assertThat(factoryFor(AssetsHttpClientProperties.Backend.HTTP2, new SimpleMeterRegistry()))
+                .isInstanceOf(JdkClientHttpRequestFactory.class);
+
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        ClientHttpRequestFactory pooled = factoryFor(AssetsHttpClientProperties.Backend.POOLED, registry);
+        try {
+            assertThat(pooled).isInstanceOf(HttpComponentsClientHttpRequestFactory.class);
+            assertThat(registry.get(MetricsConfig.ASSET_HTTP_POOL_MAX).gauge().value()).isEqualTo(200.0);
+            assertThat(registry.get(MetricsConfig.ASSET_HTTP_POOL_LEASED).gauge().value()).isZero();
+        } finally {
+            ((HttpComponentsClientHttpRequestFactory) pooled).destroy();
+        }
+    }
+
+    @Test
+    @DisplayName("should cap keep-alive at the server's Keep-Alive timeout")
+    void keepAliveDuration_honoursServerTimeout() {
+        Duration configured = Duration.ofSeconds(30);
+
+        BasicHttpResponse shorter = new BasicHttpResponse(200);
+        shorter.addHeader("Keep-Alive", "timeout=5, max=100");
+        BasicHttpResponse longer = new BasicHttpResponse(200);
+        longer.addHeader("Keep-Alive", "timeout=120");
+        BasicHttpResponse malformed = new BasicHttpResponse(200);
+        malformed.addHeader("Keep-Alive", "timeout=soon");
+
+        assertThat(HttpClientConfig.keepAliveDuration(shorter, configured)).isEqualTo(TimeValue.ofSeconds(5));
+        assertThat(HttpClientConfig.keepAliveDuration(longer, configured)).isEqualTo(TimeValue.ofSeconds(30));
+        assertThat(HttpClientConfig.keepAliveDuration(malformed, configured)).isEqualTo(TimeValue.ofSeconds(30));
+        assertThat(HttpClientConfig.keepAliveDuration(new BasicHttpResponse(200), configured))
+                .isEqualTo(TimeValue.ofSeconds(30));
+    }
+
+    private ClientHttpRequestFactory factoryFor(AssetsHttpClientProperties.Backend backend, SimpleMeterRegistry registry) {
+        AssetsHttpClientProperties properties = new AssetsHttpClientProperties();
+        properties.setBackend(backend);
+        return config.assetClientHttpRequestFactory(properties, registry);
+    }
+}
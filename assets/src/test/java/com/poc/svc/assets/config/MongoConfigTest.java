@@ -0,0 +1,123 @@
+package com.poc.svc.assets.config;
+
+import com.mongodb.MongoClientSettings;
+import com.mongodb.ReadPreference;
+import com.mongodb.ServerAddress;
+import com.mongodb.connection.ClusterId;
+import com.mongodb.connection.ConnectionId;
+import com.mongodb.connection.ServerId;
+import com.mongodb.event.ConnectionCheckOutFailedEvent;
+import com.mongodb.event.ConnectionCheckedOutEvent;
+import io.micrometer.core.instrument.binder.mongodb.MongoMetricsCommandListener;
+import io.micrometer.core.instrument.binder.mongodb.MongoMetricsConnectionPoolListener;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.context.properties.source.MapConfigurationPropertySource;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class MongoConfigTest {
+
+    private static final MongoSettingsProperties SETTINGS = new MongoSettingsProperties(
+            "mongodb://localhost:27017/?maxPoolSize=5&readPreference=secondary&compressors=zlib&socketTimeoutMS=1500", "assetdb");
+
+    @Test
+    @DisplayName("should apply driver properties over the connection string and register metric listeners")
+    void clientSettings_appliesDriverProperties() {
+        MongoDriverProperties driver = new MongoDriverProperties();
+        driver.getPool().setMaxSize(40);
+        driver.getPool().setMinSize(4);
+        driver.getPool().setMaxWaitTime(Duration.ofMillis(500));
+        driver.getSocket().setReadTimeout(Duration.ofSeconds(3));
+        driver.setCompressors(List.of(MongoDriverProperties.Compressor.ZLIB));
+        driver.setReadPreference("secondaryPreferred");
+
+        MongoClientSettings settings = MongoConfig.clientSettings(SETTINGS, driver, new SimpleMeterRegistry());
+
+        assertThat(settings.getConnectionPoolSettings().getMaxSize()).isEqualTo(40);
+        assertThat(settings.getConnectionPoolSettings().getMinSize()).isEqualTo(4);
+        assertThat(settings.getConnectionPoolSettings().getMaxWaitTime(TimeUnit.MILLISECONDS)).isEqualTo(500);
+        assertThat(settings.getSocketSettings().getReadTimeout(TimeUnit.MILLISECONDS)).isEqualTo(3000);
+        assertThat(settings.getCompressorList()).extracting("name").containsExactly("zlib");
+        assertThat(settings.getReadPreference()).isEqualTo(ReadPreference.secondaryPreferred());
+        assertThat(settings.getCommandListeners()).hasExactlyElementsOfTypes(MongoMetricsCommandListener.class);
+        assertThat(settings.getConnectionPoolSettings().getConnectionPoolListeners())
+                .hasExactlyElementsOfTypes(MongoMetricsConnectionPoolListener.class, MongoPoolCheckoutListener.class);
+    }
+
+    @Test
+    @DisplayName("should skip metric listeners when disabled")
+    void clientSettings_metricsDisabled() {
+        MongoDriverProperties driver = new MongoDriverProperties();
+        driver.setMetricsEnabled(false);
+
+        MongoClientSettings settings = MongoConfig.clientSettings(SETTINGS, driver, new SimpleMeterRegistry());
+
+        assertThat(settings.getCommandListeners()).isEmpty();
+        assertThat(settings.getConnectionPoolSettings().getConnectionPoolListeners()).isEmpty();
+    }
+
+    @Test
+    @DisplayName("should keep connection string options when driver properties are not configured")
+    void clientSettings_keepsConnectionStringOptions() {
+        MongoDriverProperties driver = new MongoDriverProperties();
+        driver.getPool().setMinSize(2);
+
+        MongoClientSettings settings = MongoConfig.clientSettings(SETTINGS, driver, new SimpleMeterRegistry());
+
+        assertThat(settings.getConnectionPoolSettings().getMaxSize()).isEqualTo(5);
+        assertThat(settings.getConnectionPoolSettings().getMinSize()).isEqualTo(2);
+        assertThat(settings.getConnectionPoolSettings().getMaxWaitTime(TimeUnit.MILLISECONDS)).isEqualTo(120_000);
+        assertThat(settings.getSocketSettings().getReadTimeout(TimeUnit.MILLISECONDS)).isEqualTo(1500);
+        assertThat(settings.getReadPreference()).isEqualTo(ReadPreference.secondary());
+        assertThat(settings.getCompressorList()).extracting("name").containsExactly("zlib");
+    }
+
+    @Test
+    @DisplayName("should bind blank environment defaults as unset driver properties")
+    void driverProperties_bindBlankValuesAsUnset() {
+        MapConfigurationPropertySource source = new MapConfigurationPropertySource(Map.of(
+                "assets.mongo.driver.pool.max-size", "",
+                "assets.mongo.driver.pool.max-wait-time", "",
+                "assets.mongo.driver.socket.read-timeout", "",
+                "assets.mongo.driver.compressors", "",
+                "assets.mongo.driver.read-preference", "",
+                "assets.mongo.driver.pool.min-size", "3"
+        ));
+
+        MongoDriverProperties driver = new Binder(source)
+                .bindOrCreate("assets.mongo.driver", MongoDriverProperties.class);
+        MongoClientSettings settings = MongoConfig.clientSettings(SETTINGS, driver, new SimpleMeterRegistry());
+
+        assertThat(driver.getPool().getMaxSize()).isNull();
+        assertThat(driver.getPool().getMaxWaitTime()).isNull();
+        assertThat(driver.getPool().getMinSize()).isEqualTo(3);
+        assertThat(settings.getConnectionPoolSettings().getMaxSize()).isEqualTo(5);
+        assertThat(settings.getSocketSettings().getReadTimeout(TimeUnit.MILLISECONDS)).isEqualTo(1500);
+        assertThat(settings.getReadPreference()).isEqualTo(ReadPreference.secondary());
+    }
+
+    @Test
+    @DisplayName("should record pool checkout waits by outcome")
+    void checkoutListener_recordsWaits() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        MongoPoolCheckoutListener listener = new MongoPoolCheckoutListener(registry);
+        ServerId serverId = new ServerId(new ClusterId(), new ServerAddress("localhost", 27017));
+
+        listener.connectionCheckedOut(new ConnectionCheckedOutEvent(new ConnectionId(serverId), 1, TimeUnit.MILLISECONDS.toNanos(7)));
+        listener.connectionCheckOutFailed(new ConnectionCheckOutFailedEvent(
+                serverId, 2, ConnectionCheckOutFailedEvent.Reason.TIMEOUT, TimeUnit.MILLISECONDS.toNanos(500)));
+
+        assertThat(registry.get(MetricsConfig.ASSET_MONGO_POOL_CHECKOUT_WAIT).tag("status", "ok").timer()
+                .totalTime(TimeUnit.MILLISECONDS)).isEqualTo(7);
+        assertThat(registry.get(MetricsConfig.ASSET_MONGO_POOL_CHECKOUT_WAIT).tag("status", "timeout").timer().count())
+                .isEqualTo(1);
+    }
+}
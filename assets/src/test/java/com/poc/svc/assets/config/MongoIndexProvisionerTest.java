@@ -0,0 +1,143 @@
+package com.poc.svc.assets.config;
+
+import com.mongodb.MongoCommandException;
+import com.mongodb.MongoTimeoutException;
+import com.mongodb.ServerAddress;
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.MongoDatabase;
+import com.poc.svc.assets.entity.BankAssetRawDocument;
+import com.poc.svc.assets.entity.InsuranceAssetRawDocument;
+import com.poc.svc.assets.entity.SecuritiesAssetRawDocument;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.bson.BsonDocument;
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.MongoTemplate;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class MongoIndexProvisionerTest {
+
+    private MongoDatabase database;
+    private MongoCollection<Document> collection;
+    private MongoIndexProperties properties;
+    private SimpleMeterRegistry meterRegistry;
+    private MongoTemplate mongoTemplate;
+    private MongoIndexProvisioner provisioner;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        MongoClient mongoClient = mock(MongoClient.class);
+        database = mock(MongoDatabase.class);
+        collection = mock(MongoCollection.class);
+        when(mongoClient.getDatabase("assetdb")).thenReturn(database);
+        when(database.getCollection(anyString())).thenReturn(collection);
+        properties = new MongoIndexProperties();
+        meterRegistry = new SimpleMeterRegistry();
+        mongoTemplate = mock(MongoTemplate.class);
+        when(mongoTemplate.getCollectionName(BankAssetRawDocument.class)).thenReturn("bank_raw");
+        when(mongoTemplate.getCollectionName(SecuritiesAssetRawDocument.class)).thenReturn("securities_raw");
+        when(mongoTemplate.getCollectionName(InsuranceAssetRawDocument.class)).thenReturn("insurance_raw");
+        provisioner = new MongoIndexProvisioner(mongoClient, mongoTemplate,
+                new MongoSettingsProperties("mongodb://localhost", "assetdb"), properties, meterRegistry);
+    }
+
+    @Test
+    @DisplayName("should create every declared index and verify every hot query")
+    void shouldProvisionAndVerify() {
+        when(database.runCommand(any(Document.class))).thenReturn(explain(new Document("stage", "FETCH")
+                .append("inputStage", new Document("stage", "IXSCAN"))));
+
+        provisioner.run(null);
+
+        verify(collection, times(provisioner.indexes().size())).createIndexes(anyList());
+        verify(database, times(provisioner.hotQueries().size())).runCommand(any(Document.class));
+        assertThat(meterRegistry.find("asset.mongo.index.violation").counters()).isEmpty();
+    }
+
+    @Test
+    @DisplayName("should index and verify the raw collections the entities are mapped to")
+    void shouldUseMappedRawCollectionNames() {
+        when(mongoTemplate.getCollectionName(BankAssetRawDocument.class)).thenReturn("bank_raw_v2");
+        MongoIndexProvisioner renamed = new MongoIndexProvisioner(mock(MongoClient.class), mongoTemplate,
+                new MongoSettingsProperties("mongodb://localhost", "assetdb"), properties, meterRegistry);
+
+        assertThat(renamed.indexes())
+                .extracting(MongoIndexProvisioner.IndexSpec::collection)
+                .contains("bank_raw_v2", "securities_raw", "insurance_raw")
+                .doesNotContain("bank_raw");
+        assertThat(renamed.hotQueries())
+                .extracting(MongoIndexProvisioner.HotQuery::collection)
+                .contains("bank_raw_v2")
+                .doesNotContain("bank_raw");
+    }
+
+    @Test
+    @DisplayName("should only warn when a hot query plan is a COLLSCAN in WARN mode")
+    void shouldWarnOnCollectionScan() {
+        when(database.runCommand(any(Document.class))).thenReturn(explain(new Document("stage", "COLLSCAN")));
+
+        provisioner.run(null);
+
+        assertThat(meterRegistry.find("asset.mongo.index.violation").counters())
+                .hasSize(provisioner.hotQueries().size());
+    }
+
+    @Test
+    @DisplayName("should fail startup on COLLSCAN or index conflicts in FAIL mode")
+    void shouldFailOnViolation() {
+        properties.setOnViolation(MongoIndexProperties.OnViolation.FAIL);
+        when(collection.createIndexes(anyList()))
+                .thenThrow(new MongoCommandException(new BsonDocument(), new ServerAddress()))
+                .thenReturn(List.of());
+        when(database.runCommand(any(Document.class))).thenReturn(explain(new Document("stage", "IXSCAN")));
+
+        assertThatThrownBy(() -> provisioner.run(null))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("could not be created");
+    }
+
+    @Test
+    @DisplayName("should stop after the first timeout when Mongo is unreachable")
+    void shouldStopWhenMongoUnreachable() {
+        when(collection.createIndexes(anyList())).thenThrow(new MongoTimeoutException("no server"));
+
+        provisioner.run(null);
+
+        verify(collection, times(1)).createIndexes(anyList());
+        verify(database, never()).runCommand(any(Document.class));
+        assertThat(meterRegistry.get("asset.mongo.index.violation").tag("name", "connect").counter().count()).isEqualTo(1.0);
+    }
+
+    @Test
+    @DisplayName("should detect COLLSCAN nested in SBE query plans and OR branches")
+    void shouldDetectNestedCollectionScan() {
+        Document sbe = new Document("queryPlan", new Document("stage", "FETCH")
+                .append("inputStage", new Document("stage", "COLLSCAN")));
+        Document or = new Document("stage", "SUBPLAN").append("inputStage", new Document("stage", "OR")
+                .append("inputStages", List.of(new Document("stage", "IXSCAN"), new Document("stage", "COLLSCAN"))));
+
+        assertThat(MongoIndexProvisioner.isCollectionScan(sbe)).isTrue();
+        assertThat(MongoIndexProvisioner.isCollectionScan(or)).isTrue();
+        assertThat(MongoIndexProvisioner.isCollectionScan(new Document("stage", "IXSCAN"))).isFalse();
+    }
+
+    private static Document explain(Document winningPlan) {
+        return new Document("queryPlanner", new Document("winningPlan", winningPlan));
+    }
+}
@@ -3,6 +3,7 @@ package com.poc.svc.assets.controller;
 import com.poc.svc.assets.dto.AssetSourceType;
 import com.poc.svc.assets.exception.AssetAggregationException;
 import com.poc.svc.assets.service.AssetAggregationService;
+import com.poc.svc.assets.service.AssetSnapshotCache;
 import org.bson.Document;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -13,15 +14,22 @@ import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.context.annotation.Import;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 
+import java.time.Duration;
 import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 
 import static org.hamcrest.Matchers.equalTo;
 import static org.hamcrest.Matchers.hasSize;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @WebMvcTest(controllers = AssetIntegrationController.class)
@@ -36,6 +44,9 @@ class AssetIntegrationControllerTest {
     @MockBean
     private AssetAggregationService assetAggregationService;
 
+    @MockBean
+    private AssetSnapshotCache assetSnapshotCache;
+
     @Test
     @DisplayName("should return aggregated response with trace header")
     void aggregateCustomerAssets_success() throws Exception {
@@ -44,16 +55,47 @@ class AssetIntegrationControllerTest {
                 .append("traceId", "agg-trace")
                 .append("components", List.of(new Document("source", "BANK"))));
 
-        Mockito.when(assetAggregationService.aggregateCustomerAssets(eq("c-001"))).thenReturn(response);
+        Mockito.when(assetAggregationService.aggregateCustomerAssetsAsync(eq("c-001")))
+                .thenReturn(CompletableFuture.completedFuture(response));
 
-        mockMvc.perform(get("/assets/customers/{customerId}", "c-001")
+        MvcResult asyncResult = mockMvc.perform(get("/assets/customers/{customerId}", "c-001")
                         .header(TRACE_HEADER, "client-trace")
                         .accept(MediaType.APPLICATION_JSON))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(asyncResult))
                 .andExpect(status().isOk())
                 .andExpect(header().string(TRACE_HEADER, equalTo("client-trace")))
+                .andExpect(header().string("Age", "0"))
                 .andExpect(jsonPath("$", hasSize(1)))
                 .andExpect(jsonPath("$[0].customerId").value("c-001"))
                 .andExpect(jsonPath("$[0].components", hasSize(1)));
+        Mockito.verify(assetSnapshotCache).put("c-001", response);
+    }
+
+    @Test
+    @DisplayName("should serve cached snapshot with age header when Cache-Control accepts it")
+    void aggregateCustomerAssets_cachedSnapshot() throws Exception {
+        List<Document> cached = List.of(new Document()
+                .append("customerId", "c-002")
+                .append("traceId", "earlier-trace"));
+        Mockito.when(assetSnapshotCache.lookup("c-002", "max-age=30"))
+                .thenReturn(Optional.of(new AssetSnapshotCache.CachedSnapshot(cached, Duration.ofSeconds(12))));
+
+        MvcResult asyncResult = mockMvc.perform(get("/assets/customers/{customerId}", "c-002")
+                        .header(TRACE_HEADER, "client-trace")
+                        .header("Cache-Control", "max-age=30")
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(asyncResult))
+                .andExpect(status().isOk())
+                .andExpect(header().string(TRACE_HEADER, equalTo("client-trace")))
+                .andExpect(header().string("Age", "12"))
+                .andExpect(jsonPath("$[0].traceId").value("earlier-trace"));
+        Mockito.verify(assetAggregationService, Mockito.never()).aggregateCustomerAssetsAsync(any());
     }
 
     @Test
@@ -65,11 +107,16 @@ class AssetIntegrationControllerTest {
                 null
         );
 
-        Mockito.when(assetAggregationService.aggregateCustomerAssets(eq("c-999"))).thenThrow(exception);
+        Mockito.when(assetAggregationService.aggregateCustomerAssetsAsync(eq("c-999")))
+                .thenReturn(CompletableFuture.failedFuture(exception));
 
-        mockMvc.perform(get("/assets/customers/{customerId}", "c-999")
+        MvcResult asyncResult = mockMvc.perform(get("/assets/customers/{customerId}", "c-999")
                         .header(TRACE_HEADER, "trace-fail")
                         .accept(MediaType.APPLICATION_JSON))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(asyncResult))
                 .andExpect(status().isGatewayTimeout())
                 .andExpect(jsonPath("$.code").value("ASSET_AGGREGATION_FAILED"))
                 .andExpect(jsonPath("$.details.failedSources", hasSize(2)));
@@ -0,0 +1,114 @@
+package com.poc.svc.assets.entity.codec;
+
+import com.poc.svc.assets.entity.BankAssetRawDocument;
+import org.bson.BsonDocument;
+import org.bson.BsonValue;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.mongodb.core.convert.MappingMongoConverter;
+import org.springframework.data.mongodb.core.convert.MongoCustomConversions;
+import org.springframework.data.mongodb.core.convert.NoOpDbRefResolver;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 比較手寫 codec 與 {@code MappingMongoConverter} 對 raw entity 的 encode / decode 耗時。
+ * 執行方式：{@code ./gradlew :assets:test --tests "*AssetCodecBenchmarkTest" -Passets.benchmark=true}
+ */
+@EnabledIfSystemProperty(named = "assets.benchmark", matches = "true")
+class AssetCodecBenchmarkTest {
+
+    private static final Logger log = LoggerFactory.getLogger(AssetCodecBenchmarkTest.class);
+
+    private static final int WARMUP = 20_000;
+    private static final int ITERATIONS = 200_000;
+
+    @Test
+    void encodeAndDecode() {
+        MappingMongoConverter converter = converter();
+        BankAssetRawDocument entity = entity();
+        Document converted = new Document();
+        converter.write(entity, converted);
+        BsonDocument encoded = toBson(AssetCodecs.toDocument(entity));
+
+        double encodeConverter = measure("encode converter", () -> {
+            Document target = new Document();
+            converter.write(entity, target);
+            return target;
+        });
+        double encodeCodec = measure("encode codec", () -> AssetCodecs.toDocument(entity));
+        double decodeConverter = measure("decode converter", () -> converter.read(BankAssetRawDocument.class, converted));
+        double decodeCodec = measure("decode codec", () -> AssetCodecs.fromDocument(encoded, BankAssetRawDocument.class));
+        log.info("codec speedup encode={}x decode={}x",
+                String.format("%.2f", encodeConverter / encodeCodec), String.format("%.2f", decodeConverter / decodeCodec));
+
+        assertThat(AssetCodecs.fromDocument(encoded, BankAssetRawDocument.class)).isEqualTo(entity);
+        assertThat(encodeCodec).isPositive().isLessThan(encodeConverter);
+        assertThat(decodeCodec).isPositive().isLessThan(decodeConverter);
+    }
+
+    /**
+     * @return 每次操作的平均耗時（microseconds）
+     */
+    private static double measure(String name, Supplier<Object> action) {
+        Object sink = null;
+        for (int i = 0; i < WARMUP; i++) {
+            sink = action.get();
+        }
+        long begin = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            sink = action.get();
+        }
+        double microsPerOp = (System.nanoTime() - begin) / 1_000d / ITERATIONS;
+        assertThat(sink).isNotNull();
+        log.info("{} iterations={} {} us/op ({})",
+                name, ITERATIONS, String.format("%.2f", microsPerOp), sink.getClass().getSimpleName());
+        return microsPerOp;
+    }
+
+    private static MappingMongoConverter converter() {
+        MongoCustomConversions conversions = new MongoCustomConversions(List.of());
+        MongoMappingContext mappingContext = new MongoMappingContext();
+        mappingContext.setSimpleTypeHolder(conversions.getSimpleTypeHolder());
+        mappingContext.afterPropertiesSet();
+        MappingMongoConverter converter = new MappingMongoConverter(NoOpDbRefResolver.INSTANCE, mappingContext);
+        converter.setCustomConversions(conversions);
+        converter.afterPropertiesSet();
+        return converter;
+    }
+
+    private static BankAssetRawDocument entity() {
+        List<Map<String, Object>> accounts = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            accounts.add(Map.of("accountId", "ACC-" + i, "currency", "TWD", "balance", 1_000 + i));
+        }
+        return new BankAssetRawDocument(
+                new ObjectId().toHexString(),
+                "C001",
+                Map.of("customerId", "C001", "accounts", accounts),
+                new BigDecimal("20190.00"),
+                List.of(new BankAssetRawDocument.CurrencyAmount("TWD", new BigDecimal("20190.00"))),
+                Instant.now().truncatedTo(ChronoUnit.MILLIS),
+                "trace-benchmark"
+        );
+    }
+
+    private static BsonDocument toBson(Document document) {
+        BsonDocument bson = new BsonDocument();
+        document.forEach((name, value) -> bson.put(name, (BsonValue) value));
+        return bson;
+    }
+}
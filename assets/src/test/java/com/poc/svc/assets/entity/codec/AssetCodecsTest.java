@@ -0,0 +1,136 @@
+package com.poc.svc.assets.entity.codec;
+
+import com.poc.svc.assets.entity.AssetStagingDocument;
+import com.poc.svc.assets.entity.BankAssetRawDocument;
+import com.poc.svc.assets.entity.SecuritiesAssetRawDocument;
+import com.poc.svc.assets.entity.payload.CompressedBsonPayload;
+import com.poc.svc.assets.entity.payload.RawBsonPayload;
+import org.bson.BsonDocument;
+import org.bson.BsonString;
+import org.bson.BsonValue;
+import org.bson.Document;
+import org.bson.RawBsonDocument;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AssetCodecsTest {
+
+    private static final Instant FETCHED_AT = Instant.parse("2025-01-02T03:04:05.678Z");
+
+    @Test
+    @DisplayName("should encode bank raw document with the same shape as MappingMongoConverter")
+    void shouldEncodeBankRawDocumentShape() {
+        String id = new ObjectId().toHexString();
+        BankAssetRawDocument entity = new BankAssetRawDocument(
+                id,
+                "C001",
+                Map.of("accounts", List.of(Map.of("balance", 10))),
+                new BigDecimal("1234.50"),
+                List.of(new BankAssetRawDocument.CurrencyAmount("TWD", new BigDecimal("1234.50"))),
+                FETCHED_AT,
+                "trace-1"
+        );
+
+        Document document = AssetCodecs.toDocument(entity);
+
+        assertThat(((BsonValue) document.get("_id")).asObjectId().getValue().toHexString()).isEqualTo(id);
+        assertThat(document.get("totalBalance")).isEqualTo(new BsonString("1234.50"));
+        assertThat(((BsonValue) document.get("fetchedAt")).asDateTime().getValue()).isEqualTo(FETCHED_AT.toEpochMilli());
+        assertThat(((BsonValue) document.get("currencySummary")).asArray().get(0).asDocument().getString("amount").getValue())
+                .isEqualTo("1234.50");
+        assertThat(document.get("_class")).isEqualTo(new BsonString(BankAssetRawDocument.class.getName()));
+        assertThat(document.keySet()).containsExactly(
+                "_id", "customerId", "payload", "totalBalance", "currencySummary", "fetchedAt", "traceId", "_class");
+    }
+
+    @Test
+    @DisplayName("should omit null fields and round trip raw documents")
+    void shouldRoundTripRawDocument() {
+        SecuritiesAssetRawDocument entity = new SecuritiesAssetRawDocument(
+                null, "C001", Map.of("symbol", "2330"), new BigDecimal("99.9"), null, FETCHED_AT, "trace-1");
+
+        BsonDocument bson = toBson(entity);
+        SecuritiesAssetRawDocument decoded = AssetCodecs.fromDocument(bson, SecuritiesAssetRawDocument.class);
+
+        assertThat(bson.containsKey("_id")).isFalse();
+        assertThat(bson.containsKey("holdingsCount")).isFalse();
+        assertThat(decoded).isEqualTo(entity);
+    }
+
+    @Test
+    @DisplayName("should copy RawBsonPayload bytes into the encoded payload")
+    void shouldEncodeRawBsonPayload() {
+        RawBsonDocument raw = RawBsonDocument.parse("{\"accounts\": [{\"balance\": {\"$numberDecimal\": \"10.5\"}}]}");
+        BankAssetRawDocument entity = new BankAssetRawDocument(
+                null, "C001", new RawBsonPayload(raw), BigDecimal.ONE, List.of(), FETCHED_AT, "trace-1");
+
+        BsonDocument bson = toBson(entity);
+
+        assertThat(bson.getDocument("payload")).isEqualTo(raw);
+    }
+
+    @Test
+    @DisplayName("should decode payloadCompressed lazily in place of the retained payload")
+    void shouldDecodeCompressedPayloadLazily() {
+        RawBsonDocument raw = RawBsonDocument.parse("{\"customerId\": \"C001\", \"bankAssets\": [{\"balance\": 10}]}");
+        CompressedBsonPayload compressed = CompressedBsonPayload.compress(raw, 6);
+        BsonDocument bson = toBson(new BankAssetRawDocument(
+                null, "C001", Map.of("customerId", "C001"), BigDecimal.ONE, List.of(), FETCHED_AT, "trace-1"));
+        bson.put(CompressedBsonPayload.FIELD, compressed.toDocument().toBsonDocument(BsonDocument.class, AssetCodecs.REGISTRY));
+
+        BankAssetRawDocument decoded = AssetCodecs.fromDocument(bson, BankAssetRawDocument.class);
+
+        assertThat(decoded.payload()).isInstanceOf(CompressedBsonPayload.class);
+        assertThat(((CompressedBsonPayload) decoded.payload()).isDecoded()).isFalse();
+        assertThat(decoded.payload().get("bankAssets")).isEqualTo(List.of(new Document("balance", 10)));
+        assertThat(toBson(decoded).getDocument("payload")).isEqualTo(raw);
+    }
+
+    @Test
+    @DisplayName("should round trip staging document with nested components and entries")
+    void shouldRoundTripStagingDocument() {
+        AssetStagingDocument.AssetEntry entry = new AssetStagingDocument.AssetEntry(
+                "C001", "BANK", "SUCCESS", "Savings", "DEPOSIT", "USD", "USD", new BigDecimal("31.5"), "TWD",
+                new BigDecimal("315.00"), new BigDecimal("10.00"), null, null, null, null, null, null, null, null,
+                "ACC-1", FETCHED_AT, FETCHED_AT, "trace-1", "ref-1", new BigDecimal("315.00"), "SUCCESS");
+        AssetStagingDocument entity = new AssetStagingDocument(
+                new ObjectId().toHexString(),
+                "C001",
+                "TWD",
+                List.of(new AssetStagingDocument.Component("BANK", "SUCCESS", new BigDecimal("315.00"), "USD",
+                        new BigDecimal("31.5"), "trace-1", FETCHED_AT, List.of(Map.of("accountId", "ACC-1")), "ref-1")),
+                List.of(entry),
+                new BigDecimal("315.00"),
+                List.of(new AssetStagingDocument.CurrencyAmount("USD", new BigDecimal("10.00"))),
+                "SUCCESS",
+                FETCHED_AT,
+                "trace-1"
+        );
+
+        AssetStagingDocument decoded = AssetCodecs.fromDocument(toBson(entity), AssetStagingDocument.class);
+
+        assertThat(decoded).isEqualTo(entity);
+    }
+
+    @Test
+    @DisplayName("should only support raw and staging entities")
+    void shouldReportSupportedTypes() {
+        assertThat(AssetCodecs.supports(BankAssetRawDocument.class)).isTrue();
+        assertThat(AssetCodecs.supports(AssetStagingDocument.class)).isTrue();
+        assertThat(AssetCodecs.supports(Document.class)).isFalse();
+    }
+
+    private static BsonDocument toBson(Object entity) {
+        BsonDocument bson = new BsonDocument();
+        AssetCodecs.toDocument(entity).forEach((name, value) -> bson.put(name, (BsonValue) value));
+        return bson;
+    }
+}
@@ -0,0 +1,70 @@
+package com.poc.svc.assets.entity.payload;
+
+import org.bson.Document;
+import org.bson.RawBsonDocument;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class CompressedBsonPayloadTest {
+
+    private static final RawBsonDocument RAW = RawBsonDocument.parse(
+            "{\"customerId\": \"C001\", \"bankAssets\": [{\"accountId\": \"A1\", \"balance\": {\"$numberDecimal\": \"10.5\"}}]}");
+
+    @Test
+    @DisplayName("should not inflate until a field is read and then decode the original bytes")
+    void shouldInflateLazily() {
+        CompressedBsonPayload payload = CompressedBsonPayload.compress(RAW, 6);
+
+        assertThat(payload.isDecoded()).isFalse();
+        assertThat(payload.rawLength()).isEqualTo(RAW.getByteBuffer().remaining());
+
+        assertThat(payload.get("customerId")).isEqualTo("C001");
+        assertThat(payload.isDecoded()).isTrue();
+        assertThat(payload.decode().raw()).isEqualTo(RAW);
+        assertThat(payload.get("bankAssets")).isInstanceOf(List.class);
+    }
+
+    @Test
+    @DisplayName("should round trip through the stored payloadCompressed document")
+    void shouldRoundTripStoredDocument() {
+        Document stored = CompressedBsonPayload.compress(RAW, 1).toDocument();
+
+        CompressedBsonPayload restored = CompressedBsonPayload.fromDocument(stored);
+
+        assertThat(stored.getString("codec")).isEqualTo(CompressedBsonPayload.CODEC);
+        assertThat(restored.decode().raw()).isEqualTo(RAW);
+        assertThat(restored.keySet()).containsExactly("customerId", "bankAssets");
+    }
+
+    @Test
+    @DisplayName("should compress only the document's bytes when it is a slice of a larger buffer")
+    void shouldCompressSlicedDocument() {
+        byte[] bytes = RAW.getByteBuffer().asNIO().array();
+        byte[] padded = new byte[bytes.length + 16];
+        System.arraycopy(bytes, 0, padded, 8, bytes.length);
+        RawBsonDocument sliced = new RawBsonDocument(padded, 8, bytes.length);
+
+        CompressedBsonPayload payload = CompressedBsonPayload.compress(sliced, 6);
+
+        assertThat(payload.rawLength()).isEqualTo(bytes.length);
+        assertThat(payload.decode().raw()).isEqualTo(RAW);
+    }
+
+    @Test
+    @DisplayName("should reject unknown codecs and truncated data")
+    void shouldRejectInvalidPayload() {
+        Document unknown = CompressedBsonPayload.compress(RAW, 6).toDocument().append("codec", "zstd");
+        CompressedBsonPayload truncated = new CompressedBsonPayload(new byte[]{0x78, (byte) 0x9c}, RAW.getByteBuffer().remaining());
+
+        assertThatThrownBy(() -> CompressedBsonPayload.fromDocument(unknown))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("zstd");
+        assertThatThrownBy(() -> truncated.get("customerId"))
+                .isInstanceOf(IllegalStateException.class);
+    }
+}
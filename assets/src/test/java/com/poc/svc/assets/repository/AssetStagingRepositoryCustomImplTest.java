@@ -0,0 +1,88 @@
+package com.poc.svc.assets.repository;
+
+import com.mongodb.client.FindIterable;
+import com.mongodb.client.MongoCollection;
+import com.poc.svc.assets.entity.AssetStagingDocument;
+import com.poc.svc.assets.entity.codec.AssetCodecs;
+import org.bson.Document;
+import org.bson.conversions.Bson;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.IncorrectResultSizeDataAccessException;
+import org.springframework.data.mongodb.core.MongoTemplate;
+
+import java.util.Collection;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class AssetStagingRepositoryCustomImplTest {
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    @Mock
+    private MongoCollection<Document> collection;
+
+    @Mock
+    private MongoCollection<AssetStagingDocument> typedCollection;
+
+    @Mock
+    private FindIterable<AssetStagingDocument> results;
+
+    private AssetStagingRepositoryCustomImpl repository;
+
+    @BeforeEach
+    void setUp() {
+        when(mongoTemplate.getCollectionName(AssetStagingDocument.class)).thenReturn("asset_staging");
+        when(mongoTemplate.getCollection("asset_staging")).thenReturn(collection);
+        when(collection.withCodecRegistry(AssetCodecs.REGISTRY)).thenReturn(collection);
+        when(collection.withDocumentClass(AssetStagingDocument.class)).thenReturn(typedCollection);
+        when(typedCollection.find(any(Bson.class))).thenReturn(results);
+        when(results.limit(anyInt())).thenReturn(results);
+        repository = new AssetStagingRepositoryCustomImpl(mongoTemplate);
+    }
+
+    @Test
+    @DisplayName("should decode staging documents with the codec registry instead of the converter")
+    void findByCustomerId_decodesWithCodec() {
+        AssetStagingDocument staging = staging("trace-1");
+        returns(List.of(staging));
+
+        assertThat(repository.findByCustomerId("C001")).contains(staging);
+        verify(collection).withCodecRegistry(AssetCodecs.REGISTRY);
+        verify(mongoTemplate, never()).getConverter();
+    }
+
+    @Test
+    @DisplayName("should reject more than one staging document like the derived query did")
+    void findByCustomerId_rejectsMultipleResults() {
+        returns(List.of(staging("trace-1"), staging("trace-2")));
+
+        assertThatThrownBy(() -> repository.findByCustomerId("C001"))
+                .isInstanceOf(IncorrectResultSizeDataAccessException.class);
+    }
+
+    private void returns(List<AssetStagingDocument> documents) {
+        when(results.into(any())).thenAnswer(invocation -> {
+            Collection<AssetStagingDocument> target = invocation.getArgument(0);
+            target.addAll(documents);
+            return target;
+        });
+    }
+
+    private static AssetStagingDocument staging(String traceId) {
+        return new AssetStagingDocument(null, "C001", "TWD", List.of(), List.of(), null, List.of(), "COMPLETED", null, traceId);
+    }
+}
@@ -2,9 +2,14 @@ package com.poc.svc.assets.repository;
 
 import com.poc.svc.assets.config.MongoWriteRetryProperties;
 import com.poc.svc.assets.entity.BankAssetRawDocument;
+import com.poc.svc.assets.entity.payload.RawBsonPayload;
 import com.poc.svc.assets.service.BankAssetWriter;
 import com.poc.svc.assets.service.BankAssetWriter.BankAssetWriteRequest;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.poc.svc.assets.service.impl.support.JsonToBsonStreamer;
 import com.poc.svc.assets.service.impl.support.MongoWriteRetrier;
+import com.poc.svc.assets.service.impl.support.RawDocumentInserter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -12,13 +17,18 @@ import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import java.io.ByteArrayInputStream;
 import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
 import java.time.Instant;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -28,11 +38,19 @@ class BankAssetRepositoryTest {
     @Mock
     private BankAssetRawRepository repository;
 
+    @Mock
+    private RawDocumentInserter rawDocumentInserter;
+
     private BankAssetWriter bankAssetWriter;
 
     @BeforeEach
     void setUp() {
-        bankAssetWriter = new BankAssetWriter(repository, new MongoWriteRetrier(MongoWriteRetryProperties.defaults()));
+        bankAssetWriter = new BankAssetWriter(
+                repository,
+                new MongoWriteRetrier(MongoWriteRetryProperties.defaults(), new SimpleMeterRegistry()),
+                rawDocumentInserter,
+                Runnable::run
+        );
     }
 
     @Test
@@ -63,7 +81,7 @@ class BankAssetRepositoryTest {
                 "trace-abc"
         );
 
-        BankAssetRawDocument result = bankAssetWriter.write(request);
+        BankAssetRawDocument result = bankAssetWriter.write(request).join();
 
         ArgumentCaptor<BankAssetRawDocument> documentCaptor = ArgumentCaptor.forClass(BankAssetRawDocument.class);
         verify(repository).save(documentCaptor.capture());
@@ -79,4 +97,30 @@ class BankAssetRepositoryTest {
 
         assertThat(result.id()).isEqualTo("generated-id");
     }
+
+    @Test
+    void writeBankAssets_insertsRawBsonPayloadWithoutRepository() throws Exception {
+        RawBsonPayload payload = new RawBsonPayload(new JsonToBsonStreamer(new JsonFactory()).read(
+                new ByteArrayInputStream("{\"bankAssets\": []}".getBytes(StandardCharsets.UTF_8))));
+        when(rawDocumentInserter.insertEntity(any(BankAssetRawDocument.class), anyString()))
+                .thenAnswer(invocation -> CompletableFuture.completedFuture(
+                        invocation.<BankAssetRawDocument>getArgument(0).withId("raw-id")));
+
+        BankAssetRawDocument result = bankAssetWriter.write(new BankAssetWriteRequest(
+                "customer-123",
+                payload,
+                BigDecimal.valueOf(500),
+                List.of(new BankAssetWriteRequest.CurrencyAmount("TWD", BigDecimal.valueOf(500))),
+                Instant.parse("2025-01-01T00:00:00Z"),
+                "trace-abc"
+        )).join();
+
+        ArgumentCaptor<BankAssetRawDocument> documentCaptor = ArgumentCaptor.forClass(BankAssetRawDocument.class);
+        verify(rawDocumentInserter).insertEntity(documentCaptor.capture(), anyString());
+        verify(repository, never()).save(any());
+        assertThat(documentCaptor.getValue().payload()).isSameAs(payload);
+        assertThat(documentCaptor.getValue().totalBalance()).isEqualByComparingTo("500");
+        assertThat(result.id()).isEqualTo("raw-id");
+        assertThat(result.payload()).isSameAs(payload);
+    }
 }
@@ -5,6 +5,8 @@ import com.poc.svc.assets.entity.InsuranceAssetRawDocument;
 import com.poc.svc.assets.service.InsuranceAssetWriter;
 import com.poc.svc.assets.service.InsuranceAssetWriter.InsuranceAssetWriteRequest;
 import com.poc.svc.assets.service.impl.support.MongoWriteRetrier;
+import com.poc.svc.assets.service.impl.support.RawDocumentInserter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -27,11 +29,19 @@ class InsuranceAssetRepositoryTest {
     @Mock
     private InsuranceAssetRawRepository repository;
 
+    @Mock
+    private RawDocumentInserter rawDocumentInserter;
+
     private InsuranceAssetWriter insuranceAssetWriter;
 
     @BeforeEach
     void setUp() {
-        insuranceAssetWriter = new InsuranceAssetWriter(repository, new MongoWriteRetrier(MongoWriteRetryProperties.defaults()));
+        insuranceAssetWriter = new InsuranceAssetWriter(
+                repository,
+                new MongoWriteRetrier(MongoWriteRetryProperties.defaults(), new SimpleMeterRegistry()),
+                rawDocumentInserter,
+                Runnable::run
+        );
     }
 
     @Test
@@ -58,7 +68,7 @@ class InsuranceAssetRepositoryTest {
                 "trace-insurance"
         );
 
-        InsuranceAssetRawDocument result = insuranceAssetWriter.write(request);
+        InsuranceAssetRawDocument result = insuranceAssetWriter.write(request).join();
 
         ArgumentCaptor<InsuranceAssetRawDocument> documentCaptor = ArgumentCaptor.forClass(InsuranceAssetRawDocument.class);
         verify(repository).save(documentCaptor.capture());
@@ -5,6 +5,8 @@ import com.poc.svc.assets.entity.SecuritiesAssetRawDocument;
 import com.poc.svc.assets.service.SecuritiesAssetWriter;
 import com.poc.svc.assets.service.SecuritiesAssetWriter.SecuritiesAssetWriteRequest;
 import com.poc.svc.assets.service.impl.support.MongoWriteRetrier;
+import com.poc.svc.assets.service.impl.support.RawDocumentInserter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -27,11 +29,19 @@ class SecuritiesAssetRepositoryTest {
     @Mock
     private SecuritiesAssetRawRepository repository;
 
+    @Mock
+    private RawDocumentInserter rawDocumentInserter;
+
     private SecuritiesAssetWriter securitiesAssetWriter;
 
     @BeforeEach
     void setUp() {
-        securitiesAssetWriter = new SecuritiesAssetWriter(repository, new MongoWriteRetrier(MongoWriteRetryProperties.defaults()));
+        securitiesAssetWriter = new SecuritiesAssetWriter(
+                repository,
+                new MongoWriteRetrier(MongoWriteRetryProperties.defaults(), new SimpleMeterRegistry()),
+                rawDocumentInserter,
+                Runnable::run
+        );
     }
 
     @Test
@@ -58,7 +68,7 @@ class SecuritiesAssetRepositoryTest {
                 "trace-securities"
         );
 
-        SecuritiesAssetRawDocument result = securitiesAssetWriter.write(request);
+        SecuritiesAssetRawDocument result = securitiesAssetWriter.write(request).join();
 
         ArgumentCaptor<SecuritiesAssetRawDocument> documentCaptor = ArgumentCaptor.forClass(SecuritiesAssetRawDocument.class);
         verify(repository).save(documentCaptor.capture());
@@ -0,0 +1,107 @@
+package com.poc.svc.assets.service;
+
+import com.poc.svc.assets.entity.codec.AssetCodecs;
+import org.bson.Document;
+import org.bson.RawBsonDocument;
+import org.bson.codecs.Codec;
+import org.bson.types.Decimal128;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 比較 staging 文件（數百筆 {@code assets}）回傳前的處理成本：先前的 JSON 複製、結構化複製（encode + decode）
+ * 與目前直接回傳 driver 解碼結果；decode 為 driver 讀取時本來就要付出的成本。
+ * 執行方式：{@code ./gradlew :assets:test --tests "*AggregationExecutorBenchmarkTest" -Passets.benchmark=true}
+ */
+@EnabledIfSystemProperty(named = "assets.benchmark", matches = "true")
+class AggregationExecutorBenchmarkTest {
+
+    private static final Logger log = LoggerFactory.getLogger(AggregationExecutorBenchmarkTest.class);
+
+    private static final int WARMUP = 2_000;
+    private static final int ITERATIONS = 20_000;
+    private static final Codec<Document> CODEC = AssetCodecs.REGISTRY.get(Document.class);
+
+    @Test
+    void cloneStagingDocuments() {
+        for (int assets : new int[]{100, 500}) {
+            Document staging = stagingDocument(assets);
+            RawBsonDocument bytes = new RawBsonDocument(staging, CODEC);
+
+            double decode = measure("decode (driver) assets=" + assets, () -> decode(bytes));
+            double jsonClone = measure("json clone (previous) assets=" + assets, () -> Document.parse(staging.toJson()));
+            double structuralCopy = measure("structural copy assets=" + assets, () -> decode(new RawBsonDocument(staging, CODEC)));
+            double noCopy = measure("no copy (current) assets=" + assets, () -> staging);
+            log.info("assets={} saved per response vs json clone={} us", assets, String.format("%.2f", jsonClone - noCopy));
+
+            assertThat(decode).isPositive();
+            assertThat(noCopy).isLessThan(structuralCopy).isLessThan(jsonClone);
+        }
+
+        Document staging = stagingDocument(1);
+        assertThat(decode(new RawBsonDocument(staging, CODEC)).get("version")).isInstanceOf(Long.class);
+        assertThat(Document.parse(staging.toJson()).get("version")).isInstanceOf(Integer.class); // JSON 複製會遺失 Int64
+    }
+
+    private static Document decode(RawBsonDocument bytes) {
+        return bytes.decode(CODEC);
+    }
+
+    /**
+     * @return 每次操作的平均耗時（microseconds）
+     */
+    private static double measure(String name, Supplier<Object> action) {
+        Object sink = null;
+        for (int i = 0; i < WARMUP; i++) {
+            sink = action.get();
+        }
+        long begin = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            sink = action.get();
+        }
+        double microsPerOp = (System.nanoTime() - begin) / 1_000d / ITERATIONS;
+        assertThat(sink).isNotNull();
+        log.info("{} iterations={} {} us/op ({})",
+                name, ITERATIONS, String.format("%.2f", microsPerOp), sink.getClass().getSimpleName());
+        return microsPerOp;
+    }
+
+    private static Document stagingDocument(int assetCount) {
+        Date now = new Date();
+        List<Document> assets = new ArrayList<>(assetCount);
+        for (int i = 0; i < assetCount; i++) {
+            assets.add(new Document("source", i % 3 == 0 ? "BANK" : i % 3 == 1 ? "SECURITIES" : "INSURANCE")
+                    .append("assetId", "ASSET-" + i)
+                    .append("type", "DEPOSIT")
+                    .append("currency", i % 2 == 0 ? "TWD" : "USD")
+                    .append("amount", new Decimal128(new BigDecimal("1000.25").add(BigDecimal.valueOf(i))))
+                    .append("amountInBase", new Decimal128(new BigDecimal("32008.00").add(BigDecimal.valueOf(i))))
+                    .append("updatedAt", now)
+                    .append("attributes", new Document("accountNo", "000-" + i).append("branch", "Taipei")));
+        }
+        return new Document("traceId", "trace-benchmark")
+                .append("customerId", "C001")
+                .append("version", 1L)
+                .append("aggregationStatus", "COMPLETED")
+                .append("aggregatedAt", now)
+                .append("baseCurrency", "TWD")
+                .append("totalAssetValue", new Decimal128(new BigDecimal("98765432.10")))
+                .append("currencyBreakdown", new Document("TWD", new Decimal128(new BigDecimal("1000.00")))
+                        .append("USD", new Decimal128(new BigDecimal("2000.00"))))
+                .append("components", List.of(
+                        new Document("source", "BANK").append("status", "SUCCESS"),
+                        new Document("source", "SECURITIES").append("status", "SUCCESS"),
+                        new Document("source", "INSURANCE").append("status", "SUCCESS")))
+                .append("assets", assets);
+    }
+}
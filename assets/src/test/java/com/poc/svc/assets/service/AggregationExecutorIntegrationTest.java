@@ -1,10 +1,27 @@
 package com.poc.svc.assets.service;
 
 import com.mongodb.client.model.IndexOptions;
+import com.poc.svc.assets.config.AssetAggregationProperties;
+import com.poc.svc.assets.config.CurrencyConversionProperties;
+import com.poc.svc.assets.dto.AssetComponentStatus;
+import com.poc.svc.assets.dto.AssetSourceType;
+import com.poc.svc.assets.entity.AssetStagingDocument;
+import com.poc.svc.assets.entity.codec.AssetCodecs;
+import com.poc.svc.assets.service.AssetAggregationCoordinator.ExecutionSummary;
+import com.poc.svc.assets.service.AssetAggregationCoordinator.SourceOutcome;
+import com.poc.svc.assets.service.impl.DefaultCurrencyConversionService;
+import com.poc.svc.assets.service.impl.InProcessStagingAggregationEngine;
+import org.bson.BsonDocument;
 import org.bson.Document;
+import org.bson.types.Decimal128;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.junit.jupiter.params.provider.EnumSource;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.data.mongodb.core.MongoTemplate;
@@ -14,7 +31,12 @@ import org.testcontainers.containers.MongoDBContainer;
 import org.testcontainers.junit.jupiter.Container;
 import org.testcontainers.junit.jupiter.Testcontainers;
 
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Date;
 import java.util.List;
+import java.util.Map;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
@@ -22,6 +44,9 @@ import static org.assertj.core.api.Assertions.assertThat;
 @Testcontainers(disabledWithoutDocker = true)
 class AggregationExecutorIntegrationTest {
 
+    private static final ObjectId EXISTING_STAGING_ID = new ObjectId();
+    private static final String STAGING_REFERENCE_PIPELINE = "assets_staging_reference";
+
     @Container
     static final MongoDBContainer mongo = new MongoDBContainer("mongo:8.0");
 
@@ -37,11 +62,19 @@ class AggregationExecutorIntegrationTest {
     @Autowired
     private MongoTemplate mongoTemplate;
 
+    @Autowired
+    private AssetAggregationProperties aggregationProperties;
+
     @BeforeEach
     void cleanCollections() {
         mongoTemplate.getDb().drop();
     }
 
+    @AfterEach
+    void restorePipelineOutput() {
+        aggregationProperties.setPipelineOutput(AssetAggregationProperties.PipelineOutput.MERGE);
+    }
+
     @Test
     @DisplayName("should wrap merge pipeline with facet and return merged documents")
     void executesFacetWrappedPipeline() {
@@ -70,6 +103,354 @@ class AggregationExecutorIntegrationTest {
         assertThat(traceMatches).isEqualTo(1);
     }
 
+    @Test
+    @DisplayName("should scope the pipeline to the customer and bind let variables")
+    void executesParameterizedPipeline() {
+        seedParameterizedPipelineDefinition();
+        insertRawBankDocument();
+        mongoTemplate.getDb()
+                .getCollection("bank_raw")
+                .insertOne(new Document("traceId", "trace-other").append("customerId", "other-customer"));
+
+        List<Document> results = aggregationExecutor.execute("assets_parameterized",
+                new PipelineParameters("customer-it", "trace-it", "TWD", Map.of("USD", new BigDecimal("32.0000"))));
+
+        assertThat(results).hasSize(1);
+        Document aggregated = results.get(0);
+        assertThat(aggregated.getString("customerId")).isEqualTo("customer-it");
+        assertThat(aggregated.getString("baseCurrency")).isEqualTo("TWD");
+        assertThat(mongoTemplate.getDb().getCollection("asset_staging").countDocuments()).isEqualTo(1);
+    }
+
+    @ParameterizedTest(name = "whenMatched={0} existing={1}")
+    @CsvSource({
+            "replace, true",
+            "merge, true",
+            "keepExisting, true",
+            "replace, false",
+            "merge, false",
+            "keepExisting, false"
+    })
+    @DisplayName("should store and return the same documents in RESULT mode as $merge followed by find")
+    void resultOutputMatchesMerge(String whenMatched, boolean existing) {
+        ExecutionSnapshot merged = executeWith(AssetAggregationProperties.PipelineOutput.MERGE, whenMatched, existing);
+        ExecutionSnapshot result = executeWith(AssetAggregationProperties.PipelineOutput.RESULT, whenMatched, existing);
+
+        assertThat(result.returned()).hasSize(1);
+        assertThat(withoutGeneratedId(result.returned(), existing)).isEqualTo(withoutGeneratedId(merged.returned(), existing));
+        assertThat(withoutGeneratedId(result.stored(), existing)).isEqualTo(withoutGeneratedId(merged.stored(), existing));
+        assertThat(result.returned()).isEqualTo(result.stored());
+        if (existing) {
+            assertThat(result.stored().get(0).getObjectId("_id")).isEqualTo(EXISTING_STAGING_ID);
+        }
+    }
+
+    @ParameterizedTest(name = "securities={0}")
+    @EnumSource(value = AssetComponentStatus.class, names = {"MISSING", "FAILED"})
+    @DisplayName("should build the same staging document in process as the $merge pipeline over the raw collections")
+    void inProcessEngineMatchesPipeline(AssetComponentStatus securitiesStatus) {
+        seedStagingReferencePipeline();
+        ensureStagingIndex();
+        Instant fetchedAt = Instant.parse("2024-05-01T08:00:00Z");
+        Map<String, Object> bankAsset = Map.of(
+                "assetName", "USD Savings",
+                "assetType", "DEPOSIT",
+                "currency", "USD",
+                "balance", 100,
+                "accountId", "acc-1");
+        Map<String, Object> policy = Map.of(
+                "policyNumber", "P-1",
+                "policyType", "LIFE",
+                "currency", "TWD",
+                "coverage", 500,
+                "premiumStatus", "PAID");
+        ObjectId bankId = insertRawDocument("bank_raw", fetchedAt, new Document()
+                .append("totalBalance", new Decimal128(new BigDecimal("100")))
+                .append("currencySummary", List.of(new Document("currency", "USD")
+                        .append("amount", new Decimal128(new BigDecimal("100")))))
+                .append("payload", new Document("currency", "USD").append("bankAssets", List.of(new Document(bankAsset)))));
+        ObjectId insuranceId = insertRawDocument("insurance_raw", fetchedAt, new Document()
+                .append("totalCoverage", new Decimal128(new BigDecimal("500")))
+                .append("payload", new Document("currency", "TWD").append("insuranceAssets", List.of(new Document(policy)))));
+
+        aggregationExecutor.execute(STAGING_REFERENCE_PIPELINE,
+                new PipelineParameters("customer-it", "trace-it", "TWD", Map.of("USD", new BigDecimal("32"))));
+        AssetStagingDocument fromPipeline = readStagingDocument();
+
+        SourceOutcome securities = securitiesStatus == AssetComponentStatus.MISSING
+                ? SourceOutcome.missing(AssetSourceType.SECURITIES, "trace-it")
+                : SourceOutcome.failed(AssetSourceType.SECURITIES, "trace-it", new IllegalStateException("securities unavailable"));
+        ExecutionSummary summary = new ExecutionSummary(Map.of(
+                AssetSourceType.BANK, SourceOutcome.success(AssetSourceType.BANK, new BigDecimal("100"), "USD", fetchedAt,
+                        "trace-it", bankId.toHexString(), Map.of(),
+                        List.of(new BankAssetWriter.BankAssetWriteRequest.CurrencyAmount("USD", new BigDecimal("100"))),
+                        List.of(bankAsset)),
+                AssetSourceType.SECURITIES, securities,
+                AssetSourceType.INSURANCE, SourceOutcome.success(AssetSourceType.INSURANCE, new BigDecimal("500"), "TWD", fetchedAt,
+                        "trace-it", insuranceId.toHexString(), Map.of(), List.of(), List.of(policy))
+        ));
+        CurrencyConversionProperties currencyProperties = new CurrencyConversionProperties();
+        currencyProperties.setRates(Map.of("USD:TWD", new BigDecimal("32")));
+        new InProcessStagingAggregationEngine(mongoTemplate, new DefaultCurrencyConversionService(currencyProperties), "TWD")
+                .aggregate("customer-it", "trace-it", summary);
+        AssetStagingDocument inProcess = readStagingDocument();
+
+        if (securitiesStatus == AssetComponentStatus.FAILED) {
+            // 失敗的來源不會寫入 raw collection，pipeline 只能將其視為 MISSING；其餘欄位應與 MISSING 相同
+            assertThat(component(fromPipeline, AssetSourceType.SECURITIES).status()).isEqualTo("MISSING");
+            assertThat(component(inProcess, AssetSourceType.SECURITIES).status()).isEqualTo("FAILED");
+            fromPipeline = withComponentStatus(fromPipeline, AssetSourceType.SECURITIES, "FAILED");
+        }
+        assertThat(withoutUnavailableFetchTimes(inProcess))
+                .usingRecursiveComparison()
+                .withComparatorForType(BigDecimal::compareTo, BigDecimal.class)
+                .ignoringFields("id", "aggregatedAt", "assets.aggregatedAt")
+                .isEqualTo(withoutUnavailableFetchTimes(fromPipeline));
+        assertThat(inProcess.totalAssetValue()).isEqualByComparingTo("3700");
+    }
+
+    private ExecutionSnapshot executeWith(AssetAggregationProperties.PipelineOutput output,
+                                          String whenMatched,
+                                          boolean existing) {
+        mongoTemplate.getDb().drop();
+        aggregationProperties.setPipelineOutput(output);
+        String pipelineName = "assets_result_" + whenMatched;
+        seedResultPipelineDefinition(pipelineName, whenMatched);
+        insertRawBankDocument();
+        insertExistingStagingDocument();
+        if (existing) {
+            mongoTemplate.getDb()
+                    .getCollection("asset_staging")
+                    .insertOne(new Document()
+                            .append("_id", EXISTING_STAGING_ID)
+                            .append("traceId", "trace-it")
+                            .append("customerId", "customer-it")
+                            .append("aggregationStatus", "PENDING")
+                            .append("legacyField", "kept"));
+        }
+        ensureStagingIndex();
+
+        List<Document> returned = aggregationExecutor.execute(pipelineName, "trace-it");
+        List<Document> stored = mongoTemplate.getDb()
+                .getCollection("asset_staging")
+                .find(new Document("traceId", "trace-it"))
+                .into(new ArrayList<>());
+        return new ExecutionSnapshot(returned, stored);
+    }
+
+    /**
+     * 未命中既有文件時 {@code _id} 由寫入端產生，兩種模式不會相同，比較前移除。
+     */
+    private static List<Document> withoutGeneratedId(List<Document> documents, boolean existing) {
+        if (existing) {
+            return documents;
+        }
+        List<Document> copies = new ArrayList<>(documents.size());
+        for (Document document : documents) {
+            Document copy = new Document(document);
+            copy.remove("_id");
+            copies.add(copy);
+        }
+        return copies;
+    }
+
+    private AssetStagingDocument readStagingDocument() {
+        BsonDocument stored = mongoTemplate.getDb()
+                .getCollection("asset_staging", BsonDocument.class)
+                .find(new Document("traceId", "trace-it"))
+                .first();
+        assertThat(stored).isNotNull();
+        return AssetCodecs.fromDocument(stored, AssetStagingDocument.class);
+    }
+
+    private static AssetStagingDocument.Component component(AssetStagingDocument staging, AssetSourceType source) {
+        return staging.components().stream()
+                .filter(component -> source.name().equals(component.source()))
+                .findFirst()
+                .orElseThrow();
+    }
+
+    private static AssetStagingDocument withComponentStatus(AssetStagingDocument staging, AssetSourceType source, String status) {
+        return withComponents(staging, staging.components().stream()
+                .map(component -> !source.name().equals(component.source()) ? component
+                        : new AssetStagingDocument.Component(component.source(), status, component.amountInBase(),
+                        component.sourceCurrency(), component.exchangeRate(), component.rawTraceId(), component.fetchedAt(),
+                        component.assetDetails(), component.payloadRefId()))
+                .toList());
+    }
+
+    /**
+     * 未取得資料的來源其 fetchedAt 為建立 outcome 的時間（pipeline 端沒有 raw 文件可取），比較前移除。
+     */
+    private static AssetStagingDocument withoutUnavailableFetchTimes(AssetStagingDocument staging) {
+        return withComponents(staging, staging.components().stream()
+                .map(component -> "SUCCESS".equals(component.status()) ? component
+                        : new AssetStagingDocument.Component(component.source(), component.status(), component.amountInBase(),
+                        component.sourceCurrency(), component.exchangeRate(), component.rawTraceId(), null,
+                        component.assetDetails(), component.payloadRefId()))
+                .toList());
+    }
+
+    private static AssetStagingDocument withComponents(AssetStagingDocument staging, List<AssetStagingDocument.Component> components) {
+        return new AssetStagingDocument(staging.id(), staging.customerId(), staging.baseCurrency(), components, staging.assets(),
+                staging.totalAssetValue(), staging.currencyBreakdown(), staging.aggregationStatus(), staging.aggregatedAt(),
+                staging.traceId());
+    }
+
+    private ObjectId insertRawDocument(String collection, Instant fetchedAt, Document fields) {
+        Document raw = new Document(fields)
+                .append("customerId", "customer-it")
+                .append("traceId", "trace-it")
+                .append("fetchedAt", Date.from(fetchedAt));
+        mongoTemplate.getDb().getCollection(collection).insertOne(raw);
+        return raw.getObjectId("_id");
+    }
+
+    /**
+     * 以 {@code $merge} pipeline 從 raw collection 組出與 {@link InProcessStagingAggregationEngine} 相同結構的 staging 文件：
+     * 依 BANK、SECURITIES、INSURANCE 順序產生 component，沒有 raw 文件的來源為金額 0 的 MISSING，
+     * 以 {@code $$rates} 換算基準幣別，明細與幣別分布只取有 raw 文件的來源。
+     */
+    private void seedStagingReferencePipeline() {
+        String rate = """
+                {"$cond": [{"$eq": ["$$currency", "$$baseCurrency"]}, 1,
+                  {"$getField": {"field": "v", "input": {"$first": {"$filter": {
+                    "input": {"$objectToArray": "$$rates"}, "cond": {"$eq": ["$$this.k", "$$currency"]}}}}}}]}
+                """;
+        String definition = """
+                {"name": "%s", "sourceCollection": "bank_raw", "pipeline": [
+                  {"$match": {"$expr": {"$eq": ["$traceId", "$$traceId"]}}},
+                  {"$limit": 1},
+                  {"$lookup": {"from": "securities_raw", "as": "securities", "pipeline": [
+                    {"$match": {"$expr": {"$and": [{"$eq": ["$customerId", "$$customerId"]}, {"$eq": ["$traceId", "$$traceId"]}]}}},
+                    {"$limit": 1}]}},
+                  {"$lookup": {"from": "insurance_raw", "as": "insurance", "pipeline": [
+                    {"$match": {"$expr": {"$and": [{"$eq": ["$customerId", "$$customerId"]}, {"$eq": ["$traceId", "$$traceId"]}]}}},
+                    {"$limit": 1}]}},
+                  {"$project": {"_id": 0, "sources": [
+                    {"source": "BANK", "raw": "$$ROOT", "amount": "$totalBalance",
+                      "details": "$payload.bankAssets", "breakdown": "$currencySummary"},
+                    {"source": "SECURITIES", "raw": {"$first": "$securities"}, "amount": {"$first": "$securities.totalMarketValue"},
+                      "details": {"$first": "$securities.payload.securitiesAssets"}},
+                    {"source": "INSURANCE", "raw": {"$first": "$insurance"}, "amount": {"$first": "$insurance.totalCoverage"},
+                      "details": {"$first": "$insurance.payload.insuranceAssets"}}]}},
+                  {"$set": {"sources": {"$map": {"input": "$sources", "as": "s", "in": {"$let": {
+                    "vars": {"currency": {"$ifNull": ["$$s.raw.payload.currency", "$$baseCurrency"]}},
+                    "in": {"$let": {"vars": {"rate": %s}, "in": {"$mergeObjects": ["$$s", {
+                      "status": {"$cond": [{"$ifNull": ["$$s.raw", false]}, "SUCCESS", "MISSING"]},
+                      "currency": "$$s.raw.payload.currency",
+                      "rate": "$$rate",
+                      "amountInBase": {"$round": [{"$multiply": [{"$ifNull": ["$$s.amount", 0]}, "$$rate"]}, 2]}}]}}}}}}}}},
+                  {"$project": {
+                    "customerId": "$$customerId",
+                    "baseCurrency": "$$baseCurrency",
+                    "traceId": "$$traceId",
+                    "aggregationStatus": {"$literal": "COMPLETED"},
+                    "aggregatedAt": "$$NOW",
+                    "totalAssetValue": {"$sum": "$sources.amountInBase"},
+                    "components": {"$map": {"input": "$sources", "as": "s", "in": {
+                      "source": "$$s.source",
+                      "status": "$$s.status",
+                      "amountInBase": "$$s.amountInBase",
+                      "sourceCurrency": "$$s.currency",
+                      "exchangeRate": "$$s.rate",
+                      "rawTraceId": {"$ifNull": ["$$s.raw.traceId", "$$traceId"]},
+                      "fetchedAt": "$$s.raw.fetchedAt",
+                      "assetDetails": {"$ifNull": ["$$s.details", []]},
+                      "payloadRefId": {"$toString": "$$s.raw._id"}}}},
+                    "assets": {"$reduce": {
+                      "input": {"$filter": {"input": "$sources", "cond": {"$eq": ["$$this.status", "SUCCESS"]}}},
+                      "initialValue": [],
+                      "in": {"$concatArrays": ["$$value", {"$map": {"input": {"$ifNull": ["$$this.details", []]}, "as": "d", "in": {"$let": {
+                        "vars": {
+                          "currency": {"$ifNull": ["$$d.currency", "$$this.currency", "$$baseCurrency"]},
+                          "amount": {"$ifNull": ["$$d.balance", "$$d.marketValue", "$$d.coverage", 0]}},
+                        "in": {"$let": {"vars": {"rate": %s}, "in": {
+                          "customerId": "$$customerId",
+                          "source": "$$this.source",
+                          "sourceStatus": "$$this.status",
+                          "assetName": "$$d.assetName",
+                          "assetType": {"$ifNull": ["$$d.assetType", "$$d.securityType", "$$d.policyType"]},
+                          "currency": "$$currency",
+                          "sourceCurrency": "$$currency",
+                          "exchangeRate": "$$rate",
+                          "baseCurrency": "$$baseCurrency",
+                          "amountInBase": {"$round": [{"$multiply": ["$$amount", "$$rate"]}, 2]},
+                          "balance": "$$d.balance",
+                          "marketValue": "$$d.marketValue",
+                          "coverage": "$$d.coverage",
+                          "policyNumber": "$$d.policyNumber",
+                          "policyType": "$$d.policyType",
+                          "premiumStatus": "$$d.premiumStatus",
+                          "riskLevel": "$$d.riskLevel",
+                          "symbol": "$$d.symbol",
+                          "holdings": "$$d.holdings",
+                          "accountId": "$$d.accountId",
+                          "fetchedAt": "$$this.raw.fetchedAt",
+                          "aggregatedAt": "$$NOW",
+                          "traceId": "$$traceId",
+                          "payloadRefId": {"$toString": "$$this.raw._id"},
+                          "totalAssetValue": "$$this.amountInBase",
+                          "aggregationStatus": {"$literal": "COMPLETED"}}}}}}}}]}}},
+                    "breakdownItems": {"$reduce": {
+                      "input": {"$filter": {"input": "$sources", "cond": {"$eq": ["$$this.status", "SUCCESS"]}}},
+                      "initialValue": [],
+                      "in": {"$concatArrays": ["$$value", {"$cond": [
+                        {"$gt": [{"$size": {"$ifNull": ["$$this.breakdown", []]}}, 0]},
+                        "$$this.breakdown",
+                        [{"currency": "$$this.currency", "amount": "$$this.amount"}]]}]}}}}},
+                  {"$set": {"currencyBreakdown": {"$sortArray": {"sortBy": {"currency": 1}, "input": {"$map": {
+                    "input": {"$setUnion": ["$breakdownItems.currency"]}, "as": "c", "in": {
+                      "currency": "$$c",
+                      "amount": {"$sum": {"$map": {
+                        "input": {"$filter": {"input": "$breakdownItems", "cond": {"$eq": ["$$this.currency", "$$c"]}}},
+                        "in": "$$this.amount"}}}}}}}}}},
+                  {"$unset": "breakdownItems"},
+                  {"$merge": {"into": "asset_staging", "on": "traceId", "whenMatched": "replace", "whenNotMatched": "insert"}}
+                ]}
+                """.formatted(STAGING_REFERENCE_PIPELINE, rate, rate);
+        mongoTemplate.getDb()
+                .getCollection("pipeline_store")
+                .insertOne(Document.parse(definition));
+    }
+
+    private void seedResultPipelineDefinition(String pipelineName, String whenMatched) {
+        List<Document> pipeline = List.of(
+                new Document("$match", new Document("customerId", "customer-it")),
+                new Document("$unset", "_id"),
+                new Document("$addFields", new Document("aggregationStatus", "COMPLETED")),
+                new Document("$merge", new Document()
+                        .append("into", "asset_staging")
+                        .append("on", "traceId")
+                        .append("whenMatched", whenMatched)
+                        .append("whenNotMatched", "insert"))
+        );
+        mongoTemplate.getDb()
+                .getCollection("pipeline_store")
+                .insertOne(new Document()
+                        .append("name", pipelineName)
+                        .append("sourceCollection", "bank_raw")
+                        .append("pipeline", pipeline));
+    }
+
+    private void seedParameterizedPipelineDefinition() {
+        List<Document> pipeline = List.of(
+                new Document("$set", new Document("traceId", "$$traceId").append("baseCurrency", "$$baseCurrency")),
+                new Document("$merge", new Document()
+                        .append("into", "asset_staging")
+                        .append("on", "traceId")
+                        .append("whenMatched", "replace")
+                        .append("whenNotMatched", "insert"))
+        );
+        mongoTemplate.getDb()
+                .getCollection("pipeline_store")
+                .insertOne(new Document()
+                        .append("name", "assets_parameterized")
+                        .append("sourceCollection", "bank_raw")
+                        .append("pipeline", pipeline));
+        ensureStagingIndex();
+    }
+
     private void seedPipelineDefinition() {
         List<Document> pipeline = List.of(
                 new Document("$match", new Document("customerId", "customer-it")),
@@ -119,4 +500,7 @@ class AggregationExecutorIntegrationTest {
                 .getCollection("asset_staging")
                 .createIndex(new Document("traceId", 1), new IndexOptions().unique(true));
     }
+
+    private record ExecutionSnapshot(List<Document> returned, List<Document> stored) {
+    }
 }
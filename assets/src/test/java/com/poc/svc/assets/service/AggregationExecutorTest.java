@@ -0,0 +1,178 @@
+package com.poc.svc.assets.service;
+
+import com.mongodb.client.AggregateIterable;
+import com.mongodb.client.FindIterable;
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.MongoDatabase;
+import com.mongodb.client.model.FindOneAndReplaceOptions;
+import com.mongodb.client.model.FindOneAndUpdateOptions;
+import com.poc.svc.assets.config.AssetAggregationProperties;
+import com.poc.svc.assets.config.MongoSettingsProperties;
+import org.bson.Document;
+import org.bson.conversions.Bson;
+import org.bson.types.Decimal128;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class AggregationExecutorTest {
+
+    private MongoCollection<Document> source;
+    private MongoCollection<Document> target;
+    private AggregateIterable<Document> aggregation;
+    private FindIterable<Document> found;
+    private PipelineDefinitionCache pipelineCache;
+    private AssetAggregationProperties aggregationProperties;
+    private AggregationExecutor executor;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        MongoClient mongoClient = mock(MongoClient.class);
+        MongoDatabase database = mock(MongoDatabase.class);
+        target = mock(MongoCollection.class);
+        source = mock(MongoCollection.class);
+        aggregation = mock(AggregateIterable.class);
+        found = mock(FindIterable.class);
+        pipelineCache = mock(PipelineDefinitionCache.class);
+        when(mongoClient.getDatabase("assetdb")).thenReturn(database);
+        when(database.getCollection("bank_raw")).thenReturn(source);
+        when(database.getCollection("asset_staging")).thenReturn(target);
+        when(source.aggregate(anyList())).thenReturn(aggregation);
+        when(target.find(any(Bson.class))).thenReturn(found);
+        aggregationProperties = new AssetAggregationProperties();
+        executor = new AggregationExecutor(mongoClient, new MongoSettingsProperties("mongodb://localhost", "assetdb"),
+                pipelineCache, aggregationProperties);
+    }
+
+    @Test
+    @DisplayName("should return the decoded staging documents without copying and keep BSON types")
+    void execute_returnsDecodedDocumentsWithoutCopy() {
+        when(pipelineCache.get("assets_aggregation")).thenReturn(compile(new Document("aggregationStatus", "COMPLETED")));
+        Document staging = new Document("traceId", "trace-1")
+                .append("version", 3L)
+                .append("totalAssetValue", new Decimal128(new BigDecimal("1234.50")));
+        when(found.into(anyList())).thenAnswer(invocation -> {
+            List<Document> target = invocation.getArgument(0);
+            target.add(staging);
+            return target;
+        });
+
+        List<Document> results = executor.execute("assets_aggregation", "trace-1");
+
+        assertThat(results).containsExactly(staging);
+        assertThat(results.get(0)).isSameAs(staging);
+        assertThat(results.get(0).get("version")).isInstanceOf(Long.class);
+        assertThatThrownBy(() -> results.add(new Document())).isInstanceOf(UnsupportedOperationException.class);
+        verify(aggregation, never()).let(any());
+    }
+
+    @Test
+    @DisplayName("should pass compiled stages with the customer scope and bind let for parameterized pipelines")
+    @SuppressWarnings("unchecked")
+    void execute_bindsParameters() {
+        when(pipelineCache.get("assets_aggregation")).thenReturn(compile(new Document("traceId", "$$traceId")));
+        when(aggregation.let(any(Bson.class))).thenReturn(aggregation);
+        when(found.into(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        executor.execute("assets_aggregation", new PipelineParameters("C001", "trace-1", "TWD", Map.of()));
+
+        ArgumentCaptor<List<Bson>> stages = ArgumentCaptor.forClass(List.class);
+        verify(source).aggregate(stages.capture());
+        assertThat(stages.getValue()).hasSize(3);
+        assertThat(stages.getValue().get(0)).isEqualTo(new Document("$match", new Document("customerId", "C001")));
+        verify(aggregation).let(new PipelineParameters("C001", "trace-1", "TWD", Map.of()).toLet());
+    }
+
+    @Test
+    @DisplayName("should upsert the pipeline output and return the stored document without reading staging back")
+    @SuppressWarnings("unchecked")
+    void execute_resultOutputUpsertsWithoutFind() {
+        aggregationProperties.setPipelineOutput(AssetAggregationProperties.PipelineOutput.RESULT);
+        when(pipelineCache.get("assets_aggregation")).thenReturn(compile(new Document("aggregationStatus", "COMPLETED"),
+                new Document("into", "asset_staging").append("on", "traceId").append("whenMatched", "replace")));
+        Document output = new Document("traceId", "trace-1").append("version", 3L);
+        Document stored = new Document("_id", "staging-1").append("traceId", "trace-1").append("version", 3L);
+        when(aggregation.into(anyList())).thenAnswer(invocation -> {
+            List<Document> documents = invocation.getArgument(0);
+            documents.add(output);
+            return documents;
+        });
+        when(target.findOneAndReplace(any(Bson.class), any(Document.class), any(FindOneAndReplaceOptions.class)))
+                .thenReturn(stored);
+
+        List<Document> results = executor.execute("assets_aggregation", "trace-1");
+
+        assertThat(results).containsExactly(stored);
+        ArgumentCaptor<List<Bson>> stages = ArgumentCaptor.forClass(List.class);
+        verify(source).aggregate(stages.capture());
+        assertThat(stages.getValue()).hasSize(1);
+        assertThat(stages.getValue().get(0).toBsonDocument().containsKey("$merge")).isFalse();
+        verify(target).findOneAndReplace(any(Bson.class), eq(output), any(FindOneAndReplaceOptions.class));
+        verify(target, never()).find(any(Bson.class));
+    }
+
+    @Test
+    @DisplayName("should set output fields and keep the _id for inserts when whenMatched is merge")
+    void execute_resultOutputMergesFields() {
+        aggregationProperties.setPipelineOutput(AssetAggregationProperties.PipelineOutput.RESULT);
+        when(pipelineCache.get("assets_aggregation")).thenReturn(compile(new Document("aggregationStatus", "COMPLETED")));
+        when(aggregation.into(anyList())).thenAnswer(invocation -> {
+            List<Document> documents = invocation.getArgument(0);
+            documents.add(new Document("_id", "staging-1").append("traceId", "trace-1"));
+            return documents;
+        });
+        when(target.findOneAndUpdate(any(Bson.class), any(Bson.class), any(FindOneAndUpdateOptions.class)))
+                .thenReturn(new Document("_id", "staging-1").append("traceId", "trace-1"));
+
+        assertThat(executor.execute("assets_aggregation", "trace-1")).hasSize(1);
+
+        ArgumentCaptor<Bson> update = ArgumentCaptor.forClass(Bson.class);
+        verify(target).findOneAndUpdate(any(Bson.class), update.capture(), any(FindOneAndUpdateOptions.class));
+        assertThat(update.getValue()).isEqualTo(new Document("$set", new Document("traceId", "trace-1"))
+                .append("$setOnInsert", new Document("_id", "staging-1")));
+        verify(target, never()).find(any(Bson.class));
+    }
+
+    @Test
+    @DisplayName("should fall back to $merge and read back when whenMatched cannot be reproduced")
+    void execute_resultOutputFallsBackForFail() {
+        aggregationProperties.setPipelineOutput(AssetAggregationProperties.PipelineOutput.RESULT);
+        when(pipelineCache.get("assets_aggregation")).thenReturn(compile(new Document("aggregationStatus", "COMPLETED"),
+                new Document("into", "asset_staging").append("on", "traceId").append("whenMatched", "fail")));
+        when(found.into(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        executor.execute("assets_aggregation", "trace-1");
+
+        verify(target).find(any(Bson.class));
+        verify(target, never()).findOneAndUpdate(any(Bson.class), any(Bson.class), any(FindOneAndUpdateOptions.class));
+    }
+
+    private CompiledPipeline compile(Document fields) {
+        return compile(fields, new Document("into", "asset_staging").append("on", "traceId"));
+    }
+
+    private CompiledPipeline compile(Document fields, Document merge) {
+        return CompiledPipeline.compile("assets_aggregation", new Document("name", "assets_aggregation")
+                .append("sourceCollection", "bank_raw")
+                .append("pipeline", List.of(
+                        new Document("$set", fields),
+                        new Document("$merge", merge))));
+    }
+}
@@ -0,0 +1,283 @@
+package com.poc.svc.assets.service;
+
+import com.poc.svc.assets.dto.AssetComponentStatus;
+import com.poc.svc.assets.dto.AssetSourceType;
+import com.poc.svc.assets.exception.AssetSourceMissingException;
+import com.poc.svc.assets.exception.MongoRawWriteException;
+import com.poc.svc.assets.service.AssetAggregationCoordinator.ExecutionSummary;
+import com.poc.svc.assets.service.AssetAggregationCoordinator.SourceOutcome;
+import com.poc.svc.assets.service.AssetAggregationCoordinator.SourceTiming;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.bson.Document;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataAccessException;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.RejectedExecutionException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class AssetAggregationCoordinatorTest {
+
+    @Test
+    @DisplayName("should fan out every registered adapter and collect outcomes with completion order")
+    void coordinate_collectsOutcomesFromAllAdapters() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        AssetAggregationCoordinator coordinator = new AssetAggregationCoordinator(List.of(
+                new StubAdapter(AssetSourceType.BANK, CompletableFuture.completedFuture("bank"), false),
+                new StubAdapter(AssetSourceType.SECURITIES,
+                        CompletableFuture.failedFuture(new AssetSourceMissingException("404")), false),
+                new StubAdapter(AssetSourceType.INSURANCE, CompletableFuture.completedFuture("insurance"), true)
+        ), registry);
+
+        ExecutionSummary summary = coordinator.coordinate("c-001", "trace-1", Duration.ofSeconds(1));
+
+        assertThat(summary.outcome(AssetSourceType.BANK).status()).isEqualTo(AssetComponentStatus.SUCCESS);
+        assertThat(summary.outcome(AssetSourceType.BANK).payloadRefId()).isEqualTo("raw-BANK");
+        assertThat(summary.outcome(AssetSourceType.SECURITIES).status()).isEqualTo(AssetComponentStatus.MISSING);
+        assertThat(summary.outcome(AssetSourceType.INSURANCE).status()).isEqualTo(AssetComponentStatus.FAILED);
+        assertThat(summary.failedSources()).containsExactly(AssetSourceType.INSURANCE);
+
+        assertThat(summary.completionOrder())
+                .extracting(SourceTiming::completionOrder)
+                .containsExactly(1, 2, 3);
+        assertThat(summary.completionOrder())
+                .extracting(SourceTiming::source)
+                .containsExactlyInAnyOrder(AssetSourceType.BANK, AssetSourceType.SECURITIES, AssetSourceType.INSURANCE);
+        assertThat(registry.find("asset.source.latency").tag("source", "BANK").timer()).isNotNull();
+    }
+
+    @Test
+    @DisplayName("should reject duplicate adapters for the same source")
+    void constructor_rejectsDuplicateSources() {
+        List<AssetSourceAdapter<?>> adapters = List.of(
+                new StubAdapter(AssetSourceType.BANK, CompletableFuture.completedFuture("a"), false),
+                new StubAdapter(AssetSourceType.BANK, CompletableFuture.completedFuture("b"), false)
+        );
+
+        assertThatThrownBy(() -> new AssetAggregationCoordinator(adapters, new SimpleMeterRegistry()))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("BANK");
+    }
+
+    @Test
+    @DisplayName("should mark a source failed when its bulkhead rejects the fetch synchronously")
+    void coordinate_rejectedFetchFailsOnlyThatSource() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        AssetAggregationCoordinator coordinator = new AssetAggregationCoordinator(List.of(
+                new StubAdapter(AssetSourceType.BANK, CompletableFuture.completedFuture("bank"), false),
+                new RejectingAdapter(AssetSourceType.INSURANCE)
+        ), registry);
+
+        ExecutionSummary summary = coordinator.coordinate("c-001", "trace-1", Duration.ofSeconds(1));
+
+        assertThat(summary.outcome(AssetSourceType.BANK).status()).isEqualTo(AssetComponentStatus.SUCCESS);
+        assertThat(summary.outcome(AssetSourceType.INSURANCE).status()).isEqualTo(AssetComponentStatus.FAILED);
+        assertThat(registry.get("asset.aggregation.raw.write")
+                .tags("source", "INSURANCE", "status", "REJECTED").counter().count()).isEqualTo(1.0);
+    }
+
+    @Test
+    @DisplayName("should report timed-out sources to the timeout policy at the timeout that was applied")
+    void coordinate_reportsTimeoutsToPolicy() {
+        List<Duration> abandoned = new CopyOnWriteArrayList<>();
+        SourceTimeoutPolicy policy = new SourceTimeoutPolicy() {
+            @Override
+            public Duration timeoutFor(AssetSourceType source, Duration deadline) {
+                return source == AssetSourceType.INSURANCE ? Duration.ofMillis(50) : deadline;
+            }
+
+            @Override
+            public void recordAbandoned(AssetSourceType source, Duration appliedTimeout) {
+                assertThat(source).isEqualTo(AssetSourceType.INSURANCE);
+                abandoned.add(appliedTimeout);
+            }
+        };
+        AssetAggregationCoordinator coordinator = new AssetAggregationCoordinator(List.of(
+                new StubAdapter(AssetSourceType.BANK, CompletableFuture.completedFuture("bank"), false),
+                new StubAdapter(AssetSourceType.INSURANCE, new CompletableFuture<>(), false)
+        ), new SimpleMeterRegistry(), policy);
+
+        coordinator.coordinate("c-001", "trace-1", Duration.ofSeconds(10));
+
+        assertThat(abandoned).containsExactly(Duration.ofMillis(50));
+    }
+
+    @Test
+    @DisplayName("should not report fast downstream failures to the timeout policy as censored samples")
+    void coordinate_doesNotReportFailuresToPolicy() {
+        List<Duration> abandoned = new CopyOnWriteArrayList<>();
+        SourceTimeoutPolicy policy = new SourceTimeoutPolicy() {
+            @Override
+            public Duration timeoutFor(AssetSourceType source, Duration deadline) {
+                return Duration.ofMillis(500);
+            }
+
+            @Override
+            public void recordAbandoned(AssetSourceType source, Duration appliedTimeout) {
+                abandoned.add(appliedTimeout);
+            }
+        };
+        AssetAggregationCoordinator coordinator = new AssetAggregationCoordinator(List.of(
+                new StubAdapter(AssetSourceType.BANK, CompletableFuture.completedFuture("bank"), false),
+                new StubAdapter(AssetSourceType.INSURANCE, CompletableFuture.failedFuture(new IllegalStateException("connection refused")), false)
+        ), new SimpleMeterRegistry(), policy);
+
+        ExecutionSummary summary = coordinator.coordinate("c-001", "trace-1", Duration.ofSeconds(10));
+
+        assertThat(summary.outcome(AssetSourceType.INSURANCE).status()).isEqualTo(AssetComponentStatus.FAILED);
+        assertThat(abandoned).isEmpty();
+    }
+
+    @Test
+    @DisplayName("should time out a stuck source with its own timeout instead of the overall deadline")
+    void coordinate_appliesPerSourceTimeout() {
+        AssetAggregationCoordinator coordinator = new AssetAggregationCoordinator(List.of(
+                new StubAdapter(AssetSourceType.BANK, CompletableFuture.completedFuture("bank"), false),
+                new StubAdapter(AssetSourceType.INSURANCE, new CompletableFuture<>(), false)
+        ), new SimpleMeterRegistry(), (source, deadline) -> source == AssetSourceType.INSURANCE ? Duration.ofMillis(50) : deadline);
+
+        long startNanos = System.nanoTime();
+        ExecutionSummary summary = coordinator.coordinate("c-001", "trace-1", Duration.ofSeconds(10));
+
+        assertThat(Duration.ofNanos(System.nanoTime() - startNanos)).isLessThan(Duration.ofSeconds(5));
+        assertThat(summary.outcome(AssetSourceType.BANK).status()).isEqualTo(AssetComponentStatus.SUCCESS);
+        assertThat(summary.outcome(AssetSourceType.INSURANCE).status()).isEqualTo(AssetComponentStatus.TIMEOUT);
+    }
+
+    @Test
+    @DisplayName("should defer raw writes until every source completes and fail only the sources whose write failed")
+    void coordinate_perAggregationWriteReportsFailuresPerSource() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        List<AssetSourceType> deferred = new CopyOnWriteArrayList<>();
+        List<Duration> commitTimeouts = new CopyOnWriteArrayList<>();
+        RawWriteBatcher batcher = traceId -> Optional.of(new RawWriteBatcher.Batch() {
+            @Override
+            public RawWriteSink sink(AssetSourceType source) {
+                return (collectionName, document, failureMessage) -> deferred.add(source);
+            }
+
+            @Override
+            public CompletableFuture<Map<AssetSourceType, DataAccessException>> commit(Duration timeout) {
+                commitTimeouts.add(timeout);
+                assertThat(deferred).containsExactlyInAnyOrder(AssetSourceType.BANK, AssetSourceType.INSURANCE);
+                return CompletableFuture.completedFuture(Map.of(
+                        AssetSourceType.INSURANCE, new MongoRawWriteException("write failed", null)));
+            }
+        });
+        AssetAggregationCoordinator coordinator = new AssetAggregationCoordinator(List.of(
+                new StubAdapter(AssetSourceType.BANK, CompletableFuture.completedFuture("bank"), false),
+                new StubAdapter(AssetSourceType.SECURITIES,
+                        CompletableFuture.failedFuture(new AssetSourceMissingException("404")), false),
+                new StubAdapter(AssetSourceType.INSURANCE, CompletableFuture.completedFuture("insurance"), false)
+        ), registry, SourceTimeoutPolicy.fixed(), batcher);
+
+        ExecutionSummary summary = coordinator.coordinate("c-001", "trace-1", Duration.ofSeconds(1));
+
+        assertThat(summary.outcome(AssetSourceType.BANK).status()).isEqualTo(AssetComponentStatus.SUCCESS);
+        assertThat(summary.outcome(AssetSourceType.BANK).payloadRefId()).isEqualTo("raw-BANK");
+        assertThat(summary.outcome(AssetSourceType.SECURITIES).status()).isEqualTo(AssetComponentStatus.MISSING);
+        assertThat(summary.outcome(AssetSourceType.INSURANCE).status()).isEqualTo(AssetComponentStatus.FAILED);
+        assertThat(summary.completionOrder())
+                .filteredOn(timing -> timing.source() == AssetSourceType.INSURANCE)
+                .extracting(SourceTiming::status)
+                .containsExactly(AssetComponentStatus.FAILED);
+        assertThat(registry.get("asset.aggregation.raw.write")
+                .tags("source", "INSURANCE", "status", "FAILED").counter().count()).isEqualTo(1.0);
+        assertThat(commitTimeouts).singleElement()
+                .satisfies(timeout -> assertThat(timeout).isPositive().isLessThanOrEqualTo(Duration.ofSeconds(1)));
+    }
+
+    private record RejectingAdapter(AssetSourceType source) implements AssetSourceAdapter<String> {
+
+        @Override
+        public CompletableFuture<String> fetch(String customerId, String traceId) {
+            throw new RejectedExecutionException("Bulkhead for source " + source + " is full");
+        }
+
+        @Override
+        public CompletableFuture<String> writeRaw(String customerId, String result) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public String deferRaw(String customerId, String result, RawWriteSink sink) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public List<Map<String, Object>> extractAssetDetails(String result) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public String rawTraceId(String result) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public SourceOutcome toOutcome(String result, String payloadRefId, List<Map<String, Object>> assetDetails) {
+            throw new UnsupportedOperationException();
+        }
+    }
+
+    private record StubAdapter(
+            AssetSourceType source,
+            CompletableFuture<String> response,
+            boolean failWrite
+    ) implements AssetSourceAdapter<String> {
+
+        @Override
+        public CompletableFuture<String> fetch(String customerId, String traceId) {
+            return response;
+        }
+
+        @Override
+        public CompletableFuture<String> writeRaw(String customerId, String result) {
+            if (failWrite) {
+                return CompletableFuture.failedFuture(new MongoRawWriteException("write failed", null));
+            }
+            return CompletableFuture.completedFuture("raw-" + source.name());
+        }
+
+        @Override
+        public String deferRaw(String customerId, String result, RawWriteSink sink) {
+            sink.add(source.name().toLowerCase() + "_raw", new Document(), "write failed");
+            return "raw-" + source.name();
+        }
+
+        @Override
+        public List<Map<String, Object>> extractAssetDetails(String result) {
+            return List.of(Map.of("name", result));
+        }
+
+        @Override
+        public String rawTraceId(String result) {
+            return "raw-trace";
+        }
+
+        @Override
+        public SourceOutcome toOutcome(String result, String payloadRefId, List<Map<String, Object>> assetDetails) {
+            return SourceOutcome.success(
+                    source,
+                    BigDecimal.ONE,
+                    "TWD",
+                    Instant.now(),
+                    "raw-trace",
+                    payloadRefId,
+                    Map.of(),
+                    List.of(),
+                    assetDetails
+            );
+        }
+    }
+}
@@ -18,15 +18,21 @@ import org.mockito.junit.jupiter.MockitoExtension;
 import java.math.BigDecimal;
 import java.time.Duration;
 import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.EnumMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -39,16 +45,20 @@ class AssetAggregationServiceTest {
     @Mock
     private AggregationExecutor aggregationExecutor;
 
+    private SimpleMeterRegistry meterRegistry;
+
     private AssetAggregationService service;
 
     @BeforeEach
     void setUp() {
         TraceContext.clear();
+        meterRegistry = new SimpleMeterRegistry();
         service = new AssetAggregationService(
                 coordinator,
                 aggregationExecutor,
                 new AssetAggregationService.AggregationProperties(Duration.ofSeconds(2), "assets_aggregation"),
-                new SimpleMeterRegistry()
+                meterRegistry,
+                Runnable::run
         );
     }
 
@@ -98,6 +108,127 @@ class AssetAggregationServiceTest {
                 .hasMessageContaining("pipeline missing");
     }
 
+    @Test
+    @DisplayName("should complete asynchronously with pipeline result when coordination succeeds")
+    void aggregateCustomerAssetsAsync_success() {
+        when(coordinator.coordinateAsync(anyString(), anyString(), any()))
+                .thenReturn(CompletableFuture.completedFuture(successSummary()));
+        List<Document> expected = List.of(new Document("traceId", "async-trace"));
+        when(aggregationExecutor.execute("assets_aggregation", "async-trace")).thenReturn(expected);
+
+        TraceContext.ensureTraceId("async-trace");
+
+        CompletableFuture<List<Document>> future = service.aggregateCustomerAssetsAsync("c-321");
+
+        assertThat(future.join()).isEqualTo(expected);
+    }
+
+    @Test
+    @DisplayName("should complete exceptionally when any source fails in async mode")
+    void aggregateCustomerAssetsAsync_failure() {
+        when(coordinator.coordinateAsync(anyString(), anyString(), any()))
+                .thenReturn(CompletableFuture.completedFuture(failureSummary()));
+
+        TraceContext.ensureTraceId("async-failed");
+
+        CompletableFuture<List<Document>> future = service.aggregateCustomerAssetsAsync("c-654");
+
+        assertThatThrownBy(future::join)
+                .isInstanceOf(CompletionException.class)
+                .hasCauseInstanceOf(AssetAggregationException.class);
+        verify(aggregationExecutor, never()).execute(anyString(), anyString());
+    }
+
+    @Test
+    @DisplayName("should coalesce concurrent aggregations for the same customer into one execution")
+    void aggregateCustomerAssetsAsync_coalescesSameCustomer() {
+        CompletableFuture<ExecutionSummary> pending = new CompletableFuture<>();
+        when(coordinator.coordinateAsync(eq("c-999"), eq("leader-trace"), any())).thenReturn(pending);
+        List<Document> expected = List.of(new Document("traceId", "leader-trace"));
+        when(aggregationExecutor.execute("assets_aggregation", "leader-trace")).thenReturn(expected);
+
+        TraceContext.ensureTraceId("leader-trace");
+        CompletableFuture<List<Document>> leader = service.aggregateCustomerAssetsAsync("c-999");
+        TraceContext.clear();
+        TraceContext.ensureTraceId("follower-trace");
+        CompletableFuture<List<Document>> follower = service.aggregateCustomerAssetsAsync("c-999");
+
+        assertThat(meterRegistry.get("asset.aggregation.inflight").gauge().value()).isEqualTo(1.0);
+        pending.complete(successSummary());
+
+        assertThat(leader.join()).isEqualTo(expected);
+        assertThat(follower.join()).isEqualTo(expected);
+        verify(coordinator, times(1)).coordinateAsync(anyString(), anyString(), any());
+        assertThat(meterRegistry.get("asset.aggregation.coalesced").counter().count()).isEqualTo(1.0);
+        assertThat(meterRegistry.get("asset.aggregation.inflight").gauge().value()).isZero();
+    }
+
+    @Test
+    @DisplayName("should start a new execution once the previous one for the customer completed")
+    void aggregateCustomerAssetsAsync_doesNotReuseCompletedFlight() {
+        when(coordinator.coordinateAsync(anyString(), anyString(), any()))
+                .thenAnswer(invocation -> CompletableFuture.completedFuture(successSummary()));
+        when(aggregationExecutor.execute(eq("assets_aggregation"), anyString())).thenReturn(List.of());
+
+        TraceContext.ensureTraceId("first-trace");
+        service.aggregateCustomerAssetsAsync("c-111").join();
+        service.aggregateCustomerAssetsAsync("c-111").join();
+
+        verify(coordinator, times(2)).coordinateAsync(anyString(), anyString(), any());
+        assertThat(meterRegistry.get("asset.aggregation.coalesced").counter().count()).isZero();
+    }
+
+    @Test
+    @DisplayName("should build staging documents with the configured engine instead of the pipeline")
+    void aggregateCustomerAssets_usesStagingEngine() {
+        ExecutionSummary summary = successSummary();
+        when(coordinator.coordinate(anyString(), anyString(), any())).thenReturn(summary);
+        List<Document> expected = List.of(new Document("traceId", "engine-trace"));
+        AssetAggregationService engineService = new AssetAggregationService(
+                coordinator,
+                (customerId, traceId, executionSummary) -> executionSummary == summary ? expected : List.of(),
+                new AssetAggregationService.AggregationProperties(Duration.ofSeconds(2), "assets_aggregation"),
+                meterRegistry,
+                Runnable::run,
+                RawWriteBarrier.none()
+        );
+
+        TraceContext.ensureTraceId("engine-trace");
+
+        assertThat(engineService.aggregateCustomerAssets("c-123")).isEqualTo(expected);
+        verify(aggregationExecutor, never()).execute(anyString(), anyString());
+    }
+
+    @Test
+    @DisplayName("should wait only for this aggregation's raw documents and give up within the remaining deadline")
+    void aggregateCustomerAssets_awaitsOwnRawWritesWithinDeadline() {
+        when(coordinator.coordinate(anyString(), anyString(), any())).thenReturn(successSummary());
+        List<Collection<String>> awaited = new ArrayList<>();
+        AssetAggregationService barrierService = new AssetAggregationService(
+                coordinator,
+                aggregationExecutor,
+                new AssetAggregationService.AggregationProperties(Duration.ofMillis(200), "assets_aggregation"),
+                meterRegistry,
+                Runnable::run,
+                payloadRefIds -> {
+                    awaited.add(payloadRefIds);
+                    return new CompletableFuture<>();
+                }
+        );
+        TraceContext.ensureTraceId("barrier-trace");
+
+        long startNanos = System.nanoTime();
+        assertThatThrownBy(() -> barrierService.aggregateCustomerAssets("c-123"))
+                .isInstanceOf(AssetAggregationException.class)
+                .hasMessageContaining("barrier-trace");
+
+        assertThat(Duration.ofNanos(System.nanoTime() - startNanos)).isLessThan(Duration.ofSeconds(2));
+        assertThat(awaited).singleElement()
+                .satisfies(ids -> assertThat(ids).containsExactlyInAnyOrder("payload-1", "payload-2"));
+        assertThat(meterRegistry.get("asset.aggregation.latency").timer().count()).isEqualTo(1);
+        verify(aggregationExecutor, never()).execute(anyString(), anyString());
+    }
+
     private ExecutionSummary successSummary() {
         Map<AssetSourceType, SourceOutcome> outcomes = new EnumMap<>(AssetSourceType.class);
         outcomes.put(AssetSourceType.BANK, SourceOutcome.success(
@@ -0,0 +1,116 @@
+package com.poc.svc.assets.service;
+
+import com.poc.svc.assets.config.AssetsSnapshotCacheProperties;
+import com.poc.svc.assets.service.AssetSnapshotCache.CachedSnapshot;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AssetSnapshotCacheTest {
+
+    private final MutableClock clock = new MutableClock(Instant.parse("2025-01-01T00:00:00Z"));
+    private SimpleMeterRegistry meterRegistry;
+    private AssetsSnapshotCacheProperties properties;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        properties = new AssetsSnapshotCacheProperties();
+        properties.setTtl(Duration.ofSeconds(5));
+        properties.setMaxStaleLimit(Duration.ofSeconds(30));
+        properties.setMaxEntries(2);
+    }
+
+    @Test
+    @DisplayName("should serve snapshot within max-age and report its age")
+    void lookup_hitWithinMaxAge() {
+        AssetSnapshotCache cache = new AssetSnapshotCache(properties, meterRegistry, clock);
+        cache.put("c-001", List.of(new Document("traceId", "t-1")));
+        clock.advance(Duration.ofSeconds(3));
+
+        Optional<CachedSnapshot> snapshot = cache.lookup("c-001", "max-age=4");
+
+        assertThat(snapshot).isPresent();
+        assertThat(snapshot.get().age()).isEqualTo(Duration.ofSeconds(3));
+        assertThat(snapshot.get().documents()).extracting(document -> document.getString("traceId")).containsExactly("t-1");
+        assertThat(meterRegistry.get("asset.snapshot.cache.requests").tag("result", "hit").counter().count()).isEqualTo(1.0);
+    }
+
+    @Test
+    @DisplayName("should cap max-age at ttl unless max-stale extends it")
+    void lookup_respectsTtlAndMaxStale() {
+        AssetSnapshotCache cache = new AssetSnapshotCache(properties, meterRegistry, clock);
+        cache.put("c-001", List.of(new Document("traceId", "t-1")));
+        clock.advance(Duration.ofSeconds(8));
+
+        assertThat(cache.lookup("c-001", "max-age=60")).isEmpty();
+        assertThat(cache.lookup("c-001", "max-stale=10")).isPresent();
+        assertThat(cache.lookup("c-001", "max-age=60, max-stale=2")).isEmpty();
+        assertThat(meterRegistry.get("asset.snapshot.cache.requests").tag("result", "stale").counter().count()).isEqualTo(2.0);
+    }
+
+    @Test
+    @DisplayName("should bypass cache without Cache-Control or with no-cache by default")
+    void lookup_bypassesByDefault() {
+        AssetSnapshotCache cache = new AssetSnapshotCache(properties, meterRegistry, clock);
+        cache.put("c-001", List.of(new Document("traceId", "t-1")));
+
+        assertThat(cache.lookup("c-001", null)).isEmpty();
+        assertThat(cache.lookup("c-001", "no-cache, max-age=5")).isEmpty();
+        assertThat(meterRegistry.get("asset.snapshot.cache.requests").tag("result", "bypass").counter().count()).isEqualTo(2.0);
+    }
+
+    @Test
+    @DisplayName("should evict least recently used customers beyond max entries")
+    void put_evictsLeastRecentlyUsed() {
+        AssetSnapshotCache cache = new AssetSnapshotCache(properties, meterRegistry, clock);
+        cache.put("c-001", List.of());
+        cache.put("c-002", List.of());
+        cache.lookup("c-001", "max-age=5");
+        cache.put("c-003", List.of());
+
+        assertThat(cache.size()).isEqualTo(2);
+        assertThat(cache.lookup("c-002", "max-age=5")).isEmpty();
+        assertThat(cache.lookup("c-001", "max-age=5")).isPresent();
+    }
+
+    private static final class MutableClock extends Clock {
+
+        private Instant now;
+
+        private MutableClock(Instant now) {
+            this.now = now;
+        }
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
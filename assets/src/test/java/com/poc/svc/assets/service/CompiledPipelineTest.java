@@ -0,0 +1,85 @@
+package com.poc.svc.assets.service;
+
+import org.bson.Document;
+import org.bson.conversions.Bson;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CompiledPipelineTest {
+
+    private static final Document MERGE = new Document("$merge", new Document("into", "asset_staging").append("on", "traceId"));
+
+    @Test
+    @DisplayName("should prepend a customerId $match when the customer is known")
+    void stagesFor_prependsCustomerScope() {
+        CompiledPipeline pipeline = CompiledPipeline.compile("assets_aggregation", definition(List.of(
+                new Document("$addFields", new Document("aggregationStatus", "COMPLETED")), MERGE)));
+
+        List<? extends Bson> scoped = pipeline.stagesFor(new PipelineParameters("C001", "trace-1", "TWD", Map.of()));
+        List<? extends Bson> unscoped = pipeline.stagesFor(PipelineParameters.forTrace("trace-1"));
+
+        assertThat(pipeline.scoped()).isTrue();
+        assertThat(pipeline.parameterized()).isFalse();
+        assertThat(scoped).hasSize(3);
+        assertThat(scoped.get(0)).isEqualTo(new Document("$match", new Document("customerId", "C001")));
+        assertThat(unscoped).isSameAs(pipeline.stages());
+    }
+
+    @Test
+    @DisplayName("should not scope pipelines that opt out or start with a leading-only stage")
+    void compile_respectsScopeOptOut() {
+        Document optOut = definition(List.of(new Document("$addFields", new Document("x", 1)), MERGE)).append("autoScope", false);
+        Document geoNear = definition(List.of(new Document("$geoNear", new Document("near", List.of(0, 0))), MERGE));
+        PipelineParameters parameters = new PipelineParameters("C001", "trace-1", "TWD", Map.of());
+
+        assertThat(CompiledPipeline.compile("opt-out", optOut).stagesFor(parameters)).hasSize(2);
+        assertThat(CompiledPipeline.compile("geo", geoNear).scoped()).isFalse();
+    }
+
+    @Test
+    @DisplayName("should detect bound variables and expose every variable through let")
+    void compile_detectsParameters() {
+        CompiledPipeline pipeline = CompiledPipeline.compile("assets_aggregation", definition(List.of(
+                new Document("$addFields", new Document("rate", new Document("$getField",
+                        new Document("field", "$currency").append("input", "$$rates.USD")))),
+                MERGE)));
+        PipelineParameters parameters = new PipelineParameters("C001", "trace-1", "TWD", Map.of("USD", new BigDecimal("32.0000")));
+
+        Document let = parameters.toLet();
+
+        assertThat(pipeline.parameterized()).isTrue();
+        assertThat(let.keySet()).containsExactly("customerId", "traceId", "baseCurrency", "rates");
+        assertThat(let.get("rates", Document.class)).containsEntry("USD", new BigDecimal("32.0000"));
+        assertThat(PipelineParameters.forTrace("trace-1").toLet().get("customerId")).isNull();
+    }
+
+    @Test
+    @DisplayName("should resolve $merge semantics with Mongo defaults and strip $merge from output stages")
+    void compile_resolvesMergeSemantics() {
+        CompiledPipeline pipeline = CompiledPipeline.compile("assets_aggregation", definition(List.of(
+                new Document("$set", new Document("aggregationStatus", "COMPLETED")), MERGE)));
+        CompiledPipeline replacing = CompiledPipeline.compile("replacing", definition(List.of(new Document("$merge",
+                new Document("into", "asset_staging").append("on", List.of("customerId", "traceId")).append("whenMatched", "replace")))));
+        CompiledPipeline piped = CompiledPipeline.compile("piped", definition(List.of(new Document("$merge",
+                new Document("into", "asset_staging").append("whenMatched", List.of(new Document("$set", new Document("x", 1))))))));
+
+        assertThat(pipeline.merge()).isEqualTo(new CompiledPipeline.MergeSemantics(List.of("traceId"), "merge", "insert"));
+        assertThat(pipeline.outputStagesFor(PipelineParameters.forTrace("trace-1"))).hasSize(1);
+        assertThat(replacing.merge().on()).containsExactly("customerId", "traceId");
+        assertThat(replacing.merge().supportsResultOutput()).isTrue();
+        assertThat(piped.merge().on()).containsExactly("_id");
+        assertThat(piped.merge().supportsResultOutput()).isFalse();
+    }
+
+    private Document definition(List<Document> stages) {
+        return new Document("name", "assets_aggregation")
+                .append("sourceCollection", "bank_raw")
+                .append("pipeline", stages);
+    }
+}
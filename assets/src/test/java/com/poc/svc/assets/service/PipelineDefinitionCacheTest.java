@@ -0,0 +1,132 @@
+package com.poc.svc.assets.service;
+
+import com.mongodb.client.FindIterable;
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.MongoDatabase;
+import com.poc.svc.assets.config.AssetAggregationProperties;
+import com.poc.svc.assets.config.MongoSettingsProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.bson.Document;
+import org.bson.RawBsonDocument;
+import org.bson.conversions.Bson;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class PipelineDefinitionCacheTest {
+
+    private MongoCollection<Document> pipelineStore;
+    private FindIterable<Document> found;
+    private AssetAggregationProperties properties;
+    private SimpleMeterRegistry meterRegistry;
+    private PipelineDefinitionCache cache;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        MongoClient mongoClient = mock(MongoClient.class);
+        MongoDatabase database = mock(MongoDatabase.class);
+        pipelineStore = mock(MongoCollection.class);
+        found = mock(FindIterable.class);
+        when(mongoClient.getDatabase("assetdb")).thenReturn(database);
+        when(database.getCollection("pipeline_store")).thenReturn(pipelineStore);
+        when(pipelineStore.find(any(Bson.class))).thenReturn(found);
+        properties = new AssetAggregationProperties();
+        properties.getPipelineCache().setChangeStream(false);
+        properties.getPipelineCache().setPollInterval(Duration.ZERO);
+        properties.getPipelineAnalysis().setEnabled(false);
+        meterRegistry = new SimpleMeterRegistry();
+        MongoSettingsProperties mongoSettings = new MongoSettingsProperties("mongodb://localhost", "assetdb");
+        cache = new PipelineDefinitionCache(mongoClient, mongoSettings, properties, meterRegistry,
+                new PipelinePlanAnalyzer(mongoClient, mongoSettings, properties, meterRegistry));
+    }
+
+    @Test
+    @DisplayName("should compile the definition once and serve later calls from the cache")
+    void get_cachesCompiledPipeline() {
+        when(found.first()).thenReturn(definition("bank_raw", "COMPLETED"));
+
+        CompiledPipeline first = cache.get("assets_aggregation");
+        CompiledPipeline second = cache.get("assets_aggregation");
+
+        assertThat(second).isSameAs(first);
+        assertThat(first.sourceCollection()).isEqualTo("bank_raw");
+        assertThat(first.targetCollection()).isEqualTo("asset_staging");
+        assertThat(first.stages()).hasSize(3).allSatisfy(stage -> assertThat(stage).isInstanceOf(RawBsonDocument.class));
+        verify(pipelineStore, times(1)).find(any(Bson.class));
+        assertThat(meterRegistry.get("asset.pipeline.cache.requests").tag("result", "hit").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("should reload after invalidation and when caching is disabled")
+    void get_reloadsAfterInvalidation() {
+        when(found.first()).thenReturn(definition("bank_raw", "COMPLETED"));
+
+        cache.get("assets_aggregation");
+        cache.invalidateAll();
+        cache.get("assets_aggregation");
+        properties.getPipelineCache().setEnabled(false);
+        cache.get("assets_aggregation");
+
+        verify(pipelineStore, times(3)).find(any(Bson.class));
+    }
+
+    @Test
+    @DisplayName("should evict changed or deleted definitions when polling")
+    void poll_evictsChangedDefinitions() {
+        when(found.first()).thenReturn(definition("bank_raw", "COMPLETED"));
+        cache.get("assets_aggregation");
+        when(found.into(anyList())).thenAnswer(invocation -> {
+            List<Document> target = invocation.getArgument(0);
+            target.add(definition("bank_raw", "COMPLETED"));
+            return target;
+        });
+
+        cache.poll();
+        assertThat(cache.size()).isEqualTo(1);
+
+        when(found.into(anyList())).thenAnswer(invocation -> {
+            List<Document> target = invocation.getArgument(0);
+            target.add(definition("bank_raw", "PENDING"));
+            return target;
+        });
+        cache.poll();
+
+        assertThat(cache.size()).isZero();
+        assertThat(meterRegistry.get("asset.pipeline.cache.invalidations").tag("cause", "poll").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("should reject definitions without a terminating $merge and not cache the failure")
+    void get_rejectsInvalidDefinition() {
+        when(found.first()).thenReturn(new Document("name", "assets_aggregation")
+                .append("pipeline", List.of(new Document("$match", new Document("customerId", "C001")))));
+
+        assertThatThrownBy(() -> cache.get("assets_aggregation"))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("$merge");
+        assertThat(cache.size()).isZero();
+    }
+
+    private Document definition(String source, String status) {
+        return new Document("name", "assets_aggregation")
+                .append("sourceCollection", source)
+                .append("pipeline", List.of(
+                        new Document("$match", new Document("customerId", "C001")),
+                        new Document("$addFields", new Document("aggregationStatus", status)),
+                        new Document("$merge", new Document("into", "asset_staging").append("on", "traceId"))));
+    }
+}
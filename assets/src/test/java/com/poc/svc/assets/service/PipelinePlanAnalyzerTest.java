@@ -0,0 +1,190 @@
+package com.poc.svc.assets.service;
+
+import com.mongodb.client.AggregateIterable;
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.MongoDatabase;
+import com.poc.svc.assets.config.AssetAggregationProperties;
+import com.poc.svc.assets.config.MongoSettingsProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.bson.Document;
+import org.bson.conversions.Bson;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class PipelinePlanAnalyzerTest {
+
+    private MongoDatabase database;
+    private AggregateIterable<Document> sampled;
+    private AssetAggregationProperties properties;
+    private SimpleMeterRegistry meterRegistry;
+    private PipelinePlanAnalyzer analyzer;
+
+    @BeforeEach
+    void setUp() {
+        MongoClient mongoClient = mock(MongoClient.class);
+        database = mock(MongoDatabase.class);
+        when(mongoClient.getDatabase("assetdb")).thenReturn(database);
+        MongoCollection<Document> source = mock();
+        sampled = mock();
+        when(database.getCollection("bank_raw")).thenReturn(source);
+        when(source.aggregate(anyList())).thenReturn(sampled);
+        when(sampled.first()).thenReturn(new Document("customerId", "C001").append("traceId", "trace-1"));
+        properties = new AssetAggregationProperties();
+        meterRegistry = new SimpleMeterRegistry();
+        analyzer = new PipelinePlanAnalyzer(mongoClient, new MongoSettingsProperties("mongodb://localhost", "assetdb"),
+                properties, meterRegistry);
+    }
+
+    @Test
+    @DisplayName("should explain the pipeline without $merge and report per-stage stats")
+    void activate_reportsStageStats() {
+        when(database.runCommand(any(Bson.class))).thenReturn(explain("IXSCAN", 12));
+
+        CompiledPipeline pipeline = pipeline("COMPLETED");
+        assertThat(analyzer.activate(pipeline)).isSameAs(pipeline);
+
+        ArgumentCaptor<Bson> command = ArgumentCaptor.forClass(Bson.class);
+        verify(database).runCommand(command.capture());
+        Document explain = (Document) command.getValue();
+        assertThat(explain.getString("verbosity")).isEqualTo("executionStats");
+        List<Bson> stages = explain.get("explain", Document.class).getList("pipeline", Bson.class);
+        assertThat(stages).hasSize(2);
+        assertThat(stages.get(0)).isEqualTo(new Document("$match", new Document("customerId", "C001")));
+        PipelinePlanReport report = analyzer.analyses().get("assets_aggregation").active();
+        assertThat(report.status()).isEqualTo(PipelinePlanReport.Status.OK);
+        assertThat(report.docsExamined()).isEqualTo(12);
+        assertThat(report.executionTimeMillis()).isEqualTo(5);
+        assertThat(report.stages()).extracting(PipelinePlanReport.Stage::stage).containsExactly("$cursor", "$set");
+        assertThat(report.stages().get(0).keysExamined()).isEqualTo(12);
+    }
+
+    @Test
+    @DisplayName("should flag COLLSCAN plans and keep the previous pipeline when rejecting regressions")
+    void activate_rejectsRegression() {
+        properties.getPipelineAnalysis().setOnRegression(AssetAggregationProperties.PipelineAnalysis.OnRegression.REJECT);
+        when(database.runCommand(any(Bson.class))).thenReturn(explain("IXSCAN", 12), explain("COLLSCAN", 5000));
+        CompiledPipeline accepted = pipeline("COMPLETED");
+        CompiledPipeline regressing = pipeline("PARTIAL");
+
+        analyzer.activate(accepted);
+        CompiledPipeline active = analyzer.activate(regressing);
+        CompiledPipeline again = analyzer.activate(pipeline("PARTIAL"));
+
+        assertThat(active).isSameAs(accepted);
+        assertThat(again).isSameAs(accepted);
+        verify(database, times(2)).runCommand(any(Bson.class));
+        verify(sampled, times(1)).first();
+        PipelinePlanAnalyzer.Analysis analysis = analyzer.analyses().get("assets_aggregation");
+        assertThat(analysis.active().status()).isEqualTo(PipelinePlanReport.Status.OK);
+        assertThat(analysis.rejected().status()).isEqualTo(PipelinePlanReport.Status.COLLSCAN);
+        assertThat(analysis.rejected().message()).contains("COLLSCAN");
+        assertThat(analyzer.isRejected("assets_aggregation", definition("PARTIAL"))).isTrue();
+        assertThat(meterRegistry.get("asset.pipeline.analysis").tag("outcome", "rejected").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("should reject a COLLSCAN plan without a baseline instead of activating it")
+    void activate_rejectsCollectionScanWithoutBaseline() {
+        properties.getPipelineAnalysis().setOnRegression(AssetAggregationProperties.PipelineAnalysis.OnRegression.REJECT);
+        when(database.runCommand(any(Bson.class))).thenReturn(explain("COLLSCAN", 5000));
+
+        assertThatThrownBy(() -> analyzer.activate(pipeline("COMPLETED")))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("COLLSCAN");
+        assertThatThrownBy(() -> analyzer.activate(pipeline("COMPLETED")))
+                .isInstanceOf(IllegalStateException.class);
+
+        verify(database, times(1)).runCommand(any(Bson.class));
+        PipelinePlanAnalyzer.Analysis analysis = analyzer.analyses().get("assets_aggregation");
+        assertThat(analysis.active()).isNull();
+        assertThat(analysis.rejected().status()).isEqualTo(PipelinePlanReport.Status.COLLSCAN);
+        assertThat(meterRegistry.get("asset.pipeline.analysis").tag("outcome", "rejected").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("should explain with a placeholder customer when the source collection is empty")
+    void activate_usesPlaceholderWithoutSourceDocuments() {
+        when(sampled.first()).thenReturn(null);
+        when(database.runCommand(any(Bson.class))).thenReturn(explain("IXSCAN", 0));
+
+        analyzer.activate(pipeline("COMPLETED"));
+
+        ArgumentCaptor<Bson> command = ArgumentCaptor.forClass(Bson.class);
+        verify(database).runCommand(command.capture());
+        List<Bson> stages = ((Document) command.getValue()).get("explain", Document.class).getList("pipeline", Bson.class);
+        assertThat(((Document) stages.get(0)).get("$match", Document.class).getString("customerId"))
+                .isNotEqualTo("C001");
+    }
+
+    @Test
+    @DisplayName("should activate regressing pipelines with a warning by default")
+    void activate_warnsOnRegression() {
+        when(database.runCommand(any(Bson.class))).thenReturn(explain("IXSCAN", 12), explain("IXSCAN", 100));
+        analyzer.activate(pipeline("COMPLETED"));
+
+        CompiledPipeline regressing = pipeline("PARTIAL");
+
+        assertThat(analyzer.activate(regressing)).isSameAs(regressing);
+        PipelinePlanAnalyzer.Analysis analysis = analyzer.analyses().get("assets_aggregation");
+        assertThat(analysis.active().docsExamined()).isEqualTo(100);
+        assertThat(analysis.active().message()).contains("docsExamined");
+        assertThat(analysis.rejected()).isNull();
+    }
+
+    @Test
+    @DisplayName("should read stats from the top-level explain when the whole pipeline is pushed down")
+    void stages_readsPushedDownExplain() {
+        Document explain = cursor("COLLSCAN", 40).append("executionStats", new Document("nReturned", 0)
+                .append("totalDocsExamined", 40)
+                .append("totalKeysExamined", 0)
+                .append("executionTimeMillis", 7));
+
+        List<PipelinePlanReport.Stage> stages = PipelinePlanAnalyzer.stages(explain);
+
+        assertThat(stages).containsExactly(new PipelinePlanReport.Stage("$cursor", 0, 40, 0, 7, true));
+    }
+
+    private Document explain(String scan, int examined) {
+        return new Document("stages", List.of(
+                new Document("$cursor", cursor(scan, examined))
+                        .append("nReturned", 1L)
+                        .append("executionTimeMillisEstimate", 3L),
+                new Document("$set", new Document("aggregationStatus", "COMPLETED"))
+                        .append("nReturned", 1L)
+                        .append("executionTimeMillisEstimate", 5L)));
+    }
+
+    private Document cursor(String scan, int examined) {
+        return new Document("queryPlanner", new Document("winningPlan", new Document("stage", "FETCH")
+                .append("inputStage", new Document("stage", scan))))
+                .append("executionStats", new Document("nReturned", 1)
+                        .append("totalDocsExamined", examined)
+                        .append("totalKeysExamined", "IXSCAN".equals(scan) ? examined : 0));
+    }
+
+    private CompiledPipeline pipeline(String status) {
+        return CompiledPipeline.compile("assets_aggregation", definition(status));
+    }
+
+    private Document definition(String status) {
+        return new Document("name", "assets_aggregation")
+                .append("sourceCollection", "bank_raw")
+                .append("pipeline", List.of(
+                        new Document("$set", new Document("aggregationStatus", status)),
+                        new Document("$merge", new Document("into", "asset_staging").append("on", "traceId"))));
+    }
+}
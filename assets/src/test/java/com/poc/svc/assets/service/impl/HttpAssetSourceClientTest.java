@@ -0,0 +1,247 @@
+package com.poc.svc.assets.service.impl;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.poc.svc.assets.config.AssetsHedgingProperties;
+import com.poc.svc.assets.config.AssetsIngestionProperties;
+import com.poc.svc.assets.config.CancellableHttpComponentsClientHttpRequestFactory;
+import com.poc.svc.assets.dto.AssetSourceType;
+import com.poc.svc.assets.entity.codec.AssetCodecs;
+import com.poc.svc.assets.entity.payload.RawBsonPayload;
+import com.poc.svc.assets.service.AssetSourceClient;
+import com.poc.svc.assets.service.impl.support.RequestHedger;
+import com.poc.svc.assets.service.impl.support.SourceBulkheads;
+import com.poc.svc.assets.service.impl.support.SourceLatencyTracker;
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
+import org.bson.BsonDocument;
+import org.bson.Document;
+import org.bson.RawBsonDocument;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.springframework.data.mongodb.core.convert.MappingMongoConverter;
+import org.springframework.data.mongodb.core.convert.MongoCustomConversions;
+import org.springframework.data.mongodb.core.convert.NoOpDbRefResolver;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.test.web.client.MockRestServiceServer;
+import org.springframework.web.client.RestTemplate;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiFunction;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.requestTo;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withSuccess;
+
+class HttpAssetSourceClientTest {
+
+    private static final String BANK_JSON = """
+            {
+              "customerId": "C001",
+              "bankAssets": [
+                { "accountId": "001", "assetName": "Savings", "balance": 300304.22, "currency": "EUR" },
+                { "accountId": "002", "assetName": "Checking", "balance": 12, "currency": "TWD" }
+              ],
+              "totalBalance": 300316,
+              "currency": "TWD",
+              "traceId": "trace-1"
+            }
+            """;
+
+    private static final String SECURITIES_JSON = """
+            {
+              "customerId": "C001",
+              "securitiesAssets": [
+                { "securityType": "STOCK", "symbol": "2330", "assetName": "TSMC", "holdings": 100,
+                  "marketValue": 98000, "currency": "TWD", "riskLevel": "HIGH", "lastUpdated": "2025-01-01T00:00:00Z" }
+              ],
+              "totalMarketValue": 98000.50,
+              "currency": "TWD",
+              "traceId": "trace-1"
+            }
+            """;
+
+    private static final String INSURANCE_JSON = """
+            {
+              "customerId": "C001",
+              "insuranceAssets": [
+                { "policyNumber": "P-1", "policyType": "LIFE", "assetName": "Term Life", "coverage": 1000000,
+                  "premiumStatus": "PAID", "currency": "USD", "lastUpdated": "2025-01-01T00:00:00Z" }
+              ],
+              "totalCoverage": 1000000,
+              "currency": "USD",
+              "traceId": "trace-1"
+            }
+            """;
+
+    // 與 Spring Boot 預設的 ObjectMapper 相同，時間以 ISO-8601 字串輸出
+    private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json()
+            .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+            .build();
+
+    static Stream<Arguments> sources() {
+        BiFunction<HttpAssetSourceClient, String, Map<String, Object>> bank =
+                (client, customerId) -> client.fetchBankAssets(customerId, "trace-1").join().payload();
+        BiFunction<HttpAssetSourceClient, String, Map<String, Object>> securities =
+                (client, customerId) -> client.fetchSecuritiesAssets(customerId, "trace-1").join().payload();
+        BiFunction<HttpAssetSourceClient, String, Map<String, Object>> insurance =
+                (client, customerId) -> client.fetchInsuranceAssets(customerId, "trace-1").join().payload();
+        return Stream.of(
+                Arguments.of("bank", "http://bank/bank/customers/C001/assets", BANK_JSON, bank),
+                Arguments.of("securities", "http://securities/securities/customers/C001/assets", SECURITIES_JSON, securities),
+                Arguments.of("insurance", "http://insurance/insurance/customers/C001/assets", INSURANCE_JSON, insurance)
+        );
+    }
+
+    @ParameterizedTest(name = "{0}")
+    @MethodSource("sources")
+    @DisplayName("should store the same raw payload BSON in MAP and STREAMING_BSON ingestion modes")
+    void payload_isIdenticalAcrossIngestionModes(String source,
+                                                 String url,
+                                                 String json,
+                                                 BiFunction<HttpAssetSourceClient, String, Map<String, Object>> fetch) {
+        BsonDocument mapped = storedPayload(fetch.apply(client(AssetsIngestionProperties.Mode.MAP, url, json), "C001"));
+        BsonDocument streamed = storedPayload(fetch.apply(client(AssetsIngestionProperties.Mode.STREAMING_BSON, url, json), "C001"));
+
+        assertThat(streamed).isEqualTo(mapped);
+    }
+
+    @Test
+    @DisplayName("should abort the losing hedged HTTP exchange and release its worker and connection")
+    void fetch_abortsLosingHedgedExchange() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger requests = new AtomicInteger();
+        HttpServer server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        ExecutorService serverThreads = Executors.newCachedThreadPool();
+        server.setExecutor(serverThreads);
+        server.createContext("/insurance/customers/C001/assets", exchange -> {
+            if (requests.incrementAndGet() == 1) {
+                // 主請求在測試結束前都不回應，只有對沖請求會收到回應
+                awaitQuietly(release);
+            }
+            byte[] body = INSURANCE_JSON.getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().add("Content-Type", MediaType.APPLICATION_JSON_VALUE);
+            try (OutputStream out = exchange.getResponseBody()) {
+                exchange.sendResponseHeaders(200, body.length);
+                out.write(body);
+            } catch (IOException ignored) {
+                // 用戶端已中止
+            }
+        });
+        server.start();
+
+        ExecutorService workers = Executors.newFixedThreadPool(2);
+        CountDownLatch finished = new CountDownLatch(2);
+        Executor bulkhead = command -> workers.execute(() -> {
+            try {
+                command.run();
+            } finally {
+                finished.countDown();
+            }
+        });
+        PoolingHttpClientConnectionManager connectionManager = PoolingHttpClientConnectionManagerBuilder.create().build();
+        try (CloseableHttpClient httpClient = HttpClients.custom().setConnectionManager(connectionManager).build()) {
+            AssetsHedgingProperties hedging = new AssetsHedgingProperties();
+            hedging.setEnabled(true);
+            hedging.setMinSamples(1);
+            hedging.setMinDelay(Duration.ofMillis(50));
+            SourceLatencyTracker latencyTracker = new SourceLatencyTracker();
+            latencyTracker.record(AssetSourceType.INSURANCE, Duration.ofMillis(50));
+            String baseUrl = "http://127.0.0.1:" + server.getAddress().getPort();
+            HttpAssetSourceClient client = new HttpAssetSourceClient(
+                    new RestTemplate(new CancellableHttpComponentsClientHttpRequestFactory(httpClient)),
+                    SourceBulkheads.shared(bulkhead),
+                    new RequestHedger(hedging, latencyTracker, new SimpleMeterRegistry()),
+                    objectMapper,
+                    new AssetsIngestionProperties(),
+                    baseUrl,
+                    baseUrl,
+                    baseUrl
+            );
+
+            AssetSourceClient.InsuranceAssetResult result = client.fetchInsuranceAssets("C001", "trace-1").get(5, TimeUnit.SECONDS);
+
+            assertThat(result.payload()).containsEntry("customerId", "C001");
+            assertThat(requests).hasValue(2);
+            // 伺服器仍未回應主請求，worker 已結束即表示 exchange 被中止而非等到回應
+            assertThat(finished.await(5, TimeUnit.SECONDS)).isTrue();
+            assertThat(release.getCount()).isEqualTo(1);
+            assertThat(connectionManager.getTotalStats().getLeased()).isZero();
+        } finally {
+            release.countDown();
+            server.stop(0);
+            serverThreads.shutdownNow();
+            workers.shutdownNow();
+        }
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await(30, TimeUnit.SECONDS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * 以 writer 寫入 Mongo 時的方式編碼 payload：MAP 模式經 {@code MappingMongoConverter}，STREAMING_BSON 直接沿用原始 bytes。
+     */
+    private BsonDocument storedPayload(Map<String, Object> payload) {
+        if (payload instanceof RawBsonPayload raw) {
+            return raw.raw();
+        }
+        Document converted = (Document) converter().convertToMongoType(payload);
+        return new RawBsonDocument(converted, AssetCodecs.REGISTRY.get(Document.class));
+    }
+
+    private HttpAssetSourceClient client(AssetsIngestionProperties.Mode mode, String url, String json) {
+        RestTemplate restTemplate = new RestTemplate();
+        MockRestServiceServer server = MockRestServiceServer.bindTo(restTemplate).build();
+        server.expect(requestTo(url)).andRespond(withSuccess(json, MediaType.APPLICATION_JSON));
+        AssetsIngestionProperties ingestion = new AssetsIngestionProperties();
+        ingestion.setMode(mode);
+        return new HttpAssetSourceClient(
+                restTemplate,
+                SourceBulkheads.shared(Runnable::run),
+                new RequestHedger(new AssetsHedgingProperties(), new SourceLatencyTracker(), new SimpleMeterRegistry()),
+                objectMapper,
+                ingestion,
+                "http://bank",
+                "http://securities",
+                "http://insurance"
+        );
+    }
+
+    private static MappingMongoConverter converter() {
+        MongoCustomConversions conversions = new MongoCustomConversions(List.of());
+        MongoMappingContext mappingContext = new MongoMappingContext();
+        mappingContext.setSimpleTypeHolder(conversions.getSimpleTypeHolder());
+        mappingContext.afterPropertiesSet();
+        MappingMongoConverter converter = new MappingMongoConverter(NoOpDbRefResolver.INSTANCE, mappingContext);
+        converter.setCustomConversions(conversions);
+        converter.afterPropertiesSet();
+        return converter;
+    }
+}
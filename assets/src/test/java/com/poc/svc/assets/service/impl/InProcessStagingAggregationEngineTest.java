@@ -0,0 +1,148 @@
+package com.poc.svc.assets.service.impl;
+
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.model.FindOneAndReplaceOptions;
+import com.poc.svc.assets.config.CurrencyConversionProperties;
+import com.poc.svc.assets.dto.AssetSourceType;
+import com.poc.svc.assets.entity.AssetStagingDocument;
+import com.poc.svc.assets.entity.codec.AssetCodecs;
+import com.poc.svc.assets.service.AssetAggregationCoordinator.ExecutionSummary;
+import com.poc.svc.assets.service.AssetAggregationCoordinator.SourceOutcome;
+import com.poc.svc.assets.service.BankAssetWriter.BankAssetWriteRequest;
+import org.bson.Document;
+import org.bson.conversions.Bson;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.data.mongodb.core.MongoTemplate;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class InProcessStagingAggregationEngineTest {
+
+    private static final Instant FETCHED_AT = Instant.parse("2025-11-14T01:13:00.938Z");
+    private static final Instant AGGREGATED_AT = Instant.parse("2025-11-14T01:13:00.971Z");
+
+    private MongoTemplate mongoTemplate;
+    private InProcessStagingAggregationEngine engine;
+
+    @BeforeEach
+    void setUp() {
+        CurrencyConversionProperties rates = new CurrencyConversionProperties();
+        rates.setRates(Map.of("USD:TWD", new BigDecimal("31.5")));
+        mongoTemplate = mock(MongoTemplate.class);
+        engine = new InProcessStagingAggregationEngine(mongoTemplate, new DefaultCurrencyConversionService(rates), "TWD");
+    }
+
+    @Test
+    @DisplayName("should convert every source to the base currency and flatten asset details")
+    void shouldBuildStagingDocument() {
+        AssetStagingDocument staging = engine.build("c-1", "agg-trace", summary(), AGGREGATED_AT);
+
+        assertThat(staging.baseCurrency()).isEqualTo("TWD");
+        assertThat(staging.aggregationStatus()).isEqualTo("COMPLETED");
+        assertThat(staging.totalAssetValue()).isEqualByComparingTo("3650.00");
+        assertThat(staging.components()).extracting(AssetStagingDocument.Component::source)
+                .containsExactly("BANK", "SECURITIES", "INSURANCE");
+
+        AssetStagingDocument.Component bank = staging.components().get(0);
+        assertThat(bank.amountInBase()).isEqualByComparingTo("3150.00");
+        assertThat(bank.exchangeRate()).isEqualByComparingTo("31.5");
+        assertThat(bank.payloadRefId()).isEqualTo("bank-ref");
+
+        AssetStagingDocument.Component securities = staging.components().get(1);
+        assertThat(securities.status()).isEqualTo("MISSING");
+        assertThat(securities.amountInBase()).isEqualByComparingTo("0");
+
+        assertThat(staging.assets()).hasSize(2);
+        AssetStagingDocument.AssetEntry account = staging.assets().get(0);
+        assertThat(account.source()).isEqualTo("BANK");
+        assertThat(account.accountId()).isEqualTo("ACC-1");
+        assertThat(account.balance()).isEqualByComparingTo("100");
+        assertThat(account.amountInBase()).isEqualByComparingTo("3150.00");
+        assertThat(account.totalAssetValue()).isEqualByComparingTo("3150.00");
+        assertThat(account.aggregatedAt()).isEqualTo(AGGREGATED_AT);
+        AssetStagingDocument.AssetEntry policy = staging.assets().get(1);
+        assertThat(policy.assetType()).isEqualTo("life");
+        assertThat(policy.coverage()).isEqualByComparingTo("500");
+        assertThat(policy.exchangeRate()).isEqualByComparingTo("1");
+
+        assertThat(staging.currencyBreakdown()).containsExactly(
+                new AssetStagingDocument.CurrencyAmount("TWD", new BigDecimal("500")),
+                new AssetStagingDocument.CurrencyAmount("USD", new BigDecimal("100")));
+    }
+
+    @Test
+    @DisplayName("should fail when a source currency has no conversion rate")
+    void shouldFailOnMissingRate() {
+        Map<AssetSourceType, SourceOutcome> outcomes = new EnumMap<>(AssetSourceType.class);
+        outcomes.put(AssetSourceType.BANK, SourceOutcome.success(AssetSourceType.BANK, BigDecimal.TEN, "JPY", FETCHED_AT,
+                "bank-trace", "bank-ref", Map.of(), List.of(), List.of()));
+
+        assertThatThrownBy(() -> engine.build("c-1", "agg-trace", new ExecutionSummary(outcomes), AGGREGATED_AT))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("JPY");
+    }
+
+    @Test
+    @DisplayName("should upsert the staging document by traceId in a single write and return the stored document")
+    @SuppressWarnings("unchecked")
+    void shouldUpsertByTraceId() {
+        MongoCollection<Document> collection = mock(MongoCollection.class);
+        MongoCollection<Document> withCodecs = mock(MongoCollection.class);
+        Document stored = new Document("traceId", "agg-trace");
+        when(mongoTemplate.getCollection("asset_staging")).thenReturn(collection);
+        when(collection.withCodecRegistry(AssetCodecs.REGISTRY)).thenReturn(withCodecs);
+        when(withCodecs.findOneAndReplace(any(Bson.class), any(Document.class), any(FindOneAndReplaceOptions.class)))
+                .thenReturn(stored);
+
+        List<Document> result = engine.aggregate("c-1", "agg-trace", summary());
+
+        ArgumentCaptor<Document> replacement = ArgumentCaptor.forClass(Document.class);
+        ArgumentCaptor<FindOneAndReplaceOptions> options = ArgumentCaptor.forClass(FindOneAndReplaceOptions.class);
+        verify(withCodecs).findOneAndReplace(any(Bson.class), replacement.capture(), options.capture());
+        assertThat(result).containsExactly(stored);
+        assertThat(replacement.getValue()).doesNotContainKey("_id");
+        assertThat(options.getValue().isUpsert()).isTrue();
+    }
+
+    private ExecutionSummary summary() {
+        Map<AssetSourceType, SourceOutcome> outcomes = new EnumMap<>(AssetSourceType.class);
+        outcomes.put(AssetSourceType.BANK, SourceOutcome.success(
+                AssetSourceType.BANK,
+                new BigDecimal("100"),
+                "USD",
+                FETCHED_AT,
+                "bank-trace",
+                "bank-ref",
+                Map.of(),
+                List.of(new BankAssetWriteRequest.CurrencyAmount("USD", new BigDecimal("100"))),
+                List.of(Map.of("accountId", "ACC-1", "assetName", "Savings", "balance", 100, "currency", "USD"))
+        ));
+        outcomes.put(AssetSourceType.SECURITIES, SourceOutcome.missing(AssetSourceType.SECURITIES, "sec-trace"));
+        outcomes.put(AssetSourceType.INSURANCE, SourceOutcome.success(
+                AssetSourceType.INSURANCE,
+                new BigDecimal("500"),
+                "TWD",
+                FETCHED_AT,
+                "ins-trace",
+                "ins-ref",
+                Map.of(),
+                List.of(),
+                List.of(Map.of("policyNumber", "PRO-1", "policyType", "life", "coverage", "500"))
+        ));
+        return new ExecutionSummary(outcomes);
+    }
+}
@@ -0,0 +1,96 @@
+package com.poc.svc.assets.service.impl.support;
+
+import com.poc.svc.assets.config.AssetsAdaptiveTimeoutProperties;
+import com.poc.svc.assets.dto.AssetSourceType;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AdaptiveSourceTimeoutPolicyTest {
+
+    private static final Duration DEADLINE = Duration.ofSeconds(3);
+
+    private SourceLatencyTracker latencyTracker;
+    private AssetsAdaptiveTimeoutProperties properties;
+    private SimpleMeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setUp() {
+        latencyTracker = new SourceLatencyTracker();
+        meterRegistry = new SimpleMeterRegistry();
+        properties = new AssetsAdaptiveTimeoutProperties();
+        properties.setEnabled(true);
+        properties.setPercentile(0.99);
+        properties.setFactor(2.0);
+        properties.setFloor(Duration.ofMillis(100));
+        properties.setCeiling(Duration.ofSeconds(2));
+        properties.setMinSamples(10);
+    }
+
+    @Test
+    @DisplayName("should derive each source's timeout from its own latency percentile")
+    void timeoutFor_derivesPerSource() {
+        record(AssetSourceType.BANK, Duration.ofMillis(80), 100);
+        record(AssetSourceType.SECURITIES, Duration.ofMillis(20), 100);
+        record(AssetSourceType.INSURANCE, Duration.ofMillis(1500), 100);
+        AdaptiveSourceTimeoutPolicy policy = new AdaptiveSourceTimeoutPolicy(properties, latencyTracker, meterRegistry);
+
+        assertThat(policy.timeoutFor(AssetSourceType.BANK, DEADLINE)).isEqualTo(Duration.ofMillis(160));
+        assertThat(policy.timeoutFor(AssetSourceType.SECURITIES, DEADLINE)).isEqualTo(Duration.ofMillis(100));
+        assertThat(policy.timeoutFor(AssetSourceType.INSURANCE, DEADLINE)).isEqualTo(Duration.ofSeconds(2));
+        assertThat(meterRegistry.get("asset.source.timeout").tag("source", "BANK").gauge().value()).isEqualTo(160.0);
+    }
+
+    @Test
+    @DisplayName("should never exceed the overall deadline and fall back to the ceiling without samples")
+    void timeoutFor_respectsDeadlineAndColdStart() {
+        AdaptiveSourceTimeoutPolicy policy = new AdaptiveSourceTimeoutPolicy(properties, latencyTracker, meterRegistry);
+
+        assertThat(policy.timeoutFor(AssetSourceType.BANK, DEADLINE)).isEqualTo(Duration.ofSeconds(2));
+        assertThat(policy.timeoutFor(AssetSourceType.BANK, Duration.ofMillis(500))).isEqualTo(Duration.ofMillis(500));
+    }
+
+    @Test
+    @DisplayName("should use the overall deadline when disabled")
+    void timeoutFor_disabledUsesDeadline() {
+        record(AssetSourceType.BANK, Duration.ofMillis(80), 100);
+        properties.setEnabled(false);
+        AdaptiveSourceTimeoutPolicy policy = new AdaptiveSourceTimeoutPolicy(properties, latencyTracker, meterRegistry);
+
+        assertThat(policy.timeoutFor(AssetSourceType.BANK, DEADLINE)).isEqualTo(DEADLINE);
+    }
+
+    @Test
+    @DisplayName("should raise the timeout again when latency climbs above the derived timeout")
+    void recordAbandoned_recoversAfterLatencyRises() {
+        record(AssetSourceType.BANK, Duration.ofMillis(80), 100);
+        AdaptiveSourceTimeoutPolicy policy = new AdaptiveSourceTimeoutPolicy(properties, latencyTracker, meterRegistry);
+        Duration slowLatency = Duration.ofMillis(300);
+        assertThat(policy.timeoutFor(AssetSourceType.BANK, DEADLINE)).isLessThan(slowLatency);
+
+        int timeouts = 0;
+        for (int call = 0; call < 20; call++) {
+            Duration applied = policy.timeoutFor(AssetSourceType.BANK, DEADLINE);
+            if (applied.compareTo(slowLatency) < 0) {
+                policy.recordAbandoned(AssetSourceType.BANK, applied);
+                timeouts++;
+            } else {
+                latencyTracker.record(AssetSourceType.BANK, slowLatency);
+            }
+        }
+
+        assertThat(timeouts).isBetween(1, 5);
+        assertThat(policy.timeoutFor(AssetSourceType.BANK, DEADLINE)).isEqualTo(Duration.ofMillis(600));
+    }
+
+    private void record(AssetSourceType source, Duration latency, int samples) {
+        for (int i = 0; i < samples; i++) {
+            latencyTracker.record(source, latency);
+        }
+    }
+}
@@ -0,0 +1,179 @@
+package com.poc.svc.assets.service.impl.support;
+
+import com.mongodb.ClientSessionOptions;
+import com.mongodb.MongoException;
+import com.mongodb.TransactionOptions;
+import com.mongodb.client.ClientSession;
+import com.mongodb.client.MongoCollection;
+import com.poc.svc.assets.config.AssetsRawWriteProperties;
+import com.poc.svc.assets.dto.AssetSourceType;
+import com.poc.svc.assets.exception.MongoRawWriteException;
+import com.poc.svc.assets.service.RawWriteBatcher;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.bson.Document;
+import org.bson.conversions.Bson;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.mongodb.MongoDatabaseFactory;
+import org.springframework.data.mongodb.core.MongoTemplate;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class AggregationRawWriteBatcherTest {
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    @Mock
+    private MongoDatabaseFactory databaseFactory;
+
+    @Mock
+    private ClientSession session;
+
+    @Mock
+    private MongoCollection<Document> bankCollection;
+
+    @Mock
+    private MongoCollection<Document> insuranceCollection;
+
+    private final Document bank = new Document("_id", new ObjectId());
+    private final Document insurance = new Document("_id", new ObjectId());
+
+    @Test
+    @DisplayName("should not open a batch unless raw writes are configured per aggregation")
+    void open_returnsEmptyOutsidePerAggregationMode() {
+        assertThat(newBatcher(AssetsRawWriteProperties.Mode.SINGLE, Runnable::run).open("trace-1")).isEmpty();
+    }
+
+    @Test
+    @DisplayName("should hold deferred documents and write them in one transaction on the commit executor")
+    void commit_writesAllSourcesInOneTransaction() {
+        AtomicInteger commitTasks = new AtomicInteger();
+        Executor commitExecutor = command -> {
+            commitTasks.incrementAndGet();
+            command.run();
+        };
+        RawWriteBatcher.Batch batch = openBatch(commitExecutor);
+
+        verifyNoInteractions(bankCollection, insuranceCollection, session);
+
+        Map<AssetSourceType, DataAccessException> failures = batch.commit(Duration.ofSeconds(5)).join();
+
+        assertThat(failures).isEmpty();
+        assertThat(commitTasks).hasValue(1);
+        InOrder order = inOrder(session, bankCollection, insuranceCollection);
+        order.verify(session).startTransaction(any(TransactionOptions.class));
+        order.verify(bankCollection).insertOne(session, bank);
+        order.verify(insuranceCollection).insertOne(session, insurance);
+        order.verify(session).commitTransaction();
+    }
+
+    @Test
+    @DisplayName("should abort the transaction and fail every source when a write is rejected")
+    void commit_failsAllSourcesWhenAWriteFails() {
+        when(session.hasActiveTransaction()).thenReturn(true);
+        when(insuranceCollection.insertOne(session, insurance)).thenThrow(new MongoException(121, "document failed validation"));
+        RawWriteBatcher.Batch batch = openBatch(Runnable::run);
+
+        Map<AssetSourceType, DataAccessException> failures = batch.commit(Duration.ofSeconds(5)).join();
+
+        verify(session).abortTransaction();
+        verify(session, never()).commitTransaction();
+        assertThat(failures).containsOnlyKeys(AssetSourceType.BANK, AssetSourceType.INSURANCE);
+        assertThat(failures.get(AssetSourceType.INSURANCE))
+                .isInstanceOf(MongoRawWriteException.class)
+                .hasMessage("insurance failed");
+    }
+
+    @Test
+    @DisplayName("should retry the whole transaction on a transient transaction error")
+    void commit_retriesTransientTransactionErrors() {
+        MongoException writeConflict = new MongoException(112, "WriteConflict");
+        writeConflict.addLabel(MongoException.TRANSIENT_TRANSACTION_ERROR_LABEL);
+        when(insuranceCollection.insertOne(session, insurance)).thenThrow(writeConflict).thenReturn(null);
+        RawWriteBatcher.Batch batch = openBatch(Runnable::run);
+
+        Map<AssetSourceType, DataAccessException> failures = batch.commit(Duration.ofSeconds(5)).join();
+
+        assertThat(failures).isEmpty();
+        verify(session, times(2)).startTransaction(any(TransactionOptions.class));
+        verify(bankCollection, times(2)).insertOne(session, bank);
+        verify(session).commitTransaction();
+    }
+
+    @Test
+    @DisplayName("should wait for an in-flight write and abort instead of committing once the deadline passes")
+    void commit_abortsAfterDeadlineInsteadOfReportingWhileWriting() {
+        when(session.hasActiveTransaction()).thenReturn(true);
+        when(bankCollection.insertOne(session, bank)).thenAnswer(invocation -> {
+            Thread.sleep(150);
+            return null;
+        });
+        RawWriteBatcher.Batch batch = openBatch(Runnable::run);
+
+        Map<AssetSourceType, DataAccessException> failures = batch.commit(Duration.ofMillis(50)).join();
+
+        verify(session).abortTransaction();
+        verify(session, never()).commitTransaction();
+        verify(insuranceCollection, never()).insertOne(eq(session), any(Document.class));
+        assertThat(failures).containsOnlyKeys(AssetSourceType.BANK, AssetSourceType.INSURANCE);
+        assertThat(failures.get(AssetSourceType.BANK)).hasCauseInstanceOf(TimeoutException.class);
+    }
+
+    @Test
+    @DisplayName("should confirm an unknown commit result by the pre-generated id before reporting failure")
+    void commit_confirmsUnknownCommitResult() {
+        MongoException unknown = new MongoException(91, "ShutdownInProgress");
+        unknown.addLabel(MongoException.UNKNOWN_TRANSACTION_COMMIT_RESULT_LABEL);
+        doThrow(unknown).when(session).commitTransaction();
+        when(bankCollection.countDocuments(any(Bson.class))).thenReturn(1L);
+        RawWriteBatcher.Batch batch = openBatch(Runnable::run);
+
+        Map<AssetSourceType, DataAccessException> failures = batch.commit(Duration.ofMillis(200)).join();
+
+        assertThat(failures).isEmpty();
+        verify(bankCollection).countDocuments(any(Bson.class));
+    }
+
+    private RawWriteBatcher.Batch openBatch(Executor executor) {
+        when(mongoTemplate.getMongoDatabaseFactory()).thenReturn(databaseFactory);
+        when(databaseFactory.getSession(any(ClientSessionOptions.class))).thenReturn(session);
+        when(mongoTemplate.getCollection("bank_raw")).thenReturn(bankCollection);
+        // 逾時情境中 insurance 的文件不會寫入
+        lenient().when(mongoTemplate.getCollection("insurance_raw")).thenReturn(insuranceCollection);
+        RawWriteBatcher.Batch batch = newBatcher(AssetsRawWriteProperties.Mode.PER_AGGREGATION, executor)
+                .open("trace-1").orElseThrow();
+        batch.sink(AssetSourceType.BANK).add("bank_raw", bank, "bank failed");
+        batch.sink(AssetSourceType.INSURANCE).add("insurance_raw", insurance, "insurance failed");
+        return batch;
+    }
+
+    private AggregationRawWriteBatcher newBatcher(AssetsRawWriteProperties.Mode mode, Executor executor) {
+        AssetsRawWriteProperties properties = new AssetsRawWriteProperties();
+        properties.setMode(mode);
+        return new AggregationRawWriteBatcher(mongoTemplate, properties, new SimpleMeterRegistry(), executor);
+    }
+}
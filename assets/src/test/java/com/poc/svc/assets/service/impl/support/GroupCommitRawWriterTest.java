@@ -0,0 +1,170 @@
+package com.poc.svc.assets.service.impl.support;
+
+import com.mongodb.MongoBulkWriteException;
+import com.mongodb.bulk.BulkWriteError;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.model.InsertManyOptions;
+import com.poc.svc.assets.config.AssetsRawWriteProperties;
+import com.poc.svc.assets.config.MongoWriteRetryProperties;
+import com.poc.svc.assets.exception.MongoRawWriteException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.bson.BsonDocument;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.mongodb.core.MongoTemplate;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class GroupCommitRawWriterTest {
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    @Mock
+    private MongoCollection<Document> bankCollection;
+
+    @Mock
+    private MongoCollection<Document> insuranceCollection;
+
+    @Test
+    @DisplayName("should insert each collection's documents with one unordered insertMany and complete every future with its id")
+    void flush_groupsByCollection() {
+        when(mongoTemplate.getCollection("bank_raw")).thenReturn(bankCollection);
+        when(mongoTemplate.getCollection("insurance_raw")).thenReturn(insuranceCollection);
+        GroupCommitRawWriter writer = newWriter(AssetsRawWriteProperties.Mode.SINGLE);
+        GroupCommitRawWriter.PendingWrite bank1 = pending("bank_raw");
+        GroupCommitRawWriter.PendingWrite bank2 = pending("bank_raw");
+        GroupCommitRawWriter.PendingWrite insurance = pending("insurance_raw");
+
+        writer.flush(List.of(bank1, insurance, bank2));
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<Document>> documents = ArgumentCaptor.forClass(List.class);
+        ArgumentCaptor<InsertManyOptions> options = ArgumentCaptor.forClass(InsertManyOptions.class);
+        verify(bankCollection).insertMany(documents.capture(), options.capture());
+        assertThat(documents.getValue()).containsExactly(bank1.document(), bank2.document());
+        assertThat(options.getValue().isOrdered()).isFalse();
+        verify(insuranceCollection, times(1)).insertMany(anyList(), any(InsertManyOptions.class));
+        assertThat(bank1.result().join()).isEqualTo(bank1.document().getObjectId("_id").toHexString());
+        assertThat(insurance.result().join()).isEqualTo(insurance.document().getObjectId("_id").toHexString());
+    }
+
+    @Test
+    @DisplayName("should fail only the documents rejected by the bulk insert and accept duplicate keys from retries")
+    void flush_reportsPerDocumentFailures() {
+        MongoBulkWriteException bulkFailure = mock(MongoBulkWriteException.class);
+        when(bulkFailure.getWriteErrors()).thenReturn(List.of(
+                new BulkWriteError(11000, "duplicate key", new BsonDocument(), 0),
+                new BulkWriteError(121, "document failed validation", new BsonDocument(), 2)
+        ));
+        when(mongoTemplate.getCollection("bank_raw")).thenReturn(bankCollection);
+        when(bankCollection.insertMany(anyList(), any(InsertManyOptions.class))).thenThrow(bulkFailure);
+        GroupCommitRawWriter writer = newWriter(AssetsRawWriteProperties.Mode.SINGLE);
+        List<GroupCommitRawWriter.PendingWrite> batch = List.of(pending("bank_raw"), pending("bank_raw"), pending("bank_raw"));
+
+        writer.flush(batch);
+
+        assertThat(batch.get(0).result()).isCompleted();
+        assertThat(batch.get(1).result()).isCompleted();
+        assertThat(batch.get(2).result()).isCompletedExceptionally();
+        assertThat(batch.get(2).result().handle((value, error) -> error).join()).isInstanceOf(MongoRawWriteException.class);
+    }
+
+    @Test
+    @DisplayName("should batch concurrent submissions when group commit is running")
+    void submit_flushesWithinMaxDelay() throws Exception {
+        when(mongoTemplate.getCollection("bank_raw")).thenReturn(bankCollection);
+        GroupCommitRawWriter writer = newWriter(AssetsRawWriteProperties.Mode.GROUP_COMMIT);
+        try {
+            Document first = new Document("_id", new ObjectId());
+            Document second = new Document("_id", new ObjectId());
+
+            CompletableFuture<String> firstId = writer.submit("bank_raw", first, "bank");
+            CompletableFuture<String> secondId = writer.submit("bank_raw", second, "bank");
+
+            assertThat(firstId.get(5, TimeUnit.SECONDS)).isEqualTo(first.getObjectId("_id").toHexString());
+            assertThat(secondId.get(5, TimeUnit.SECONDS)).isEqualTo(second.getObjectId("_id").toHexString());
+            @SuppressWarnings("unchecked")
+            ArgumentCaptor<List<Document>> documents = ArgumentCaptor.forClass(List.class);
+            verify(bankCollection, times(1)).insertMany(documents.capture(), any(InsertManyOptions.class));
+            assertThat(documents.getValue()).containsExactly(first, second);
+        } finally {
+            writer.destroy();
+        }
+    }
+
+    @Test
+    @DisplayName("should keep flushing other collections while one collection's insert is stuck")
+    void submit_isolatesCollections() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        when(mongoTemplate.getCollection("bank_raw")).thenReturn(bankCollection);
+        when(mongoTemplate.getCollection("insurance_raw")).thenReturn(insuranceCollection);
+        when(bankCollection.insertMany(anyList(), any(InsertManyOptions.class))).thenAnswer(invocation -> {
+            release.await(5, TimeUnit.SECONDS);
+            return null;
+        });
+        GroupCommitRawWriter writer = newWriter(AssetsRawWriteProperties.Mode.GROUP_COMMIT);
+        try {
+            CompletableFuture<String> bankId = writer.submit("bank_raw", new Document("_id", new ObjectId()), "bank");
+            Document insurance = new Document("_id", new ObjectId());
+
+            CompletableFuture<String> insuranceId = writer.submit("insurance_raw", insurance, "insurance");
+
+            assertThat(insuranceId.get(5, TimeUnit.SECONDS)).isEqualTo(insurance.getObjectId("_id").toHexString());
+            assertThat(bankId).isNotDone();
+            release.countDown();
+            assertThat(bankId.get(5, TimeUnit.SECONDS)).isNotNull();
+        } finally {
+            release.countDown();
+            writer.destroy();
+        }
+    }
+
+    @Test
+    @DisplayName("should fail submissions made after the writer is destroyed instead of leaving them pending")
+    void submit_afterDestroyFails() throws Exception {
+        GroupCommitRawWriter writer = newWriter(AssetsRawWriteProperties.Mode.GROUP_COMMIT);
+        writer.destroy();
+
+        CompletableFuture<String> result = writer.submit("bank_raw", new Document("_id", new ObjectId()), "bank");
+
+        assertThat(result).isCompletedExceptionally();
+        assertThat(result.handle((value, error) -> error).join()).isInstanceOf(MongoRawWriteException.class);
+    }
+
+    private GroupCommitRawWriter newWriter(AssetsRawWriteProperties.Mode mode) {
+        AssetsRawWriteProperties properties = new AssetsRawWriteProperties();
+        properties.setMode(mode);
+        properties.getGroupCommit().setMaxDelay(Duration.ofMillis(50));
+        return new GroupCommitRawWriter(
+                mongoTemplate,
+                new MongoWriteRetrier(MongoWriteRetryProperties.defaults(), new SimpleMeterRegistry()),
+                properties,
+                new SimpleMeterRegistry()
+        );
+    }
+
+    private GroupCommitRawWriter.PendingWrite pending(String collection) {
+        return new GroupCommitRawWriter.PendingWrite(
+                collection, new Document("_id", new ObjectId()), "write failed", new CompletableFuture<>());
+    }
+}
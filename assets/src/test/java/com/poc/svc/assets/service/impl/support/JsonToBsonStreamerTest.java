@@ -0,0 +1,80 @@
+package com.poc.svc.assets.service.impl.support;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.poc.svc.assets.entity.payload.RawBsonPayload;
+import org.bson.Document;
+import org.bson.RawBsonDocument;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class JsonToBsonStreamerTest {
+
+    private final JsonToBsonStreamer streamer =
+            new JsonToBsonStreamer(new JsonFactory(), Set.of("balance", "totalBalance"));
+
+    @Test
+    @DisplayName("should stream nested JSON into raw BSON with decimal fields kept as strings")
+    void read_convertsNestedPayload() throws IOException {
+        String json = """
+                {
+                  "customerId": "c-001",
+                  "bankAssets": [
+                    { "accountId": "001", "balance": 300304.22, "currency": "EUR", "active": true },
+                    { "accountId": "002", "balance": 12, "currency": "TWD", "note": null, "sequence": 7 }
+                  ],
+                  "totalBalance": 300316.22,
+                  "traceId": "trace-1"
+                }
+                """;
+
+        RawBsonDocument raw = streamer.read(new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8)));
+        RawBsonPayload payload = new RawBsonPayload(raw);
+
+        assertThat(payload.getString("customerId")).isEqualTo("c-001");
+        assertThat(payload.getDecimal("totalBalance")).isEqualByComparingTo("300316.22");
+        assertThat(raw.get("totalBalance").isString()).isTrue();
+        assertThat(payload.getArray("bankAssets")).hasSize(2);
+
+        @SuppressWarnings("unchecked")
+        List<Document> assets = (List<Document>) payload.get("bankAssets");
+        assertThat(assets.get(0).getString("balance")).isEqualTo("300304.22");
+        assertThat(assets.get(0).getBoolean("active")).isTrue();
+        assertThat(assets.get(1).getString("balance")).isEqualTo("12");
+        assertThat(assets.get(1).getInteger("sequence")).isEqualTo(7);
+        assertThat(assets.get(1).containsKey("note")).isTrue();
+        assertThat(RawBsonPayload.toDecimal(raw.getArray("bankAssets").get(1).asDocument().get("balance")))
+                .isEqualByComparingTo(BigDecimal.valueOf(12));
+    }
+
+    @Test
+    @DisplayName("should keep the raw payload view instead of copying it")
+    void immutableCopyOf_reusesRawPayload() throws IOException {
+        RawBsonDocument raw = streamer.read(new ByteArrayInputStream("{\"a\": 1}".getBytes(StandardCharsets.UTF_8)));
+        RawBsonPayload payload = new RawBsonPayload(raw);
+
+        assertThat(RawBsonPayload.immutableCopyOf(payload)).isSameAs(payload);
+        assertThat(RawBsonPayload.immutableCopyOf(Map.of("a", 1))).containsEntry("a", 1);
+        assertThat(payload).containsEntry("a", 1);
+    }
+
+    @Test
+    @DisplayName("should reject empty or non-object bodies")
+    void read_rejectsInvalidBodies() {
+        assertThatThrownBy(() -> streamer.read(new ByteArrayInputStream(new byte[0])))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("Empty response body");
+        assertThatThrownBy(() -> streamer.read(new ByteArrayInputStream("[1]".getBytes(StandardCharsets.UTF_8))))
+                .isInstanceOf(IllegalStateException.class);
+    }
+}
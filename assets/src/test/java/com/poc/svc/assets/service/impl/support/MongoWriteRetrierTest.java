@@ -0,0 +1,125 @@
+package com.poc.svc.assets.service.impl.support;
+
+import com.mongodb.MongoException;
+import com.poc.svc.assets.config.MongoWriteRetryProperties;
+import com.poc.svc.assets.exception.MongoRawWriteException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class MongoWriteRetrierTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    @DisplayName("should schedule async retries on a timer and complete once the write succeeds")
+    void executeAsync_retriesTransientFailures() throws Exception {
+        MongoWriteRetrier retrier = new MongoWriteRetrier(properties(3, Duration.ofMillis(10), 10), meterRegistry);
+        AtomicInteger calls = new AtomicInteger();
+
+        CompletableFuture<String> result = retrier.executeAsync("write failed", () -> {
+            if (calls.incrementAndGet() == 1) {
+                throw new MongoException("transient");
+            }
+            return "ok";
+        }, Runnable::run);
+
+        assertThat(result.get(5, TimeUnit.SECONDS)).isEqualTo("ok");
+        assertThat(calls).hasValue(2);
+        assertThat(meterRegistry.get("asset.mongo.write.attempts").tag("attempt", "retry").counter().count()).isEqualTo(1.0);
+        assertThat(meterRegistry.get("asset.mongo.write.retry.backoff").tag("mode", "async").timer().count()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("should stop retrying once the global retry budget is exhausted")
+    void execute_stopsWhenBudgetExhausted() {
+        MongoWriteRetryProperties properties = properties(5, Duration.ZERO, 1);
+        properties.setBudgetRatio(0);
+        MongoWriteRetrier retrier = new MongoWriteRetrier(properties, meterRegistry);
+        AtomicInteger calls = new AtomicInteger();
+
+        assertThatThrownBy(() -> retrier.execute("write failed", () -> {
+            calls.incrementAndGet();
+            throw new MongoException("brownout");
+        }))
+                .isInstanceOf(MongoRawWriteException.class)
+                .hasMessageContaining("retry budget exhausted");
+
+        assertThat(calls).hasValue(2);
+        assertThat(meterRegistry.get("asset.mongo.write.retry.budget.exhausted").counter().count()).isEqualTo(1.0);
+    }
+
+    @Test
+    @DisplayName("should not let a retrier with a separate budget drain the shared retry budget")
+    void withSeparateBudget_keepsSharedBudget() {
+        MongoWriteRetryProperties properties = properties(2, Duration.ZERO, 1);
+        properties.setBudgetRatio(0);
+        MongoWriteRetrier shared = new MongoWriteRetrier(properties, meterRegistry);
+        MongoWriteRetrier background = shared.withSeparateBudget();
+
+        assertThatThrownBy(() -> background.execute("drain failed", () -> {
+            throw new MongoException("brownout");
+        })).hasMessageContaining("after 2 attempts");
+        AtomicInteger calls = new AtomicInteger();
+        String result = shared.execute("write failed", () -> {
+            if (calls.incrementAndGet() == 1) {
+                throw new MongoException("transient");
+            }
+            return "ok";
+        });
+
+        assertThat(result).isEqualTo("ok");
+        assertThat(calls).hasValue(2);
+    }
+
+    @Test
+    @DisplayName("should fail the async result without retrying non-retryable errors")
+    void executeAsync_doesNotRetryNonRetryableErrors() {
+        MongoWriteRetrier retrier = new MongoWriteRetrier(properties(3, Duration.ofMillis(10), 10), meterRegistry);
+        AtomicInteger calls = new AtomicInteger();
+
+        CompletableFuture<String> result = retrier.executeAsync("write failed", () -> {
+            calls.incrementAndGet();
+            throw new IllegalArgumentException("bad document");
+        }, Runnable::run);
+
+        assertThatThrownBy(() -> result.get(5, TimeUnit.SECONDS))
+                .isInstanceOf(ExecutionException.class)
+                .hasCauseInstanceOf(IllegalArgumentException.class);
+        assertThat(calls).hasValue(1);
+    }
+
+    @Test
+    @DisplayName("should keep decorrelated jitter delays between the base backoff and the cap")
+    void nextDelay_staysWithinBounds() {
+        MongoWriteRetryProperties properties = properties(3, Duration.ofMillis(100), 10);
+        properties.setMaxBackoff(Duration.ofSeconds(1));
+        MongoWriteRetrier retrier = new MongoWriteRetrier(properties, meterRegistry);
+
+        Duration delay = Duration.ofMillis(100);
+        for (int i = 0; i < 1_000; i++) {
+            Duration next = retrier.nextDelay(delay);
+            assertThat(next).isBetween(Duration.ofMillis(100), delay.multipliedBy(3).compareTo(Duration.ofSeconds(1)) < 0
+                    ? delay.multipliedBy(3)
+                    : Duration.ofSeconds(1));
+            delay = next;
+        }
+    }
+
+    private MongoWriteRetryProperties properties(int maxAttempts, Duration backoff, int budgetBurst) {
+        MongoWriteRetryProperties properties = MongoWriteRetryProperties.defaults();
+        properties.setMaxAttempts(maxAttempts);
+        properties.setBackoff(backoff);
+        properties.setBudgetBurst(budgetBurst);
+        return properties;
+    }
+}
@@ -0,0 +1,171 @@
+package com.poc.svc.assets.service.impl.support;
+
+import com.mongodb.MongoCommandException;
+import com.mongodb.ServerAddress;
+import com.mongodb.client.AggregateIterable;
+import com.mongodb.client.ListCollectionsIterable;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.MongoDatabase;
+import com.mongodb.client.model.IndexOptions;
+import com.mongodb.client.result.DeleteResult;
+import com.poc.svc.assets.config.AssetsRawRetentionProperties;
+import com.poc.svc.assets.config.AssetsRawWriteProperties;
+import com.poc.svc.assets.dto.AssetSourceType;
+import com.poc.svc.assets.entity.BankAssetRawDocument;
+import com.poc.svc.assets.entity.InsuranceAssetRawDocument;
+import com.poc.svc.assets.entity.SecuritiesAssetRawDocument;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.bson.BsonDocument;
+import org.bson.BsonInt32;
+import org.bson.BsonString;
+import org.bson.Document;
+import org.bson.conversions.Bson;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+import org.mockito.ArgumentCaptor;
+import org.springframework.data.mongodb.core.MongoTemplate;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatCode;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class RawCollectionRetentionTest {
+
+    private MongoDatabase database;
+    private MongoCollection<Document> bank;
+    private AssetsRawRetentionProperties properties;
+    private SimpleMeterRegistry meterRegistry;
+    private RawCollectionRetention retention;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        MongoTemplate mongoTemplate = mock(MongoTemplate.class);
+        database = mock(MongoDatabase.class);
+        bank = mock(MongoCollection.class);
+        ListCollectionsIterable<Document> listCollections = mock(ListCollectionsIterable.class);
+        when(mongoTemplate.getDb()).thenReturn(database);
+        when(mongoTemplate.getCollectionName(BankAssetRawDocument.class)).thenReturn("bank_raw");
+        when(mongoTemplate.getCollectionName(SecuritiesAssetRawDocument.class)).thenReturn("securities_raw");
+        when(mongoTemplate.getCollectionName(InsuranceAssetRawDocument.class)).thenReturn("insurance_raw");
+        MongoCollection<Document> other = mock(MongoCollection.class);
+        when(other.aggregate(anyList())).thenReturn(mock(AggregateIterable.class));
+        when(database.getCollection(any(String.class))).thenReturn(other);
+        when(database.getCollection("bank_raw")).thenReturn(bank);
+        when(database.listCollections()).thenReturn(listCollections);
+        when(listCollections.filter(any(Bson.class))).thenReturn(listCollections);
+        properties = new AssetsRawRetentionProperties();
+        properties.setEnabled(true);
+        meterRegistry = new SimpleMeterRegistry();
+        retention = new RawCollectionRetention(mongoTemplate, properties, new AssetsRawWriteProperties(), meterRegistry);
+    }
+
+    @Test
+    @DisplayName("should create a TTL index on fetchedAt with the configured retention")
+    void shouldCreateTtlIndex() {
+        retention.applyRetention();
+
+        ArgumentCaptor<IndexOptions> options = ArgumentCaptor.forClass(IndexOptions.class);
+        verify(bank).createIndex(eq(new Document("fetchedAt", 1)), options.capture());
+        assertThat(options.getValue().getName()).isEqualTo(RawCollectionRetention.TTL_INDEX_NAME);
+        assertThat(options.getValue().getExpireAfter(TimeUnit.SECONDS)).isEqualTo(Duration.ofDays(30).toSeconds());
+    }
+
+    @Test
+    @DisplayName("should update the TTL with collMod when the retention changed")
+    void shouldUpdateTtlOnConflict() {
+        properties.getSources().put(AssetSourceType.BANK, policy(AssetsRawRetentionProperties.Strategy.TTL, Duration.ofDays(7)));
+        BsonDocument conflict = new BsonDocument("code", new BsonInt32(85)).append("errmsg", new BsonString("IndexOptionsConflict"));
+        when(bank.createIndex(any(Bson.class), any(IndexOptions.class)))
+                .thenThrow(new MongoCommandException(conflict, new ServerAddress()));
+
+        retention.applyRetention();
+
+        verify(database).runCommand(new Document("collMod", "bank_raw")
+                .append("index", new Document("name", RawCollectionRetention.TTL_INDEX_NAME)
+                        .append("expireAfterSeconds", Duration.ofDays(7).toSeconds())));
+    }
+
+    @Test
+    @DisplayName("should copy expired documents into the archive before deleting them")
+    @SuppressWarnings("unchecked")
+    void shouldRolloverExpiredDocuments() {
+        properties.getSources().put(AssetSourceType.BANK, policy(AssetsRawRetentionProperties.Strategy.ROLLOVER, Duration.ofDays(1)));
+        AggregateIterable<Document> aggregate = mock(AggregateIterable.class);
+        when(bank.aggregate(anyList())).thenReturn(aggregate);
+        when(bank.deleteMany(any(Bson.class))).thenReturn(DeleteResult.acknowledged(3));
+
+        retention.rollover();
+
+        ArgumentCaptor<List<Document>> pipeline = ArgumentCaptor.forClass(List.class);
+        verify(bank).aggregate(pipeline.capture());
+        verify(aggregate).toCollection();
+        Document merge = pipeline.getValue().get(1).get("$merge", Document.class);
+        assertThat(merge.getString("into")).isEqualTo("bank_raw_archive");
+        assertThat(merge.getString("whenMatched")).isEqualTo("keepExisting");
+        verify(bank).deleteMany(any(Bson.class));
+        verify(database, never()).runCommand(new Document("compact", "bank_raw"));
+        assertThat(meterRegistry.get("asset.raw.retention.archived").tag("collection", "bank_raw").counter().count())
+                .isEqualTo(3.0);
+    }
+
+    @ParameterizedTest
+    @EnumSource(value = AssetsRawWriteProperties.Mode.class, names = {"GROUP_COMMIT", "JOURNAL"})
+    @DisplayName("should reject TIME_SERIES retention when raw writes rely on duplicate keys to skip resent documents")
+    void shouldRejectTimeSeriesWithIdempotentRawWrites(AssetsRawWriteProperties.Mode mode) {
+        properties.getSources().put(AssetSourceType.SECURITIES, policy(AssetsRawRetentionProperties.Strategy.TIME_SERIES, Duration.ofDays(7)));
+
+        assertThatThrownBy(() -> RawCollectionRetention.requireUniqueIds(properties, mode))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("SECURITIES")
+                .hasMessageContaining(mode.name());
+    }
+
+    @ParameterizedTest
+    @EnumSource(value = AssetsRawWriteProperties.Mode.class, names = {"SINGLE", "PER_AGGREGATION"})
+    @DisplayName("should allow TIME_SERIES retention with raw write modes that do not resend documents")
+    void shouldAllowTimeSeriesWithSingleWrites(AssetsRawWriteProperties.Mode mode) {
+        properties.getSources().put(AssetSourceType.SECURITIES, policy(AssetsRawRetentionProperties.Strategy.TIME_SERIES, Duration.ofDays(7)));
+
+        assertThatCode(() -> RawCollectionRetention.requireUniqueIds(properties, mode)).doesNotThrowAnyException();
+    }
+
+    @Test
+    @DisplayName("should expose collection and index sizes from $collStats")
+    @SuppressWarnings("unchecked")
+    void shouldRefreshStats() {
+        AggregateIterable<Document> aggregate = mock(AggregateIterable.class);
+        when(bank.aggregate(anyList())).thenReturn(aggregate);
+        when(aggregate.first()).thenReturn(new Document("storageStats", new Document("size", 2048)
+                .append("totalIndexSize", 512L)
+                .append("count", 4)));
+
+        retention.refreshStats();
+
+        RawCollectionRetention.CollectionStats stats = retention.stats().get("bank_raw");
+        assertThat(stats.dataSize().get()).isEqualTo(2048);
+        assertThat(stats.indexSize().get()).isEqualTo(512);
+        assertThat(stats.documents().get()).isEqualTo(4);
+    }
+
+    private static AssetsRawRetentionProperties.Policy policy(AssetsRawRetentionProperties.Strategy strategy, Duration ttl) {
+        AssetsRawRetentionProperties.Policy policy = new AssetsRawRetentionProperties.Policy();
+        policy.setStrategy(strategy);
+        policy.setRetention(ttl);
+        return policy;
+    }
+}
@@ -0,0 +1,158 @@
+package com.poc.svc.assets.service.impl.support;
+
+import com.mongodb.client.MongoCollection;
+import com.poc.svc.assets.config.AssetsRawWriteProperties;
+import com.poc.svc.assets.config.MetricsConfig;
+import com.poc.svc.assets.config.MongoWriteRetryProperties;
+import com.poc.svc.assets.entity.BankAssetRawDocument;
+import com.poc.svc.assets.entity.payload.CompressedBsonPayload;
+import com.poc.svc.assets.entity.payload.RawBsonPayload;
+import com.poc.svc.assets.exception.MongoRawWriteException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.bson.BsonString;
+import org.bson.Document;
+import org.bson.RawBsonDocument;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.mongodb.core.CollectionCallback;
+import org.springframework.data.mongodb.core.MongoTemplate;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeoutException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class RawDocumentInserterTest {
+
+    private static final RawBsonDocument RAW = RawBsonDocument.parse(
+            "{\"customerId\": \"C001\", \"totalBalance\": \"10.5\", \"bankAssets\": [{\"accountId\": \"A1\"}]}");
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    @Mock
+    private GroupCommitRawWriter groupCommitRawWriter;
+
+    @Mock
+    private RawWriteJournal rawWriteJournal;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    @DisplayName("should store the full payload compressed and keep only retained keys in payload")
+    void insert_compressedFormat() {
+        AssetsRawWriteProperties properties = new AssetsRawWriteProperties();
+        properties.getPayload().setFormat(AssetsRawWriteProperties.Payload.Format.COMPRESSED);
+        properties.getPayload().setRetainedKeys(List.of("totalBalance", "missing"));
+        when(mongoTemplate.getCollectionName(BankAssetRawDocument.class)).thenReturn("bank_raw");
+        Document document = new Document("customerId", "C001").append("payload", new RawBsonPayload(RAW));
+
+        newInserter(properties).insert(BankAssetRawDocument.class, document, "failed").join();
+
+        verify(mongoTemplate).execute(eq("bank_raw"), any());
+        assertThat(document.get("payload", Document.class)).containsOnlyKeys("totalBalance");
+        assertThat(document.get("payload", Document.class).get("totalBalance")).isEqualTo(new BsonString("10.5"));
+        CompressedBsonPayload stored = CompressedBsonPayload.fromDocument(document.get(CompressedBsonPayload.FIELD, Document.class));
+        assertThat(stored.decode().raw()).isEqualTo(RAW);
+        assertThat(meterRegistry.get(MetricsConfig.ASSET_RAW_PAYLOAD_BYTES).tag("form", "original").summary().totalAmount())
+                .isEqualTo(RAW.getByteBuffer().remaining());
+    }
+
+    @Test
+    @DisplayName("should leave the payload untouched in DOCUMENT format")
+    void insert_documentFormat() {
+        when(mongoTemplate.getCollectionName(BankAssetRawDocument.class)).thenReturn("bank_raw");
+        RawBsonPayload payload = new RawBsonPayload(RAW);
+        Document document = new Document("payload", payload);
+
+        AssetsRawWriteProperties properties = new AssetsRawWriteProperties();
+        properties.setConversion(AssetsRawWriteProperties.Conversion.CONVERTER);
+        RawDocumentInserter inserter = newInserter(properties);
+        inserter.insert(BankAssetRawDocument.class, document, "failed").join();
+
+        assertThat(inserter.handlesEntities()).isFalse();
+        assertThat(document.get("payload")).isSameAs(payload);
+        assertThat(document.containsKey(CompressedBsonPayload.FIELD)).isFalse();
+    }
+
+    @Test
+    @DisplayName("should keep raw payload bytes and encode the remaining entity fields like the converter")
+    @SuppressWarnings("unchecked")
+    void insertEntity_rawPayload() {
+        when(mongoTemplate.getCollectionName(BankAssetRawDocument.class)).thenReturn("bank_raw");
+        RawBsonPayload payload = new RawBsonPayload(RAW);
+        BankAssetRawDocument entity = new BankAssetRawDocument(
+                null,
+                "C001",
+                payload,
+                new BigDecimal("10.5"),
+                List.of(new BankAssetRawDocument.CurrencyAmount("TWD", new BigDecimal("10.5"))),
+                Instant.parse("2025-01-01T00:00:00Z"),
+                "trace-1"
+        );
+        ArgumentCaptor<CollectionCallback<Object>> callback = ArgumentCaptor.forClass(CollectionCallback.class);
+
+        BankAssetRawDocument saved = newInserter(new AssetsRawWriteProperties()).insertEntity(entity, "failed").join();
+
+        verify(mongoTemplate).execute(eq("bank_raw"), callback.capture());
+        MongoCollection<Document> collection = mock(MongoCollection.class);
+        callback.getValue().doInCollection(collection);
+        ArgumentCaptor<Document> written = ArgumentCaptor.forClass(Document.class);
+        verify(collection).insertOne(written.capture());
+        Document document = written.getValue();
+        assertThat(document.get("payload")).isSameAs(RAW);
+        assertThat(document.get("totalBalance")).isEqualTo(new BsonString("10.5"));
+        assertThat(document.get("_class")).isEqualTo(new BsonString(BankAssetRawDocument.class.getName()));
+        assertThat(saved.id()).isEqualTo(document.getObjectId("_id").toHexString());
+        assertThat(saved.payload()).isSameAs(payload);
+    }
+
+    @Test
+    @DisplayName("should fail the write instead of blocking when group commit does not complete within the write timeout")
+    void insert_groupCommitTimesOut() {
+        when(mongoTemplate.getCollectionName(BankAssetRawDocument.class)).thenReturn("bank_raw");
+        when(groupCommitRawWriter.submit(eq("bank_raw"), any(Document.class), eq("failed")))
+                .thenReturn(new CompletableFuture<>());
+        AssetsRawWriteProperties properties = new AssetsRawWriteProperties();
+        properties.setMode(AssetsRawWriteProperties.Mode.GROUP_COMMIT);
+        properties.getGroupCommit().setWriteTimeout(Duration.ofMillis(50));
+        RawDocumentInserter inserter = newInserter(properties);
+
+        CompletableFuture<String> result = inserter.insert(BankAssetRawDocument.class, new Document(), "failed");
+
+        assertThatThrownBy(result::join)
+                .isInstanceOf(CompletionException.class)
+                .cause()
+                .isInstanceOf(MongoRawWriteException.class)
+                .hasMessageContaining("did not complete within")
+                .hasCauseInstanceOf(TimeoutException.class);
+    }
+
+    private RawDocumentInserter newInserter(AssetsRawWriteProperties properties) {
+        return new RawDocumentInserter(
+                mongoTemplate,
+                new MongoWriteRetrier(MongoWriteRetryProperties.defaults(), new SimpleMeterRegistry()),
+                properties,
+                groupCommitRawWriter,
+                rawWriteJournal,
+                meterRegistry,
+                Runnable::run
+        );
+    }
+}
@@ -0,0 +1,127 @@
+package com.poc.svc.assets.service.impl.support;
+
+import com.mongodb.MongoClientSettings;
+import com.mongodb.client.MongoCollection;
+import com.poc.svc.assets.config.AssetsRawWriteProperties;
+import com.poc.svc.assets.config.MongoWriteRetryProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.bson.Document;
+import org.bson.RawBsonDocument;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.mongodb.core.MongoTemplate;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
+
+/**
+ * 量測 raw write journal 的附加吞吐量與重啟後的 recovery 時間（Mongo 以不記錄呼叫的 stub 取代，只量測 journal 本身）。
+ * 執行方式：{@code ./gradlew :assets:test --tests "*RawWriteJournalBenchmarkTest" -Passets.benchmark=true}
+ */
+@EnabledIfSystemProperty(named = "assets.benchmark", matches = "true")
+class RawWriteJournalBenchmarkTest {
+
+    private static final Logger log = LoggerFactory.getLogger(RawWriteJournalBenchmarkTest.class);
+
+    private static final int RECORDS = 100_000;
+
+    @TempDir
+    Path directory;
+
+    @ParameterizedTest(name = "forceOnAppend={0}")
+    @ValueSource(booleans = {false, true})
+    void appendThroughput(boolean forceOnAppend) throws Exception {
+        RawWriteJournal journal = newJournal(forceOnAppend, true);
+        Document template = rawDocument();
+        try {
+            long begin = System.nanoTime();
+            for (int i = 0; i < RECORDS; i++) {
+                journal.append("bank_raw", new Document(template).append("_id", new ObjectId()), "bank failed");
+            }
+            long appendNanos = System.nanoTime() - begin;
+            journal.awaitBacklog().get(5, TimeUnit.MINUTES);
+            long drainNanos = System.nanoTime() - begin;
+
+            log.info("journal forceOnAppend={} records={} append={} rec/s ({} us/rec) appendAndDrain={}ms",
+                    forceOnAppend,
+                    RECORDS,
+                    String.format("%.0f", RECORDS / (appendNanos / 1_000_000_000d)),
+                    String.format("%.1f", appendNanos / 1_000d / RECORDS),
+                    TimeUnit.NANOSECONDS.toMillis(drainNanos));
+            assertThat(journal.backlog()).isZero();
+            assertThat(appendNanos).isPositive().isLessThanOrEqualTo(drainNanos);
+        } finally {
+            journal.destroy();
+        }
+    }
+
+    @ParameterizedTest(name = "{0} undrained records")
+    @ValueSource(ints = {10_000, 100_000})
+    void recoveryTime(int undrained) throws Exception {
+        RawWriteJournal crashed = newJournal(false, false);
+        Document template = rawDocument();
+        for (int i = 0; i < undrained; i++) {
+            crashed.append("bank_raw", new Document(template).append("_id", new ObjectId()), "bank failed");
+        }
+
+        long begin = System.nanoTime();
+        RawWriteJournal recovered = newJournal(false, true);
+        long scanNanos = System.nanoTime() - begin;
+        try {
+            recovered.awaitBacklog().get(5, TimeUnit.MINUTES);
+            long replayNanos = System.nanoTime() - begin;
+
+            log.info("journal recovery records={} scan={}ms scanAndReplay={}ms",
+                    undrained,
+                    TimeUnit.NANOSECONDS.toMillis(scanNanos),
+                    TimeUnit.NANOSECONDS.toMillis(replayNanos));
+            assertThat(recovered.backlog()).isZero();
+            assertThat(scanNanos).isPositive().isLessThanOrEqualTo(replayNanos);
+        } finally {
+            recovered.destroy();
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private RawWriteJournal newJournal(boolean forceOnAppend, boolean startDrainer) {
+        MongoCollection<RawBsonDocument> sink = mock(MongoCollection.class, withSettings().stubOnly());
+        MongoCollection<Document> collection = mock(MongoCollection.class, withSettings().stubOnly());
+        when(collection.withDocumentClass(RawBsonDocument.class)).thenReturn(sink);
+        MongoTemplate mongoTemplate = mock(MongoTemplate.class, withSettings().stubOnly());
+        when(mongoTemplate.getCollection(anyString())).thenReturn(collection);
+
+        AssetsRawWriteProperties properties = new AssetsRawWriteProperties();
+        properties.setMode(AssetsRawWriteProperties.Mode.JOURNAL);
+        properties.getJournal().setDirectory(directory);
+        properties.getJournal().setForceOnAppend(forceOnAppend);
+        return new RawWriteJournal(
+                mongoTemplate,
+                new MongoWriteRetrier(MongoWriteRetryProperties.defaults(), new SimpleMeterRegistry()),
+                properties,
+                new SimpleMeterRegistry(),
+                MongoClientSettings.getDefaultCodecRegistry(),
+                startDrainer
+        );
+    }
+
+    private Document rawDocument() {
+        return new Document("customerId", "c-001")
+                .append("payload", new Document("accounts", List.of(
+                        new Document("accountId", "A-1").append("balance", "1000.00").append("currency", "TWD"),
+                        new Document("accountId", "A-2").append("balance", "250.50").append("currency", "USD"))))
+                .append("totalBalance", "1250.50")
+                .append("traceId", "bench-trace");
+    }
+}
@@ -0,0 +1,169 @@
+package com.poc.svc.assets.service.impl.support;
+
+import com.mongodb.MongoBulkWriteException;
+import com.mongodb.MongoClientSettings;
+import com.mongodb.bulk.BulkWriteError;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.model.InsertManyOptions;
+import com.poc.svc.assets.config.AssetsRawWriteProperties;
+import com.poc.svc.assets.config.MongoWriteRetryProperties;
+import com.poc.svc.assets.exception.MongoRawWriteException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.bson.BsonDocument;
+import org.bson.Document;
+import org.bson.RawBsonDocument;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.util.unit.DataSize;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class RawWriteJournalTest {
+
+    @TempDir
+    Path directory;
+
+    private MongoTemplate mongoTemplate;
+    private MongoCollection<RawBsonDocument> bankCollection;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        mongoTemplate = mock(MongoTemplate.class);
+        MongoCollection<Document> collection = mock(MongoCollection.class);
+        bankCollection = mock(MongoCollection.class);
+        when(mongoTemplate.getCollection("bank_raw")).thenReturn(collection);
+        when(collection.withDocumentClass(RawBsonDocument.class)).thenReturn(bankCollection);
+    }
+
+    @Test
+    @DisplayName("should return from append before Mongo is written and complete the barrier once drained")
+    void append_drainsInBackground() throws Exception {
+        RawWriteJournal journal = newJournal(DataSize.ofMegabytes(1), true);
+        try {
+            Document document = rawDocument();
+
+            long sequence = journal.append("bank_raw", document, "bank failed");
+            journal.awaitPersisted(List.of(document.getObjectId("_id").toHexString())).get(5, TimeUnit.SECONDS);
+
+            assertThat(sequence).isEqualTo(1);
+
+            List<RawBsonDocument> written = capturedDocuments();
+            assertThat(written).hasSize(1);
+            assertThat(written.get(0).getObjectId("_id").getValue()).isEqualTo(document.getObjectId("_id"));
+            assertThat(journal.backlog()).isZero();
+        } finally {
+            journal.destroy();
+        }
+    }
+
+    @Test
+    @DisplayName("should replay undrained records after a restart and delete the drained segments")
+    void constructor_replaysUndrainedSegments() throws Exception {
+        RawWriteJournal crashed = newJournal(DataSize.ofKilobytes(4), false);
+        List<ObjectId> ids = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            Document document = rawDocument();
+            ids.add(document.getObjectId("_id"));
+            crashed.append("bank_raw", document, "bank failed");
+        }
+        verify(bankCollection, never()).insertMany(anyList(), any(InsertManyOptions.class));
+        assertThat(segmentFiles()).hasSizeGreaterThan(1);
+
+        RawWriteJournal recovered = newJournal(DataSize.ofKilobytes(4), true);
+        try {
+            CompletableFuture<Void> persisted = recovered.awaitBacklog();
+            persisted.get(5, TimeUnit.SECONDS);
+
+            assertThat(capturedDocuments())
+                    .extracting(document -> document.getObjectId("_id").getValue())
+                    .containsExactlyElementsOf(ids);
+            assertThat(segmentFiles()).isEmpty();
+        } finally {
+            recovered.destroy();
+        }
+    }
+
+    @Test
+    @DisplayName("should fail the waiter of a document Mongo rejected while other documents complete")
+    void awaitPersisted_failsRejectedDocuments() throws Exception {
+        Document accepted = rawDocument();
+        Document rejected = rawDocument();
+        MongoBulkWriteException bulkFailure = mock(MongoBulkWriteException.class);
+        when(bulkFailure.getWriteErrors()).thenReturn(List.of(
+                new BulkWriteError(121, "document failed validation", new BsonDocument(), 1)));
+        when(bankCollection.insertMany(anyList(), any(InsertManyOptions.class))).thenThrow(bulkFailure);
+        RawWriteJournal journal = newJournal(DataSize.ofMegabytes(1), true);
+        try {
+            journal.append("bank_raw", accepted, "bank failed");
+            journal.append("bank_raw", rejected, "bank failed");
+            String acceptedId = accepted.getObjectId("_id").toHexString();
+            String rejectedId = rejected.getObjectId("_id").toHexString();
+
+            journal.awaitPersisted(List.of(acceptedId)).get(5, TimeUnit.SECONDS);
+            assertThatThrownBy(() -> journal.awaitPersisted(List.of(acceptedId, rejectedId)).get(5, TimeUnit.SECONDS))
+                    .isInstanceOf(ExecutionException.class)
+                    .hasCauseInstanceOf(MongoRawWriteException.class)
+                    .hasMessageContaining(rejectedId);
+        } finally {
+            journal.destroy();
+        }
+    }
+
+    private RawWriteJournal newJournal(DataSize segmentSize, boolean startDrainer) {
+        AssetsRawWriteProperties properties = new AssetsRawWriteProperties();
+        properties.setMode(AssetsRawWriteProperties.Mode.JOURNAL);
+        properties.getJournal().setDirectory(directory);
+        properties.getJournal().setSegmentSize(segmentSize);
+        return new RawWriteJournal(
+                mongoTemplate,
+                new MongoWriteRetrier(MongoWriteRetryProperties.defaults(), new SimpleMeterRegistry()),
+                properties,
+                new SimpleMeterRegistry(),
+                MongoClientSettings.getDefaultCodecRegistry(),
+                startDrainer
+        );
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<RawBsonDocument> capturedDocuments() {
+        ArgumentCaptor<List<RawBsonDocument>> captor = ArgumentCaptor.forClass(List.class);
+        verify(bankCollection, atLeastOnce()).insertMany(captor.capture(), any(InsertManyOptions.class));
+        return captor.getAllValues().stream().flatMap(List::stream).toList();
+    }
+
+    private List<Path> segmentFiles() throws Exception {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(file -> file.getFileName().toString().endsWith(".journal")).toList();
+        }
+    }
+
+    private Document rawDocument() {
+        return new Document("_id", new ObjectId())
+                .append("customerId", "c-001")
+                .append("payload", new Document("accounts", List.of(new Document("balance", "1000.00"))))
+                .append("note", "x".repeat(500));
+    }
+}
@@ -0,0 +1,105 @@
+package com.poc.svc.assets.service.impl.support;
+
+import com.poc.svc.assets.config.AssetsHedgingProperties;
+import com.poc.svc.assets.dto.AssetSourceType;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RequestHedgerTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private SourceLatencyTracker latencyTracker;
+    private AssetsHedgingProperties properties;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        latencyTracker = new SourceLatencyTracker();
+        properties = new AssetsHedgingProperties();
+        properties.setEnabled(true);
+        properties.setMinSamples(5);
+        properties.setMinDelay(Duration.ofMillis(5));
+        for (int i = 0; i < 5; i++) {
+            latencyTracker.record(AssetSourceType.INSURANCE, Duration.ofMillis(20));
+        }
+    }
+
+    @Test
+    @DisplayName("should issue a hedge after the percentile delay and cancel the slower primary")
+    void execute_hedgeWinsAndPrimaryIsCancelled() throws Exception {
+        RequestHedger hedger = new RequestHedger(properties, latencyTracker, meterRegistry);
+        CompletableFuture<String> primary = new CompletableFuture<>();
+        List<CompletableFuture<String>> attempts = new CopyOnWriteArrayList<>();
+
+        CompletableFuture<String> result = hedger.execute(AssetSourceType.INSURANCE, () -> {
+            CompletableFuture<String> attempt = attempts.isEmpty() ? primary : CompletableFuture.completedFuture("hedge");
+            attempts.add(attempt);
+            return attempt;
+        });
+
+        assertThat(result.get(5, TimeUnit.SECONDS)).isEqualTo("hedge");
+        assertThat(attempts).hasSize(2);
+        assertThat(primary.isCancelled()).isTrue();
+        assertThat(meterRegistry.get("asset.hedge.issued").tag("source", "INSURANCE").counter().count()).isEqualTo(1.0);
+        assertThat(meterRegistry.get("asset.hedge.won").tag("source", "INSURANCE").counter().count()).isEqualTo(1.0);
+        // 勝出的對沖請求延遲自主請求送出起算，包含等待對沖延遲的時間
+        assertThat(latencyTracker.sampleCount(AssetSourceType.INSURANCE)).isEqualTo(6);
+        assertThat(latencyTracker.percentile(AssetSourceType.INSURANCE, 0.01, 1)).hasValueSatisfying(
+                fastest -> assertThat(fastest).isGreaterThanOrEqualTo(Duration.ofMillis(20)));
+    }
+
+    @Test
+    @DisplayName("should not hedge when the primary completes before the hedge delay")
+    void execute_fastPrimaryDoesNotHedge() throws Exception {
+        RequestHedger hedger = new RequestHedger(properties, latencyTracker, meterRegistry);
+        List<CompletableFuture<String>> attempts = new CopyOnWriteArrayList<>();
+
+        CompletableFuture<String> result = hedger.execute(AssetSourceType.INSURANCE, () -> {
+            CompletableFuture<String> attempt = CompletableFuture.completedFuture("primary");
+            attempts.add(attempt);
+            return attempt;
+        });
+
+        assertThat(result.get(5, TimeUnit.SECONDS)).isEqualTo("primary");
+        Thread.sleep(50);
+        assertThat(attempts).hasSize(1);
+        assertThat(meterRegistry.find("asset.hedge.issued").counter()).isNull();
+        assertThat(latencyTracker.sampleCount(AssetSourceType.INSURANCE)).isEqualTo(6);
+    }
+
+    @Test
+    @DisplayName("should fail once every issued attempt failed")
+    void execute_propagatesFailureWithoutHedgeAsRetry() {
+        RequestHedger hedger = new RequestHedger(properties, latencyTracker, meterRegistry);
+
+        CompletableFuture<String> result = hedger.execute(AssetSourceType.INSURANCE,
+                () -> CompletableFuture.failedFuture(new IllegalStateException("boom")));
+
+        assertThat(result).isCompletedExceptionally();
+        assertThat(meterRegistry.find("asset.hedge.issued").counter()).isNull();
+    }
+
+    @Test
+    @DisplayName("should cap hedges by the token budget")
+    void hedgeBudget_capsHedgeRate() {
+        TokenBudget budget = new TokenBudget(0.5, 2);
+
+        assertThat(budget.tryAcquire()).isTrue();
+        assertThat(budget.tryAcquire()).isTrue();
+        assertThat(budget.tryAcquire()).isFalse();
+        budget.deposit();
+        assertThat(budget.tryAcquire()).isFalse();
+        budget.deposit();
+        assertThat(budget.tryAcquire()).isTrue();
+    }
+}
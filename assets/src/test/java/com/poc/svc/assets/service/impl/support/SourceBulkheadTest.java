@@ -0,0 +1,80 @@
+package com.poc.svc.assets.service.impl.support;
+
+import com.poc.svc.assets.dto.AssetSourceType;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class SourceBulkheadTest {
+
+    private final ExecutorService delegate = Executors.newCachedThreadPool();
+
+    @AfterEach
+    void tearDown() {
+        delegate.shutdownNow();
+    }
+
+    @Test
+    @DisplayName("should run up to maxConcurrent tasks, queue the rest and reject beyond capacity")
+    void execute_enforcesConcurrencyAndQueueBound() throws Exception {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        SourceBulkhead bulkhead = new SourceBulkhead(AssetSourceType.INSURANCE, delegate, 2, 1, registry);
+        CountDownLatch started = new CountDownLatch(2);
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch finished = new CountDownLatch(3);
+
+        for (int i = 0; i < 3; i++) {
+            bulkhead.execute(() -> {
+                started.countDown();
+                awaitQuietly(release);
+                finished.countDown();
+            });
+        }
+
+        assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(bulkhead.active()).isEqualTo(2);
+        assertThat(bulkhead.queued()).isEqualTo(1);
+        assertThatThrownBy(() -> bulkhead.execute(() -> { }))
+                .isInstanceOf(RejectedExecutionException.class)
+                .hasMessageContaining("INSURANCE");
+        assertThat(registry.get("asset.bulkhead.rejected").tag("source", "INSURANCE").counter().count()).isEqualTo(1.0);
+
+        release.countDown();
+        assertThat(finished.await(5, TimeUnit.SECONDS)).isTrue();
+    }
+
+    @Test
+    @DisplayName("should not let one saturated source block another source's bulkhead")
+    void execute_isolatesSources() throws Exception {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        SourceBulkhead insurance = new SourceBulkhead(AssetSourceType.INSURANCE, delegate, 1, 0, registry);
+        SourceBulkhead bank = new SourceBulkhead(AssetSourceType.BANK, delegate, 1, 0, registry);
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch bankDone = new CountDownLatch(1);
+
+        insurance.execute(() -> awaitQuietly(release));
+        assertThatThrownBy(() -> insurance.execute(() -> { })).isInstanceOf(RejectedExecutionException.class);
+        bank.execute(bankDone::countDown);
+
+        assertThat(bankDone.await(5, TimeUnit.SECONDS)).isTrue();
+        release.countDown();
+    }
+
+    private void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}